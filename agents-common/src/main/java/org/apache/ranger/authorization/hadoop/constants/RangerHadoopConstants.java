@@ -28,6 +28,9 @@ public class RangerHadoopConstants {
 	public static final String RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_PROP = "ranger.plugin.hdfs.use.legacy.subaccess.authorization";
 	public static final boolean RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_DEFAULT = true;
 
+	public static final String RANGER_SUBTREE_SUBACCESS_AUTHORIZATION_PROP = "ranger.plugin.hdfs.subtree.subaccess.authorization";
+	public static final boolean RANGER_SUBTREE_SUBACCESS_AUTHORIZATION_DEFAULT = false;
+
 	public static final String READ_ACCCESS_TYPE = "read";
 	public static final String WRITE_ACCCESS_TYPE = "write";
 	public static final String EXECUTE_ACCCESS_TYPE = "execute";
@@ -22,11 +22,18 @@
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerServiceDef.RangerResourceDef;
+import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.validation.RangerServiceDefHelper;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceElementMatchingScope;
 import org.apache.ranger.plugin.policyengine.RangerAccessResource;
+import org.apache.ranger.plugin.policyengine.RangerPluginContext;
+import org.apache.ranger.plugin.policyresourcematcher.RangerDefaultPolicyResourceMatcher;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher;
 import org.apache.ranger.plugin.policyresourcematcher.RangerResourceEvaluator;
+import org.apache.ranger.plugin.resourcematcher.RangerAbstractResourceMatcher;
+import org.apache.ranger.plugin.resourcematcher.RangerDefaultResourceMatcher;
+import org.apache.ranger.plugin.resourcematcher.RangerPathResourceMatcher;
 import org.apache.ranger.plugin.resourcematcher.RangerResourceMatcher;
 import org.apache.ranger.plugin.util.ServiceDefUtil;
 
@@ -37,14 +44,33 @@
 public class RangerServiceResourceMatcher implements RangerResourceEvaluator {
 	public static final Comparator<RangerServiceResourceMatcher> ID_COMPARATOR = new IdComparator();
 
-	private final RangerServiceResource       serviceResource;
-	private final RangerPolicyResourceMatcher policyResourceMatcher;
-	private final RangerResourceDef           leafResourceDef;
+	private final RangerServiceResource                serviceResource;
+	private final RangerServiceDef                     serviceDef;
+	private final RangerResourceDef                    leafResourceDef;
+	private volatile RangerPolicyResourceMatcher       policyResourceMatcher;
+	private          RangerServiceDefHelper            serviceDefHelper; // needed only until policyResourceMatcher is created
+	private          int                               policyType;
+	private          RangerPluginContext               pluginContext;
 
 	public RangerServiceResourceMatcher(final RangerServiceResource serviceResource, RangerPolicyResourceMatcher policyResourceMatcher) {
 		this.serviceResource       = serviceResource;
+		this.serviceDef            = policyResourceMatcher.getServiceDef();
 		this.policyResourceMatcher = policyResourceMatcher;
-		this.leafResourceDef       = ServiceDefUtil.getLeafResourceDef(policyResourceMatcher.getServiceDef(), getPolicyResource(), true);
+		this.leafResourceDef       = ServiceDefUtil.getLeafResourceDef(serviceDef, getPolicyResource(), true);
+	}
+
+	/**
+	 * Creates a matcher whose policyResourceMatcher is created only when first needed - i.e. when the resource is looked up
+	 * by an access request. This saves memory and time when a large number of resources are tagged, of which only a few
+	 * are accessed in the lifetime of the plugin.
+	 */
+	public RangerServiceResourceMatcher(final RangerServiceResource serviceResource, RangerServiceDefHelper serviceDefHelper, int policyType, RangerPluginContext pluginContext) {
+		this.serviceResource  = serviceResource;
+		this.serviceDef       = serviceDefHelper.getServiceDef();
+		this.serviceDefHelper = serviceDefHelper;
+		this.policyType       = policyType;
+		this.pluginContext    = pluginContext;
+		this.leafResourceDef  = ServiceDefUtil.getLeafResourceDef(serviceDef, getPolicyResource(), true);
 	}
 
 	public RangerServiceResource getServiceResource() { return serviceResource; }
@@ -55,7 +81,25 @@ public long getId() {
 	}
 
 	@Override
-	public RangerPolicyResourceMatcher getPolicyResourceMatcher() { return policyResourceMatcher; }
+	public RangerPolicyResourceMatcher getPolicyResourceMatcher() {
+		RangerPolicyResourceMatcher ret = policyResourceMatcher;
+
+		if (ret == null) {
+			synchronized (this) {
+				ret = policyResourceMatcher;
+
+				if (ret == null) {
+					ret = createPolicyResourceMatcher(serviceResource, serviceDefHelper, policyType, pluginContext);
+
+					policyResourceMatcher = ret;
+					serviceDefHelper      = null;
+					pluginContext         = null;
+				}
+			}
+		}
+
+		return ret;
+	}
 
 	@Override
 	public Map<String, RangerPolicy.RangerPolicyResource> getPolicyResource() {
@@ -64,18 +108,71 @@ public Map<String, RangerPolicy.RangerPolicyResource> getPolicyResource() {
 
 	@Override
 	public RangerResourceMatcher getResourceMatcher(String resourceName) {
+		RangerPolicyResourceMatcher policyResourceMatcher = getPolicyResourceMatcher();
+
 		return policyResourceMatcher != null ? policyResourceMatcher.getResourceMatcher(resourceName) : null;
 	}
 
+	@Override
+	public boolean isMatchAny(String resourceName) {
+		// avoid creating policyResourceMatcher while building the trie, when the values of the resource can't match any value
+		if (policyResourceMatcher == null && hasOnlyLiteralValues(resourceName)) {
+			return false;
+		}
+
+		return RangerResourceEvaluator.super.isMatchAny(resourceName);
+	}
+
 	@Override
 	public boolean isAncestorOf(RangerResourceDef resourceDef) {
-		return ServiceDefUtil.isAncestorOf(policyResourceMatcher.getServiceDef(), leafResourceDef, resourceDef);
+		return ServiceDefUtil.isAncestorOf(serviceDef, leafResourceDef, resourceDef);
 	}
 
 	public RangerPolicyResourceMatcher.MatchType getMatchType(RangerAccessResource requestedResource, Map<String, ResourceElementMatchingScope> scopes, Map<String, Object> evalContext) {
+		RangerPolicyResourceMatcher policyResourceMatcher = getPolicyResourceMatcher();
+
 		return policyResourceMatcher != null ? policyResourceMatcher.getMatchType(requestedResource, scopes, evalContext) : RangerPolicyResourceMatcher.MatchType.NONE;
 	}
 
+	public static RangerPolicyResourceMatcher createPolicyResourceMatcher(RangerServiceResource serviceResource, RangerServiceDefHelper serviceDefHelper, int policyType, RangerPluginContext pluginContext) {
+		RangerDefaultPolicyResourceMatcher ret = new RangerDefaultPolicyResourceMatcher();
+
+		ret.setServiceDef(serviceDefHelper.getServiceDef());
+		ret.setPolicyResources(serviceResource.getResourceElements(), policyType);
+		ret.setPluginContext(pluginContext);
+		ret.setServiceDefHelper(serviceDefHelper);
+		ret.init();
+
+		return ret;
+	}
+
+	// true if the values can only be matched as literals by the default/path resource-matchers: i.e. no wildcards or tokens
+	private boolean hasOnlyLiteralValues(String resourceName) {
+		RangerPolicy.RangerPolicyResource policyResource = serviceResource != null ? serviceResource.getResourceElements().get(resourceName) : null;
+		RangerResourceDef                 resourceDef    = policyResource != null ? ServiceDefUtil.getResourceDef(serviceDef, resourceName) : null;
+		boolean                           ret            = resourceDef != null && policyResource.getValues() != null && !policyResource.getValues().isEmpty();
+
+		if (ret) {
+			String matcherClass = resourceDef.getMatcher();
+
+			ret = StringUtils.isEmpty(matcherClass) || RangerDefaultResourceMatcher.class.getName().equals(matcherClass) || RangerPathResourceMatcher.class.getName().equals(matcherClass);
+		}
+
+		if (ret) {
+			char tokenDelimiterStart = RangerAbstractResourceMatcher.getOptionDelimiterStart(resourceDef.getMatcherOptions());
+
+			for (String value : policyResource.getValues()) {
+				if (StringUtils.isEmpty(value) || StringUtils.containsAny(value, new char[] { '*', '?', tokenDelimiterStart })) {
+					ret = false;
+
+					break;
+				}
+			}
+		}
+
+		return ret;
+	}
+
 	static class IdComparator implements Comparator<RangerServiceResourceMatcher>, Serializable {
 		@Override
 		public int compare(RangerServiceResourceMatcher me, RangerServiceResourceMatcher other) {
@@ -40,7 +40,6 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerPluginContext;
 import org.apache.ranger.plugin.policyengine.RangerResourceTrie;
-import org.apache.ranger.plugin.policyresourcematcher.RangerDefaultPolicyResourceMatcher;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher;
 import org.apache.ranger.plugin.policyresourcematcher.RangerResourceEvaluator;
 import org.apache.ranger.plugin.util.DownloadTrigger;
@@ -69,13 +68,22 @@
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.Timer;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class RangerTagEnricher extends RangerAbstractContextEnricher {
 	private static final Logger LOG = LoggerFactory.getLogger(RangerTagEnricher.class);
@@ -95,6 +103,9 @@ public class RangerTagEnricher extends RangerAbstractContextEnricher {
 	private EnrichedServiceTags                enrichedServiceTags;
 	private boolean                            disableCacheIfServiceNotFound = true;
 	private boolean                            dedupStrings                  = true;
+	private boolean                            compactServiceTags            = true;
+	private int                                resourceTagsCacheSize         = 10000;
+	private int                                trieBuilderThreadCount        = 1;
 	private Timer                              tagDownloadTimer;
 	private RangerServiceDefHelper             serviceDefHelper;
 
@@ -116,6 +127,9 @@ public void init() {
 		long   pollingIntervalMs     = getLongOption(TAG_REFRESHER_POLLINGINTERVAL_OPTION, 60 * 1000L);
 
 		dedupStrings               = getBooleanConfig(propertyPrefix + ".dedup.strings", true);
+		compactServiceTags         = getBooleanConfig(propertyPrefix + ".compact.service.tags", true);
+		resourceTagsCacheSize      = getIntConfig(propertyPrefix + ".resource.tags.cache.size", 10000);
+		trieBuilderThreadCount     = getIntConfig(propertyPrefix + ".tag.trie.builder.thread.count", Math.min(4, Runtime.getRuntime().availableProcessors()));
 		disableTrieLookupPrefilter = getBooleanOption(TAG_DISABLE_TRIE_PREFILTER_OPTION, false);
 		serviceDefHelper           = new RangerServiceDefHelper(serviceDef, false);
 
@@ -323,11 +337,20 @@ protected void setServiceTags(final ServiceTags serviceTags, final boolean rebui
 
 						LOG.info("Number of duplicate tags removed from the received serviceTags:[" + countOfDuplicateTags + "]. Number of tags in the de-duplicated serviceTags :[" + serviceTags.getTags().size() + "].");
 					}
+
+					if (compactServiceTags) {
+						serviceTags.compact();
+					}
+
 					processServiceTags(serviceTags);
 				} else {
 					if (LOG.isDebugEnabled()) {
 						LOG.debug("Received service-tag deltas:" + serviceTags);
 					}
+					if (compactServiceTags) {
+						serviceTags.compact();
+					}
+
 					ServiceTags oldServiceTags = enrichedServiceTags != null ? enrichedServiceTags.getServiceTags() : new ServiceTags();
 					ServiceTags allServiceTags = rebuildOnlyIndex ? oldServiceTags : RangerServiceTagsDeltaUtil.applyDelta(oldServiceTags, serviceTags, serviceTags.getIsTagsDeduped());
 
@@ -339,20 +362,21 @@ protected void setServiceTags(final ServiceTags serviceTags, final boolean rebui
 						if (serviceTags.getTagsChangeExtent() != ServiceTags.TagsChangeExtent.TAGS) {
 							Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> trieMap;
 
-							if (enrichedServiceTags == null) {
+							if (enrichedServiceTags == null || enrichedServiceTags.getServiceResourceTrie() == null) {
 								trieMap = new HashMap<>();
 							} else {
-								trieMap = writeLock.isLockingEnabled() ? enrichedServiceTags.getServiceResourceTrie() : copyServiceResourceTrie();
+								// without locking, tries being read by other threads are not updated: tries changed by deltas are copied
+								trieMap = writeLock.isLockingEnabled() ? enrichedServiceTags.getServiceResourceTrie() : new HashMap<>(enrichedServiceTags.getServiceResourceTrie());
 							}
 
-							processServiceTagDeltas(serviceTags, allServiceTags, trieMap);
+							processServiceTagDeltas(serviceTags, allServiceTags, trieMap, !writeLock.isLockingEnabled());
 						} else {
 							if (LOG.isDebugEnabled()) {
 								LOG.debug("Delta contains only tag attribute changes");
 							}
 							List<RangerServiceResourceMatcher> resourceMatchers = enrichedServiceTags != null ? enrichedServiceTags.getServiceResourceMatchers() : new ArrayList<>();
 							Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> serviceResourceTrie = enrichedServiceTags != null ? enrichedServiceTags.getServiceResourceTrie() : new HashMap<>();
-							enrichedServiceTags = new EnrichedServiceTags(allServiceTags, resourceMatchers, serviceResourceTrie);
+							enrichedServiceTags = new EnrichedServiceTags(allServiceTags, resourceMatchers, serviceResourceTrie, resourceTagsCacheSize);
 						}
 					}
 				}
@@ -448,7 +472,7 @@ private void processServiceTags(ServiceTags serviceTags) {
 
 			for (ListIterator<RangerServiceResource> iter = serviceResources.listIterator(); iter.hasNext(); ) {
 				RangerServiceResource        serviceResource        = iter.next();
-				RangerServiceResourceMatcher serviceResourceMatcher = createRangerServiceResourceMatcher(serviceResource, serviceDefHelper, hierarchies, getPluginContext());
+				RangerServiceResourceMatcher serviceResourceMatcher = createRangerServiceResourceMatcher(serviceResource, serviceDefHelper, hierarchies, getPluginContext(), compactServiceTags);
 
 				if (serviceResourceMatcher != null) {
 					resourceMatchers.add(serviceResourceMatcher);
@@ -464,25 +488,32 @@ private void processServiceTags(ServiceTags serviceTags) {
 			Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> serviceResourceTrie = null;
 
 			if (!disableTrieLookupPrefilter) {
-				serviceResourceTrie = new HashMap<>();
+				Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> tries = new ConcurrentHashMap<>();
 
-				for (RangerResourceDef resourceDef : serviceDef.getResources()) {
-					serviceResourceTrie.put(resourceDef.getName(), new RangerResourceTrie(resourceDef, resourceMatchers, getPolicyEngineOptions().optimizeTagTrieForRetrieval, getPolicyEngineOptions().optimizeTagTrieForSpace, null));
-				}
+				runForEachResourceDef(resourceDef -> tries.put(resourceDef.getName(), new RangerResourceTrie<>(resourceDef, resourceMatchers, getPolicyEngineOptions().optimizeTagTrieForRetrieval, getPolicyEngineOptions().optimizeTagTrieForSpace, null)));
+
+				serviceResourceTrie = new HashMap<>(tries);
 			}
-			enrichedServiceTags = new EnrichedServiceTags(serviceTags, resourceMatchers, serviceResourceTrie);
+			enrichedServiceTags = new EnrichedServiceTags(serviceTags, resourceMatchers, serviceResourceTrie, resourceTagsCacheSize);
 		}
 	}
 
-	private void processServiceTagDeltas(ServiceTags deltas, ServiceTags allServiceTags, Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> serviceResourceTrie) {
+	/*
+	 * Deltas are applied in 2 steps: first, matchers of all changed service-resources are looked up and created; then, each trie is
+	 * updated with the matchers to remove and add, and is wrapped-up only once. Tries are updated in parallel, and when copyOnWrite
+	 * is true, only the tries affected by the deltas are copied before being updated.
+	 */
+	private void processServiceTagDeltas(ServiceTags deltas, ServiceTags allServiceTags, Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> serviceResourceTrie, boolean copyOnWrite) {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("Delta contains changes other than tag attribute changes, [" + deltas.getTagsChangeExtent() + "]");
 		}
 
-		boolean                            isInError        = false;
+		boolean                                 isInError        = false;
 
-		ResourceHierarchies                hierarchies      = new ResourceHierarchies();
-		List<RangerServiceResourceMatcher> resourceMatchers = new ArrayList<>();
+		ResourceHierarchies                     hierarchies      = new ResourceHierarchies();
+		List<RangerServiceResourceMatcher>      resourceMatchers = new ArrayList<>();
+		Set<RangerServiceResourceMatcher>       removedMatchers  = new HashSet<>();
+		Map<Long, RangerServiceResourceMatcher> addedMatchers    = new LinkedHashMap<>();
 
 		if (enrichedServiceTags != null) {
 			resourceMatchers.addAll(enrichedServiceTags.getServiceResourceMatchers());
@@ -491,49 +522,59 @@ private void processServiceTagDeltas(ServiceTags deltas, ServiceTags allServiceT
 		List<RangerServiceResource> changedServiceResources = deltas.getServiceResources();
 
 		for (RangerServiceResource serviceResource : changedServiceResources) {
-			final boolean removedOldServiceResource = MapUtils.isEmpty(serviceResource.getResourceElements()) || removeOldServiceResource(serviceResource, resourceMatchers, serviceResourceTrie);
-
-			if (removedOldServiceResource) {
-				if (!StringUtils.isEmpty(serviceResource.getResourceSignature())) {
-					RangerServiceResourceMatcher resourceMatcher = createRangerServiceResourceMatcher(serviceResource, serviceDefHelper, hierarchies, getPluginContext());
-
-					if (resourceMatcher != null) {
-						for (RangerResourceDef resourceDef : serviceDef.getResources()) {
-							RangerPolicyResource                             policyResource = serviceResource.getResourceElements().get(resourceDef.getName());
-							RangerResourceTrie<RangerServiceResourceMatcher> trie           = serviceResourceTrie.get(resourceDef.getName());
+			if (MapUtils.isNotEmpty(serviceResource.getResourceElements())) {
+				removedMatchers.addAll(findOldServiceResourceMatchers(serviceResource));
+			}
 
-							if (LOG.isDebugEnabled()) {
-								LOG.debug("Trying to add resource-matcher to " + (trie == null ? "new" : "existing") + " trie for " + resourceDef.getName());
-							}
+			// a later change to the same service-resource in the deltas replaces the earlier one
+			addedMatchers.remove(serviceResource.getId());
 
-							if (trie != null) {
-								trie.add(policyResource, resourceMatcher);
-								trie.wrapUpUpdate();
+			if (!StringUtils.isEmpty(serviceResource.getResourceSignature())) {
+				RangerServiceResourceMatcher resourceMatcher = createRangerServiceResourceMatcher(serviceResource, serviceDefHelper, hierarchies, getPluginContext(), compactServiceTags);
 
-								if (LOG.isDebugEnabled()) {
-									LOG.debug("Added resource-matcher for policy-resource:[" + policyResource + "]");
-								}
-							} else {
-								trie = new RangerResourceTrie<>(resourceDef, Collections.singletonList(resourceMatcher), getPolicyEngineOptions().optimizeTagTrieForRetrieval, getPolicyEngineOptions().optimizeTagTrieForSpace, null);
-								serviceResourceTrie.put(resourceDef.getName(), trie);
-							}
-						}
-						resourceMatchers.add(resourceMatcher);
-					} else {
-						LOG.error("Could not create resource-matcher for resource: [" + serviceResource + "]. Should NOT happen!!");
-						LOG.error("Setting tagVersion to -1 to ensure that in the next download all tags are downloaded");
-						isInError = true;
-					}
+				if (resourceMatcher != null) {
+					addedMatchers.put(serviceResource.getId(), resourceMatcher);
 				} else {
-					if (LOG.isDebugEnabled()) {
-						LOG.debug("Service-resource:[id=" + serviceResource.getId() + "] is deleted as its resource-signature is empty. No need to create it!");
-					}
+					LOG.error("Could not create resource-matcher for resource: [" + serviceResource + "]. Should NOT happen!!");
+					LOG.error("Setting tagVersion to -1 to ensure that in the next download all tags are downloaded");
+					isInError = true;
+					break;
 				}
 			} else {
-				isInError = true;
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Service-resource:[id=" + serviceResource.getId() + "] is deleted as its resource-signature is empty. No need to create it!");
+				}
 			}
-			if (isInError) {
-				break;
+		}
+
+		if (!isInError && !removedMatchers.isEmpty()) {
+			for (RangerResourceDef resourceDef : serviceDef.getResources()) {
+				if (!serviceResourceTrie.containsKey(resourceDef.getName())) {
+					LOG.error("Cannot find resourceDef with name:[" + resourceDef.getName() + "]. Should NOT happen!!");
+					LOG.error("Setting tagVersion to -1 to ensure that in the next download all tags are downloaded");
+					isInError = true;
+					break;
+				}
+			}
+		}
+
+		if (!isInError) {
+			final Collection<RangerServiceResourceMatcher>                      matchersToAdd = addedMatchers.values();
+			final Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> updatedTries  = new ConcurrentHashMap<>();
+
+			try {
+				runForEachResourceDef(resourceDef -> {
+					RangerResourceTrie<RangerServiceResourceMatcher> trie = updateTrie(serviceResourceTrie.get(resourceDef.getName()), resourceDef, removedMatchers, matchersToAdd, copyOnWrite);
+
+					if (trie != null) {
+						updatedTries.put(resourceDef.getName(), trie);
+					}
+				});
+
+				serviceResourceTrie.putAll(updatedTries);
+			} catch (RuntimeException excp) {
+				LOG.error("Failed to apply tag-deltas to resource tries", excp);
+				isInError = true;
 			}
 		}
 
@@ -541,19 +582,72 @@ private void processServiceTagDeltas(ServiceTags deltas, ServiceTags allServiceT
 			LOG.error("Error in processing tag-deltas. Will continue to use old tags");
 			deltas.setTagVersion(-1L);
 		} else {
-			for (Map.Entry<String, RangerResourceTrie<RangerServiceResourceMatcher>> entry : serviceResourceTrie.entrySet()) {
-				entry.getValue().wrapUpUpdate();
+			resourceMatchers.removeAll(removedMatchers);
+			resourceMatchers.addAll(addedMatchers.values());
+
+			enrichedServiceTags = new EnrichedServiceTags(allServiceTags, resourceMatchers, serviceResourceTrie, resourceTagsCacheSize);
+		}
+	}
+
+	// returns the trie to replace the given trie with; null if the given trie is unchanged or has been updated in place
+	private RangerResourceTrie<RangerServiceResourceMatcher> updateTrie(RangerResourceTrie<RangerServiceResourceMatcher> trie, RangerResourceDef resourceDef, Collection<RangerServiceResourceMatcher> matchersToRemove, Collection<RangerServiceResourceMatcher> matchersToAdd, boolean copyOnWrite) {
+		final String resourceDefName = resourceDef.getName();
+
+		if (trie == null) {
+			if (matchersToAdd.isEmpty()) {
+				return null;
+			}
+
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Creating trie for " + resourceDefName + " with " + matchersToAdd.size() + " resource-matchers");
+			}
+
+			return new RangerResourceTrie<>(resourceDef, new ArrayList<>(matchersToAdd), getPolicyEngineOptions().optimizeTagTrieForRetrieval, getPolicyEngineOptions().optimizeTagTrieForSpace, null);
+		}
+
+		if (!isTrieAffected(resourceDef, matchersToRemove) && !isTrieAffected(resourceDef, matchersToAdd)) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Trie for " + resourceDefName + " is not affected by the deltas");
+			}
+
+			return null;
+		}
+
+		final RangerResourceTrie<RangerServiceResourceMatcher> ret = copyOnWrite ? new RangerResourceTrie<>(trie) : trie;
+
+		for (RangerServiceResourceMatcher matcher : matchersToRemove) {
+			ret.delete(matcher.getPolicyResource().get(resourceDefName), matcher);
+		}
+
+		for (RangerServiceResourceMatcher matcher : matchersToAdd) {
+			ret.add(matcher.getPolicyResource().get(resourceDefName), matcher);
+		}
+
+		ret.wrapUpUpdate();
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Updated trie for " + resourceDefName + ": removed " + matchersToRemove.size() + " and added " + matchersToAdd.size() + " resource-matchers");
+		}
+
+		return ret != trie ? ret : null;
+	}
+
+	private static boolean isTrieAffected(RangerResourceDef resourceDef, Collection<RangerServiceResourceMatcher> matchers) {
+		for (RangerServiceResourceMatcher matcher : matchers) {
+			if (matcher.getPolicyResource().get(resourceDef.getName()) != null || matcher.isAncestorOf(resourceDef)) {
+				return true;
 			}
-			enrichedServiceTags = new EnrichedServiceTags(allServiceTags, resourceMatchers, serviceResourceTrie);
 		}
+
+		return false;
 	}
 
-	private boolean removeOldServiceResource(RangerServiceResource serviceResource, List<RangerServiceResourceMatcher> resourceMatchers, Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> resourceTries) {
-		boolean ret = true;
+	private Collection<RangerServiceResourceMatcher> findOldServiceResourceMatchers(RangerServiceResource serviceResource) {
+		List<RangerServiceResourceMatcher> ret = new ArrayList<>();
 
 		if (enrichedServiceTags != null) {
 			if (LOG.isDebugEnabled()) {
-				LOG.debug("Removing service-resource:[" + serviceResource + "] from trie-map");
+				LOG.debug("Finding matchers for service-resource:[" + serviceResource + "] in trie-map");
 			}
 
 			RangerAccessResourceImpl accessResource = new RangerAccessResourceImpl();
@@ -575,56 +669,75 @@ private boolean removeOldServiceResource(RangerServiceResource serviceResource,
 				LOG.debug("Found [" + oldMatchers + "] matchers for service-resource[" + serviceResource + "]");
 			}
 
-			if (CollectionUtils.isNotEmpty(oldMatchers)) {
-				List<RangerServiceResourceMatcher> notMatched = new ArrayList<>();
+			for (RangerServiceResourceMatcher resourceMatcher : oldMatchers) {
+				final RangerPolicyResourceMatcher.MatchType matchType = resourceMatcher.getMatchType(accessResource, request.getResourceElementMatchingScopes(), request.getContext());
 
-				for (RangerServiceResourceMatcher resourceMatcher : oldMatchers) {
-					final RangerPolicyResourceMatcher.MatchType matchType = resourceMatcher.getMatchType(accessResource, request.getResourceElementMatchingScopes(), request.getContext());
-
-					if (LOG.isDebugEnabled()) {
-						LOG.debug("resource:[" + accessResource + ", MatchType:[" + matchType + "]");
-					}
-
-					if (matchType != RangerPolicyResourceMatcher.MatchType.SELF) {
-						notMatched.add(resourceMatcher);
-					}
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("resource:[" + accessResource + ", MatchType:[" + matchType + "]");
 				}
 
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("oldMatchers : [" + notMatched + "] do not match resource:[" + accessResource + "] exactly and will be discarded");
+				if (matchType == RangerPolicyResourceMatcher.MatchType.SELF) {
+					ret.add(resourceMatcher);
 				}
+			}
 
-				oldMatchers.removeAll(notMatched);
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Matchers [" + ret + "] match resource:[" + accessResource + "] exactly and will be removed");
 			}
+		}
 
-			for (RangerServiceResourceMatcher matcher : oldMatchers) {
-				for (RangerResourceDef resourceDef : serviceDef.getResources()) {
-					String                                           resourceDefName = resourceDef.getName();
-					RangerResourceTrie<RangerServiceResourceMatcher> trie            = resourceTries.get(resourceDefName);
+		return ret;
+	}
 
-					if (trie != null) {
-						trie.delete(serviceResource.getResourceElements().get(resourceDefName), matcher);
-					} else {
-						LOG.error("Cannot find resourceDef with name:[" + resourceDefName + "]. Should NOT happen!!");
-						LOG.error("Setting tagVersion to -1 to ensure that in the next download all tags are downloaded");
-						ret = false;
-						break;
-					}
-				}
-			}
+	// runs the given task for each resource-def of the service; in parallel when more than one trie-builder thread is configured
+	private void runForEachResourceDef(Consumer<RangerResourceDef> task) {
+		final List<RangerResourceDef> resourceDefs = serviceDef.getResources();
+		final int                     threadCount  = Math.min(trieBuilderThreadCount, resourceDefs.size());
 
-			if (ret) {
-				resourceMatchers.removeAll(oldMatchers);
+		if (threadCount <= 1) {
+			resourceDefs.forEach(task);
 
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Found and removed [" + oldMatchers + "] matchers for service-resource[" + serviceResource + "] from trie-map");
-				}
+			return;
+		}
+
+		final AtomicInteger   threadNumber = new AtomicInteger(1);
+		final ExecutorService executor     = Executors.newFixedThreadPool(threadCount, r -> {
+			Thread t = new Thread(r, "RangerTagEnricher.trieBuilder(serviceName=" + serviceName + ")-" + threadNumber.getAndIncrement());
+
+			t.setDaemon(true);
+
+			return t;
+		});
+
+		try {
+			List<Future<?>> futures = new ArrayList<>(resourceDefs.size());
+
+			for (RangerResourceDef resourceDef : resourceDefs) {
+				futures.add(executor.submit(() -> task.accept(resourceDef)));
+			}
+
+			for (Future<?> future : futures) {
+				future.get();
 			}
+		} catch (ExecutionException excp) {
+			throw new RuntimeException(excp.getCause());
+		} catch (InterruptedException excp) {
+			Thread.currentThread().interrupt();
+
+			throw new RuntimeException(excp);
+		} finally {
+			executor.shutdownNow();
 		}
-		return ret;
 	}
 
 	static public RangerServiceResourceMatcher createRangerServiceResourceMatcher(RangerServiceResource serviceResource, RangerServiceDefHelper serviceDefHelper, ResourceHierarchies hierarchies, RangerPluginContext pluginContext) {
+		return createRangerServiceResourceMatcher(serviceResource, serviceDefHelper, hierarchies, pluginContext, false);
+	}
+
+	/**
+	 * @param lazyInit when true, the policy-resource-matcher is created only when the resource is first looked up by an access request
+	 */
+	static public RangerServiceResourceMatcher createRangerServiceResourceMatcher(RangerServiceResource serviceResource, RangerServiceDefHelper serviceDefHelper, ResourceHierarchies hierarchies, RangerPluginContext pluginContext, boolean lazyInit) {
 
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> createRangerServiceResourceMatcher(serviceResource=" + serviceResource + ")");
@@ -651,21 +764,17 @@ static public RangerServiceResourceMatcher createRangerServiceResourceMatcher(Ra
 			}
 
 			if (isValidHierarchy) {
-				RangerDefaultPolicyResourceMatcher matcher = new RangerDefaultPolicyResourceMatcher();
-
-				matcher.setServiceDef(serviceDefHelper.getServiceDef());
-				matcher.setPolicyResources(serviceResource.getResourceElements(), policyType);
-				matcher.setPluginContext(pluginContext);
+				if (lazyInit) {
+					ret = new RangerServiceResourceMatcher(serviceResource, serviceDefHelper, policyType, pluginContext);
+				} else {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("RangerTagEnricher.setServiceTags() - Initializing matcher with (resource=" + serviceResource
+								+ ", serviceDef=" + serviceDefHelper.getServiceDef() + ")");
 
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("RangerTagEnricher.setServiceTags() - Initializing matcher with (resource=" + serviceResource
-							+ ", serviceDef=" + serviceDefHelper.getServiceDef() + ")");
+					}
 
+					ret = new RangerServiceResourceMatcher(serviceResource, RangerServiceResourceMatcher.createPolicyResourceMatcher(serviceResource, serviceDefHelper, policyType, pluginContext));
 				}
-				matcher.setServiceDefHelper(serviceDefHelper);
-				matcher.init();
-
-				ret = new RangerServiceResourceMatcher(serviceResource, matcher);
 				break;
 			}
 		}
@@ -715,36 +824,18 @@ private Set<RangerTagForEval> findMatchingTags(final RangerAccessRequest request
 		if ((resource == null || resource.getKeys() == null || resource.getKeys().isEmpty()) && request.isAccessTypeAny()) {
 			ret = enrichedServiceTags.getTagsForEmptyResourceAndAnyAccess();
 		} else {
+			final CachedResourceTags       tagsCache  = enrichedServiceTags.getResourceTagsCache();
+			final CachedResourceTags.Key   cacheKey   = tagsCache != null ? CachedResourceTags.Key.forRequest(request) : null;
+			final CachedResourceTags.Entry cachedTags = cacheKey != null ? tagsCache.get(cacheKey) : null;
 
-			final Collection<RangerServiceResourceMatcher> serviceResourceMatchers = getEvaluators(request, enrichedServiceTags);
-
-			if (CollectionUtils.isNotEmpty(serviceResourceMatchers)) {
-				for (RangerServiceResourceMatcher resourceMatcher : serviceResourceMatchers) {
-
-					final RangerPolicyResourceMatcher.MatchType matchType = resourceMatcher.getMatchType(resource, request.getResourceElementMatchingScopes(), request.getContext());
-
-					if (LOG.isDebugEnabled()) {
-						LOG.debug("resource:[" + resource + ", MatchType:[" + matchType + "]");
-					}
-
-					final boolean isMatched;
-
-					if (request.isAccessTypeAny()) {
-						isMatched = matchType != RangerPolicyResourceMatcher.MatchType.NONE;
-					} else if (request.getResourceMatchingScope() == ResourceMatchingScope.SELF_OR_DESCENDANTS) {
-						isMatched = matchType != RangerPolicyResourceMatcher.MatchType.NONE;
-					} else {
-						isMatched = matchType == RangerPolicyResourceMatcher.MatchType.SELF || matchType == RangerPolicyResourceMatcher.MatchType.SELF_AND_ALL_DESCENDANTS || matchType == RangerPolicyResourceMatcher.MatchType.ANCESTOR;
-					}
-
-					if (isMatched) {
-						if (ret == null) {
-							ret = new HashSet<>();
-						}
-						ret.addAll(getTagsForServiceResource(request.getAccessTime(), enrichedServiceTags.getServiceTags(), resourceMatcher.getServiceResource(), matchType));
-					}
-
+			if (cachedTags != null) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Found tags for resource [" + resource + "] in the cache");
 				}
+
+				ret = cachedTags.getTags(request.getAccessTime());
+			} else {
+				ret = findMatchingTags(request, enrichedServiceTags, tagsCache, cacheKey);
 			}
 		}
 
@@ -767,6 +858,171 @@ private Set<RangerTagForEval> findMatchingTags(final RangerAccessRequest request
 		return ret;
 	}
 
+	private Set<RangerTagForEval> findMatchingTags(final RangerAccessRequest request, EnrichedServiceTags enrichedServiceTags, CachedResourceTags tagsCache, CachedResourceTags.Key cacheKey) {
+		final RangerAccessResource                     resource                = request.getResource();
+		final Collection<RangerServiceResourceMatcher> serviceResourceMatchers = getEvaluators(request, enrichedServiceTags);
+		final Set<RangerTagForEval>                    matchedTags             = new HashSet<>();
+		boolean                                        isCacheable             = cacheKey != null;
+
+		if (CollectionUtils.isNotEmpty(serviceResourceMatchers)) {
+			for (RangerServiceResourceMatcher resourceMatcher : serviceResourceMatchers) {
+
+				final RangerPolicyResourceMatcher.MatchType matchType = resourceMatcher.getMatchType(resource, request.getResourceElementMatchingScopes(), request.getContext());
+
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("resource:[" + resource + ", MatchType:[" + matchType + "]");
+				}
+
+				// matchers having tokens (like {USER}) are evaluated for each request; their results can't be cached
+				if (isCacheable && resourceMatcher.getPolicyResourceMatcher().getNeedsDynamicEval()) {
+					isCacheable = false;
+				}
+
+				final boolean isMatched;
+
+				if (request.isAccessTypeAny()) {
+					isMatched = matchType != RangerPolicyResourceMatcher.MatchType.NONE;
+				} else if (request.getResourceMatchingScope() == ResourceMatchingScope.SELF_OR_DESCENDANTS) {
+					isMatched = matchType != RangerPolicyResourceMatcher.MatchType.NONE;
+				} else {
+					isMatched = matchType == RangerPolicyResourceMatcher.MatchType.SELF || matchType == RangerPolicyResourceMatcher.MatchType.SELF_AND_ALL_DESCENDANTS || matchType == RangerPolicyResourceMatcher.MatchType.ANCESTOR;
+				}
+
+				if (isMatched) {
+					matchedTags.addAll(getTagsForServiceResource(enrichedServiceTags.getServiceTags(), resourceMatcher.getServiceResource(), matchType));
+				}
+			}
+		}
+
+		final CachedResourceTags.Entry entry = new CachedResourceTags.Entry(matchedTags);
+
+		if (isCacheable) {
+			tagsCache.put(cacheKey, entry);
+		}
+
+		return entry.getTags(request.getAccessTime());
+	}
+
+	/*
+	 * This class implements a cache of tags found for accessed resources, so that repeated accesses to a resource (like
+	 * columns of a table, files in a directory) don't need to evaluate the matching service-resources. An instance is
+	 * held in EnrichedServiceTags, hence is discarded when a new version of tags is received. Tags with validity-periods
+	 * are cached as well and are checked for applicability on each access.
+	 */
+	static class CachedResourceTags {
+		private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+		private final int             maxSize;
+
+		CachedResourceTags(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		Entry get(Key key) {
+			return cache.get(key);
+		}
+
+		void put(Key key, Entry entry) {
+			if (cache.size() >= maxSize) {
+				cache.clear();
+			}
+
+			cache.put(key, entry);
+		}
+
+		int size() {
+			return cache.size();
+		}
+
+		static final class Key {
+			private final String                                    resource;
+			private final Map<String, ResourceElementMatchingScope> scopes;
+			private final ResourceMatchingScope                     matchingScope;
+			private final boolean                                   isAccessTypeAny;
+			private final boolean                                   isAnyAccess;
+			private final int                                       hashCode;
+
+			private Key(String resource, Map<String, ResourceElementMatchingScope> scopes, ResourceMatchingScope matchingScope, boolean isAccessTypeAny, boolean isAnyAccess) {
+				this.resource        = resource;
+				this.scopes          = scopes;
+				this.matchingScope   = matchingScope;
+				this.isAccessTypeAny = isAccessTypeAny;
+				this.isAnyAccess     = isAnyAccess;
+				this.hashCode        = Objects.hash(resource, scopes, matchingScope, isAccessTypeAny, isAnyAccess);
+			}
+
+			static Key forRequest(RangerAccessRequest request) {
+				String resource = request.getResource() != null ? request.getResource().getCacheKey() : null;
+
+				if (resource == null) {
+					return null;
+				}
+
+				Map<String, ResourceElementMatchingScope> scopes = request.getResourceElementMatchingScopes();
+
+				return new Key(resource, MapUtils.isEmpty(scopes) ? Collections.emptyMap() : new HashMap<>(scopes), request.getResourceMatchingScope(),
+				               request.isAccessTypeAny(), RangerAccessRequestUtil.getIsAnyAccessInContext(request.getContext()));
+			}
+
+			@Override
+			public int hashCode() {
+				return hashCode;
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				if (this == obj) {
+					return true;
+				} else if (obj == null || getClass() != obj.getClass()) {
+					return false;
+				}
+
+				Key other = (Key) obj;
+
+				return isAccessTypeAny == other.isAccessTypeAny && isAnyAccess == other.isAnyAccess && matchingScope == other.matchingScope &&
+				       resource.equals(other.resource) && scopes.equals(other.scopes);
+			}
+		}
+
+		static final class Entry {
+			private final Set<RangerTagForEval>  tags;          // tags without validity-periods; these apply at all times
+			private final List<RangerTagForEval> timeBoundTags;
+
+			Entry(Set<RangerTagForEval> matchedTags) {
+				Set<RangerTagForEval>  tags          = new HashSet<>();
+				List<RangerTagForEval> timeBoundTags = new ArrayList<>();
+
+				for (RangerTagForEval tag : matchedTags) {
+					if (CollectionUtils.isNotEmpty(tag.getValidityPeriods()) || tag.getOptions().containsKey(RangerTag.OPTION_TAG_VALIDITY_PERIODS)) {
+						timeBoundTags.add(tag);
+					} else {
+						tags.add(tag);
+					}
+				}
+
+				this.tags          = tags.isEmpty() ? null : Collections.unmodifiableSet(tags);
+				this.timeBoundTags = timeBoundTags.isEmpty() ? Collections.emptyList() : timeBoundTags;
+			}
+
+			Set<RangerTagForEval> getTags(Date accessTime) {
+				if (timeBoundTags.isEmpty()) {
+					return tags;
+				}
+
+				Set<RangerTagForEval> ret = tags != null ? new HashSet<>(tags) : new HashSet<>();
+
+				accessTime = accessTime == null ? new Date() : accessTime;
+
+				for (RangerTagForEval tag : timeBoundTags) {
+					if (tag.isApplicable(accessTime)) {
+						ret.add(tag);
+					}
+				}
+
+				return ret.isEmpty() ? null : ret;
+			}
+		}
+	}
+
 	private static class CachedResourceEvaluators {
 		private final Map<String, Map<Map<String, ResourceElementMatchingScope>, Collection<RangerServiceResourceMatcher>>> cache     = new HashMap<>();
 		private final RangerReadWriteLock                                                                                   cacheLock = new RangerReadWriteLock(true);
@@ -852,7 +1108,8 @@ private Collection<RangerServiceResourceMatcher> getEvaluators(RangerAccessReque
 	private boolean excludeDescendantMatches(RangerAccessRequest request) {
 		final boolean ret;
 
-		if (request.isAccessTypeAny() || RangerAccessRequestUtil.getIsAnyAccessInContext(request.getContext())) {
+		// tags of descendants are needed for SELF_OR_DESCENDANTS scope, like for a table when its columns are evaluated together
+		if (request.isAccessTypeAny() || RangerAccessRequestUtil.getIsAnyAccessInContext(request.getContext()) || request.getResourceMatchingScope() == ResourceMatchingScope.SELF_OR_DESCENDANTS) {
 			ret = false;
 		} else {
 			RangerAccessResource resource = request.getResource();
@@ -882,8 +1139,9 @@ private boolean excludeDescendantMatches(RangerAccessRequest request) {
 		return ret;
 	}
 
-	private static Set<RangerTagForEval> getTagsForServiceResource(Date accessTime, final ServiceTags serviceTags, final RangerServiceResource serviceResource, final RangerPolicyResourceMatcher.MatchType matchType) {
-		Set<RangerTagForEval> ret = new HashSet<>();
+	// returns all tags of the resource, including the ones not applicable at the time of access
+	private static List<RangerTagForEval> getTagsForServiceResource(final ServiceTags serviceTags, final RangerServiceResource serviceResource, final RangerPolicyResourceMatcher.MatchType matchType) {
+		List<RangerTagForEval> ret = new ArrayList<>();
 
 		final Long resourceId                        = serviceResource.getId();
 		final Map<Long, List<Long>> resourceToTagIds = serviceTags.getResourceToTagIds();
@@ -898,18 +1156,12 @@ private static Set<RangerTagForEval> getTagsForServiceResource(Date accessTime,
 			List<Long> tagIds = resourceToTagIds.get(resourceId);
 
 			if (CollectionUtils.isNotEmpty(tagIds)) {
-
-				accessTime = accessTime == null ? new Date() : accessTime;
-
 				for (Long tagId : tagIds) {
 
 					RangerTag tag = tags.get(tagId);
 
 					if (tag != null) {
-						RangerTagForEval tagForEval = new RangerTagForEval(tag, matchType);
-						if (tagForEval.isApplicable(accessTime)) {
-							ret.add(tagForEval);
-						}
+						ret.add(new RangerTagForEval(tag, matchType));
 					}
 				}
 			} else {
@@ -926,37 +1178,28 @@ private static Set<RangerTagForEval> getTagsForServiceResource(Date accessTime,
 		return ret;
 	}
 
-	private Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> copyServiceResourceTrie() {
-		Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> ret = new HashMap<>();
-
-		if (enrichedServiceTags != null) {
-			for (Map.Entry<String, RangerResourceTrie<RangerServiceResourceMatcher>> entry : enrichedServiceTags.getServiceResourceTrie().entrySet()) {
-				RangerResourceTrie<RangerServiceResourceMatcher> resourceTrie = new RangerResourceTrie<>(entry.getValue());
-				ret.put(entry.getKey(), resourceTrie);
-			}
-		}
-		return ret;
-	}
-
 	static public final class EnrichedServiceTags {
 		final private ServiceTags                                                      serviceTags;
 		final private List<RangerServiceResourceMatcher>                               serviceResourceMatchers;
 		final private Map<String, RangerResourceTrie<RangerServiceResourceMatcher>>    serviceResourceTrie;
 		final private Set<RangerTagForEval>                                            tagsForEmptyResourceAndAnyAccess; // Used only when accessed resource is empty and access type is 'any'
 		final private Long                                                             resourceTrieVersion;
+		final private CachedResourceTags                                               resourceTagsCache;
 
-		EnrichedServiceTags(ServiceTags serviceTags, List<RangerServiceResourceMatcher> serviceResourceMatchers, Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> serviceResourceTrie) {
+		EnrichedServiceTags(ServiceTags serviceTags, List<RangerServiceResourceMatcher> serviceResourceMatchers, Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> serviceResourceTrie, int resourceTagsCacheSize) {
 			this.serviceTags                      = serviceTags;
 			this.serviceResourceMatchers          = serviceResourceMatchers;
 			this.serviceResourceTrie              = serviceResourceTrie;
 			this.tagsForEmptyResourceAndAnyAccess = createTagsForEmptyResourceAndAnyAccess();
 			this.resourceTrieVersion              = serviceTags.getTagVersion();
+			this.resourceTagsCache                = resourceTagsCacheSize > 0 ? new CachedResourceTags(resourceTagsCacheSize) : null;
 		}
 		public ServiceTags                                                   getServiceTags() {return serviceTags;}
 		public List<RangerServiceResourceMatcher>                            getServiceResourceMatchers() { return serviceResourceMatchers;}
 		public Map<String, RangerResourceTrie<RangerServiceResourceMatcher>> getServiceResourceTrie() { return serviceResourceTrie;}
 		public Long                                                          getResourceTrieVersion() { return resourceTrieVersion;}
 		public Set<RangerTagForEval>                                         getTagsForEmptyResourceAndAnyAccess() { return tagsForEmptyResourceAndAnyAccess;}
+		CachedResourceTags                                                   getResourceTagsCache() { return resourceTagsCache;}
 
 		private Set<RangerTagForEval> createTagsForEmptyResourceAndAnyAccess() {
 			Set<RangerTagForEval> tagsForEmptyResourceAndAnyAccess = new HashSet<>();
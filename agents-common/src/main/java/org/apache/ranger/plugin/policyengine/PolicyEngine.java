@@ -66,6 +66,8 @@ public class PolicyEngine {
     private       String[]                            trustedProxyAddresses;
     private final Map<String, StringTokenReplacer>    tokenReplacers = new HashMap<>();
     private final RangerReadWriteLock                 lock;
+    private volatile RangerResourceTypeAccessIndex    resourceTypeAccessIndex;
+    private volatile Boolean                          hasTagPolicyWithResourceOwner;
 
 
     public RangerReadWriteLock.RangerLock getReadLock() {
@@ -120,6 +122,52 @@ public RangerPolicyRepository getTagPolicyRepository() {
 
     public Map<String, RangerPolicyRepository> getZonePolicyRepositories() { return zonePolicyRepositories; }
 
+    // built on first use, as it is needed only by few plugins; policy repositories of an engine are not updated after init
+    public RangerResourceTypeAccessIndex getResourceTypeAccessIndex() {
+        RangerResourceTypeAccessIndex ret = resourceTypeAccessIndex;
+
+        if (ret == null) {
+            synchronized (this) {
+                ret = resourceTypeAccessIndex;
+
+                if (ret == null) {
+                    List<RangerPolicyRepository> repositories = new ArrayList<>(zonePolicyRepositories.values());
+
+                    repositories.add(policyRepository);
+
+                    ret = new RangerResourceTypeAccessIndex(repositories, serviceDefHelper.getImpliedAccessGrants());
+
+                    resourceTypeAccessIndex = ret;
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    // computed on first use, as it is needed only by few plugins; policy repositories of an engine are not updated after init
+    public boolean hasTagPolicyWithResourceOwner() {
+        Boolean ret = hasTagPolicyWithResourceOwner;
+
+        if (ret == null) {
+            ret = Boolean.FALSE;
+
+            if (tagPolicyRepository != null) {
+                for (RangerPolicyEvaluator evaluator : tagPolicyRepository.getPolicyEvaluators()) {
+                    if (hasResourceOwnerReference(evaluator.getPolicy())) {
+                        ret = Boolean.TRUE;
+
+                        break;
+                    }
+                }
+            }
+
+            hasTagPolicyWithResourceOwner = ret;
+        }
+
+        return ret;
+    }
+
     public List<RangerContextEnricher> getAllContextEnrichers() { return allContextEnrichers; }
 
     public RangerPluginContext getPluginContext() { return pluginContext; }
@@ -765,5 +813,22 @@ private void getDeltasSortedByZones(PolicyEngine current, ServicePolicies servic
             LOG.debug("<== getDeltasSortedByZones()");
         }
     }
-}
 
+    // access granted/denied via {OWNER} depends on the owner of each resource
+    static boolean hasResourceOwnerReference(RangerPolicy policy) {
+        return hasResourceOwnerReference(policy.getPolicyItems()) || hasResourceOwnerReference(policy.getDenyPolicyItems()) ||
+               hasResourceOwnerReference(policy.getAllowExceptions()) || hasResourceOwnerReference(policy.getDenyExceptions());
+    }
+
+    private static boolean hasResourceOwnerReference(List<? extends RangerPolicy.RangerPolicyItem> policyItems) {
+        if (policyItems != null) {
+            for (RangerPolicy.RangerPolicyItem policyItem : policyItems) {
+                if (policyItem.getUsers() != null && policyItem.getUsers().contains(RangerPolicyEngine.RESOURCE_OWNER)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
@@ -66,6 +66,11 @@ public interface RangerPolicyEngine {
 
 	Collection<RangerAccessResult> evaluatePolicies(Collection<RangerAccessRequest> requests, int policyType, RangerAccessResultProcessor resultProcessor);
 
+	// evaluates data-mask policies for requests on descendants of the resource in parentRequest - like columns of a table.
+	// When no data-mask policy can apply to any descendant, per-request evaluation is skipped and unmasked results are returned.
+	// Each result is given to resultProcessor.processResult(), as with evaluatePolicies(request, POLICY_TYPE_DATAMASK, resultProcessor)
+	Collection<RangerAccessResult> evaluateDataMaskPolicies(RangerAccessRequest parentRequest, Collection<RangerAccessRequest> requests, RangerAccessResultProcessor resultProcessor);
+
 	void evaluateAuditPolicies(RangerAccessResult result);
 
 	RangerResourceACLs getResourceACLs(RangerAccessRequest request);
@@ -80,6 +85,14 @@ public interface RangerPolicyEngine {
 
 	String getUniquelyMatchedZoneName(GrantRevokeRequest grantRevokeRequest);
 
+	// returns true if access to every descendant of the resource (ex: paths under a directory) is decided by the same
+	// policies, i.e. no policy, security-zone or tagged resource is specific to a part of the subtree under the resource
+	boolean isUniformForDescendants(RangerAccessResource resource);
+
+	// returns whether the user can be allowed the access on any resource of the given type (ex: any topic), without
+	// evaluating policies; UNDETERMINED when policies must be evaluated to find out, ex: due to conditions or tag policies
+	RangerResourceTypeAccessIndex.AnyResourceAccess getAccessOnAnyResource(String resourceName, String accessType, String user, Set<String> userGroups);
+
 	// Helpers
 
 	List<RangerPolicy> getResourcePolicies(String zoneName);
@@ -26,11 +26,14 @@
 import org.apache.hadoop.conf.Configuration;
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.authorization.utils.StringUtil;
+import org.apache.ranger.plugin.contextenricher.RangerContextEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
 import org.apache.ranger.plugin.contextenricher.RangerTagForEval;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.policyengine.gds.GdsAccessResult;
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator.RangerPolicyResourceEvaluator;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher.MatchType;
 import org.apache.ranger.plugin.service.RangerDefaultRequestProcessor;
 import org.apache.ranger.plugin.util.GrantRevokeRequest;
@@ -38,6 +41,7 @@
 import org.apache.ranger.plugin.util.RangerCommonConstants;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.apache.ranger.plugin.util.RangerReadWriteLock;
+import org.apache.ranger.plugin.util.RangerResourceEvaluatorsRetriever;
 import org.apache.ranger.plugin.util.RangerRoles;
 import org.apache.ranger.plugin.util.ServicePolicies;
 import org.slf4j.Logger;
@@ -196,6 +200,57 @@ public Collection<RangerAccessResult> evaluatePolicies(Collection<RangerAccessRe
 		return ret;
 	}
 
+	@Override
+	public Collection<RangerAccessResult> evaluateDataMaskPolicies(RangerAccessRequest parentRequest, Collection<RangerAccessRequest> requests, RangerAccessResultProcessor resultProcessor) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> RangerPolicyEngineImpl.evaluateDataMaskPolicies(parentRequest=" + parentRequest + ", requests=" + requests + ")");
+		}
+
+		Collection<RangerAccessResult> ret = new ArrayList<>();
+
+		try (RangerReadWriteLock.RangerLock readLock = policyEngine.getReadLock()) {
+			if (LOG.isDebugEnabled()) {
+				if (readLock.isLockingEnabled()) {
+					LOG.debug("Acquired lock - " + readLock);
+				}
+			}
+
+			if (requests != null) {
+				if (parentRequest != null && !isDataMaskPossibleForDescendants(parentRequest)) {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("evaluateDataMaskPolicies(): no data-mask policy applies to descendants of " + parentRequest.getResource() + ". Skipping evaluation of " + requests.size() + " requests");
+					}
+
+					for (RangerAccessRequest request : requests) {
+						ret.add(createAccessResult(request, RangerPolicy.POLICY_TYPE_DATAMASK));
+					}
+				} else {
+					for (RangerAccessRequest request : requests) {
+						requestProcessor.preProcess(request);
+
+						RangerAccessResult result = zoneAwareAccessEvaluationWithNoAudit(request, RangerPolicy.POLICY_TYPE_DATAMASK);
+
+						ret.add(result);
+					}
+				}
+			}
+
+			// results are processed one at a time, as evaluatePolicies(request, POLICY_TYPE_DATAMASK, resultProcessor) would: processResults()
+			// of some processors merge audit events of results, which isn't expected for results of different resources, like columns
+			if (resultProcessor != null) {
+				for (RangerAccessResult result : ret) {
+					resultProcessor.processResult(result);
+				}
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== RangerPolicyEngineImpl.evaluateDataMaskPolicies(parentRequest=" + parentRequest + ", requests=" + requests + "): " + ret);
+		}
+
+		return ret;
+	}
+
 	@Override
 	public void evaluateAuditPolicies(RangerAccessResult result) {
 		if (LOG.isDebugEnabled()) {
@@ -456,6 +511,86 @@ public String getUniquelyMatchedZoneName(GrantRevokeRequest grantRevokeRequest)
 		return ret;
 	}
 
+	@Override
+	public RangerResourceTypeAccessIndex.AnyResourceAccess getAccessOnAnyResource(String resourceName, String accessType, String user, Set<String> userGroups) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> RangerPolicyEngineImpl.getAccessOnAnyResource(resourceName=" + resourceName + ", accessType=" + accessType + ", user=" + user + ", userGroups=" + userGroups + ")");
+		}
+
+		RangerResourceTypeAccessIndex.AnyResourceAccess ret;
+
+		try (RangerReadWriteLock.RangerLock readLock = policyEngine.getReadLock()) {
+			if (LOG.isDebugEnabled()) {
+				if (readLock.isLockingEnabled()) {
+					LOG.debug("Acquired lock - " + readLock);
+				}
+			}
+
+			if (isSuperUser(user, userGroups)) {
+				ret = RangerResourceTypeAccessIndex.AnyResourceAccess.ALLOWED;
+			} else {
+				Set<String> userRoles = policyEngine.getPluginContext().getAuthContext().getRolesForUserAndGroups(user, userGroups);
+
+				ret = policyEngine.getResourceTypeAccessIndex().getAccess(resourceName, accessType, user, userGroups, userRoles);
+
+				// tag-based policies can allow access on resources of any type
+				if (ret == RangerResourceTypeAccessIndex.AnyResourceAccess.NOT_ALLOWED && policyEngine.hasTagPolicies(policyEngine.getTagPolicyRepository())) {
+					ret = RangerResourceTypeAccessIndex.AnyResourceAccess.UNDETERMINED;
+				}
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== RangerPolicyEngineImpl.getAccessOnAnyResource(resourceName=" + resourceName + ", accessType=" + accessType + ", user=" + user + ", userGroups=" + userGroups + "): " + ret);
+		}
+
+		return ret;
+	}
+
+	@Override
+	public boolean isUniformForDescendants(RangerAccessResource resource) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> RangerPolicyEngineImpl.isUniformForDescendants(" + resource + ")");
+		}
+
+		boolean ret = false;
+
+		try (RangerReadWriteLock.RangerLock readLock = policyEngine.getReadLock()) {
+			if (LOG.isDebugEnabled()) {
+				if (readLock.isLockingEnabled()) {
+					LOG.debug("Acquired lock - " + readLock);
+				}
+			}
+
+			// leaf name is determined from the service-def; resource is not pre-processed, as requests are
+			if (resource != null && resource.getServiceDef() == null && resource instanceof RangerMutableResource) {
+				((RangerMutableResource) resource).setServiceDef(policyEngine.getServiceDef());
+			}
+
+			String resourceName  = resource != null ? resource.getLeafName() : null;
+			Object resourceValue = resourceName != null ? resource.getValue(resourceName) : null;
+
+			if (resourceValue instanceof String && policyEngine.getZoneMatcher().isUniformForDescendants(resourceName, (String) resourceValue)) {
+				Set<String> zoneNames = policyEngine.getMatchedZonesForResourceAndChildren(resource);
+
+				if (zoneNames == null || zoneNames.size() <= 1) {
+					String                 zoneName         = CollectionUtils.isEmpty(zoneNames) ? null : zoneNames.iterator().next();
+					RangerPolicyRepository policyRepository = policyEngine.getRepositoryForZone(zoneName);
+
+					ret = policyRepository != null &&
+					      RangerResourceEvaluatorsRetriever.isUniformForDescendants(policyRepository.getTrie(RangerPolicy.POLICY_TYPE_ACCESS), resourceName, (String) resourceValue, Collections.emptyMap(), evaluator -> !PolicyEngine.hasResourceOwnerReference(((RangerPolicyResourceEvaluator) evaluator).getPolicyEvaluator().getPolicy())) &&
+					      isTaggedResourcesUniformForDescendants(resourceName, (String) resourceValue);
+				}
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== RangerPolicyEngineImpl.isUniformForDescendants(" + resource + "): " + ret);
+		}
+
+		return ret;
+	}
+
 	@Override
 	public List<RangerPolicy> getResourcePolicies(String zoneName) {
 		List<RangerPolicy> ret;
@@ -934,6 +1069,39 @@ private boolean isAuditExcludedUser(String userName, Set<String> userGroups, Set
 		return ret;
 	}
 
+	// returns false if no resource or tag data-mask policy can apply to the resource in the request or to its descendants;
+	// the resource-trie lookup ignores resource-keys absent in the request, hence includes policies for descendants
+	private boolean isDataMaskPossibleForDescendants(RangerAccessRequest parentRequest) {
+		requestProcessor.preProcess(parentRequest);
+
+		boolean     ret       = hasLikelyMatchDataMaskPolicies(policyEngine.getRepositoryForZone(null), parentRequest);
+		Set<String> zoneNames = RangerAccessRequestUtil.getResourceZoneNamesFromContext(parentRequest.getContext());
+
+		if (!ret && zoneNames != null) {
+			for (String zoneName : zoneNames) {
+				ret = hasLikelyMatchDataMaskPolicies(policyEngine.getRepositoryForZone(zoneName), parentRequest);
+
+				if (ret) {
+					break;
+				}
+			}
+		}
+
+		if (!ret) {
+			RangerPolicyRepository tagPolicyRepository = policyEngine.getTagPolicyRepository();
+
+			ret = tagPolicyRepository != null && tagPolicyRepository.getDataMaskPolicyEvaluatorCount() > 0 &&
+			      CollectionUtils.isNotEmpty(RangerAccessRequestUtil.getRequestTagsFromContext(parentRequest.getContext()));
+		}
+
+		return ret;
+	}
+
+	private boolean hasLikelyMatchDataMaskPolicies(RangerPolicyRepository policyRepository, RangerAccessRequest request) {
+		return policyRepository != null && policyRepository.getDataMaskPolicyEvaluatorCount() > 0 &&
+		       CollectionUtils.isNotEmpty(policyRepository.getLikelyMatchPolicyEvaluators(request, RangerPolicy.POLICY_TYPE_DATAMASK));
+	}
+
 	private boolean isSuperUser(String userName, Set<String> userGroups) {
 		boolean ret = serviceConfig.isSuperUser(userName);
 
@@ -1138,6 +1306,35 @@ private boolean evaluateResourceAuditPolicies(RangerAccessRequest request, Range
 		return ret;
 	}
 
+	/*
+	 * Tags of a resource are inherited by its descendants, hence only tagged resources under the given resource can make
+	 * tag-policy evaluation differ within the subtree. Tag-policies referring to {OWNER} are evaluated with the owner of each
+	 * descendant, hence the subtree is not uniform when such a policy exists - even when no resource under it is tagged.
+	 */
+	private boolean isTaggedResourcesUniformForDescendants(String resourceName, String resourceValue) {
+		boolean ret = true;
+
+		if (policyEngine.hasTagPolicies(policyEngine.getTagPolicyRepository())) {
+			if (policyEngine.hasTagPolicyWithResourceOwner()) {
+				ret = false;
+			} else {
+				for (RangerContextEnricher enricher : policyEngine.getAllContextEnrichers()) {
+					if (enricher instanceof RangerTagEnricher) {
+						RangerTagEnricher.EnrichedServiceTags enrichedServiceTags = ((RangerTagEnricher) enricher).getEnrichedServiceTags();
+
+						if (enrichedServiceTags != null) {
+							ret = RangerResourceEvaluatorsRetriever.isUniformForDescendants(enrichedServiceTags.getServiceResourceTrie(), resourceName, resourceValue, Collections.emptyMap(), null);
+						}
+
+						break;
+					}
+				}
+			}
+		}
+
+		return ret;
+	}
+
 	private boolean getIsFallbackSupported() {
 		return policyEngine.getPluginContext().getConfig().getIsFallbackSupported();
 	}
@@ -30,7 +30,6 @@
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
 import org.apache.ranger.plugin.policyresourcematcher.RangerResourceEvaluator;
 import org.apache.ranger.plugin.resourcematcher.RangerAbstractResourceMatcher;
-import org.apache.ranger.plugin.resourcematcher.RangerResourceMatcher;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.apache.ranger.plugin.util.RangerRequestExprResolver;
 import org.apache.ranger.plugin.util.ServiceDefUtil;
@@ -182,6 +181,10 @@ public <E> RangerResourceTrie(RangerResourceDef resourceDef, List<E> evaluators,
         }
     }
 
+    public Character getSeparatorChar() {
+        return separatorChar;
+    }
+
     public Set<T> getEvaluatorsForResource(Object resource) {
         return getEvaluatorsForResource(resource, ResourceElementMatchingScope.SELF);
     }
@@ -441,9 +444,7 @@ private <E> TrieNode<T> buildTrie(RangerResourceDef resourceDef, List<E> evaluat
                 if (policyResource.getIsExcludes()) {
                     addInheritedEvaluator(resourceEvaluator);
                 } else {
-                    RangerResourceMatcher resourceMatcher = resourceEvaluator.getResourceMatcher(resourceName);
-
-                    if (resourceMatcher != null && (resourceMatcher.isMatchAny())) {
+                    if (resourceEvaluator.isMatchAny(resourceName)) {
                         ret.addWildcardEvaluator(resourceEvaluator);
                     } else {
                         if (CollectionUtils.isNotEmpty(policyResource.getValues())) {
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of access policies by resource-type and access-type, to answer "can the user be allowed the access on any
+ * resource of this type?" without evaluating policies - for example Kafka authorizeByResourceType().
+ *
+ * Only policy-items that allow the access unconditionally are used to answer ALLOWED; presence of conditions, validity
+ * schedules, allow-exceptions, deny policy-items or {OWNER} reference results in UNDETERMINED, so that the caller can
+ * fall back to evaluating policies. The index is immutable once built; it is built for a given set of repositories.
+ */
+public class RangerResourceTypeAccessIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerResourceTypeAccessIndex.class);
+
+    public enum AnyResourceAccess { ALLOWED, NOT_ALLOWED, UNDETERMINED }
+
+    private static final String ANY_ACCESS_TYPE = "*"; // in deniedAccessTypes: all accesses denied, due to deny-all-else policy
+
+    private final Map<String, Map<String, Principals>> allowedPrincipals = new HashMap<>(); // resourceName => accessType => principals
+    private final Map<String, Set<String>>             deniedAccessTypes = new HashMap<>(); // resourceName => accessTypes denied in some policy
+    private final Map<String, Collection<String>>      impliedGrants;
+
+    public RangerResourceTypeAccessIndex(Collection<RangerPolicyRepository> policyRepositories, Map<String, Collection<String>> impliedGrants) {
+        int policyCount = 0;
+
+        this.impliedGrants = impliedGrants != null ? impliedGrants : Collections.emptyMap();
+
+        for (RangerPolicyRepository policyRepository : policyRepositories) {
+            if (policyRepository == null) {
+                continue;
+            }
+
+            for (RangerPolicyEvaluator evaluator : policyRepository.getPolicyEvaluators()) {
+                RangerPolicy policy = evaluator.getPolicy();
+
+                if (policy != null && !Boolean.FALSE.equals(policy.getIsEnabled())) {
+                    addPolicy(policy);
+
+                    policyCount++;
+                }
+            }
+        }
+
+        LOG.debug("RangerResourceTypeAccessIndex: indexed {} policies, resourceTypes={}", policyCount, allowedPrincipals.keySet());
+    }
+
+    public AnyResourceAccess getAccess(String resourceName, String accessType, String user, Set<String> userGroups, Set<String> userRoles) {
+        final AnyResourceAccess ret;
+
+        Map<String, Principals> principalsByAccess = allowedPrincipals.get(resourceName);
+        Principals              principals         = principalsByAccess != null ? principalsByAccess.get(accessType) : null;
+
+        if (principals == null) {
+            ret = AnyResourceAccess.NOT_ALLOWED;
+        } else if (principals.unconditional.matches(user, userGroups, userRoles)) {
+            Set<String> deniedAccesses = deniedAccessTypes.get(resourceName);
+
+            if (deniedAccesses != null && (deniedAccesses.contains(accessType) || deniedAccesses.contains(ANY_ACCESS_TYPE))) {
+                ret = AnyResourceAccess.UNDETERMINED;
+            } else {
+                ret = AnyResourceAccess.ALLOWED;
+            }
+        } else if (principals.conditional.matches(user, userGroups, userRoles)) {
+            ret = AnyResourceAccess.UNDETERMINED;
+        } else {
+            ret = AnyResourceAccess.NOT_ALLOWED;
+        }
+
+        LOG.debug("RangerResourceTypeAccessIndex.getAccess(resourceName={}, accessType={}, user={}, userGroups={}, userRoles={}): {}", resourceName, accessType, user, userGroups, userRoles, ret);
+
+        return ret;
+    }
+
+    private void addPolicy(RangerPolicy policy) {
+        Set<String> resourceNames = getResourceNames(policy);
+
+        if (resourceNames.isEmpty()) {
+            return;
+        }
+
+        boolean isConditional = CollectionUtils.isNotEmpty(policy.getConditions()) ||
+                                CollectionUtils.isNotEmpty(policy.getValiditySchedules()) ||
+                                CollectionUtils.isNotEmpty(policy.getAllowExceptions());
+
+        for (String resourceName : resourceNames) {
+            Map<String, Principals> principalsByAccess = allowedPrincipals.computeIfAbsent(resourceName, k -> new HashMap<>());
+            Set<String>             deniedAccesses     = deniedAccessTypes.computeIfAbsent(resourceName, k -> new HashSet<>());
+
+            addPolicyItems(policy.getPolicyItems(), isConditional, principalsByAccess);
+
+            for (RangerPolicyItem policyItem : nonNull(policy.getDenyPolicyItems())) {
+                for (RangerPolicyItemAccess access : nonNull(policyItem.getAccesses())) {
+                    deniedAccesses.add(access.getType());
+                    deniedAccesses.addAll(nonNull(impliedGrants.get(access.getType())));
+                }
+            }
+
+            if (Boolean.TRUE.equals(policy.getIsDenyAllElse())) {
+                deniedAccesses.add(ANY_ACCESS_TYPE);
+            }
+        }
+    }
+
+    private void addPolicyItems(List<RangerPolicyItem> policyItems, boolean isPolicyConditional, Map<String, Principals> principalsByAccess) {
+        for (RangerPolicyItem policyItem : nonNull(policyItems)) {
+            boolean isConditional = isPolicyConditional || CollectionUtils.isNotEmpty(policyItem.getConditions());
+
+            for (RangerPolicyItemAccess access : nonNull(policyItem.getAccesses())) {
+                if (!Boolean.FALSE.equals(access.getIsAllowed())) {
+                    principalsByAccess.computeIfAbsent(access.getType(), k -> new Principals()).add(policyItem, isConditional);
+
+                    for (String impliedGrant : nonNull(impliedGrants.get(access.getType()))) {
+                        principalsByAccess.computeIfAbsent(impliedGrant, k -> new Principals()).add(policyItem, isConditional);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> getResourceNames(RangerPolicy policy) {
+        Set<String> ret = new HashSet<>();
+
+        addResourceNames(policy.getResources(), ret);
+
+        if (policy.getAdditionalResources() != null) {
+            for (Map<String, RangerPolicyResource> additionalResources : policy.getAdditionalResources()) {
+                addResourceNames(additionalResources, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private static void addResourceNames(Map<String, RangerPolicyResource> resources, Set<String> resourceNames) {
+        if (MapUtils.isNotEmpty(resources)) {
+            resourceNames.addAll(resources.keySet());
+        }
+    }
+
+    private static <T> Collection<T> nonNull(Collection<T> items) {
+        return items != null ? items : Collections.emptyList();
+    }
+
+    private static class Principals {
+        final PrincipalSet unconditional = new PrincipalSet();
+        final PrincipalSet conditional   = new PrincipalSet();
+
+        void add(RangerPolicyItem policyItem, boolean isConditional) {
+            PrincipalSet principals = isConditional ? conditional : unconditional;
+
+            for (String user : nonNull(policyItem.getUsers())) {
+                if (RangerPolicyEngine.RESOURCE_OWNER.equals(user)) { // depends on the owner of the resource
+                    conditional.isAnyUser = true;
+                } else if (RangerPolicyEngine.USER_CURRENT.equals(user)) {
+                    principals.isAnyUser = true;
+                } else {
+                    principals.users.add(user);
+                }
+            }
+
+            for (String group : nonNull(policyItem.getGroups())) {
+                if (RangerPolicyEngine.GROUP_PUBLIC.equals(group)) {
+                    principals.isAnyUser = true;
+                } else {
+                    principals.groups.add(group);
+                }
+            }
+
+            principals.roles.addAll(nonNull(policyItem.getRoles()));
+        }
+    }
+
+    private static class PrincipalSet {
+        final Set<String> users     = new HashSet<>();
+        final Set<String> groups    = new HashSet<>();
+        final Set<String> roles     = new HashSet<>();
+        boolean           isAnyUser = false;
+
+        boolean matches(String user, Set<String> userGroups, Set<String> userRoles) {
+            return isAnyUser ||
+                   (user != null && users.contains(user)) ||
+                   containsAny(groups, userGroups) ||
+                   containsAny(roles, userRoles);
+        }
+
+        private static boolean containsAny(Set<String> values, Set<String> toFind) {
+            if (!values.isEmpty() && toFind != null) {
+                for (String value : toFind) {
+                    if (values.contains(value)) {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+    }
+}
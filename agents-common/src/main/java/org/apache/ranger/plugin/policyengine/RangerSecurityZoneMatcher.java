@@ -54,6 +54,10 @@ public boolean hasTagService(String zoneName) {
         return zonesWithTagService.contains(zoneName);
     }
 
+    public boolean isUniformForDescendants(String resourceName, String resourceValue) {
+        return MapUtils.isEmpty(resourceZoneTrie) || RangerResourceEvaluatorsRetriever.isUniformForDescendants(resourceZoneTrie, resourceName, resourceValue, null, null);
+    }
+
     public Set<String> getZonesForResourceAndChildren(Map<String, ?> resource) {
         return getZonesForResourceAndChildren(resource, convertToAccessResource(resource));
     }
@@ -38,4 +38,10 @@ public interface RangerResourceEvaluator {
     boolean isAncestorOf(RangerServiceDef.RangerResourceDef resourceDef);
 
     boolean isLeaf(String resourceName);
+
+    default boolean isMatchAny(String resourceName) {
+        RangerResourceMatcher resourceMatcher = getResourceMatcher(resourceName);
+
+        return resourceMatcher != null && resourceMatcher.isMatchAny();
+    }
 }
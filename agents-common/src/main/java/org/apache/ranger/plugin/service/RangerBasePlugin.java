@@ -27,6 +27,7 @@
 import org.apache.ranger.admin.client.RangerAdminRESTClient;
 import org.apache.ranger.audit.provider.AuditHandler;
 import org.apache.ranger.audit.provider.AuditProviderFactory;
+import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.audit.provider.StandAloneAuditProviderFactory;
 import org.apache.ranger.authorization.hadoop.config.RangerAuditConfig;
 import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
@@ -44,6 +45,7 @@
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResource;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
@@ -52,6 +54,7 @@
 import org.apache.ranger.plugin.policyengine.RangerPolicyEngineImpl;
 import org.apache.ranger.plugin.policyengine.RangerResourceACLs;
 import org.apache.ranger.plugin.policyengine.RangerResourceAccessInfo;
+import org.apache.ranger.plugin.policyengine.RangerResourceTypeAccessIndex;
 import org.apache.ranger.plugin.policyengine.gds.GdsPolicyEngine;
 import org.apache.ranger.plugin.policyevaluator.RangerPolicyEvaluator;
 import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
@@ -76,6 +79,8 @@ public class RangerBasePlugin {
 	private final List<RangerChainedPlugin>   chainedPlugins;
 	private final boolean                     dedupStrings;
 	private       boolean                     isUserStoreEnricherAddedImplcitly = false;
+	private volatile RangerUserGroupsCache    userGroupsCache;
+	private volatile boolean                  isUserGroupsCacheInitialized      = false;
 
 
 	public RangerBasePlugin(String serviceType, String appId) {
@@ -238,6 +243,44 @@ public RangerServiceDef getServiceDef() {
 		return policyEngine != null ? policyEngine.getServiceDef() : null;
 	}
 
+	/**
+	 * Groups of the user, as resolved by Hadoop group mapping. Resolved groups are cached and refreshed in the background,
+	 * with groups from the user-store, if available, used until groups of the user are first resolved.
+	 */
+	public Set<String> getUserGroups(String userName) {
+		RangerUserGroupsCache userGroupsCache = getUserGroupsCache();
+
+		if (userGroupsCache == null) {
+			return MiscUtil.getGroupsForRequestUser(userName);
+		}
+
+		Set<String> seedGroups = userName != null && !userGroupsCache.isLoaded(userName) ? getUserStoreGroups(userName) : null;
+
+		return userGroupsCache.getGroups(userName, seedGroups);
+	}
+
+	public boolean isUniformForDescendants(RangerAccessResource resource) {
+		RangerPolicyEngine policyEngine = this.policyEngine;
+
+		return policyEngine != null && chainedPlugins.isEmpty() && policyEngine.isUniformForDescendants(resource);
+	}
+
+	public RangerResourceTypeAccessIndex.AnyResourceAccess getAccessOnAnyResource(String resourceName, String accessType, String user, Set<String> userGroups) {
+		RangerPolicyEngine policyEngine = this.policyEngine;
+
+		if (policyEngine == null) {
+			return RangerResourceTypeAccessIndex.AnyResourceAccess.NOT_ALLOWED;
+		}
+
+		RangerResourceTypeAccessIndex.AnyResourceAccess ret = policyEngine.getAccessOnAnyResource(resourceName, accessType, user, userGroups);
+
+		if (ret == RangerResourceTypeAccessIndex.AnyResourceAccess.NOT_ALLOWED && (!chainedPlugins.isEmpty() || getGdsPolicyEngine() != null)) {
+			ret = RangerResourceTypeAccessIndex.AnyResourceAccess.UNDETERMINED;
+		}
+
+		return ret;
+	}
+
 	public int getServiceDefId() {
 		RangerServiceDef serviceDef = getServiceDef();
 
@@ -647,6 +690,41 @@ public RangerAccessResult evalDataMaskPolicies(RangerAccessRequest request, Rang
 		return ret;
 	}
 
+	/**
+	 * Evaluates data-mask policies for requests on descendants of the resource in parentRequest, like all columns of a table
+	 * in a query. Evaluation of each request is skipped when no data-mask policy can apply to the descendants.
+	 *
+	 * @param parentRequest   request for the parent resource, like the table; its resourceMatchingScope should be SELF_OR_DESCENDANTS
+	 * @param requests        requests for the descendants, like columns of the table
+	 * @param resultProcessor processor for the results; processResult() is called for each result, as in evalDataMaskPolicies(request, resultProcessor)
+	 * @return results, in the same order as requests
+	 */
+	public Collection<RangerAccessResult> evalDataMaskPolicies(RangerAccessRequest parentRequest, Collection<RangerAccessRequest> requests, RangerAccessResultProcessor resultProcessor) {
+		RangerPolicyEngine             policyEngine = this.policyEngine;
+		Collection<RangerAccessResult> ret          = null;
+
+		if (policyEngine != null) {
+			if (chainedPlugins.isEmpty()) {
+				ret = policyEngine.evaluateDataMaskPolicies(parentRequest, requests, resultProcessor);
+
+				// results are already processed by resultProcessor; audit policies need to be evaluated only for masked results returned to the caller
+				for (RangerAccessResult result : ret) {
+					if (result.isMaskEnabled()) {
+						policyEngine.evaluateAuditPolicies(result);
+					}
+				}
+			} else {
+				ret = new ArrayList<>(requests.size());
+
+				for (RangerAccessRequest request : requests) {
+					ret.add(evalDataMaskPolicies(request, resultProcessor));
+				}
+			}
+		}
+
+		return ret;
+	}
+
 	public RangerAccessResult evalRowFilterPolicies(RangerAccessRequest request, RangerAccessResultProcessor resultProcessor) {
 		RangerPolicyEngine policyEngine = this.policyEngine;
 		RangerAccessResult ret          = null;
@@ -1168,6 +1246,27 @@ public RangerTagEnricher getTagEnricher() {
 		return ret;
 	}
 
+	private RangerUserGroupsCache getUserGroupsCache() {
+		if (!isUserGroupsCacheInitialized) {
+			synchronized (this) {
+				if (!isUserGroupsCacheInitialized) {
+					userGroupsCache              = RangerUserGroupsCache.create(pluginConfig);
+					isUserGroupsCacheInitialized = true;
+				}
+			}
+		}
+
+		return userGroupsCache;
+	}
+
+	private Set<String> getUserStoreGroups(String userName) {
+		RangerUserStoreEnricher  userStoreEnricher = getUserStoreEnricher();
+		RangerUserStore          userStore         = userStoreEnricher != null ? userStoreEnricher.getRangerUserStore() : null;
+		Map<String, Set<String>> userGroups        = userStore != null ? userStore.getUserGroupMapping() : null;
+
+		return userGroups != null ? userGroups.get(userName) : null;
+	}
+
 	public RangerUserStoreEnricher getUserStoreEnricher() {
 		RangerUserStoreEnricher ret         = null;
 		RangerAuthContext       authContext = getCurrentRangerAuthContext();
@@ -23,6 +23,8 @@
 import org.apache.ranger.plugin.util.SearchFilter;
 import org.apache.ranger.plugin.util.ServiceTags;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -52,6 +54,34 @@ public interface TagStore {
 
     List<RangerTagDef> getTagDefs(SearchFilter filter) throws Exception;
 
+    default List<RangerTagDef> getTagDefsByGuids(Collection<String> guids) throws Exception {
+        List<RangerTagDef> ret = new ArrayList<>();
+
+        for (String guid : guids) {
+            RangerTagDef tagDef = getTagDefByGuid(guid);
+
+            if (tagDef != null) {
+                ret.add(tagDef);
+            }
+        }
+
+        return ret;
+    }
+
+    default List<RangerTagDef> getTagDefsByNames(Collection<String> names) throws Exception {
+        List<RangerTagDef> ret = new ArrayList<>();
+
+        for (String name : names) {
+            RangerTagDef tagDef = getTagDefByName(name);
+
+            if (tagDef != null) {
+                ret.add(tagDef);
+            }
+        }
+
+        return ret;
+    }
+
     PList<RangerTagDef> getPaginatedTagDefs(SearchFilter filter) throws Exception;
 
     List<String> getTagTypes() throws Exception;
@@ -67,6 +97,20 @@ public interface TagStore {
 
     RangerTag getTagByGuid(String guid) throws Exception;
 
+    default List<RangerTag> getTagsByGuids(Collection<String> guids) throws Exception {
+        List<RangerTag> ret = new ArrayList<>();
+
+        for (String guid : guids) {
+            RangerTag tag = getTagByGuid(guid);
+
+            if (tag != null) {
+                ret.add(tag);
+            }
+        }
+
+        return ret;
+    }
+
     List<Long> getTagIdsForResourceId(Long resourceId) throws Exception;
 
     List<RangerTag> getTagsByType(String name) throws Exception;
@@ -94,12 +138,40 @@ public interface TagStore {
 
     RangerServiceResource getServiceResourceByGuid(String guid) throws Exception;
 
+    default List<RangerServiceResource> getServiceResourcesByGuids(Collection<String> guids) throws Exception {
+        List<RangerServiceResource> ret = new ArrayList<>();
+
+        for (String guid : guids) {
+            RangerServiceResource resource = getServiceResourceByGuid(guid);
+
+            if (resource != null) {
+                ret.add(resource);
+            }
+        }
+
+        return ret;
+    }
+
     List<RangerServiceResource> getServiceResourcesByService(String serviceName) throws Exception;
 
     List<String> getServiceResourceGuidsByService(String serviceName) throws Exception;
 
     RangerServiceResource getServiceResourceByServiceAndResourceSignature(String serviceName, String resourceSignature) throws Exception;
 
+    default List<RangerServiceResource> getServiceResourcesByServiceAndResourceSignatures(String serviceName, Collection<String> resourceSignatures) throws Exception {
+        List<RangerServiceResource> ret = new ArrayList<>();
+
+        for (String resourceSignature : resourceSignatures) {
+            RangerServiceResource resource = getServiceResourceByServiceAndResourceSignature(serviceName, resourceSignature);
+
+            if (resource != null) {
+                ret.add(resource);
+            }
+        }
+
+        return ret;
+    }
+
     List<RangerServiceResource> getServiceResources(SearchFilter filter) throws Exception;
 
     PList<RangerServiceResource> getPaginatedServiceResources(SearchFilter filter) throws Exception;
@@ -107,6 +179,16 @@ public interface TagStore {
 
     RangerTagResourceMap createTagResourceMap(RangerTagResourceMap tagResourceMap) throws Exception;
 
+    default List<RangerTagResourceMap> createTagResourceMaps(List<RangerTagResourceMap> tagResourceMaps) throws Exception {
+        List<RangerTagResourceMap> ret = new ArrayList<>(tagResourceMaps.size());
+
+        for (RangerTagResourceMap tagResourceMap : tagResourceMaps) {
+            ret.add(createTagResourceMap(tagResourceMap));
+        }
+
+        return ret;
+    }
+
     void deleteTagResourceMap(Long id) throws Exception;
 
     RangerTagResourceMap getTagResourceMap(Long id) throws Exception;
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher.EnrichedServiceTags;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Results of access checks for plugins that see the same requests repeatedly - like KMS and YARN. Entries are keyed
+ * by the plugin and are dropped when policies, tags, roles or user-store of the plugin change. Entries are not used
+ * at all while a policy has conditions or validity schedules, or a tag has validity periods, as their results depend
+ * on more than user and resource.
+ *
+ * Plugins should call beforeSetPolicies()/afterSetPolicies() around RangerBasePlugin.setPolicies().
+ */
+public class RangerAccessResultCache<V> {
+	private static final Logger LOG = LoggerFactory.getLogger(RangerAccessResultCache.class);
+
+	private final String             name;
+	private final int                maxEntries;
+	private volatile boolean         hasConditionalPolicies = true; // until policies are received
+	private volatile CacheEntries<V> entries;
+
+	public RangerAccessResultCache(String name, int maxEntries) {
+		this.name       = name;
+		this.maxEntries = maxEntries;
+		this.entries    = new CacheEntries<>(-1, -1, -1, -1, false, maxEntries);
+	}
+
+	/**
+	 * Stops use of cached results before conditional policies are used by the plugin.
+	 *
+	 * @return true if given policies have conditions; to be passed to afterSetPolicies()
+	 */
+	public boolean beforeSetPolicies(ServicePolicies policies) {
+		boolean ret = ServicePolicies.hasConditionalPolicies(policies);
+
+		if (ret) {
+			setHasConditionalPolicies(true);
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Resumes use of cached results after policies without conditions are used by the plugin. Deltas don't have all
+	 * policies, hence the cache remains unused after deltas until the next full download without conditional policies.
+	 */
+	public void afterSetPolicies(ServicePolicies policies, boolean hasConditionalPolicies) {
+		if (!hasConditionalPolicies && RangerPolicyDeltaUtil.hasPolicyDeltas(policies) != Boolean.TRUE) {
+			setHasConditionalPolicies(false);
+		}
+	}
+
+	/**
+	 * @return entries cached for the current policies, tags, roles and user-store of the plugin; null if results can't be cached
+	 */
+	public CacheEntries<V> getEntries(RangerBasePlugin plugin) {
+		if (hasConditionalPolicies) {
+			return null;
+		}
+
+		CacheEntries<V> ret = this.entries;
+
+		if (!ret.isCurrent(plugin)) {
+			synchronized (this) {
+				ret = this.entries;
+
+				if (!ret.isCurrent(plugin)) {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("RangerAccessResultCache(" + name + "): dropping " + ret.size() + " entries");
+					}
+
+					long policiesVersion  = plugin.getPoliciesVersion();
+					long tagsVersion      = plugin.getTagsVersion();
+					long rolesVersion     = plugin.getRolesVersion();
+					long userStoreVersion = plugin.getUserStoreVersion();
+
+					// versions are read before the tags: if tags change in between, the entries are replaced on the next call
+					ret = new CacheEntries<>(policiesVersion, tagsVersion, rolesVersion, userStoreVersion, hasTimeBoundTags(plugin), maxEntries);
+
+					this.entries = ret;
+				}
+			}
+		}
+
+		return ret.hasTimeBoundTags ? null : ret;
+	}
+
+	/**
+	 * @return user|groups of the request, with groups sorted; null if the request doesn't have user or groups
+	 */
+	public static String getUserKey(RangerAccessRequest request) {
+		if (request.getUser() == null || request.getUserGroups() == null) {
+			return null;
+		}
+
+		return request.getUser() + "|" + new TreeSet<>(request.getUserGroups());
+	}
+
+	/**
+	 * @return result for the given request, with access and audit results copied from the cached result
+	 */
+	public static RangerAccessResult getResult(RangerAccessResult cachedResult, RangerAccessRequest request) {
+		RangerAccessResult ret = new RangerAccessResult(cachedResult.getPolicyType(), cachedResult.getServiceName(), cachedResult.getServiceDef(), request);
+
+		ret.setAccessResultFrom(cachedResult);
+		ret.setAuditResultFrom(cachedResult);
+
+		return ret;
+	}
+
+	private boolean hasTimeBoundTags(RangerBasePlugin plugin) {
+		RangerTagEnricher   tagEnricher = plugin.getTagEnricher();
+		EnrichedServiceTags serviceTags = tagEnricher != null ? tagEnricher.getEnrichedServiceTags() : null;
+		boolean             ret         = serviceTags != null && ServiceTags.hasTimeBoundTags(serviceTags.getServiceTags());
+
+		if (ret && LOG.isDebugEnabled()) {
+			LOG.debug("RangerAccessResultCache(" + name + "): tags have validity periods, results will not be cached");
+		}
+
+		return ret;
+	}
+
+	private void setHasConditionalPolicies(boolean hasConditionalPolicies) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("RangerAccessResultCache(" + name + ").setHasConditionalPolicies(" + hasConditionalPolicies + ")");
+		}
+
+		this.hasConditionalPolicies = hasConditionalPolicies;
+	}
+
+	public static class CacheEntries<V> {
+		private final long           policiesVersion;
+		private final long           tagsVersion;
+		private final long           rolesVersion;
+		private final long           userStoreVersion;
+		private final boolean        hasTimeBoundTags;
+		private final int            maxEntries;
+		private final Map<String, V> entries = new ConcurrentHashMap<>();
+
+		CacheEntries(long policiesVersion, long tagsVersion, long rolesVersion, long userStoreVersion, boolean hasTimeBoundTags, int maxEntries) {
+			this.policiesVersion  = policiesVersion;
+			this.tagsVersion      = tagsVersion;
+			this.rolesVersion     = rolesVersion;
+			this.userStoreVersion = userStoreVersion;
+			this.hasTimeBoundTags = hasTimeBoundTags;
+			this.maxEntries       = maxEntries;
+		}
+
+		public V get(String key) {
+			return key != null ? entries.get(key) : null;
+		}
+
+		public void put(String key, V value) {
+			if (key != null && value != null) {
+				makeRoom(key);
+
+				entries.put(key, value);
+			}
+		}
+
+		public V computeIfAbsent(String key, Function<String, V> mappingFunction) {
+			V ret = entries.get(key);
+
+			if (ret == null) {
+				makeRoom(key);
+
+				ret = entries.computeIfAbsent(key, mappingFunction);
+			}
+
+			return ret;
+		}
+
+		public int size() {
+			return entries.size();
+		}
+
+		boolean isCurrent(RangerBasePlugin plugin) {
+			return policiesVersion == plugin.getPoliciesVersion() &&
+			       tagsVersion == plugin.getTagsVersion() &&
+			       rolesVersion == plugin.getRolesVersion() &&
+			       userStoreVersion == plugin.getUserStoreVersion();
+		}
+
+		private void makeRoom(String key) {
+			if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+				entries.clear();
+			}
+		}
+	}
+}
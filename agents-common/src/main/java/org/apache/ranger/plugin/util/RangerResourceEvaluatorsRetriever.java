@@ -22,9 +22,12 @@
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.collections.Predicate;
+import org.apache.commons.lang.StringUtils;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceElementMatchingScope;
 import org.apache.ranger.plugin.policyengine.RangerResourceTrie;
 import org.apache.ranger.plugin.policyresourcematcher.RangerResourceEvaluator;
+import org.apache.ranger.plugin.resourcematcher.RangerResourceMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -128,4 +131,56 @@ public static <T  extends RangerResourceEvaluator> Collection<T> getEvaluators(M
 
         return ret;
     }
+
+    /*
+     * Returns true if every evaluator that can match a descendant of the given resource-value (for ex: a path under the
+     * given directory) matches the resource-value itself recursively, hence matches all its descendants alike. Such
+     * evaluators give the same result for every descendant; there are no evaluators specific to a part of the subtree.
+     * predicate, when specified, is an additional check every such evaluator must pass. Returns false when the
+     * evaluators can't be looked up, for ex: when trie is not available for the resource.
+     */
+    public static <T  extends RangerResourceEvaluator> boolean isUniformForDescendants(Map<String, RangerResourceTrie<T>> resourceTrie, String resourceName, String resourceValue, Map<String, Object> evalContext, Predicate predicate) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("==> RangerResourceEvaluatorsRetriever.isUniformForDescendants(" + resourceName + "=" + resourceValue + ")");
+        }
+
+        boolean               ret  = false;
+        RangerResourceTrie<T> trie = resourceTrie != null ? resourceTrie.get(resourceName) : null;
+
+        if (trie != null && StringUtils.isNotEmpty(resourceValue)) {
+            Character separator   = trie.getSeparatorChar();
+            String    childPrefix = resourceValue.charAt(resourceValue.length() - 1) == separator ? resourceValue : (resourceValue + separator);
+            Set<T>    evaluators  = trie.getEvaluatorsForResource(childPrefix, ResourceElementMatchingScope.SELF_OR_PREFIX);
+
+            ret = true;
+
+            if (evaluators != null) {
+                for (T evaluator : evaluators) {
+                    if (!isRecursiveMatch(evaluator, resourceName, resourceValue, evalContext) || (predicate != null && !predicate.evaluate(evaluator))) {
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("RangerResourceEvaluatorsRetriever.isUniformForDescendants(" + resourceName + "=" + resourceValue + "): evaluator(id=" + evaluator.getId() + ") is not uniform for descendants");
+                        }
+
+                        ret = false;
+
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("<== RangerResourceEvaluatorsRetriever.isUniformForDescendants(" + resourceName + "=" + resourceValue + "): ret=" + ret);
+        }
+
+        return ret;
+    }
+
+    private static boolean isRecursiveMatch(RangerResourceEvaluator evaluator, String resourceName, String resourceValue, Map<String, Object> evalContext) {
+        Map<String, RangerPolicyResource> resources      = evaluator.getPolicyResource();
+        RangerPolicyResource              policyResource = resources != null && resources.size() == 1 ? resources.get(resourceName) : null;
+        RangerResourceMatcher             matcher        = policyResource != null ? evaluator.getResourceMatcher(resourceName) : null;
+
+        return matcher != null && Boolean.TRUE.equals(policyResource.getIsRecursive()) && !Boolean.TRUE.equals(policyResource.getIsExcludes()) && matcher.isMatch(resourceValue, ResourceElementMatchingScope.SELF, evalContext);
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.audit.provider.MiscUtil;
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches groups of users, as resolved by Hadoop group mapping, so that authorizers don't resolve them in every request.
+ * Cached values are refreshed by a background thread; requests never wait for a refresh. Only the first lookup of a user
+ * waits for the groups to be resolved - unless groups of the user are available from the user-store downloaded from
+ * Ranger admin, in which case these are used until the first refresh. Users not looked up for a while are dropped.
+ * Empty groups - which is also what a failure to resolve the groups looks like - are cached only for a short period,
+ * after which the next lookup resolves the groups again.
+ */
+public class RangerUserGroupsCache extends RangerCache<String, Set<String>> {
+    private static final Logger LOG = LoggerFactory.getLogger(RangerUserGroupsCache.class);
+
+    public static final String PROP_SUFFIX_ENABLED             = ".user.groups.cache.enabled";
+    public static final String PROP_SUFFIX_LOADER_THREADS      = ".user.groups.cache.loader.threads";
+    public static final String PROP_SUFFIX_REFRESH_INTERVAL_MS = ".user.groups.cache.refresh.interval.ms";
+    public static final String PROP_SUFFIX_IDLE_EXPIRY_MS      = ".user.groups.cache.idle.expiry.ms";
+    public static final String PROP_SUFFIX_NEGATIVE_EXPIRY_MS  = ".user.groups.cache.negative.expiry.ms";
+
+    public static final boolean DEFAULT_ENABLED             = true;
+    public static final int     DEFAULT_LOADER_THREADS      = 2;
+    public static final long    DEFAULT_REFRESH_INTERVAL_MS = 5 * 60 * 1000L;  // 5 minutes, same as Hadoop groups cache
+    public static final long    DEFAULT_IDLE_EXPIRY_MS      = 60 * 60 * 1000L; // 1 hour
+    public static final long    DEFAULT_NEGATIVE_EXPIRY_MS  = 30 * 1000L;      // 30 seconds, same as Hadoop groups negative cache
+
+    private final long              idleExpiryMs;
+    private final long              negativeExpiryMs;
+    private final Map<String, Long> lastAccessTimes   = new ConcurrentHashMap<>();
+    private final Map<String, Long> noGroupsLoadTimes = new ConcurrentHashMap<>(); // users whose groups resolved to empty
+
+    public RangerUserGroupsCache(String name, int loaderThreadsCount, long refreshIntervalMs, long idleExpiryMs, long negativeExpiryMs) {
+        super(name, null, loaderThreadsCount, RefreshMode.ON_SCHEDULE, refreshIntervalMs, -1, -1);
+
+        this.idleExpiryMs     = idleExpiryMs;
+        this.negativeExpiryMs = negativeExpiryMs;
+
+        setLoader(new UserGroupsLoader());
+    }
+
+    public static RangerUserGroupsCache create(RangerPluginConfig config) {
+        String  propertyPrefix = config.getPropertyPrefix();
+        boolean isEnabled      = config.getBoolean(propertyPrefix + PROP_SUFFIX_ENABLED, DEFAULT_ENABLED);
+
+        if (!isEnabled) {
+            LOG.info("{}{} is false: groups of users will be resolved in every request", propertyPrefix, PROP_SUFFIX_ENABLED);
+
+            return null;
+        }
+
+        int  loaderThreads     = config.getInt(propertyPrefix + PROP_SUFFIX_LOADER_THREADS, DEFAULT_LOADER_THREADS);
+        long refreshIntervalMs = config.getLong(propertyPrefix + PROP_SUFFIX_REFRESH_INTERVAL_MS, DEFAULT_REFRESH_INTERVAL_MS);
+        long idleExpiryMs      = config.getLong(propertyPrefix + PROP_SUFFIX_IDLE_EXPIRY_MS, DEFAULT_IDLE_EXPIRY_MS);
+        long negativeExpiryMs  = config.getLong(propertyPrefix + PROP_SUFFIX_NEGATIVE_EXPIRY_MS, DEFAULT_NEGATIVE_EXPIRY_MS);
+
+        return new RangerUserGroupsCache(config.getServiceName() + "-user-groups", Math.max(loaderThreads, 1), refreshIntervalMs, idleExpiryMs, negativeExpiryMs);
+    }
+
+    /**
+     * @param userName   name of the user
+     * @param seedGroups groups to use if the user is not in the cache yet; null to resolve the groups in the caller thread
+     * @return groups of the user; never null
+     */
+    public Set<String> getGroups(String userName, Set<String> seedGroups) {
+        if (userName == null) {
+            return Collections.emptySet();
+        }
+
+        lastAccessTimes.put(userName, System.currentTimeMillis());
+
+        Set<String> ret = get(userName, seedGroups);
+
+        // only the lookup that claims the expired entry resolves again; concurrent lookups use the cached empty groups
+        if (ret != null && ret.isEmpty() && claimExpiredNoGroups(userName)) {
+            LOG.debug("getGroups(userName={}): no groups resolved in last {}ms. Resolving again", userName, negativeExpiryMs);
+
+            remove(userName);
+
+            ret = get(userName, seedGroups);
+        }
+
+        return ret != null ? ret : Collections.emptySet();
+    }
+
+    // resolves groups of the user from the source; overridden in tests
+    protected Set<String> resolveGroups(String userName) {
+        return MiscUtil.getGroupsForRequestUser(userName);
+    }
+
+    private boolean claimExpiredNoGroups(String userName) {
+        Long loadTime = noGroupsLoadTimes.get(userName);
+
+        return loadTime != null && (System.currentTimeMillis() - loadTime) > negativeExpiryMs && noGroupsLoadTimes.remove(userName, loadTime);
+    }
+
+    private class UserGroupsLoader extends ValueLoader<String, Set<String>> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public RefreshableValue<Set<String>> load(String userName, RefreshableValue<Set<String>> currentValue, Object seedGroups) throws Exception {
+            final RefreshableValue<Set<String>> ret;
+
+            if (currentValue == null && seedGroups instanceof Set && !((Set<String>) seedGroups).isEmpty()) {
+                LOG.debug("UserGroupsLoader.load(userName={}): using groups from user-store {}", userName, seedGroups);
+
+                ret = new RefreshableValue<>(Collections.unmodifiableSet((Set<String>) seedGroups));
+            } else if (currentValue != null && isIdle(userName)) {
+                LOG.debug("UserGroupsLoader.load(userName={}): not looked up in last {}ms. Removing from cache", userName, idleExpiryMs);
+
+                lastAccessTimes.remove(userName);
+                noGroupsLoadTimes.remove(userName);
+
+                throw new KeyNotFoundException(userName);
+            } else {
+                Set<String> groups = resolveGroups(userName);
+
+                if (groups == null || groups.isEmpty()) {
+                    LOG.debug("UserGroupsLoader.load(userName={}): no groups resolved. Caching for {}ms", userName, negativeExpiryMs);
+
+                    noGroupsLoadTimes.put(userName, System.currentTimeMillis());
+
+                    ret = new RefreshableValue<>(Collections.emptySet());
+                } else {
+                    noGroupsLoadTimes.remove(userName);
+
+                    ret = new RefreshableValue<>(Collections.unmodifiableSet(groups));
+                }
+            }
+
+            return ret;
+        }
+
+        private boolean isIdle(String userName) {
+            Long lastAccessTime = lastAccessTimes.get(userName);
+
+            return lastAccessTime == null || (System.currentTimeMillis() - lastAccessTime) > idleExpiryMs;
+        }
+    }
+}
@@ -28,6 +28,7 @@
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.ranger.authorization.utils.StringUtil;
 import org.apache.ranger.plugin.model.RangerPolicy;
@@ -535,4 +536,78 @@ public static ServicePolicies applyDelta(final ServicePolicies servicePolicies,
 
 		return ret;
 	}
+
+	/**
+	 * @return true if any resource, tag or security-zone policy - including policies in deltas - has conditions or
+	 * validity schedules; results of such policies depend on more than the user and the resource accessed
+	 */
+	public static boolean hasConditionalPolicies(ServicePolicies policies) {
+		boolean ret = false;
+
+		if (policies != null) {
+			ret = hasConditionalPolicies(policies.getPolicies()) || hasConditionalPolicyDeltas(policies.getPolicyDeltas());
+
+			if (!ret && policies.getTagPolicies() != null) {
+				ret = hasConditionalPolicies(policies.getTagPolicies().getPolicies());
+			}
+
+			if (!ret && policies.getSecurityZones() != null) {
+				for (SecurityZoneInfo zoneInfo : policies.getSecurityZones().values()) {
+					if (hasConditionalPolicies(zoneInfo.getPolicies()) || hasConditionalPolicyDeltas(zoneInfo.getPolicyDeltas())) {
+						ret = true;
+
+						break;
+					}
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	private static boolean hasConditionalPolicyDeltas(List<RangerPolicyDelta> deltas) {
+		if (deltas != null) {
+			for (RangerPolicyDelta delta : deltas) {
+				if (delta != null && delta.getPolicy() != null && isConditional(delta.getPolicy())) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean hasConditionalPolicies(List<RangerPolicy> policies) {
+		if (policies != null) {
+			for (RangerPolicy policy : policies) {
+				if (policy != null && isConditional(policy)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean isConditional(RangerPolicy policy) {
+		if (CollectionUtils.isNotEmpty(policy.getConditions()) || CollectionUtils.isNotEmpty(policy.getValiditySchedules())) {
+			return true;
+		}
+
+		return hasConditions(policy.getPolicyItems()) || hasConditions(policy.getDenyPolicyItems()) ||
+		       hasConditions(policy.getAllowExceptions()) || hasConditions(policy.getDenyExceptions()) ||
+		       hasConditions(policy.getRowFilterPolicyItems()) || hasConditions(policy.getDataMaskPolicyItems());
+	}
+
+	private static boolean hasConditions(List<? extends RangerPolicy.RangerPolicyItem> policyItems) {
+		if (policyItems != null) {
+			for (RangerPolicy.RangerPolicyItem policyItem : policyItems) {
+				if (policyItem != null && CollectionUtils.isNotEmpty(policyItem.getConditions())) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
 }
@@ -20,6 +20,7 @@
 package org.apache.ranger.plugin.util;
 
 
+import java.util.AbstractList;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
@@ -27,6 +28,7 @@
 import java.util.Map;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.RandomAccess;
 
 import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.ranger.authorization.utils.StringUtil;
@@ -245,6 +247,19 @@ public StringBuilder toString(StringBuilder sb) {
 		return sb;
 	}
 
+	// tags with validity periods apply only at some times, hence results of access checks involving them depend on access time
+	public static boolean hasTimeBoundTags(ServiceTags serviceTags) {
+		if (serviceTags != null && serviceTags.getTags() != null) {
+			for (RangerTag tag : serviceTags.getTags().values()) {
+				if (tag != null && tag.getValidityPeriods() != null && !tag.getValidityPeriods().isEmpty()) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
 	public int dedupTags() {
 		final int             ret;
 		final Map<Long, Long> replacedIds      = new HashMap<>();
@@ -326,4 +341,70 @@ public void dedupStrings() {
 			}
 		}
 	}
+
+	/**
+	 * Reduces the heap used to hold this object in plugins: tag-ids of each resource are stored in a long[] instead of a
+	 * list of Long objects, and tags having identical attributes/options share one instance of these maps. Hence, after
+	 * this call, attributes/options of tags must not be modified and tag-id lists can only be updated in place - i.e.
+	 * with set(), as done by dedupTags() and delta processing.
+	 */
+	public void compact() {
+		if (tags != null) {
+			Map<Map<String, String>, Map<String, String>> attributesTbl = new HashMap<>();
+			Map<Map<String, Object>, Map<String, Object>> optionsTbl    = new HashMap<>();
+
+			for (RangerTag tag : tags.values()) {
+				if (tag.getAttributes() != null) {
+					tag.setAttributes(attributesTbl.computeIfAbsent(tag.getAttributes(), k -> k));
+				}
+
+				if (tag.getOptions() != null) {
+					tag.setOptions(optionsTbl.computeIfAbsent(tag.getOptions(), k -> k));
+				}
+			}
+		}
+
+		if (resourceToTagIds != null) {
+			for (Map.Entry<Long, List<Long>> entry : resourceToTagIds.entrySet()) {
+				List<Long> tagIds = entry.getValue();
+
+				if (tagIds != null && !(tagIds instanceof CompactTagIds)) {
+					entry.setValue(new CompactTagIds(tagIds));
+				}
+			}
+		}
+	}
+
+	static class CompactTagIds extends AbstractList<Long> implements RandomAccess, java.io.Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final long[] tagIds;
+
+		CompactTagIds(List<Long> tagIds) {
+			this.tagIds = new long[tagIds.size()];
+
+			for (int i = 0; i < this.tagIds.length; i++) {
+				this.tagIds[i] = tagIds.get(i);
+			}
+		}
+
+		@Override
+		public Long get(int index) {
+			return tagIds[index];
+		}
+
+		@Override
+		public Long set(int index, Long tagId) {
+			long ret = tagIds[index];
+
+			tagIds[index] = tagId;
+
+			return ret;
+		}
+
+		@Override
+		public int size() {
+			return tagIds.length;
+		}
+	}
 }
@@ -25,11 +25,14 @@
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
 import org.apache.ranger.plugin.contextenricher.TestTagEnricher.TagEnricherTestCase.TestData;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
 import org.apache.ranger.plugin.model.RangerServiceDef;
 import org.apache.ranger.plugin.model.RangerServiceResource;
 import org.apache.ranger.plugin.model.RangerTag;
 import org.apache.ranger.plugin.model.RangerTagDef;
+import org.apache.ranger.plugin.model.validation.RangerServiceDefHelper;
 import org.apache.ranger.plugin.policyengine.*;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher;
 import org.apache.ranger.plugin.policyresourcematcher.RangerPolicyResourceMatcher.MatchType;
@@ -44,11 +47,13 @@
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class TestTagEnricher {
@@ -91,68 +96,248 @@ public void testRangerTagsForEvalSort() {
     public void testTagEnricher_hive() {
         String[] hiveTestResourceFiles = { "/contextenricher/test_tagenricher_hive.json" };
 
-        runTestsFromResourceFiles(hiveTestResourceFiles);
+        runTestsFromResourceFiles(hiveTestResourceFiles, true);
+        runTestsFromResourceFiles(hiveTestResourceFiles, false);
     }
 
-    private void runTestsFromResourceFiles(String[] resourceNames) {
-        for(String resourceName : resourceNames) {
-            InputStream       inStream = this.getClass().getResourceAsStream(resourceName);
-            InputStreamReader reader   = new InputStreamReader(inStream);
+    @Test
+    public void testTagEnricher_hive_compactionDoesNotChangeTags() {
+        TagEnricherTestCase testCase          = readTestCase("/contextenricher/test_tagenricher_hive.json");
+        RangerTagEnricher   compactEnricher   = createTagEnricher(testCase, true);
+        RangerTagEnricher   noCompactEnricher = createTagEnricher(testCase, false);
+
+        compactEnricher.setServiceTags(createServiceTags(readTestCase("/contextenricher/test_tagenricher_hive.json")));
+        noCompactEnricher.setServiceTags(createServiceTags(readTestCase("/contextenricher/test_tagenricher_hive.json")));
+
+        for (TestData test : testCase.tests) {
+            RangerAccessRequestImpl compactRequest   = createRequest(test, testCase.serviceDef);
+            RangerAccessRequestImpl noCompactRequest = createRequest(test, testCase.serviceDef);
+
+            compactEnricher.enrich(compactRequest);
+            noCompactEnricher.enrich(noCompactRequest);
+
+            assertEquals(test.name, RangerAccessRequestUtil.getRequestTagsFromContext(noCompactRequest.getContext()), RangerAccessRequestUtil.getRequestTagsFromContext(compactRequest.getContext()));
+        }
+
+        assertEquals(noCompactEnricher.getEnrichedServiceTags().getServiceTags().getResourceToTagIds(), compactEnricher.getEnrichedServiceTags().getServiceTags().getResourceToTagIds());
+
+        for (List<Long> tagIds : compactEnricher.getEnrichedServiceTags().getServiceTags().getResourceToTagIds().values()) {
+            assertFalse("tag-ids must be compacted", tagIds instanceof ArrayList);
+        }
 
-            runTests(reader, resourceName);
+        for (List<Long> tagIds : noCompactEnricher.getEnrichedServiceTags().getServiceTags().getResourceToTagIds().values()) {
+            assertTrue("tag-ids must not be compacted", tagIds instanceof ArrayList);
         }
     }
 
-    private void runTests(InputStreamReader reader, String testName) {
-        TagEnricherTestCase testCase = gsonBuilder.fromJson(reader, TagEnricherTestCase.class);
+    @Test
+    public void testLazyResourceMatcher() {
+        TagEnricherTestCase                   testCase         = readTestCase("/contextenricher/test_tagenricher_hive.json");
+        RangerServiceDefHelper                serviceDefHelper = new RangerServiceDefHelper(testCase.serviceDef, false);
+        List<RangerServiceResource>           serviceResources = new ArrayList<>(testCase.serviceResources);
+        RangerTagEnricher.ResourceHierarchies hierarchies      = new RangerTagEnricher.ResourceHierarchies();
 
-        assertTrue("invalid input: " + testName, testCase != null && testCase.serviceDef != null && testCase.serviceResources != null && testCase.tests != null);
+        // values that the lazy matcher can't answer for without creating the resource matchers
+        for (String value : new String[] { "*", "fin*", "fin?nce", "{USER}" }) {
+            Map<String, RangerPolicyResource> resourceElements = new HashMap<>();
+
+            resourceElements.put("database", new RangerPolicyResource(value));
+            resourceElements.put("table", new RangerPolicyResource("tax_2010"));
+
+            serviceResources.add(new RangerServiceResource(testCase.serviceName, resourceElements));
+        }
+
+        for (RangerServiceResource serviceResource : serviceResources) {
+            RangerServiceResourceMatcher eager = RangerTagEnricher.createRangerServiceResourceMatcher(serviceResource, serviceDefHelper, hierarchies, null, false);
+            RangerServiceResourceMatcher lazy  = RangerTagEnricher.createRangerServiceResourceMatcher(serviceResource, serviceDefHelper, hierarchies, null, true);
+
+            for (String resourceName : serviceResource.getResourceElements().keySet()) {
+                assertEquals(serviceResource + ": isMatchAny(" + resourceName + ")", eager.isMatchAny(resourceName), lazy.isMatchAny(resourceName));
+            }
+
+            for (TestData test : testCase.tests) {
+                RangerAccessRequestImpl request = createRequest(test, testCase.serviceDef);
+
+                assertEquals(serviceResource + ": " + test.name, eager.getMatchType(request.getResource(), request.getResourceElementMatchingScopes(), request.getContext()), lazy.getMatchType(request.getResource(), request.getResourceElementMatchingScopes(), request.getContext()));
+            }
+        }
+    }
+
+    @Test
+    public void testTagEnricher_hive_deltas() {
+        runDeltaTests(true);
+    }
+
+    @Test
+    public void testTagEnricher_hive_deltas_withoutCompaction() {
+        runDeltaTests(false);
+    }
+
+    private void runDeltaTests(boolean compactServiceTags) {
+        TagEnricherTestCase testCase = readTestCase("/contextenricher/test_tagenricher_hive.json");
+
+        for (RangerServiceResource serviceResource : testCase.serviceResources) {
+            serviceResource.setResourceSignature("sig-" + serviceResource.getId());
+        }
+
+        // initial tags: first half of the resources, with the first resource having a different column
+        List<RangerServiceResource> initialResources = new ArrayList<>();
+        Map<Long, List<Long>>       initialTagIds    = new HashMap<>();
+        int                         initialCount     = testCase.serviceResources.size() / 2;
+
+        for (int i = 0; i < initialCount; i++) {
+            RangerServiceResource serviceResource = testCase.serviceResources.get(i);
+
+            if (i == 0) {
+                Map<String, RangerPolicyResource> resourceElements = new HashMap<>(serviceResource.getResourceElements());
+
+                resourceElements.put("column", new RangerPolicyResource("old_column"));
+
+                serviceResource = new RangerServiceResource(serviceResource.getGuid(), serviceResource.getServiceName(), resourceElements, "old-sig");
+                serviceResource.setId(testCase.serviceResources.get(i).getId());
+            }
+
+            initialResources.add(serviceResource);
+            initialTagIds.put(serviceResource.getId(), new ArrayList<>(testCase.resourceToTagIds.get(serviceResource.getId())));
+        }
 
         ServiceTags serviceTags = new ServiceTags();
         serviceTags.setServiceName(testCase.serviceName);
+        serviceTags.setTagVersion(1L);
         serviceTags.setTagDefinitions(testCase.tagDefinitions);
         serviceTags.setTags(testCase.tags);
-        serviceTags.setServiceResources(testCase.serviceResources);
-        serviceTags.setResourceToTagIds(testCase.resourceToTagIds);
+        serviceTags.setServiceResources(initialResources);
+        serviceTags.setResourceToTagIds(initialTagIds);
 
-        RangerTagEnricher tagEnricher = new RangerTagEnricher();
+        RangerTagEnricher tagEnricher = createTagEnricher(testCase, compactServiceTags);
 
-        tagEnricher.setServiceName(testCase.serviceName);
-        tagEnricher.setServiceDef(testCase.serviceDef);
-        tagEnricher.init();
         tagEnricher.setServiceTags(serviceTags);
 
+        // deltas: update the first resource and add the remaining resources
+        List<RangerServiceResource> deltaResources = new ArrayList<>();
+        Map<Long, List<Long>>       deltaTagIds    = new HashMap<>();
+
+        for (int i = 0; i < testCase.serviceResources.size(); i++) {
+            if (i == 0 || i >= initialCount) {
+                RangerServiceResource serviceResource = testCase.serviceResources.get(i);
+
+                deltaResources.add(serviceResource);
+                deltaTagIds.put(serviceResource.getId(), new ArrayList<>(testCase.resourceToTagIds.get(serviceResource.getId())));
+            }
+        }
+
+        ServiceTags deltas = new ServiceTags();
+        deltas.setServiceName(testCase.serviceName);
+        deltas.setTagVersion(2L);
+        deltas.setIsDelta(true);
+        deltas.setTagsChangeExtent(ServiceTags.TagsChangeExtent.SERVICE_RESOURCE);
+        deltas.setServiceResources(deltaResources);
+        deltas.setResourceToTagIds(deltaTagIds);
+
+        tagEnricher.setServiceTags(deltas);
+
+        assertEquals("tag-version after deltas", Long.valueOf(2L), tagEnricher.getEnrichedServiceTags().getServiceTags().getTagVersion());
+        assertEquals("resource-matchers after deltas", testCase.serviceResources.size(), tagEnricher.getEnrichedServiceTags().getServiceResourceMatchers().size());
+
+        verifyTags(tagEnricher, testCase);
+    }
+
+    private void runTestsFromResourceFiles(String[] resourceNames, boolean compactServiceTags) {
+        for(String resourceName : resourceNames) {
+            InputStream       inStream = this.getClass().getResourceAsStream(resourceName);
+            InputStreamReader reader   = new InputStreamReader(inStream);
+
+            runTests(reader, resourceName, compactServiceTags);
+        }
+    }
+
+    private void runTests(InputStreamReader reader, String testName, boolean compactServiceTags) {
+        TagEnricherTestCase testCase = gsonBuilder.fromJson(reader, TagEnricherTestCase.class);
+
+        assertTrue("invalid input: " + testName, testCase != null && testCase.serviceDef != null && testCase.serviceResources != null && testCase.tests != null);
+
+        RangerTagEnricher tagEnricher = createTagEnricher(testCase, compactServiceTags);
+
+        tagEnricher.setServiceTags(createServiceTags(testCase));
+
+        verifyTags(tagEnricher, testCase);
+    }
+
+    private void verifyTags(RangerTagEnricher tagEnricher, TagEnricherTestCase testCase) {
         List<String> expectedTags = new ArrayList<>();
         List<String> resultTags   = new ArrayList<>();
 
-        for (TestData test : testCase.tests) {
-            RangerAccessRequestImpl request = new RangerAccessRequestImpl(test.resource, test.accessType, "testUser", null, null);
+        // tags for resources accessed in the 2nd pass are found in the resource-tags cache
+        for (int pass = 0; pass < 2; pass++) {
+            for (TestData test : testCase.tests) {
+                RangerAccessRequestImpl request = createRequest(test, testCase.serviceDef);
 
-            ((RangerMutableResource)request.getResource()).setServiceDef(testCase.serviceDef);
-            tagEnricher.enrich(request);
+                tagEnricher.enrich(request);
 
-            List<RangerTag> expected = test.result;
+                List<RangerTag> expected = test.result;
 
-            Set<RangerTagForEval> result   = RangerAccessRequestUtil.getRequestTagsFromContext(request.getContext());
+                Set<RangerTagForEval> result   = RangerAccessRequestUtil.getRequestTagsFromContext(request.getContext());
 
-            expectedTags.clear();
-            if(expected != null) {
-                for (RangerTag tag : expected) {
-                    expectedTags.add(tag.getType());
+                expectedTags.clear();
+                if(expected != null) {
+                    for (RangerTag tag : expected) {
+                        expectedTags.add(tag.getType());
+                    }
+                    Collections.sort(expectedTags);
                 }
-                Collections.sort(expectedTags);
-            }
 
-            resultTags.clear();
-            if(result != null) {
-                for(RangerTagForEval tag : result) {
-                    resultTags.add(tag.getType());
+                resultTags.clear();
+                if(result != null) {
+                    for(RangerTagForEval tag : result) {
+                        resultTags.add(tag.getType());
+                    }
+                    Collections.sort(resultTags);
                 }
-                Collections.sort(resultTags);
-            }
 
-            assertEquals(test.name, expectedTags, resultTags);
+                assertEquals(test.name, expectedTags, resultTags);
+            }
         }
+
+        assertTrue("resource-tags cache is empty", tagEnricher.getEnrichedServiceTags().getResourceTagsCache().size() > 0);
+    }
+
+    private TagEnricherTestCase readTestCase(String resourceName) {
+        InputStream inStream = this.getClass().getResourceAsStream(resourceName);
+
+        return gsonBuilder.fromJson(new InputStreamReader(inStream), TagEnricherTestCase.class);
+    }
+
+    private static ServiceTags createServiceTags(TagEnricherTestCase testCase) {
+        ServiceTags serviceTags = new ServiceTags();
+        serviceTags.setServiceName(testCase.serviceName);
+        serviceTags.setTagDefinitions(testCase.tagDefinitions);
+        serviceTags.setTags(testCase.tags);
+        serviceTags.setServiceResources(testCase.serviceResources);
+        serviceTags.setResourceToTagIds(testCase.resourceToTagIds);
+
+        return serviceTags;
+    }
+
+    private static RangerTagEnricher createTagEnricher(TagEnricherTestCase testCase, boolean compactServiceTags) {
+        RangerPluginConfig pluginConfig = new RangerPluginConfig(testCase.serviceDef.getName(), testCase.serviceName, null, null, null, null);
+        RangerTagEnricher  tagEnricher  = new RangerTagEnricher();
+
+        pluginConfig.setBoolean(pluginConfig.getPropertyPrefix() + ".compact.service.tags", compactServiceTags);
+
+        tagEnricher.setServiceName(testCase.serviceName);
+        tagEnricher.setServiceDef(testCase.serviceDef);
+        tagEnricher.setPluginContext(new RangerPluginContext(pluginConfig));
+        tagEnricher.init();
+
+        return tagEnricher;
+    }
+
+    private static RangerAccessRequestImpl createRequest(TestData test, RangerServiceDef serviceDef) {
+        RangerAccessRequestImpl request = new RangerAccessRequestImpl(test.resource, test.accessType, "testUser", null, null);
+
+        ((RangerMutableResource)request.getResource()).setServiceDef(serviceDef);
+
+        return request;
     }
 
     static class TagEnricherTestCase {
@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.contextenricher.RangerContextEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerDataMaskPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemDataMaskInfo;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerAccessTypeDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerContextEnricherDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerDataMaskDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerDataMaskTypeDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerResourceDef;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest.ResourceMatchingScope;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.apache.ranger.plugin.util.ServicePolicies.SecurityZoneInfo;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestDataMaskPoliciesForDescendants {
+    private static final String HIVE_SERVICE = "dev_hive";
+    private static final String TAG_SERVICE  = "dev_tag";
+
+    @Test
+    public void testEvaluateDataMaskPolicies() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(Collections.singletonList(createMaskPolicy(1L, "db1", "tbl1", "col1")), null, null);
+
+        Collection<RangerAccessResult> results = evaluate(policyEngine, "db1", "tbl1", "col1", "col2");
+
+        assertEquals(2, results.size());
+
+        Iterator<RangerAccessResult> iter = results.iterator();
+
+        assertTrue(iter.next().isMaskEnabled());
+        assertFalse(iter.next().isMaskEnabled());
+
+        results = evaluate(policyEngine, "db1", "tbl2", "col1", "col2"); // no data-mask policy for tbl2
+
+        assertEquals(2, results.size());
+
+        for (RangerAccessResult result : results) {
+            assertFalse(result.isMaskEnabled());
+        }
+    }
+
+    @Test
+    public void testTagDataMaskPolicies() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(Collections.emptyList(), Collections.singletonList(createTagMaskPolicy(11L, "PII")), null);
+
+        setServiceTags(policyEngine, "db1", "tbl1", "col2", "PII");
+
+        Iterator<RangerAccessResult> iter = evaluate(policyEngine, "db1", "tbl1", "col1", "col2").iterator();
+
+        assertFalse(iter.next().isMaskEnabled());
+
+        RangerAccessResult result = iter.next();
+
+        assertTrue(result.isMaskEnabled());
+        assertEquals(11L, result.getPolicyId());
+
+        for (RangerAccessResult tbl2Result : evaluate(policyEngine, "db1", "tbl2", "col1", "col2")) { // no column of tbl2 is tagged
+            assertFalse(tbl2Result.isMaskEnabled());
+        }
+
+        setServiceTags(policyEngine, "db1", "tbl1", "col2", "NON_PII");
+
+        for (RangerAccessResult tbl1Result : evaluate(policyEngine, "db1", "tbl1", "col1", "col2")) { // no data-mask policy for the tag
+            assertFalse(tbl1Result.isMaskEnabled());
+        }
+    }
+
+    @Test
+    public void testSecurityZone() throws Exception {
+        RangerPolicy       zonePolicy   = createMaskPolicy(21L, "db2", "tbl1", "col1");
+        RangerPolicyEngine policyEngine = createPolicyEngine(Collections.singletonList(createMaskPolicy(1L, "db1", "tbl1", "col1")), null,
+                                                             Collections.singletonMap("zone1", createZone("zone1", "db2", zonePolicy)));
+
+        Iterator<RangerAccessResult> iter   = evaluate(policyEngine, "db2", "tbl1", "col1", "col2").iterator();
+        RangerAccessResult           result = iter.next();
+
+        assertTrue(result.isMaskEnabled());
+        assertEquals(21L, result.getPolicyId());
+        assertFalse(iter.next().isMaskEnabled());
+
+        for (RangerAccessResult tbl2Result : evaluate(policyEngine, "db2", "tbl2", "col1", "col2")) { // no policy for tbl2 in zone1
+            assertFalse(tbl2Result.isMaskEnabled());
+        }
+
+        iter = evaluate(policyEngine, "db1", "tbl1", "col1", "col2").iterator(); // db1 isn't in zone1; policy in default zone applies
+
+        assertTrue(iter.next().isMaskEnabled());
+        assertFalse(iter.next().isMaskEnabled());
+    }
+
+    @Test
+    public void testResultsProcessedOneAtATime() throws Exception {
+        RangerPolicyEngine      policyEngine  = createPolicyEngine(Collections.singletonList(createMaskPolicy(1L, "db1", "tbl1", "col1")), null, null);
+        final List<RangerAccessResult> processed = new ArrayList<>();
+
+        RangerAccessResultProcessor resultProcessor = new RangerAccessResultProcessor() {
+            @Override
+            public void processResult(RangerAccessResult result) {
+                processed.add(result);
+            }
+
+            @Override
+            public void processResults(Collection<RangerAccessResult> results) {
+                throw new AssertionError("processResults() must not be called for results of different resources");
+            }
+        };
+
+        for (String table : Arrays.asList("tbl1", "tbl2")) { // with and without evaluation of each request
+            processed.clear();
+
+            Collection<RangerAccessResult> results = evaluate(policyEngine, resultProcessor, "db1", table, "col1", "col2");
+
+            assertEquals(new ArrayList<>(results), processed);
+        }
+    }
+
+    private static Collection<RangerAccessResult> evaluate(RangerPolicyEngine policyEngine, String database, String table, String... columns) {
+        return evaluate(policyEngine, null, database, table, columns);
+    }
+
+    private static Collection<RangerAccessResult> evaluate(RangerPolicyEngine policyEngine, RangerAccessResultProcessor resultProcessor, String database, String table, String... columns) {
+        RangerAccessRequestImpl   parentRequest = createRequest(database, table, null);
+        List<RangerAccessRequest> requests      = new ArrayList<>();
+
+        parentRequest.setResourceMatchingScope(ResourceMatchingScope.SELF_OR_DESCENDANTS);
+
+        for (String column : columns) {
+            requests.add(createRequest(database, table, column));
+        }
+
+        return policyEngine.evaluateDataMaskPolicies(parentRequest, requests, resultProcessor);
+    }
+
+    private static RangerAccessRequestImpl createRequest(String database, String table, String column) {
+        RangerAccessResourceImpl resource = new RangerAccessResourceImpl();
+
+        resource.setValue("database", database);
+        resource.setValue("table", table);
+
+        if (column != null) {
+            resource.setValue("column", column);
+        }
+
+        return new RangerAccessRequestImpl(resource, "select", "user1", Collections.emptySet(), Collections.emptySet());
+    }
+
+    private static void setServiceTags(RangerPolicyEngine policyEngine, String database, String table, String column, String tagType) {
+        RangerTagEnricher tagEnricher = null;
+
+        for (RangerContextEnricher enricher : ((RangerPolicyEngineImpl) policyEngine).getPolicyEngine().getAllContextEnrichers()) {
+            if (enricher instanceof RangerTagEnricher) {
+                tagEnricher = (RangerTagEnricher) enricher;
+            }
+        }
+
+        assertNotNull(tagEnricher);
+
+        Map<String, RangerPolicyResource> resourceElements = new HashMap<>();
+
+        resourceElements.put("database", new RangerPolicyResource(database));
+        resourceElements.put("table", new RangerPolicyResource(table));
+        resourceElements.put("column", new RangerPolicyResource(column));
+
+        RangerServiceResource resource    = new RangerServiceResource(HIVE_SERVICE, resourceElements);
+        RangerTag             tag         = new RangerTag(tagType, Collections.emptyMap());
+        ServiceTags           serviceTags = new ServiceTags();
+
+        resource.setId(1L);
+        tag.setId(1L);
+
+        serviceTags.setServiceName(HIVE_SERVICE);
+        serviceTags.setTags(new HashMap<>(Collections.singletonMap(1L, tag)));
+        serviceTags.setServiceResources(new ArrayList<>(Collections.singletonList(resource)));
+        serviceTags.setResourceToTagIds(new HashMap<>(Collections.singletonMap(1L, Collections.singletonList(1L))));
+        serviceTags.setTagVersion(tagEnricher.getServiceTagsVersion() != null ? tagEnricher.getServiceTagsVersion() + 1 : 1L);
+
+        tagEnricher.setServiceTags(serviceTags);
+    }
+
+    private static RangerPolicyEngine createPolicyEngine(List<RangerPolicy> policies, List<RangerPolicy> tagPolicies, Map<String, SecurityZoneInfo> zones) throws Exception {
+        ServicePolicies servicePolicies = new ServicePolicies();
+
+        servicePolicies.setServiceName(HIVE_SERVICE);
+        servicePolicies.setServiceDef(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_HIVE_NAME));
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setPolicies(policies);
+        servicePolicies.setSecurityZones(zones);
+
+        if (tagPolicies != null) {
+            RangerServiceDef  tagServiceDef = EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_TAG_NAME);
+            RangerDataMaskDef dataMaskDef   = new RangerDataMaskDef();
+
+            // tags are set in the enricher by the test, instead of being retrieved from Ranger admin
+            for (RangerContextEnricherDef enricherDef : tagServiceDef.getContextEnrichers()) {
+                enricherDef.setEnricherOptions(new HashMap<>());
+            }
+
+            tagServiceDef.getAccessTypes().add(new RangerAccessTypeDef("hive:select"));
+
+            dataMaskDef.setMaskTypes(new ArrayList<>(Collections.singletonList(new RangerDataMaskTypeDef(1L, RangerPolicy.MASK_TYPE_NULL, RangerPolicy.MASK_TYPE_NULL, null, null, null, null, null))));
+            dataMaskDef.setAccessTypes(new ArrayList<>(Collections.singletonList(new RangerAccessTypeDef("hive:select"))));
+            dataMaskDef.setResources(new ArrayList<>(tagServiceDef.getResources()));
+
+            tagServiceDef.setDataMaskDef(dataMaskDef);
+
+            ServicePolicies.TagPolicies tagPolicyInfo = new ServicePolicies.TagPolicies();
+
+            tagPolicyInfo.setServiceName(TAG_SERVICE);
+            tagPolicyInfo.setServiceDef(tagServiceDef);
+            tagPolicyInfo.setPolicyVersion(1L);
+            tagPolicyInfo.setPolicies(tagPolicies);
+
+            servicePolicies.setTagPolicies(tagPolicyInfo);
+        }
+
+        RangerPluginContext pluginContext = new RangerPluginContext(new RangerPluginConfig("hive", HIVE_SERVICE, "hive", "cl1", "on-prem", new RangerPolicyEngineOptions()));
+
+        return new RangerPolicyEngineImpl(servicePolicies, pluginContext, null);
+    }
+
+    private static RangerPolicy createMaskPolicy(Long id, String database, String table, String column) {
+        Map<String, RangerPolicyResource> resources = new HashMap<>();
+
+        resources.put("database", new RangerPolicyResource(database));
+        resources.put("table", new RangerPolicyResource(table));
+        resources.put("column", new RangerPolicyResource(column));
+
+        RangerPolicy ret = createMaskPolicy(id, resources, "select");
+
+        ret.setService(HIVE_SERVICE);
+
+        return ret;
+    }
+
+    private static RangerPolicy createTagMaskPolicy(Long id, String tagType) {
+        RangerPolicy ret = createMaskPolicy(id, Collections.singletonMap("tag", new RangerPolicyResource(tagType)), "hive:select");
+
+        ret.setService(TAG_SERVICE);
+
+        return ret;
+    }
+
+    private static RangerPolicy createMaskPolicy(Long id, Map<String, RangerPolicyResource> resources, String accessType) {
+        RangerDataMaskPolicyItem policyItem = new RangerDataMaskPolicyItem();
+
+        policyItem.setAccesses(new ArrayList<>(Collections.singletonList(new RangerPolicyItemAccess(accessType))));
+        policyItem.setUsers(new ArrayList<>(Arrays.asList("user1")));
+        policyItem.setDataMaskInfo(new RangerPolicyItemDataMaskInfo(RangerPolicy.MASK_TYPE_NULL, null, null));
+
+        RangerPolicy ret = new RangerPolicy();
+
+        ret.setId(id);
+        ret.setName("mask-policy-" + id);
+        ret.setPolicyType(RangerPolicy.POLICY_TYPE_DATAMASK);
+        ret.setResources(resources);
+        ret.setDataMaskPolicyItems(new ArrayList<>(Collections.singletonList(policyItem)));
+
+        return ret;
+    }
+
+    private static SecurityZoneInfo createZone(String zoneName, String database, RangerPolicy policy) {
+        SecurityZoneInfo              ret       = new SecurityZoneInfo();
+        HashMap<String, List<String>> resources = new HashMap<>();
+
+        resources.put("database", Collections.singletonList(database));
+
+        policy.setZoneName(zoneName);
+
+        ret.setZoneName(zoneName);
+        ret.setResources(Collections.singletonList(resources));
+        ret.setPolicies(Collections.singletonList(policy));
+        ret.setContainsAssociatedTagService(false);
+
+        return ret;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.policyengine.RangerResourceTypeAccessIndex.AnyResourceAccess;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestResourceTypeAccessIndex {
+    private static final Set<String> NO_GROUPS = Collections.emptySet();
+
+    @Test
+    public void testAccessOnAnyResource() throws Exception {
+        List<RangerPolicy> policies = new ArrayList<>();
+
+        policies.add(createPolicy(1L, "topic", "orders*", createPolicyItem("user1", null, "publish"), createPolicyItem(null, "group1", "consume")));
+        policies.add(createPolicy(2L, "consumergroup", "*", createPolicyItem(null, RangerPolicyEngine.GROUP_PUBLIC, "consume")));
+
+        RangerPolicy policy3 = createPolicy(3L, "transactionalid", "*", createPolicyItem("user3", null, "publish"));
+
+        policy3.getPolicyItems().get(0).setConditions(Collections.singletonList(new RangerPolicyItemCondition("ip-range", Collections.singletonList("10.0.0.0/8"))));
+        policies.add(policy3);
+
+        RangerPolicy policy4 = createPolicy(4L, "cluster", "*", createPolicyItem("user4", null, "idempotent_write"));
+
+        policy4.setDenyPolicyItems(Collections.singletonList(createPolicyItem("user5", null, "idempotent_write")));
+        policies.add(policy4);
+
+        RangerPolicyEngine policyEngine = createPolicyEngine(policies);
+
+        assertEquals(AnyResourceAccess.ALLOWED, policyEngine.getAccessOnAnyResource("topic", "publish", "user1", NO_GROUPS));
+        assertEquals(AnyResourceAccess.ALLOWED, policyEngine.getAccessOnAnyResource("topic", "describe", "user1", NO_GROUPS)); // implied by publish
+        assertEquals(AnyResourceAccess.NOT_ALLOWED, policyEngine.getAccessOnAnyResource("topic", "consume", "user1", NO_GROUPS));
+        assertEquals(AnyResourceAccess.ALLOWED, policyEngine.getAccessOnAnyResource("topic", "consume", "user2", Collections.singleton("group1")));
+        assertEquals(AnyResourceAccess.NOT_ALLOWED, policyEngine.getAccessOnAnyResource("cluster", "publish", "user1", NO_GROUPS));
+        assertEquals(AnyResourceAccess.ALLOWED, policyEngine.getAccessOnAnyResource("consumergroup", "consume", "anyuser", NO_GROUPS));
+        assertEquals(AnyResourceAccess.UNDETERMINED, policyEngine.getAccessOnAnyResource("transactionalid", "publish", "user3", NO_GROUPS));
+        assertEquals(AnyResourceAccess.NOT_ALLOWED, policyEngine.getAccessOnAnyResource("transactionalid", "publish", "user1", NO_GROUPS));
+        assertEquals(AnyResourceAccess.UNDETERMINED, policyEngine.getAccessOnAnyResource("cluster", "idempotent_write", "user4", NO_GROUPS));
+    }
+
+    private static RangerPolicyEngine createPolicyEngine(List<RangerPolicy> policies) throws Exception {
+        ServicePolicies servicePolicies = new ServicePolicies();
+
+        servicePolicies.setServiceName("dev_kafka");
+        servicePolicies.setServiceDef(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_KAFKA_NAME));
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setPolicies(policies);
+
+        RangerPluginContext pluginContext = new RangerPluginContext(new RangerPluginConfig("kafka", "dev_kafka", "kafka", "cl1", "on-prem", new RangerPolicyEngineOptions()));
+
+        return new RangerPolicyEngineImpl(servicePolicies, pluginContext, null);
+    }
+
+    private static RangerPolicy createPolicy(Long id, String resourceName, String resourceValue, RangerPolicyItem... policyItems) {
+        RangerPolicy ret = new RangerPolicy();
+
+        ret.setId(id);
+        ret.setName("policy-" + id);
+        ret.setService("dev_kafka");
+        ret.setResources(Collections.singletonMap(resourceName, new RangerPolicyResource(resourceValue)));
+        ret.setPolicyItems(new ArrayList<>(Arrays.asList(policyItems)));
+
+        return ret;
+    }
+
+    private static RangerPolicyItem createPolicyItem(String user, String group, String accessType) {
+        RangerPolicyItem ret = new RangerPolicyItem();
+
+        ret.setAccesses(new ArrayList<>(Collections.singletonList(new RangerPolicyItemAccess(accessType))));
+        ret.setUsers(user != null ? new ArrayList<>(Collections.singletonList(user)) : new ArrayList<>());
+        ret.setGroups(group != null ? new ArrayList<>(Collections.singletonList(group)) : new ArrayList<>());
+
+        return ret;
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.policyengine;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.contextenricher.RangerContextEnricher;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemAccess;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerAccessTypeDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerContextEnricherDef;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.store.EmbeddedServiceDefsUtil;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.apache.ranger.plugin.util.ServicePolicies.SecurityZoneInfo;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestUniformForDescendants {
+    private static final String HDFS_SERVICE = "dev_hdfs";
+    private static final String TAG_SERVICE  = "dev_tag";
+
+    @Test
+    public void testAllowPolicyOnAncestor() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(Collections.singletonList(createPolicy(1L, "/data", "user1", false)), null, null);
+
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data")));
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data/finance")));
+    }
+
+    @Test
+    public void testDenyPolicyOnDescendant() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(Arrays.asList(createPolicy(1L, "/data", "user1", false), createPolicy(2L, "/data/finance/restricted", "user1", true)), null, null);
+
+        assertFalse(policyEngine.isUniformForDescendants(createResource("/data")));
+        assertFalse(policyEngine.isUniformForDescendants(createResource("/data/finance")));
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data/finance/restricted")));
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data/sales")));
+
+        assertFalse(evaluate(policyEngine, "/data/finance/restricted/file1", "user1", "user1").getIsAllowed());
+        assertTrue(evaluate(policyEngine, "/data/finance/other/file1", "user1", "user1").getIsAllowed());
+    }
+
+    @Test
+    public void testOwnerPolicyOnAncestor() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(Collections.singletonList(createPolicy(1L, "/home", RangerPolicyEngine.RESOURCE_OWNER, false)), null, null);
+
+        assertFalse(policyEngine.isUniformForDescendants(createResource("/home")));
+        assertFalse(policyEngine.isUniformForDescendants(createResource("/home/user1")));
+
+        assertTrue(evaluate(policyEngine, "/home/user1/file1", "user1", "user1").getIsAllowed());
+        assertFalse(evaluate(policyEngine, "/home/user1/file2", "user1", "user2").getIsAllowed()); // descendant owned by another user
+    }
+
+    @Test
+    public void testTagPolicyWithOwnerOnTaggedAncestor() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(Collections.emptyList(), Collections.singletonList(createTagPolicy(101L, "PII", RangerPolicyEngine.RESOURCE_OWNER)), null);
+
+        setServiceTags(policyEngine, "/data", "PII");
+
+        // the tag on /data is inherited by every descendant of /data/finance, and the tag-policy grants access only to the owner of each
+        assertFalse(policyEngine.isUniformForDescendants(createResource("/data/finance")));
+
+        assertTrue(evaluate(policyEngine, "/data/finance/file1", "user1", "user1").getIsAllowed());
+        assertFalse(evaluate(policyEngine, "/data/finance/file2", "user1", "user2").getIsAllowed());
+    }
+
+    @Test
+    public void testTagPolicyOnTaggedAncestorAndDescendant() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(Collections.emptyList(), Collections.singletonList(createTagPolicy(101L, "PII", "user1")), null);
+
+        setServiceTags(policyEngine, "/data", "PII");
+
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data/finance")));
+
+        setServiceTags(policyEngine, "/data/finance/restricted", "PII");
+
+        assertFalse(policyEngine.isUniformForDescendants(createResource("/data/finance")));
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data/sales")));
+    }
+
+    @Test
+    public void testSecurityZone() throws Exception {
+        RangerPolicyEngine policyEngine = createPolicyEngine(Collections.singletonList(createPolicy(1L, "/data", "user1", false)), null,
+                                                             Collections.singletonMap("zone1", createZone("zone1", "/data/zone1", createPolicy(2L, "/data/zone1", "user2", false))));
+
+        assertFalse(policyEngine.isUniformForDescendants(createResource("/data")));
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data/zone1")));
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data/zone1/dir1")));
+        assertTrue(policyEngine.isUniformForDescendants(createResource("/data/sales")));
+
+        assertFalse(evaluate(policyEngine, "/data/zone1/file1", "user1", "user1").getIsAllowed());
+        assertTrue(evaluate(policyEngine, "/data/zone1/file1", "user2", "user2").getIsAllowed());
+    }
+
+    private static RangerAccessResult evaluate(RangerPolicyEngine policyEngine, String path, String user, String owner) {
+        RangerAccessResourceImpl resource = createResource(path);
+
+        resource.setOwnerUser(owner);
+
+        RangerAccessRequestImpl request = new RangerAccessRequestImpl(resource, "read", user, Collections.emptySet(), Collections.emptySet());
+
+        return policyEngine.evaluatePolicies(request, RangerPolicy.POLICY_TYPE_ACCESS, null);
+    }
+
+    private static RangerAccessResourceImpl createResource(String path) {
+        RangerAccessResourceImpl ret = new RangerAccessResourceImpl();
+
+        ret.setValue("path", path);
+
+        return ret;
+    }
+
+    private static void setServiceTags(RangerPolicyEngine policyEngine, String taggedPath, String tagType) {
+        RangerTagEnricher tagEnricher = null;
+
+        for (RangerContextEnricher enricher : ((RangerPolicyEngineImpl) policyEngine).getPolicyEngine().getAllContextEnrichers()) {
+            if (enricher instanceof RangerTagEnricher) {
+                tagEnricher = (RangerTagEnricher) enricher;
+            }
+        }
+
+        assertNotNull(tagEnricher);
+
+        ServiceTags serviceTags = tagEnricher.getEnrichedServiceTags() != null ? new ServiceTags(tagEnricher.getEnrichedServiceTags().getServiceTags()) : new ServiceTags();
+
+        if (serviceTags.getTags() == null) {
+            serviceTags.setServiceName(HDFS_SERVICE);
+            serviceTags.setTags(new HashMap<>());
+            serviceTags.setServiceResources(new ArrayList<>());
+            serviceTags.setResourceToTagIds(new HashMap<>());
+        }
+
+        long                  id       = serviceTags.getServiceResources().size() + 1;
+        RangerServiceResource resource = new RangerServiceResource(HDFS_SERVICE, Collections.singletonMap("path", new RangerPolicyResource(taggedPath, false, true)));
+        RangerTag             tag      = new RangerTag(tagType, Collections.emptyMap());
+
+        resource.setId(id);
+        tag.setId(id);
+
+        serviceTags.getServiceResources().add(resource);
+        serviceTags.getTags().put(id, tag);
+        serviceTags.getResourceToTagIds().put(id, Collections.singletonList(id));
+        serviceTags.setTagVersion(id);
+
+        tagEnricher.setServiceTags(serviceTags);
+    }
+
+    private static RangerPolicyEngine createPolicyEngine(List<RangerPolicy> policies, List<RangerPolicy> tagPolicies, Map<String, SecurityZoneInfo> zones) throws Exception {
+        ServicePolicies servicePolicies = new ServicePolicies();
+
+        servicePolicies.setServiceName(HDFS_SERVICE);
+        servicePolicies.setServiceDef(EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_HDFS_NAME));
+        servicePolicies.setPolicyVersion(1L);
+        servicePolicies.setPolicies(policies);
+        servicePolicies.setSecurityZones(zones);
+
+        if (tagPolicies != null) {
+            RangerServiceDef tagServiceDef = EmbeddedServiceDefsUtil.instance().getEmbeddedServiceDef(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_TAG_NAME);
+
+            // tags are set in the enricher by the test, instead of being retrieved from Ranger admin
+            for (RangerContextEnricherDef enricherDef : tagServiceDef.getContextEnrichers()) {
+                enricherDef.setEnricherOptions(new HashMap<>());
+            }
+
+            for (String accessType : Arrays.asList("read", "write", "execute")) {
+                tagServiceDef.getAccessTypes().add(new RangerAccessTypeDef("hdfs:" + accessType));
+            }
+
+            ServicePolicies.TagPolicies tagPolicyInfo = new ServicePolicies.TagPolicies();
+
+            tagPolicyInfo.setServiceName(TAG_SERVICE);
+            tagPolicyInfo.setServiceDef(tagServiceDef);
+            tagPolicyInfo.setPolicyVersion(1L);
+            tagPolicyInfo.setPolicies(tagPolicies);
+
+            servicePolicies.setTagPolicies(tagPolicyInfo);
+        }
+
+        RangerPluginContext pluginContext = new RangerPluginContext(new RangerPluginConfig("hdfs", HDFS_SERVICE, "hdfs", "cl1", "on-prem", new RangerPolicyEngineOptions()));
+
+        return new RangerPolicyEngineImpl(servicePolicies, pluginContext, null);
+    }
+
+    private static SecurityZoneInfo createZone(String zoneName, String path, RangerPolicy policy) {
+        SecurityZoneInfo              ret       = new SecurityZoneInfo();
+        HashMap<String, List<String>> resources = new HashMap<>();
+
+        resources.put("path", Collections.singletonList(path));
+
+        policy.setZoneName(zoneName);
+
+        ret.setZoneName(zoneName);
+        ret.setResources(Collections.singletonList(resources));
+        ret.setPolicies(Collections.singletonList(policy));
+        ret.setContainsAssociatedTagService(false);
+
+        return ret;
+    }
+
+    private static RangerPolicy createPolicy(Long id, String path, String user, boolean isDeny) {
+        RangerPolicyItem policyItem = new RangerPolicyItem();
+
+        policyItem.setAccesses(new ArrayList<>(Collections.singletonList(new RangerPolicyItemAccess("read"))));
+        policyItem.setUsers(new ArrayList<>(Collections.singletonList(user)));
+
+        RangerPolicy ret = new RangerPolicy();
+
+        ret.setId(id);
+        ret.setName("policy-" + id);
+        ret.setService(HDFS_SERVICE);
+        ret.setResources(Collections.singletonMap("path", new RangerPolicyResource(path, false, true)));
+
+        if (isDeny) {
+            ret.setDenyPolicyItems(new ArrayList<>(Collections.singletonList(policyItem)));
+        } else {
+            ret.setPolicyItems(new ArrayList<>(Collections.singletonList(policyItem)));
+        }
+
+        return ret;
+    }
+
+    private static RangerPolicy createTagPolicy(Long id, String tagType, String user) {
+        RangerPolicyItem policyItem = new RangerPolicyItem();
+
+        policyItem.setAccesses(new ArrayList<>(Collections.singletonList(new RangerPolicyItemAccess("hdfs:read"))));
+        policyItem.setUsers(new ArrayList<>(Collections.singletonList(user)));
+
+        RangerPolicy ret = new RangerPolicy();
+
+        ret.setId(id);
+        ret.setName("tag-policy-" + id);
+        ret.setService(TAG_SERVICE);
+        ret.setResources(Collections.singletonMap("tag", new RangerPolicyResource(tagType)));
+        ret.setPolicyItems(new ArrayList<>(Collections.singletonList(policyItem)));
+
+        return ret;
+    }
+}
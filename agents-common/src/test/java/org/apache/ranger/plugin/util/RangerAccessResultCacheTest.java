@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerDataMaskPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerRowFilterPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicyDelta;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerResourceDef;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.model.RangerValiditySchedule;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerPluginContext;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.util.RangerAccessResultCache.CacheEntries;
+import org.apache.ranger.plugin.util.ServicePolicies.SecurityZoneInfo;
+import org.apache.ranger.plugin.util.ServicePolicies.TagPolicies;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RangerAccessResultCacheTest {
+	@Test
+	public void testUnusedUntilPoliciesWithoutConditions() {
+		RangerAccessResultCache<String> cache  = new RangerAccessResultCache<>("test", 10);
+		RangerBasePlugin                plugin = Mockito.mock(RangerBasePlugin.class);
+
+		assertNull("cache must not be used before policies are received", cache.getEntries(plugin));
+
+		setPolicies(cache, createPolicies(createConditionalPolicy()));
+
+		assertNull(cache.getEntries(plugin));
+
+		setPolicies(cache, createPolicies(new RangerPolicy()));
+
+		assertNotNull(cache.getEntries(plugin));
+
+		setPolicies(cache, createPolicies(createConditionalPolicy()));
+
+		assertNull(cache.getEntries(plugin));
+	}
+
+	@Test
+	public void testUnusedAfterDeltasUntilFullDownload() {
+		RangerAccessResultCache<String> cache  = new RangerAccessResultCache<>("test", 10);
+		RangerBasePlugin                plugin = Mockito.mock(RangerBasePlugin.class);
+
+		setPolicies(cache, createPolicies(createConditionalPolicy()));
+
+		// deltas without conditions don't tell whether the conditional policy was deleted
+		setPolicies(cache, createPolicyDeltas(new RangerPolicy()));
+
+		assertNull(cache.getEntries(plugin));
+
+		setPolicies(cache, createPolicies(new RangerPolicy()));
+
+		assertNotNull(cache.getEntries(plugin));
+
+		setPolicies(cache, createPolicyDeltas(new RangerPolicy()));
+
+		assertNotNull(cache.getEntries(plugin));
+
+		setPolicies(cache, createPolicyDeltas(createConditionalPolicy()));
+
+		assertNull(cache.getEntries(plugin));
+	}
+
+	@Test
+	public void testUnusedWithConditionalTagPolicies() {
+		RangerAccessResultCache<String> cache    = new RangerAccessResultCache<>("test", 10);
+		RangerBasePlugin                plugin   = Mockito.mock(RangerBasePlugin.class);
+		ServicePolicies                 policies = createPolicies(new RangerPolicy());
+
+		policies.setTagPolicies(new TagPolicies());
+		policies.getTagPolicies().setPolicies(Collections.singletonList(createConditionalPolicy()));
+
+		setPolicies(cache, policies);
+
+		assertNull(cache.getEntries(plugin));
+
+		policies.getTagPolicies().setPolicies(Collections.singletonList(new RangerPolicy()));
+
+		setPolicies(cache, policies);
+
+		assertNotNull(cache.getEntries(plugin));
+	}
+
+	@Test
+	public void testUnusedWithTimeBoundTags() {
+		RangerAccessResultCache<String> cache       = new RangerAccessResultCache<>("test", 10);
+		RangerBasePlugin                plugin      = Mockito.mock(RangerBasePlugin.class);
+		RangerTagEnricher               tagEnricher = createTagEnricher();
+		RangerTag                       tag         = new RangerTag("PII", Collections.emptyMap());
+
+		Mockito.when(plugin.getTagEnricher()).thenReturn(tagEnricher);
+
+		setPolicies(cache, createPolicies(new RangerPolicy()));
+		setServiceTags(plugin, tagEnricher, 1L, tag);
+
+		assertNotNull(cache.getEntries(plugin));
+
+		RangerTag timeBoundTag = new RangerTag("PII", Collections.emptyMap());
+
+		timeBoundTag.setValidityPeriods(Collections.singletonList(new RangerValiditySchedule("2020/01/01 00:00:00", "2020/12/31 00:00:00", null, null)));
+
+		setServiceTags(plugin, tagEnricher, 2L, tag, timeBoundTag);
+
+		assertNull("results of tags with validity periods depend on access time", cache.getEntries(plugin));
+
+		setServiceTags(plugin, tagEnricher, 3L, tag);
+
+		assertNotNull(cache.getEntries(plugin));
+	}
+
+	@Test
+	public void testHasConditionalPolicies() {
+		RangerPolicy policyCondition = new RangerPolicy();
+		RangerPolicy validity        = new RangerPolicy();
+		RangerPolicy rowFilter       = new RangerPolicy();
+		RangerPolicy dataMask        = new RangerPolicy();
+
+		policyCondition.setConditions(Collections.singletonList(createCondition()));
+		validity.setValiditySchedules(Collections.singletonList(new RangerValiditySchedule()));
+		rowFilter.setRowFilterPolicyItems(Collections.singletonList(new RangerRowFilterPolicyItem(null, null, null, null, null, Collections.singletonList(createCondition()), null)));
+		dataMask.setDataMaskPolicyItems(Collections.singletonList(new RangerDataMaskPolicyItem(null, null, null, null, null, Collections.singletonList(createCondition()), null)));
+
+		assertFalse(ServicePolicies.hasConditionalPolicies(null));
+		assertFalse(ServicePolicies.hasConditionalPolicies(createPolicies(new RangerPolicy())));
+
+		for (RangerPolicy policy : Arrays.asList(createConditionalPolicy(), policyCondition, validity, rowFilter, dataMask)) {
+			ServicePolicies tagPolicies  = createPolicies(new RangerPolicy());
+			ServicePolicies zonePolicies = createPolicies(new RangerPolicy());
+			ServicePolicies zoneDeltas   = createPolicies(new RangerPolicy());
+
+			tagPolicies.setTagPolicies(new TagPolicies());
+			tagPolicies.getTagPolicies().setPolicies(Collections.singletonList(policy));
+			zonePolicies.setSecurityZones(Collections.singletonMap("zone1", createZone(Collections.singletonList(policy), null)));
+			zoneDeltas.setSecurityZones(Collections.singletonMap("zone1", createZone(null, Collections.singletonList(createDelta(policy)))));
+
+			assertTrue(ServicePolicies.hasConditionalPolicies(createPolicies(policy)));
+			assertTrue(ServicePolicies.hasConditionalPolicies(createPolicyDeltas(policy)));
+			assertTrue(ServicePolicies.hasConditionalPolicies(tagPolicies));
+			assertTrue(ServicePolicies.hasConditionalPolicies(zonePolicies));
+			assertTrue(ServicePolicies.hasConditionalPolicies(zoneDeltas));
+		}
+	}
+
+	@Test
+	public void testEntriesDroppedOnVersionChange() {
+		RangerAccessResultCache<String> cache  = new RangerAccessResultCache<>("test", 10);
+		RangerBasePlugin                plugin = Mockito.mock(RangerBasePlugin.class);
+
+		setPolicies(cache, createPolicies(new RangerPolicy()));
+
+		Mockito.when(plugin.getPoliciesVersion()).thenReturn(1L);
+		Mockito.when(plugin.getTagsVersion()).thenReturn(1L);
+		Mockito.when(plugin.getRolesVersion()).thenReturn(1L);
+		Mockito.when(plugin.getUserStoreVersion()).thenReturn(1L);
+
+		CacheEntries<String> entries = cache.getEntries(plugin);
+
+		entries.put("key1", "value1");
+
+		assertSame(entries, cache.getEntries(plugin));
+		assertEquals("value1", cache.getEntries(plugin).get("key1"));
+
+		Mockito.when(plugin.getPoliciesVersion()).thenReturn(2L);
+		assertNull("entries must be dropped on policies change", cache.getEntries(plugin).get("key1"));
+		cache.getEntries(plugin).put("key1", "value1");
+
+		Mockito.when(plugin.getTagsVersion()).thenReturn(2L);
+		assertNull("entries must be dropped on tags change", cache.getEntries(plugin).get("key1"));
+		cache.getEntries(plugin).put("key1", "value1");
+
+		Mockito.when(plugin.getRolesVersion()).thenReturn(2L);
+		assertNull("entries must be dropped on roles change", cache.getEntries(plugin).get("key1"));
+		cache.getEntries(plugin).put("key1", "value1");
+
+		Mockito.when(plugin.getUserStoreVersion()).thenReturn(2L);
+		assertNull("entries must be dropped on user-store change", cache.getEntries(plugin).get("key1"));
+		assertNotSame(entries, cache.getEntries(plugin));
+	}
+
+	@Test
+	public void testMaxEntries() {
+		RangerAccessResultCache<String> cache  = new RangerAccessResultCache<>("test", 2);
+		RangerBasePlugin                plugin = Mockito.mock(RangerBasePlugin.class);
+
+		setPolicies(cache, createPolicies(new RangerPolicy()));
+
+		CacheEntries<String> entries = cache.getEntries(plugin);
+
+		entries.put("key1", "value1");
+		entries.put("key2", "value2");
+		entries.put("key2", "value2-1"); // replacing an entry doesn't need room
+
+		assertEquals(2, entries.size());
+		assertEquals("value2-1", entries.get("key2"));
+
+		assertEquals("value3", entries.computeIfAbsent("key3", k -> "value3"));
+		assertEquals(1, entries.size());
+		assertNull(entries.get("key1"));
+
+		entries.put("key4", "value4");
+		entries.put(null, "value5");
+		entries.put("key6", null);
+
+		assertEquals(2, entries.size());
+		assertEquals("value4", entries.computeIfAbsent("key4", k -> "value4-1"));
+	}
+
+	@Test
+	public void testGetUserKey() {
+		RangerAccessRequestImpl request = new RangerAccessRequestImpl();
+
+		assertNull(RangerAccessResultCache.getUserKey(request));
+
+		request.setUser("user1");
+		request.setUserGroups(new HashSet<>(Arrays.asList("group2", "group1")));
+
+		String userKey = RangerAccessResultCache.getUserKey(request);
+
+		request.setUserGroups(new HashSet<>(Arrays.asList("group1", "group2")));
+
+		assertEquals(userKey, RangerAccessResultCache.getUserKey(request));
+
+		request.setUserGroups(new HashSet<>(Collections.singletonList("group1")));
+
+		assertNotEquals(userKey, RangerAccessResultCache.getUserKey(request));
+	}
+
+	@Test
+	public void testGetResult() {
+		RangerAccessRequestImpl request1 = new RangerAccessRequestImpl(new RangerAccessResourceImpl(), "read", "user1", null, null);
+		RangerAccessRequestImpl request2 = new RangerAccessRequestImpl(new RangerAccessResourceImpl(), "read", "user1", null, null);
+		RangerAccessResult      cached   = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "dev_kms", null, request1);
+
+		cached.setIsAccessDetermined(true);
+		cached.setIsAllowed(true);
+		cached.setPolicyId(10L);
+		cached.setIsAuditedDetermined(true);
+		cached.setIsAudited(true);
+		cached.setAuditPolicyId(11L);
+
+		RangerAccessResult result = RangerAccessResultCache.getResult(cached, request2);
+
+		assertSame(request2, result.getAccessRequest());
+		assertEquals("dev_kms", result.getServiceName());
+		assertTrue(result.getIsAccessDetermined());
+		assertTrue(result.getIsAllowed());
+		assertEquals(10L, result.getPolicyId());
+		assertTrue(result.getIsAudited());
+		assertEquals(11L, result.getAuditPolicyId());
+	}
+
+	private static void setPolicies(RangerAccessResultCache<?> cache, ServicePolicies policies) {
+		boolean hasConditionalPolicies = cache.beforeSetPolicies(policies);
+
+		cache.afterSetPolicies(policies, hasConditionalPolicies);
+	}
+
+	private static RangerTagEnricher createTagEnricher() {
+		RangerServiceDef  serviceDef  = new RangerServiceDef();
+		RangerResourceDef resourceDef = new RangerResourceDef();
+		RangerTagEnricher ret         = new RangerTagEnricher();
+
+		resourceDef.setName("keyname");
+		resourceDef.setLevel(10);
+		serviceDef.setName("kms");
+		serviceDef.setResources(Collections.singletonList(resourceDef));
+
+		ret.setServiceName("dev_kms");
+		ret.setServiceDef(serviceDef);
+		ret.setPluginContext(new RangerPluginContext(new RangerPluginConfig("kms", "dev_kms", null, null, null, null)));
+		ret.init();
+
+		return ret;
+	}
+
+	private static void setServiceTags(RangerBasePlugin plugin, RangerTagEnricher tagEnricher, long tagVersion, RangerTag... tags) {
+		ServiceTags serviceTags = new ServiceTags();
+
+		serviceTags.setServiceName("dev_kms");
+		serviceTags.setTagVersion(tagVersion);
+		serviceTags.setTagDefinitions(new HashMap<>());
+		serviceTags.setTags(new HashMap<>());
+		serviceTags.setServiceResources(new ArrayList<>());
+		serviceTags.setResourceToTagIds(new HashMap<>());
+
+		for (RangerTag tag : tags) {
+			long                  id       = serviceTags.getTags().size() + 1;
+			RangerServiceResource resource = new RangerServiceResource("dev_kms", Collections.singletonMap("keyname", new RangerPolicyResource("key" + id)));
+
+			tag.setId(id);
+			resource.setId(id);
+
+			serviceTags.getTags().put(id, tag);
+			serviceTags.getServiceResources().add(resource);
+			serviceTags.getResourceToTagIds().put(id, Collections.singletonList(id));
+		}
+
+		tagEnricher.setServiceTags(serviceTags);
+
+		Mockito.when(plugin.getTagsVersion()).thenReturn(tagVersion);
+	}
+
+	private static ServicePolicies createPolicies(RangerPolicy policy) {
+		ServicePolicies ret = new ServicePolicies();
+
+		ret.setServiceName("dev_kms");
+		ret.setPolicies(new ArrayList<>(Collections.singletonList(policy)));
+
+		return ret;
+	}
+
+	private static ServicePolicies createPolicyDeltas(RangerPolicy policy) {
+		ServicePolicies ret = new ServicePolicies();
+
+		ret.setServiceName("dev_kms");
+		ret.setPolicies(new ArrayList<>());
+		ret.setPolicyDeltas(new ArrayList<>(Collections.singletonList(createDelta(policy))));
+
+		return ret;
+	}
+
+	private static RangerPolicyDelta createDelta(RangerPolicy policy) {
+		return new RangerPolicyDelta(1L, RangerPolicyDelta.CHANGE_TYPE_POLICY_UPDATE, 2L, policy);
+	}
+
+	private static SecurityZoneInfo createZone(List<RangerPolicy> policies, List<RangerPolicyDelta> deltas) {
+		SecurityZoneInfo ret = new SecurityZoneInfo();
+
+		ret.setZoneName("zone1");
+		ret.setResources(new ArrayList<>(Collections.singletonList(new HashMap<>())));
+		ret.setPolicies(policies != null ? policies : new ArrayList<>());
+		ret.setPolicyDeltas(deltas != null ? deltas : new ArrayList<>());
+
+		return ret;
+	}
+
+	private static RangerPolicy createConditionalPolicy() {
+		RangerPolicy ret = new RangerPolicy();
+
+		ret.setPolicyItems(Collections.singletonList(new RangerPolicyItem(null, null, null, null, Collections.singletonList(createCondition()), null)));
+
+		return ret;
+	}
+
+	private static RangerPolicyItemCondition createCondition() {
+		return new RangerPolicyItemCondition("ip-range", Collections.singletonList("10.0.0.*"));
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RangerUserGroupsCacheTest {
+    private static final long REFRESH_INTERVAL_MS = 100;
+    private static final long IDLE_EXPIRY_MS      = 1000;
+    private static final long NEGATIVE_EXPIRY_MS  = 300;
+
+    @Test
+    public void testResolveOnFirstLookup() {
+        TestUserGroupsCache cache = new TestUserGroupsCache("testResolveOnFirstLookup");
+
+        cache.groups.put("user1", Collections.singleton("group1"));
+
+        assertEquals(Collections.singleton("group1"), cache.getGroups("user1", null));
+        assertEquals(Collections.singleton("group1"), cache.getGroups("user1", null));
+        assertEquals(1, cache.resolveCount.get());
+        assertEquals(Collections.emptySet(), cache.getGroups(null, null));
+    }
+
+    @Test
+    public void testSeededAndRefreshedInBackground() throws Exception {
+        TestUserGroupsCache cache = new TestUserGroupsCache("testSeededAndRefreshedInBackground");
+
+        cache.groups.put("user1", Collections.singleton("group2"));
+
+        // groups from user-store are used, without resolving the groups in caller thread
+        assertEquals(Collections.singleton("group1"), cache.getGroups("user1", Collections.singleton("group1")));
+        assertEquals(0, cache.resolveCount.get());
+
+        Thread.sleep(REFRESH_INTERVAL_MS * 3);
+
+        assertEquals(Collections.singleton("group2"), cache.getGroups("user1", null));
+        assertTrue(cache.resolveCount.get() > 0);
+    }
+
+    @Test
+    public void testIdleUserRemoved() throws Exception {
+        TestUserGroupsCache cache = new TestUserGroupsCache("testIdleUserRemoved");
+
+        cache.groups.put("user1", Collections.singleton("group1"));
+
+        cache.getGroups("user1", null);
+
+        assertTrue(cache.isLoaded("user1"));
+
+        Thread.sleep(IDLE_EXPIRY_MS + REFRESH_INTERVAL_MS * 3);
+
+        assertFalse(cache.isLoaded("user1"));
+        assertFalse(cache.getKeys().contains("user1"));
+    }
+
+    @Test
+    public void testNoGroupsCachedForNegativeExpiry() throws Exception {
+        // refreshed only after negative expiry
+        TestUserGroupsCache cache = new TestUserGroupsCache("testNoGroupsCachedForNegativeExpiry", 60 * 1000L);
+
+        // failures to resolve groups look the same: no groups
+        assertEquals(Collections.emptySet(), cache.getGroups("user1", null));
+        assertEquals(Collections.emptySet(), cache.getGroups("user1", null));
+        assertEquals(1, cache.resolveCount.get());
+
+        cache.groups.put("user1", Collections.singleton("group1"));
+
+        Thread.sleep(NEGATIVE_EXPIRY_MS + 50);
+
+        assertEquals(Collections.singleton("group1"), cache.getGroups("user1", null));
+        assertEquals(2, cache.resolveCount.get());
+
+        // empty groups from user-store are not used
+        cache.groups.put("user2", Collections.singleton("group2"));
+
+        assertEquals(Collections.singleton("group2"), cache.getGroups("user2", Collections.emptySet()));
+    }
+
+    @Test
+    public void testNoGroupsOnRefreshCached() throws Exception {
+        TestUserGroupsCache cache = new TestUserGroupsCache("testNoGroupsOnRefreshCached");
+
+        cache.groups.put("user1", Collections.singleton("group1"));
+
+        assertEquals(Collections.singleton("group1"), cache.getGroups("user1", null));
+
+        cache.groups.remove("user1");
+
+        Thread.sleep(REFRESH_INTERVAL_MS * 3);
+
+        int resolveCount = cache.resolveCount.get();
+
+        assertEquals(Collections.emptySet(), cache.getGroups("user1", null));
+        assertEquals(resolveCount, cache.resolveCount.get());
+
+        cache.groups.put("user1", Collections.singleton("group1"));
+
+        Thread.sleep(REFRESH_INTERVAL_MS * 3);
+
+        assertEquals(Collections.singleton("group1"), cache.getGroups("user1", null));
+    }
+
+    private static class TestUserGroupsCache extends RangerUserGroupsCache {
+        final Map<String, Set<String>> groups       = new ConcurrentHashMap<>();
+        final AtomicInteger            resolveCount = new AtomicInteger();
+
+        TestUserGroupsCache(String name) {
+            this(name, REFRESH_INTERVAL_MS);
+        }
+
+        TestUserGroupsCache(String name, long refreshIntervalMs) {
+            super(name, 1, refreshIntervalMs, IDLE_EXPIRY_MS, NEGATIVE_EXPIRY_MS);
+        }
+
+        @Override
+        protected Set<String> resolveGroups(String userName) {
+            resolveCount.incrementAndGet();
+
+            return groups.getOrDefault(userName, Collections.emptySet());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.plugin.util;
+
+import org.apache.ranger.authorization.utils.JsonUtils;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ServiceTagsTest {
+    @Test
+    public void testCompact() throws Exception {
+        ServiceTags serviceTags = createServiceTags();
+        String      expected    = JsonUtils.objectToJson(serviceTags);
+
+        serviceTags.compact();
+
+        assertEquals("compact() must not change the content", expected, JsonUtils.objectToJson(serviceTags));
+
+        for (List<Long> tagIds : serviceTags.getResourceToTagIds().values()) {
+            assertTrue(tagIds instanceof ServiceTags.CompactTagIds);
+        }
+
+        // tags with identical attributes share one instance
+        assertSame(serviceTags.getTags().get(1L).getAttributes(), serviceTags.getTags().get(3L).getAttributes());
+        assertNotSame(serviceTags.getTags().get(1L).getAttributes(), serviceTags.getTags().get(2L).getAttributes());
+
+        List<Long> tagIds = serviceTags.getResourceToTagIds().get(1L);
+
+        assertEquals(Arrays.asList(1L, 2L), tagIds);
+        assertEquals(Long.valueOf(2L), tagIds.set(1, 3L));
+        assertEquals(Arrays.asList(1L, 3L), tagIds);
+
+        try {
+            tagIds.add(4L);
+
+            fail("compacted tag-ids list must not be resizable");
+        } catch (UnsupportedOperationException excp) {
+            // expected
+        }
+
+        serviceTags.compact(); // compacting again is a no-op
+
+        assertEquals(Arrays.asList(1L, 3L), serviceTags.getResourceToTagIds().get(1L));
+
+        ServiceTags deserialized = JsonUtils.jsonToObject(JsonUtils.objectToJson(serviceTags), ServiceTags.class);
+
+        assertEquals(Arrays.asList(1L, 3L), deserialized.getResourceToTagIds().get(1L));
+    }
+
+    @Test
+    public void testApplyDeltaOnCompactedTags() {
+        for (boolean supportsTagsDedup : new boolean[] { true, false }) {
+            ServiceTags expected = applyDelta(false, supportsTagsDedup);
+            ServiceTags actual   = applyDelta(true, supportsTagsDedup);
+
+            assertEquals("tags: supportsTagsDedup=" + supportsTagsDedup, expected.getTags(), actual.getTags());
+            assertEquals("resourceToTagIds: supportsTagsDedup=" + supportsTagsDedup, expected.getResourceToTagIds(), actual.getResourceToTagIds());
+            assertEquals("serviceResources: supportsTagsDedup=" + supportsTagsDedup, expected.getServiceResources().size(), actual.getServiceResources().size());
+        }
+    }
+
+    private static ServiceTags applyDelta(boolean compact, boolean supportsTagsDedup) {
+        ServiceTags serviceTags = createServiceTags();
+
+        if (supportsTagsDedup) {
+            serviceTags.dedupTags();
+        }
+
+        if (compact) {
+            serviceTags.compact();
+        }
+
+        // delta: tag-4 duplicates tag-1, resource-2 is removed and resource-3 is added with tag-4 and tag-2
+        ServiceTags delta = new ServiceTags();
+
+        delta.setServiceName(serviceTags.getServiceName());
+        delta.setTagVersion(2L);
+        delta.setIsDelta(true);
+        delta.setIsTagsDeduped(supportsTagsDedup);
+        delta.setTagDefinitions(new HashMap<>());
+        delta.setTags(new HashMap<>(Collections.singletonMap(4L, new RangerTag("PII", Collections.singletonMap("level", "high")))));
+        delta.setServiceResources(new ArrayList<>(Arrays.asList(createResource(2L, "tbl2", null), createResource(3L, "tbl3", "sig-3"))));
+        delta.setResourceToTagIds(new HashMap<>(Collections.singletonMap(3L, new ArrayList<>(Arrays.asList(4L, 2L)))));
+
+        if (compact) {
+            delta.compact();
+        }
+
+        ServiceTags ret = RangerServiceTagsDeltaUtil.applyDelta(serviceTags, delta, supportsTagsDedup);
+
+        assertEquals(Long.valueOf(2L), ret.getTagVersion());
+        assertEquals(supportsTagsDedup ? Arrays.asList(1L, 2L) : Arrays.asList(4L, 2L), ret.getResourceToTagIds().get(3L));
+
+        return ret;
+    }
+
+    private static ServiceTags createServiceTags() {
+        Map<Long, RangerTag>  tags             = new HashMap<>();
+        Map<Long, List<Long>> resourceToTagIds = new HashMap<>();
+
+        tags.put(1L, new RangerTag("PII", new HashMap<>(Collections.singletonMap("level", "high"))));
+        tags.put(2L, new RangerTag("PCI", new HashMap<>(Collections.singletonMap("level", "low"))));
+        tags.put(3L, new RangerTag("FINANCE", new HashMap<>(Collections.singletonMap("level", "high"))));
+
+        for (Map.Entry<Long, RangerTag> entry : tags.entrySet()) {
+            entry.getValue().setId(entry.getKey());
+        }
+
+        resourceToTagIds.put(1L, new ArrayList<>(Arrays.asList(1L, 2L)));
+        resourceToTagIds.put(2L, new ArrayList<>(Collections.singletonList(3L)));
+
+        ServiceTags ret = new ServiceTags();
+
+        ret.setServiceName("dev_hive");
+        ret.setTagVersion(1L);
+        ret.setTagDefinitions(new HashMap<>());
+        ret.setTags(tags);
+        ret.setServiceResources(new ArrayList<>(Arrays.asList(createResource(1L, "tbl1", "sig-1"), createResource(2L, "tbl2", "sig-2"))));
+        ret.setResourceToTagIds(resourceToTagIds);
+
+        return ret;
+    }
+
+    private static RangerServiceResource createResource(Long id, String table, String signature) {
+        Map<String, RangerPolicyResource> resourceElements = new HashMap<>();
+
+        resourceElements.put("database", new RangerPolicyResource("db1"));
+        resourceElements.put("table", new RangerPolicyResource(table));
+
+        RangerServiceResource ret = new RangerServiceResource(null, "dev_hive", resourceElements, signature);
+
+        ret.setId(id);
+
+        return ret;
+    }
+}
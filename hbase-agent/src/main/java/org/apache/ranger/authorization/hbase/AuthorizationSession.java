@@ -19,8 +19,13 @@
 package org.apache.ranger.authorization.hbase;
 
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
@@ -230,6 +235,73 @@ AuthorizationSession authorize() {
 		return this;
 	}
 	
+	/**
+	 * Authorizes access to the given columns of the table with a single call to the policy engine.  Column-family and column of the session are
+	 * left unset, and the results are not audited; use <code>getAuditEvent</code> to capture the audit event of each result.
+	 * @param familyColumns columns to authorize, by column-family
+	 * @return results for each column, by column-family, in the order of the given columns; result is null if it could not be determined
+	 */
+	Map<String, List<RangerAccessResult>> authorizeColumns(Map<String, List<String>> familyColumns) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> AuthorizationSession.authorizeColumns(" + familyColumns + ")");
+		}
+
+		List<RangerAccessRequest> requests = new ArrayList<>();
+
+		for (Map.Entry<String, List<String>> entry : familyColumns.entrySet()) {
+			columnFamily(entry.getKey());
+
+			for (String column : entry.getValue()) {
+				column(column).buildRequest();
+
+				requests.add(_request);
+			}
+		}
+
+		columnFamily(null).column(null);
+		zapAuthorizationState();
+
+		if (_auditHandler != null && _superUser) {
+			_auditHandler.setSuperUserOverride(_superUser);
+		}
+
+		Collection<RangerAccessResult> results = requests.isEmpty() ? null : _authorizer.isAccessAllowed(requests, null);
+		Iterator<RangerAccessResult>   iter    = results != null && results.size() == requests.size() ? results.iterator() : null;
+
+		Map<String, List<RangerAccessResult>> ret = new LinkedHashMap<>();
+
+		for (Map.Entry<String, List<String>> entry : familyColumns.entrySet()) {
+			List<RangerAccessResult> familyResults = new ArrayList<>(entry.getValue().size());
+
+			for (int i = 0; i < entry.getValue().size(); i++) {
+				familyResults.add(iter != null ? iter.next() : null);
+			}
+
+			ret.put(entry.getKey(), familyResults);
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== AuthorizationSession.authorizeColumns(" + familyColumns + "): " + requests.size() + " requests evaluated");
+		}
+		return ret;
+	}
+
+	/**
+	 * Audit event for a result of <code>authorizeColumns</code>, as the audit handler would have captured it had the request been authorized by itself.
+	 * @param result
+	 * @return
+	 */
+	AuthzAuditEvent getAuditEvent(RangerAccessResult result) {
+		AuthzAuditEvent ret = null;
+
+		if (_auditHandler != null && result != null) {
+			_auditHandler.processResult(result);
+
+			ret = _auditHandler.getAndDiscardMostRecentEvent();
+		}
+		return ret;
+	}
+
 	void logCapturedEvents() {
 		if (_auditHandler != null) {
 			List<AuthzAuditEvent> events = _auditHandler.getCapturedEvents();
@@ -296,13 +368,15 @@ boolean isAudited() {
 	}
 
 	boolean isAuthorized() {
-		boolean allowed = false;
 		if (_result == null) {
 			String message = String.format("Internal error: _result was null! Returning false.");
 			LOG.error(message);
-		} else {
-			allowed = _result.getIsAllowed();
 		}
+		return isAuthorized(_result);
+	}
+
+	boolean isAuthorized(RangerAccessResult result) {
+		boolean allowed = result != null && result.getIsAllowed();
 		if (!allowed && _superUser) {
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("User [" + _user + "] is a superUser!  Overriding policy engine's decision.  Request is deemed authorized!");
@@ -409,6 +409,9 @@ ColumnFamilyAccessResult evaluateAccess(ObserverContext<?> ctx, String operation
 		Set<String> familesAccessAllowed = new HashSet<String>();
 		Set<String> familesAccessDenied = new HashSet<String>();
 		Set<String> familesAccessIndeterminate = new HashSet<String>();
+		// column level access of all families is evaluated with one call to the policy engine
+		Map<String, List<String>> familyColumns = getFamilyColumns(familyMap);
+		Map<String, List<RangerAccessResult>> familyColumnResults = familyColumns.isEmpty() ? Collections.<String, List<RangerAccessResult>>emptyMap() : session.authorizeColumns(familyColumns);
 
 		for (Map.Entry<byte[], ? extends Collection<?>> anEntry : familyMap.entrySet()) {
 			String family = Bytes.toString(anEntry.getKey());
@@ -491,17 +494,16 @@ ColumnFamilyAccessResult evaluateAccess(ObserverContext<?> ctx, String operation
 			} else {
 				LOG.debug("evaluateAccess: columns collection not empty.  Skipping Family level check, will do finer level access check.");
 				Set<String> accessibleColumns = new HashSet<String>(); // will be used in to populate our results cache for the filter
-				Iterator<String> columnIterator = new ColumnIterator(columns);
+				Iterator<String> columnIterator = familyColumns.get(family).iterator();
+				Iterator<RangerAccessResult> resultIterator = familyColumnResults.get(family).iterator();
 				while (columnIterator.hasNext()) {
 					String column = columnIterator.next();
+					RangerAccessResult columnResult = resultIterator.next();
 					 if (LOG.isDebugEnabled()) {
  						LOG.debug("evaluateAccess: Processing column: " + column);
  					}
- 					session.column(column)
- 						.buildRequest()
- 						.authorize();
-					AuthzAuditEvent auditEvent = auditHandler.getAndDiscardMostRecentEvent();
- 					if (session.isAuthorized()) {
+					AuthzAuditEvent auditEvent = session.getAuditEvent(columnResult);
+ 					if (session.isAuthorized(columnResult)) {
 						if (LOG.isDebugEnabled()) {
 							LOG.debug("evaluateAccess: has column level access [" + family + ", " + column + "]");
 						}
@@ -540,6 +542,22 @@ ColumnFamilyAccessResult evaluateAccess(ObserverContext<?> ctx, String operation
 		return result;
 	}
 
+	Map<String, List<String>> getFamilyColumns(Map<byte[], ? extends Collection<?>> familyMap) {
+		Map<String, List<String>> result = new LinkedHashMap<String, List<String>>();
+		for (Map.Entry<byte[], ? extends Collection<?>> anEntry : familyMap.entrySet()) {
+			Collection<?> columns = anEntry.getValue();
+			if (columns != null && !columns.isEmpty()) {
+				List<String> familyColumns = new ArrayList<String>(columns.size());
+				Iterator<String> columnIterator = new ColumnIterator(columns);
+				while (columnIterator.hasNext()) {
+					familyColumns.add(columnIterator.next());
+				}
+				result.put(Bytes.toString(anEntry.getKey()), familyColumns);
+			}
+		}
+		return result;
+	}
+
 	Filter authorizeAccess(ObserverContext<?> ctx, String operation, Action action, final RegionCoprocessorEnvironment env, final Map<byte[], NavigableSet<byte[]>> familyMap, String commandStr) throws AccessDeniedException {
 
 		if (LOG.isDebugEnabled()) {
@@ -21,6 +21,7 @@
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,12 +37,17 @@
 public class RangerAuthorizationFilter extends FilterBase {
 
 	private static final Logger LOG = LoggerFactory.getLogger(RangerAuthorizationFilter.class.getName());
+	// bounds the per-scan memo for tables with unbounded qualifier sets, e.g. timestamps used as qualifiers
+	static final int MAX_MEMOIZED_COLUMNS = 10000;
 	final Set<String> _familiesAccessAllowed;
 	final Set<String> _familiesAccessDenied;
 	final Set<String> _familiesAccessIndeterminate;
 	final Map<String, Set<String>> _columnsAccessAllowed;
 	final AuthorizationSession _session;
 	final HbaseAuditHandler _auditHandler = HbaseFactory.getInstance().getAuditHandler();
+	// decisions made so far in this scan, keyed by family/qualifier bytes; repeated columns are neither re-authorized nor re-audited
+	final Map<ColumnKey, ReturnCode> _columnDecisions = new HashMap<>();
+	private final ColumnKey _lookupKey = new ColumnKey();
 
 	public RangerAuthorizationFilter(AuthorizationSession session, Set<String> familiesAccessAllowed, Set<String> familiesAccessDenied, Set<String> familiesAccessIndeterminate,
 									 Map<String, Set<String>> columnsAccessAllowed) {
@@ -63,6 +69,18 @@ public ReturnCode filterKeyValue(Cell kv) throws IOException {
 			LOG.debug("==> filterKeyValue");
 		}
 
+		_lookupKey.set(kv.getFamilyArray(), kv.getFamilyOffset(), kv.getFamilyLength(), kv.getQualifierArray(), kv.getQualifierOffset(), kv.getQualifierLength());
+
+		ReturnCode memoizedResult = _columnDecisions.get(_lookupKey);
+
+		if (memoizedResult != null) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("filterKeyValue: column found in per-scan decision cache: " + memoizedResult);
+			}
+
+			return memoizedResult;
+		}
+
 		String family = null;
 		byte[] familyBytes = CellUtil.cloneFamily(kv);
 		if (familyBytes != null && familyBytes.length > 0) {
@@ -127,6 +145,10 @@ public ReturnCode filterKeyValue(Cell kv) throws IOException {
 				LOG.debug("filterKeyValue: Access denied.  Denial not audited.");
 			}
 		}
+		if (_columnDecisions.size() < MAX_MEMOIZED_COLUMNS) {
+			_columnDecisions.put(_lookupKey.copy(), result);
+		}
+
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("filterKeyValue: " + result);
 		}
@@ -144,4 +166,58 @@ public String toString() {
 
 	}
 
+	/**
+	 * Family/qualifier pair that refers to bytes in place; only copies made for the memo own their bytes.
+	 */
+	static final class ColumnKey {
+		private byte[] familyArray;
+		private int    familyOffset;
+		private int    familyLength;
+		private byte[] qualifierArray;
+		private int    qualifierOffset;
+		private int    qualifierLength;
+		private int    hashCode;
+
+		void set(byte[] familyArray, int familyOffset, int familyLength, byte[] qualifierArray, int qualifierOffset, int qualifierLength) {
+			this.familyArray     = familyArray;
+			this.familyOffset    = familyOffset;
+			this.familyLength    = familyArray != null ? familyLength : 0;
+			this.qualifierArray  = qualifierArray;
+			this.qualifierOffset = qualifierOffset;
+			this.qualifierLength = qualifierArray != null ? qualifierLength : 0;
+			this.hashCode        = 31 * Bytes.hashCode(familyArray, familyOffset, this.familyLength) + Bytes.hashCode(qualifierArray, qualifierOffset, this.qualifierLength);
+		}
+
+		ColumnKey copy() {
+			ColumnKey ret = new ColumnKey();
+
+			ret.familyArray     = familyLength > 0 ? Bytes.copy(familyArray, familyOffset, familyLength) : null;
+			ret.familyLength    = familyLength;
+			ret.qualifierArray  = qualifierLength > 0 ? Bytes.copy(qualifierArray, qualifierOffset, qualifierLength) : null;
+			ret.qualifierLength = qualifierLength;
+			ret.hashCode        = hashCode;
+
+			return ret;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			} else if (!(obj instanceof ColumnKey)) {
+				return false;
+			}
+
+			ColumnKey other = (ColumnKey) obj;
+
+			return hashCode == other.hashCode &&
+				   Bytes.equals(familyArray, familyOffset, familyLength, other.familyArray, other.familyOffset, other.familyLength) &&
+				   Bytes.equals(qualifierArray, qualifierOffset, qualifierLength, other.qualifierArray, other.qualifierOffset, other.qualifierLength);
+		}
+	}
 }
@@ -20,9 +20,17 @@
 
 
 
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.apache.hadoop.hbase.security.User;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
 import org.junit.Assert;
 import org.junit.Test;
@@ -149,6 +157,40 @@ public void testAuthorize() {
 			.authorize();
 	}
 
+	@Test
+	public void testAuthorizeColumns() {
+		RangerBasePlugin plugin = mock(RangerBasePlugin.class);
+		RangerAccessResult allowed = mock(RangerAccessResult.class);
+		RangerAccessResult denied = mock(RangerAccessResult.class);
+		when(allowed.getIsAllowed()).thenReturn(true);
+		when(denied.getIsAllowed()).thenReturn(false);
+		when(plugin.isAccessAllowed(anyCollection(), isNull())).thenReturn(Arrays.asList(allowed, denied, allowed));
+
+		User user = mock(User.class);
+		when(user.getShortName()).thenReturn("user1");
+		when(user.getGroupNames()).thenReturn(new String[] { "users" } );
+		AuthorizationSession session = new AuthorizationSession(plugin);
+		session.access("read")
+			.user(user)
+			.table("table1");
+
+		Map<String, List<String>> familyColumns = new LinkedHashMap<>();
+		familyColumns.put("family1", Arrays.asList("col1", "col2"));
+		familyColumns.put("family2", Arrays.asList("col1"));
+
+		Map<String, List<RangerAccessResult>> results = session.authorizeColumns(familyColumns);
+
+		verify(plugin, times(1)).isAccessAllowed(anyCollection(), isNull());
+		Assert.assertEquals(Arrays.asList(allowed, denied), results.get("family1"));
+		Assert.assertEquals(Arrays.asList(allowed), results.get("family2"));
+		Assert.assertTrue(session.isAuthorized(results.get("family1").get(0)));
+		Assert.assertFalse(session.isAuthorized(results.get("family1").get(1)));
+		Assert.assertFalse(session.isAuthorized(null));
+		// no column-family/column is left behind on the session
+		Assert.assertNull(session._columnFamily);
+		Assert.assertNull(session._column);
+	}
+
 	@Test
 	public void testPublishResults() {
 //		Assert.fail("Not yet implemented");
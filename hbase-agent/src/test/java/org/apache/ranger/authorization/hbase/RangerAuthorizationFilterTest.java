@@ -21,9 +21,12 @@
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -98,6 +101,49 @@ public void testFilterKeyValueCell_happyPath() throws IOException {
 		}
 	}
 
+	@Test
+	public void testFilterKeyValueCell_repeatedColumnsAuthorizedOnce() throws IOException {
+		Set<String> familiesAccessAllowed = ImmutableSet.of("family1");
+		Set<String> familiesAccessIndeterminate = ImmutableSet.of("family2");
+
+		AuthorizationSession session = createSessionMock();
+		RangerAuthorizationFilter filter = new RangerAuthorizationFilter(session, familiesAccessAllowed, Collections.<String>emptySet(), familiesAccessIndeterminate, new HashMap<String, Set<String>>());
+
+		when(session.isAuthorized()).thenReturn(true);
+
+		Cell aCell = mock(Cell.class);
+		// cells of a column come from different rows, i.e. from different backing arrays and offsets
+		for (int i = 0; i < 5; i++) {
+			byte[] familyRow = ("row" + i + "family1").getBytes();
+			byte[] qualifierRow = ("row" + i + "column1").getBytes();
+
+			when(aCell.getFamilyArray()).thenReturn(familyRow);
+			when(aCell.getFamilyLength()).thenReturn((byte) "family1".length());
+			when(aCell.getFamilyOffset()).thenReturn(4);
+			when(aCell.getQualifierArray()).thenReturn(qualifierRow);
+			when(aCell.getQualifierLength()).thenReturn("column1".length());
+			when(aCell.getQualifierOffset()).thenReturn(4);
+
+			assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(aCell));
+		}
+		verify(session, times(1)).authorize();
+
+		// decision for a column is reused even if the session would now decide differently
+		when(session.isAuthorized()).thenReturn(false);
+		setFamilyArray(aCell, "family1".getBytes());
+		setQualifierArray(aCell, "column1".getBytes());
+		assertEquals(ReturnCode.INCLUDE, filter.filterKeyValue(aCell));
+
+		// a different qualifier is a different column
+		setQualifierArray(aCell, "column2".getBytes());
+		assertEquals(ReturnCode.NEXT_COL, filter.filterKeyValue(aCell));
+		assertEquals(ReturnCode.NEXT_COL, filter.filterKeyValue(aCell));
+
+		setFamilyArray(aCell, "family2".getBytes());
+		assertEquals(ReturnCode.NEXT_COL, filter.filterKeyValue(aCell));
+		verify(session, times(3)).authorize();
+	}
+
 	private void setFamilyArray(Cell aCell, byte[] familyArray) {
 		when(aCell.getFamilyArray()).thenReturn(familyArray);
 		when(aCell.getFamilyLength()).thenReturn((byte) familyArray.length);
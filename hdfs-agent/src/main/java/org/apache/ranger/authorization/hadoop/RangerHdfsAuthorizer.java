@@ -147,6 +147,7 @@ public void start() {
 		}
 
 		LOG.info("Legacy way of authorizing sub-access requests will " + (plugin.isUseLegacySubAccessAuthorization() ? "" : "not ") + "be used");
+		LOG.info("Subtree-aware authorization of sub-access requests is " + (plugin.isSubtreeSubAccessAuthEnabled() ? "enabled" : "disabled"));
 
 		access2ActionListMapper.put(FsAction.NONE,
 									new TreeSet<String>());
@@ -598,6 +599,14 @@ private void checkRangerPermission(String fsOwner, String superGroup, UserGroupI
 
 								if (optimizeSubAccessAuthEnabled) {
 									subDirAuthStatus = isAccessAllowedForHierarchy(data.dir, dirAttribs, data.resourcePath, subAccess, context);
+								} else if (rangerPlugin.isSubtreeSubAccessAuthEnabled() && !cList.isEmpty() && isUniformForDescendants(data.dir, dirAttribs, data.resourcePath)) {
+									// no policy, zone or tagged-resource matches any descendant differently than this directory;
+									// a single check for a descendant path covers the whole subtree
+									subDirAuthStatus = isAccessAllowedForHierarchy(data.dir, dirAttribs, data.resourcePath, subAccess, context);
+
+									if (LOG.isDebugEnabled()) {
+										LOG.debug("Subtree check for [" + data.resourcePath + "] returned : [" + subDirAuthStatus + "]");
+									}
 								}
 
 								if (subDirAuthStatus != AuthzStatus.ALLOW) {
@@ -891,7 +900,27 @@ private AuthzStatus isAccessAllowed(INode inode, INodeAttributes inodeAttribs, S
 				accessTypes = access2ActionListMapper.get(FsAction.NONE);
 			}
 
-			if (accessTypes.size() > 0) {
+			RangerAccessResult memoizedResult = accessTypes.size() > 0 ? context.getMemoizedResult(path, access) : null;
+
+			if (memoizedResult != null) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Reusing result of an earlier evaluation in this call for path=" + path + ", access=" + access);
+				}
+
+				if (context.auditHandler != null) {
+					context.auditHandler.processResult(memoizedResult);
+				}
+
+				context.saveResult(memoizedResult);
+
+				if (!memoizedResult.getIsAccessDetermined()) {
+					ret = AuthzStatus.NOT_DETERMINED;
+				} else if (!memoizedResult.getIsAllowed()) {
+					ret = AuthzStatus.DENY;
+				} else {
+					ret = AuthzStatus.ALLOW;
+				}
+			} else if (accessTypes.size() > 0) {
 				RangerHdfsAccessRequest request = new RangerHdfsAccessRequest(inode, path, pathOwner, access, accessTypes.iterator().next(), context.operationName, context.user, context.userGroups);
 
 				if (accessTypes.size() > 1) {
@@ -914,6 +943,7 @@ private AuthzStatus isAccessAllowed(INode inode, INodeAttributes inodeAttribs, S
 				RangerAccessResult result = context.plugin.isAccessAllowed(request, context.auditHandler);
 
 				context.saveResult(result);
+				context.memoizeResult(path, access, result);
 
 				if (result == null || !result.getIsAccessDetermined()) {
 					ret = AuthzStatus.NOT_DETERMINED;
@@ -942,6 +972,26 @@ private AuthzStatus isAccessAllowed(INode inode, INodeAttributes inodeAttribs, S
 			return ret;
 		}
 
+		private boolean isUniformForDescendants(INode inode, INodeAttributes inodeAttribs, String path) {
+			String pathOwner = inodeAttribs != null ? inodeAttribs.getUserName() : null;
+
+			if (pathOwner == null && inode != null) {
+				pathOwner = inode.getUserName();
+			}
+
+			if (RangerHadoopConstants.HDFS_ROOT_FOLDER_PATH_ALT.equals(path)) {
+				path = HDFS_ROOT_FOLDER_PATH;
+			}
+
+			boolean ret = path != null && rangerPlugin.isUniformForDescendants(new RangerHdfsResource(path, pathOwner));
+
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("RangerAccessControlEnforcer.isUniformForDescendants(" + path + "): " + ret);
+			}
+
+			return ret;
+		}
+
 		private AuthzStatus isAccessAllowedForHierarchy(INode inode, INodeAttributes inodeAttribs, String path, FsAction access, AuthzContext context) {
 			AuthzStatus ret   = null;
 			String  pathOwner = inodeAttribs != null ? inodeAttribs.getUserName() : null;
@@ -1299,6 +1349,7 @@ class RangerHdfsPlugin extends RangerBasePlugin {
 	private final String      hadoopModuleName;
 	private final Set<String> excludeUsers = new HashSet<>();
 	private final boolean     useLegacySubAccessAuthorization;
+	private final boolean     subtreeSubAccessAuthEnabled;
 
 	public RangerHdfsPlugin(Path addlConfigFile) {
 		super("hdfs", "hdfs");
@@ -1323,6 +1374,7 @@ public RangerHdfsPlugin(Path addlConfigFile) {
 		String excludeUserList = config.get(RangerHadoopConstants.AUDITLOG_HDFS_EXCLUDE_LIST_PROP, RangerHadoopConstants.AUDITLOG_EMPTY_STRING);
 
 		this.useLegacySubAccessAuthorization = config.getBoolean(RangerHadoopConstants.RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_PROP, RangerHadoopConstants.RANGER_USE_LEGACY_SUBACCESS_AUTHORIZATION_DEFAULT);
+		this.subtreeSubAccessAuthEnabled     = config.getBoolean(RangerHadoopConstants.RANGER_SUBTREE_SUBACCESS_AUTHORIZATION_PROP, RangerHadoopConstants.RANGER_SUBTREE_SUBACCESS_AUTHORIZATION_DEFAULT);
 
 
 		if (excludeUserList != null && excludeUserList.trim().length() > 0) {
@@ -1376,6 +1428,9 @@ public String getRandomizedWildcardPathName() {
 	public boolean isUseLegacySubAccessAuthorization() {
 		return useLegacySubAccessAuthorization;
 	}
+	public boolean isSubtreeSubAccessAuthEnabled() {
+		return subtreeSubAccessAuthEnabled;
+	}
 }
 
 class RangerHdfsResource extends RangerAccessResourceImpl {
@@ -1451,6 +1506,7 @@ class AuthzContext {
 	public       boolean                isAllowedByRangerPolicies;
 	public       RangerHdfsAuditHandler auditHandler = null;
 	private      RangerAccessResult     lastResult   = null;
+	private      Map<String, RangerAccessResult> resultsByPathAccess = null; // results of evaluations done so far in this call
 
 	public AuthzContext(RangerHdfsPlugin plugin, UserGroupInformation ugi, String operationName, boolean isTraverseOnlyCheck) {
 		this.plugin              = plugin;
@@ -1469,6 +1525,24 @@ public void saveResult(RangerAccessResult result) {
 	public RangerAccessResult getLastResult() {
 		return lastResult;
 	}
+
+	public RangerAccessResult getMemoizedResult(String path, FsAction access) {
+		return resultsByPathAccess != null ? resultsByPathAccess.get(getMemoKey(path, access)) : null;
+	}
+
+	public void memoizeResult(String path, FsAction access, RangerAccessResult result) {
+		if (result != null) {
+			if (resultsByPathAccess == null) {
+				resultsByPathAccess = new HashMap<>();
+			}
+
+			resultsByPathAccess.put(getMemoKey(path, access), result);
+		}
+	}
+
+	private static String getMemoKey(String path, FsAction access) {
+		return access + ":" + path;
+	}
 }
 
 class RangerHdfsAuditHandler extends RangerDefaultAuditHandler {
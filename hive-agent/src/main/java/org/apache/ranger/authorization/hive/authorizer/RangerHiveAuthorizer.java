@@ -26,6 +26,7 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -1319,16 +1320,14 @@ public List<HivePrivilegeObject> applyRowFilterAndColumnMasking(HiveAuthzContext
 					if (CollectionUtils.isNotEmpty(hiveObj.getColumns())) {
 						List<String> columnTransformers = new ArrayList<String>();
 
-						for (String column : hiveObj.getColumns()) {
-							boolean isColumnTransformed = addCellValueTransformerAndCheckIfTransformed(queryContext, hiveObj, column, columnTransformers, metaStoreClient, objOwners);
+						boolean isColumnTransformed = addCellValueTransformersAndCheckIfTransformed(queryContext, hiveObj, hiveObj.getColumns(), columnTransformers, metaStoreClient, objOwners);
 
-							if(LOG.isDebugEnabled()) {
-								LOG.debug("addCellValueTransformerAndCheckIfTransformed(database=" + database + ", table=" + table + ", column=" + column + "): " + isColumnTransformed);
-							}
-
-							needToTransform = needToTransform || isColumnTransformed;
+						if(LOG.isDebugEnabled()) {
+							LOG.debug("addCellValueTransformersAndCheckIfTransformed(database=" + database + ", table=" + table + ", columns=" + hiveObj.getColumns() + "): " + isColumnTransformed);
 						}
 
+						needToTransform = needToTransform || isColumnTransformed;
+
 						hiveObj.setCellValueTransformers(columnTransformers);
 					}
 				}
@@ -1434,23 +1433,22 @@ private String getRowFilterExpression(HiveAuthzContext context, HivePrivilegeObj
 		return ret;
 	}
 
-	private boolean addCellValueTransformerAndCheckIfTransformed(HiveAuthzContext context, HivePrivilegeObject tableOrView, String columnName, List<String> columnTransformers, IMetaStoreClient metaStoreClient, Map<String, String> objOwners) throws SemanticException {
+	// data-mask policies for all columns of the table/view are evaluated in one call to the plugin
+	private boolean addCellValueTransformersAndCheckIfTransformed(HiveAuthzContext context, HivePrivilegeObject tableOrView, List<String> columnNames, List<String> columnTransformers, IMetaStoreClient metaStoreClient, Map<String, String> objOwners) throws SemanticException {
 		UserGroupInformation ugi = getCurrentUserGroupInfo();
 
 		if(ugi == null) {
 			throw new SemanticException("user information not available");
 		}
 
-
 		String databaseName    = tableOrView.getDbname();
 		String tableOrViewName = tableOrView.getObjectName();
 
 		if(LOG.isDebugEnabled()) {
-			LOG.debug("==> addCellValueTransformerAndCheckIfTransformed(" + databaseName + ", " + tableOrViewName + ", " + columnName + ")");
+			LOG.debug("==> addCellValueTransformersAndCheckIfTransformed(" + databaseName + ", " + tableOrViewName + ", " + columnNames + ")");
 		}
 
 		boolean ret = false;
-		String columnTransformer = columnName;
 
 		RangerHiveAuditHandler auditHandler = new RangerHiveAuditHandler(hivePlugin.getConfig());
 
@@ -1459,72 +1457,101 @@ private boolean addCellValueTransformerAndCheckIfTransformed(HiveAuthzContext co
 			String                  user           = ugi.getShortUserName();
 			Set<String>             groups         = Sets.newHashSet(ugi.getGroupNames());
 			Set<String>             roles          = getCurrentRolesForUser(user, groups);
-			HiveObjectType          objectType     = HiveObjectType.COLUMN;
-			RangerHiveResource      resource       = new RangerHiveResource(objectType, databaseName, tableOrViewName, columnName);
+			RangerHiveResource      tableResource  = new RangerHiveResource(HiveObjectType.TABLE, databaseName, tableOrViewName);
 
-			setOwnerUser(resource, tableOrView, metaStoreClient, objOwners);
-
-			RangerHiveAccessRequest request = new RangerHiveAccessRequest(resource, user, groups, roles, objectType.name(), HiveAccessType.SELECT, context, sessionContext);
-			RangerAccessResult      result  = hivePlugin.evalDataMaskPolicies(request, auditHandler);
+			setOwnerUser(tableResource, tableOrView, metaStoreClient, objOwners);
 
-			ret = isDataMaskEnabled(result);
-
-			if(ret) {
-				String                maskType    = result.getMaskType();
-				RangerDataMaskTypeDef maskTypeDef = result.getMaskTypeDef();
-				String transformer	= null;
-				if (maskTypeDef != null) {
-					transformer = maskTypeDef.getTransformer();
-				}
+			RangerHiveAccessRequest   tableRequest = new RangerHiveAccessRequest(tableResource, user, groups, roles, HiveObjectType.TABLE.name(), HiveAccessType.SELECT, context, sessionContext);
+			List<RangerAccessRequest> requests     = new ArrayList<>(columnNames.size());
 
-				if(StringUtils.equalsIgnoreCase(maskType, RangerPolicy.MASK_TYPE_NULL)) {
-					columnTransformer = "NULL";
-				} else if(StringUtils.equalsIgnoreCase(maskType, RangerPolicy.MASK_TYPE_CUSTOM)) {
-					String maskedValue = result.getMaskedValue();
+			tableRequest.setResourceMatchingScope(RangerAccessRequest.ResourceMatchingScope.SELF_OR_DESCENDANTS);
 
-					if(maskedValue == null) {
-						columnTransformer = "NULL";
-					} else {
-						columnTransformer = maskedValue.replace("{col}", columnName);
-					}
+			for (String columnName : columnNames) {
+				HiveObjectType     objectType = HiveObjectType.COLUMN;
+				RangerHiveResource resource   = new RangerHiveResource(objectType, databaseName, tableOrViewName, columnName);
 
-				} else if(StringUtils.isNotEmpty(transformer)) {
-					columnTransformer = transformer.replace("{col}", columnName);
-				}
+				setOwnerUser(resource, tableOrView, metaStoreClient, objOwners);
 
-				if (columnTransformer.contains("{colType}")) {
-					String colType = getColumnType(tableOrView, columnName, metaStoreClient);
+				requests.add(new RangerHiveAccessRequest(resource, user, groups, roles, objectType.name(), HiveAccessType.SELECT, context, sessionContext));
+			}
 
-					if (StringUtils.isBlank(colType)) {
-						LOG.warn("addCellValueTransformerAndCheckIfTransformed(" + databaseName + ", " + tableOrViewName + ", " + columnName + "): failed to find column datatype");
+			Collection<RangerAccessResult> results  = hivePlugin.evalDataMaskPolicies(tableRequest, requests, auditHandler);
+			Iterator<RangerAccessResult>   iterator = results != null ? results.iterator() : Collections.<RangerAccessResult>emptyIterator();
 
-						colType = "string";
-					}
+			for (String columnName : columnNames) {
+				RangerAccessResult result            = iterator.hasNext() ? iterator.next() : null;
+				String             columnTransformer = columnName;
 
-					columnTransformer = columnTransformer.replace("{colType}", colType);
+				if(isDataMaskEnabled(result)) {
+					columnTransformer = getColumnTransformer(result, tableOrView, columnName, metaStoreClient);
+					ret               = true;
 				}
 
-				/*
-				String maskCondition = result.getMaskCondition();
-
-				if(StringUtils.isNotEmpty(maskCondition)) {
-					ret = "if(" + maskCondition + ", " + ret + ", " + columnName + ")";
+				if(LOG.isDebugEnabled()) {
+					LOG.debug("addCellValueTransformersAndCheckIfTransformed(" + databaseName + ", " + tableOrViewName + ", " + columnName + "): " + columnTransformer);
 				}
-				*/
+
+				columnTransformers.add(columnTransformer);
 			}
 		} finally {
 			auditHandler.flushAudit();
 		}
 
-		columnTransformers.add(columnTransformer);
-
 		if(LOG.isDebugEnabled()) {
-			LOG.debug("<== addCellValueTransformerAndCheckIfTransformed(" + databaseName + ", " + tableOrViewName + ", " + columnName + "): " + ret);
+			LOG.debug("<== addCellValueTransformersAndCheckIfTransformed(" + databaseName + ", " + tableOrViewName + ", " + columnNames + "): " + ret);
 		}
 
 		return ret;
 	}
 
+	private String getColumnTransformer(RangerAccessResult result, HivePrivilegeObject tableOrView, String columnName, IMetaStoreClient metaStoreClient) {
+		String                columnTransformer = columnName;
+		String                maskType          = result.getMaskType();
+		RangerDataMaskTypeDef maskTypeDef       = result.getMaskTypeDef();
+		String                transformer       = null;
+
+		if (maskTypeDef != null) {
+			transformer = maskTypeDef.getTransformer();
+		}
+
+		if(StringUtils.equalsIgnoreCase(maskType, RangerPolicy.MASK_TYPE_NULL)) {
+			columnTransformer = "NULL";
+		} else if(StringUtils.equalsIgnoreCase(maskType, RangerPolicy.MASK_TYPE_CUSTOM)) {
+			String maskedValue = result.getMaskedValue();
+
+			if(maskedValue == null) {
+				columnTransformer = "NULL";
+			} else {
+				columnTransformer = maskedValue.replace("{col}", columnName);
+			}
+
+		} else if(StringUtils.isNotEmpty(transformer)) {
+			columnTransformer = transformer.replace("{col}", columnName);
+		}
+
+		if (columnTransformer.contains("{colType}")) {
+			String colType = getColumnType(tableOrView, columnName, metaStoreClient);
+
+			if (StringUtils.isBlank(colType)) {
+				LOG.warn("getColumnTransformer(" + tableOrView.getDbname() + ", " + tableOrView.getObjectName() + ", " + columnName + "): failed to find column datatype");
+
+				colType = "string";
+			}
+
+			columnTransformer = columnTransformer.replace("{colType}", colType);
+		}
+
+		/*
+		String maskCondition = result.getMaskCondition();
+
+		if(StringUtils.isNotEmpty(maskCondition)) {
+			ret = "if(" + maskCondition + ", " + ret + ", " + columnName + ")";
+		}
+		*/
+
+		return columnTransformer;
+	}
+
 	private RangerHiveResource createHiveResourceForFiltering(HivePrivilegeObject privilegeObject, Map<String, String> objOwners) {
 		RangerHiveResource resource = null;
 
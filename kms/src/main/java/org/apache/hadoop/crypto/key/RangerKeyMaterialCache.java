@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.crypto.key;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.crypto.key.kms.server.KMSWebApp;
+import org.apache.ranger.kms.metrics.KMSMetrics;
+import org.apache.ranger.kms.metrics.collector.KMSMetricsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of decrypted key material, keyed by key version name, to avoid unsealing the key - or a call to HSM/Azure/AWS/GCP
+ * master key provider - on every getKeyVersion(). Entries expire after the configured time and the least recently used
+ * entries are evicted once the cache is full. Buffers holding key material are zeroed when entries are removed; with
+ * off-heap enabled the material is held in direct buffers, outside of the Java heap.
+ */
+public class RangerKeyMaterialCache {
+    private static final Logger logger = LoggerFactory.getLogger(RangerKeyMaterialCache.class);
+
+    public static final String CACHE_ENABLED     = "ranger.kms.key.material.cache.enabled";
+    public static final String CACHE_MAX_ENTRIES = "ranger.kms.key.material.cache.max.entries";
+    public static final String CACHE_TTL_MS      = "ranger.kms.key.material.cache.ttl.ms";
+    public static final String CACHE_OFFHEAP     = "ranger.kms.key.material.cache.offheap";
+
+    public static final boolean CACHE_ENABLED_DEFAULT     = true;
+    public static final int     CACHE_MAX_ENTRIES_DEFAULT = 1000;
+    public static final long    CACHE_TTL_MS_DEFAULT      = 10 * 60 * 1000L; // same as hadoop.kms.cache.timeout.ms
+    public static final boolean CACHE_OFFHEAP_DEFAULT     = false;
+
+    private final int                          maxEntries;
+    private final long                         ttlMs;
+    private final boolean                      offHeap;
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong                   hitCount  = new AtomicLong();
+    private final AtomicLong                   missCount = new AtomicLong();
+
+    public RangerKeyMaterialCache(int maxEntries, long ttlMs, boolean offHeap) {
+        this.maxEntries = maxEntries;
+        this.ttlMs      = ttlMs;
+        this.offHeap    = offHeap;
+        this.entries    = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * @return null if the cache is disabled in the configuration
+     */
+    public static RangerKeyMaterialCache create(Configuration conf) {
+        RangerKeyMaterialCache ret = null;
+
+        if (conf.getBoolean(CACHE_ENABLED, CACHE_ENABLED_DEFAULT)) {
+            int     maxEntries = conf.getInt(CACHE_MAX_ENTRIES, CACHE_MAX_ENTRIES_DEFAULT);
+            long    ttlMs      = conf.getLong(CACHE_TTL_MS, CACHE_TTL_MS_DEFAULT);
+            boolean offHeap    = conf.getBoolean(CACHE_OFFHEAP, CACHE_OFFHEAP_DEFAULT);
+
+            if (maxEntries > 0 && ttlMs > 0) {
+                ret = new RangerKeyMaterialCache(maxEntries, ttlMs, offHeap);
+            }
+
+            logger.info("Key material cache: enabled={}, maxEntries={}, ttlMs={}, offHeap={}", ret != null, maxEntries, ttlMs, offHeap);
+        } else {
+            logger.info("Key material cache is disabled");
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return a copy of the key material of the version; null if not in cache or the entry has expired
+     */
+    public byte[] get(String versionName) {
+        byte[] ret = null;
+
+        synchronized (entries) {
+            Entry entry = entries.get(versionName);
+
+            if (entry != null) {
+                if (entry.isExpired(System.currentTimeMillis())) {
+                    entries.remove(versionName);
+
+                    entry.clear();
+                } else {
+                    ret = entry.getMaterial();
+                }
+            }
+        }
+
+        if (ret != null) {
+            hitCount.incrementAndGet();
+
+            incrementCounter(KMSMetrics.KMSMetric.KEY_MATERIAL_CACHE_HIT_COUNT);
+        } else {
+            missCount.incrementAndGet();
+
+            incrementCounter(KMSMetrics.KMSMetric.KEY_MATERIAL_CACHE_MISS_COUNT);
+        }
+
+        return ret;
+    }
+
+    public void put(String versionName, byte[] material) {
+        if (versionName == null || material == null || material.length == 0) {
+            return;
+        }
+
+        Entry entry = new Entry(material, offHeap, System.currentTimeMillis() + ttlMs);
+
+        synchronized (entries) {
+            Entry prevEntry = entries.put(versionName, entry);
+
+            if (prevEntry != null) {
+                prevEntry.clear();
+            }
+
+            if (entries.size() > maxEntries) {
+                removeExpiredOrEldest();
+            }
+        }
+    }
+
+    /**
+     * Removes all versions of the given key - on rollover, delete or invalidateCache of the key
+     */
+    public void invalidate(String keyName) {
+        String versionPrefix = keyName + "@";
+
+        synchronized (entries) {
+            for (Iterator<Map.Entry<String, Entry>> iter = entries.entrySet().iterator(); iter.hasNext(); ) {
+                Map.Entry<String, Entry> e = iter.next();
+
+                if (e.getKey().startsWith(versionPrefix)) {
+                    iter.remove();
+
+                    e.getValue().clear();
+                }
+            }
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("invalidate({})", keyName);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                entry.clear();
+            }
+
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    // caller must hold lock on entries
+    private void removeExpiredOrEldest() {
+        long now = System.currentTimeMillis();
+
+        for (Iterator<Entry> iter = entries.values().iterator(); iter.hasNext(); ) {
+            Entry entry = iter.next();
+
+            if (entry.isExpired(now)) {
+                iter.remove();
+
+                entry.clear();
+            }
+        }
+
+        for (Iterator<Entry> iter = entries.values().iterator(); iter.hasNext() && entries.size() > maxEntries; ) { // in access order: least recently used first
+            Entry entry = iter.next();
+
+            iter.remove();
+
+            entry.clear();
+        }
+    }
+
+    private static void incrementCounter(KMSMetrics.KMSMetric metric) {
+        KMSMetricsCollector metricsCollector = KMSWebApp.getKmsMetricsCollector();
+
+        if (metricsCollector != null) {
+            metricsCollector.incrementCounter(metric);
+        }
+    }
+
+    private static class Entry {
+        private final ByteBuffer material;
+        private final long       expiryTime;
+
+        Entry(byte[] material, boolean offHeap, long expiryTime) {
+            this.material   = offHeap ? ByteBuffer.allocateDirect(material.length) : ByteBuffer.allocate(material.length);
+            this.expiryTime = expiryTime;
+
+            this.material.put(material);
+        }
+
+        boolean isExpired(long now) {
+            return now > expiryTime;
+        }
+
+        byte[] getMaterial() {
+            byte[]     ret = new byte[material.capacity()];
+            ByteBuffer buf = material.duplicate();
+
+            buf.clear();
+            buf.get(ret);
+
+            return ret;
+        }
+
+        void clear() {
+            if (material.hasArray()) {
+                Arrays.fill(material.array(), (byte) 0);
+            } else {
+                for (int i = 0; i < material.capacity(); i++) {
+                    material.put(i, (byte) 0);
+                }
+            }
+        }
+    }
+}
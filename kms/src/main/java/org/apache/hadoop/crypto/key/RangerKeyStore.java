@@ -48,6 +48,7 @@
 import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
@@ -56,7 +57,10 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.crypto.Cipher;
@@ -96,11 +100,17 @@ public class RangerKeyStore extends KeyStoreSpi {
     private static final int     NUMBER_OF_BITS_PER_BYTE = 8;
     private static final String  SECRET_KEY_HASH_WORD    = "Apache Ranger";
 
+    public static final long DEFAULT_MISSING_ALIAS_CACHE_TTL_MS = 5 * 1000L;
+
     private final    RangerKMSDao        kmsDao;
     private final    RangerKMSMKI        masterKeyProvider;
     private final    boolean             keyVaultEnabled;
-    private volatile Map<String, Object> keyEntries   = new ConcurrentHashMap<>();
-    private final    Map<String, Object> deltaEntries = new ConcurrentHashMap<>();
+    private volatile Map<String, Object>                     keyEntries             = new ConcurrentHashMap<>();
+    private final    Map<String, Object>                     deltaEntries           = new ConcurrentHashMap<>();
+    private final    Map<String, Long>                       missingAliases         = new ConcurrentHashMap<>(); // alias => time until which it is known to be not in the database
+    private final    Map<String, CompletableFuture<Boolean>> pendingLoads           = new ConcurrentHashMap<>(); // alias => load in progress
+    private volatile long                                    lastLoadedKeyId        = -1; // keys with greater id were added after the last load
+    private volatile long                                    missingAliasCacheTtlMs = DEFAULT_MISSING_ALIAS_CACHE_TTL_MS;
 
 
     public RangerKeyStore(DaoManager daoManager) {
@@ -241,6 +251,7 @@ public void addSecureKeyByteEntry(String alias, Key key, String cipher, int bitL
 
         deltaEntries.put(alias, entry);
         keyEntries.put(alias, entry);
+        missingAliases.remove(alias);
 
         if (logger.isDebugEnabled()) {
             logger.debug("<== addSecureKeyByteEntry({})", alias);
@@ -292,6 +303,7 @@ public void addKeyEntry(String alias, Key key, char[] password, String cipher, i
 
         deltaEntries.put(alias, entry);
         keyEntries.put(alias, entry);
+        missingAliases.remove(alias);
 
         if (logger.isDebugEnabled()) {
             logger.debug("<== addKeyEntry({})", alias);
@@ -446,92 +458,78 @@ public void engineLoad(InputStream stream, char[] password) throws IOException,
             return;
         }
 
-        Map<String, Object> keyEntries = new ConcurrentHashMap<>();
-
-        if (keyVaultEnabled) {
-            for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
-                String             encodedStr  = rangerKey.getEncoded();
-                byte[]             encodedByte = DatatypeConverter.parseBase64Binary(encodedStr);
-                String             alias       = rangerKey.getAlias();
-                SecretKeyByteEntry entry       = new SecretKeyByteEntry(new Date(rangerKey.getCreatedDate()), encodedByte,
-                                                                        rangerKey.getCipher(), rangerKey.getBitLength(),
-                                                                        rangerKey.getDescription(), rangerKey.getVersion(),
-                                                                        rangerKey.getAttributes());
+        Map<String, Object> keyEntries = toKeyEntries(rangerKeyDetails, password);
 
-                logger.debug("engineLoad(): loaded key {}", rangerKey.getAlias());
+        if (logger.isDebugEnabled()) {
+            logger.debug("engineLoad(): loaded {} keys", keyEntries.size());
+        }
 
-                keyEntries.put(alias, entry);
-            }
-        } else {
-            MessageDigest md = null;
+        this.keyEntries = keyEntries;
 
-            if (password != null) {
-                md = getKeyedMessageDigest(password);
-            }
+        missingAliases.clear();
 
-            byte computed[] = {};
+        lastLoadedKeyId = getMaxId(rangerKeyDetails, -1);
 
-            if (md != null) {
-                computed = md.digest();
-            }
+        if (logger.isDebugEnabled()) {
+            logger.debug("engineLoad(): keyEntries switched with {} keys, lastLoadedKeyId={}", keyEntries.size(), lastLoadedKeyId);
+        }
+    }
 
-            for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
-                String encoded = rangerKey.getEncoded();
-                byte[] data    = DatatypeConverter.parseBase64Binary(encoded);
+    /**
+     * Loads the given alias from the database, unlike engineLoad() which loads all keys. First, keys added since the last
+     * load - by this or other KMS instances - are loaded; if the alias is still not found, it is looked up by itself.
+     * Concurrent calls for an alias share one lookup; an alias not found in the database is not looked up again for
+     * missingAliasCacheTtlMs.
+     *
+     * @return true if the alias is loaded
+     */
+    public boolean engineLoadAlias(String alias, char[] password) throws IOException, NoSuchAlgorithmException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("==> engineLoadAlias({})", alias);
+        }
 
-                if (data != null && data.length > 0) {
-                    stream = new ByteArrayInputStream(data);
-                } else {
-                    logger.error("No Key found for alias {}", rangerKey.getAlias());
-                }
+        alias = convertAlias(alias);
 
-                if (computed != null) {
-                    int counter = 0;
+        boolean ret = keyEntries.containsKey(alias);
 
-                    for (int i = computed.length - 1; i >= 0; i--) {
-                        if (computed[i] != data[data.length - (1 + counter)]) {
-                            Throwable t = new UnrecoverableKeyException("Password verification failed");
+        if (!ret && !isKnownMissingAlias(alias)) {
+            CompletableFuture<Boolean> loadFuture  = new CompletableFuture<>();
+            CompletableFuture<Boolean> pendingLoad = pendingLoads.putIfAbsent(alias, loadFuture);
 
-                            logger.error("Keystore was tampered with, or password was incorrect.", t);
+            if (pendingLoad != null) { // another thread is loading this alias; wait for its result
+                try {
+                    ret = pendingLoad.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
 
-                            throw new IOException("Keystore was tampered with, or password was incorrect", t);
-                        } else {
-                            counter++;
-                        }
-                    }
+                    throw new IOException("Interrupted while loading key " + alias, e);
+                } catch (ExecutionException e) {
+                    throw new IOException("Failed to load key " + alias, e.getCause());
                 }
+            } else {
+                try {
+                    ret = loadAlias(alias, password);
 
-                SealedObject sealedKey;
+                    loadFuture.complete(ret);
+                } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+                    loadFuture.completeExceptionally(e);
 
-                // read the (entry creation) date
-                // read the sealed key
-                try (DataInputStream dis = password != null ? new DataInputStream(new DigestInputStream(stream, md)) : new DataInputStream(stream);
-                     ObjectInputStream ois = new ObjectInputStream(dis)) {
-                    sealedKey = (SealedObject) ois.readObject();
-                } catch (ClassNotFoundException cnfe) {
-                    throw new IOException(cnfe.getMessage());
+                    throw e;
+                } finally {
+                    pendingLoads.remove(alias, loadFuture);
                 }
-
-                SecretKeyEntry entry = new SecretKeyEntry(new Date(rangerKey.getCreatedDate()), sealedKey, rangerKey.getCipher(),
-                                                          rangerKey.getBitLength(), rangerKey.getDescription(), rangerKey.getVersion(),
-                                                          rangerKey.getAttributes());
-
-                logger.debug("engineLoad(): loaded key {}", rangerKey.getAlias());
-
-                // Add the entry to the list
-                keyEntries.put(rangerKey.getAlias(), entry);
             }
         }
 
         if (logger.isDebugEnabled()) {
-            logger.debug("engineLoad(): loaded {} keys", keyEntries.size());
+            logger.debug("<== engineLoadAlias({}): ret={}", alias, ret);
         }
 
-        this.keyEntries = keyEntries;
+        return ret;
+    }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("engineLoad(): keyEntries switched with {} keys", keyEntries.size());
-        }
+    public void setMissingAliasCacheTtlMs(long missingAliasCacheTtlMs) {
+        this.missingAliasCacheTtlMs = missingAliasCacheTtlMs;
     }
 
     @Override
@@ -934,6 +932,196 @@ private XXRangerKeyStore mapToEntityBean(XXRangerKeyStore rangerKMSKeyStore, XXR
         return xxRangerKeyStore;
     }
 
+    private boolean loadAlias(String alias, char[] password) throws IOException, NoSuchAlgorithmException {
+        loadNewKeys(password);
+
+        boolean ret = keyEntries.containsKey(alias);
+
+        if (!ret && kmsDao != null) {
+            XXRangerKeyStore rangerKey;
+
+            try {
+                rangerKey = kmsDao.getKeyByAlias(alias);
+            } catch (Exception e) {
+                logger.error("loadAlias({}) error", alias, e);
+
+                return false; // don't remember the alias as missing, as the lookup failed
+            }
+
+            if (rangerKey != null) {
+                keyEntries.putAll(toKeyEntries(Collections.singletonList(rangerKey), password));
+
+                ret = keyEntries.containsKey(alias);
+            }
+        }
+
+        if (!ret && missingAliasCacheTtlMs > 0) {
+            missingAliases.put(alias, System.currentTimeMillis() + missingAliasCacheTtlMs);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Loads keys added to the database after the last load, i.e. with id greater than lastLoadedKeyId. For a new version
+     * of a key, metadata of the key is reloaded as well, since its version count is updated on rollover.
+     */
+    private synchronized void loadNewKeys(char[] password) throws IOException, NoSuchAlgorithmException {
+        if (kmsDao == null || lastLoadedKeyId < 0) { // not loaded from the database yet
+            return;
+        }
+
+        List<XXRangerKeyStore> rangerKeys = new ArrayList<>();
+
+        try {
+            List<XXRangerKeyStore> newKeys = kmsDao.getKeysWithIdGreaterThan(lastLoadedKeyId);
+
+            if (newKeys != null) {
+                Set<String> rolledKeyNames = new HashSet<>();
+
+                for (XXRangerKeyStore rangerKey : newKeys) {
+                    int versionSeparatorIdx = rangerKey.getAlias().lastIndexOf('@');
+
+                    if (versionSeparatorIdx > 0) {
+                        rolledKeyNames.add(rangerKey.getAlias().substring(0, versionSeparatorIdx));
+                    }
+                }
+
+                rangerKeys.addAll(newKeys);
+
+                for (String keyName : rolledKeyNames) {
+                    XXRangerKeyStore keyMetadata = kmsDao.getKeyByAlias(keyName);
+
+                    if (keyMetadata != null) {
+                        rangerKeys.add(keyMetadata);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("loadNewKeys(lastLoadedKeyId={}) error", lastLoadedKeyId, e);
+
+            return;
+        }
+
+        if (!rangerKeys.isEmpty()) {
+            Map<String, Object> newEntries = toKeyEntries(rangerKeys, password);
+
+            newEntries.keySet().removeAll(deltaEntries.keySet()); // don't overwrite changes not yet stored in the database
+            newEntries.keySet().forEach(missingAliases::remove);
+
+            keyEntries.putAll(newEntries);
+
+            lastLoadedKeyId = getMaxId(rangerKeys, lastLoadedKeyId);
+
+            if (logger.isDebugEnabled()) {
+                logger.debug("loadNewKeys(): loaded {} keys, lastLoadedKeyId={}", newEntries.size(), lastLoadedKeyId);
+            }
+        }
+    }
+
+    private boolean isKnownMissingAlias(String alias) {
+        Long    missingUntil = missingAliases.get(alias);
+        boolean ret          = missingUntil != null && missingUntil > System.currentTimeMillis();
+
+        if (!ret && missingUntil != null) {
+            missingAliases.remove(alias, missingUntil);
+        }
+
+        return ret;
+    }
+
+    private Map<String, Object> toKeyEntries(List<XXRangerKeyStore> rangerKeyDetails, char[] password) throws IOException, NoSuchAlgorithmException {
+        Map<String, Object> ret    = new ConcurrentHashMap<>();
+        InputStream         stream = null;
+
+        if (keyVaultEnabled) {
+            for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
+                String             encodedStr  = rangerKey.getEncoded();
+                byte[]             encodedByte = DatatypeConverter.parseBase64Binary(encodedStr);
+                String             alias       = rangerKey.getAlias();
+                SecretKeyByteEntry entry       = new SecretKeyByteEntry(new Date(rangerKey.getCreatedDate()), encodedByte,
+                                                                        rangerKey.getCipher(), rangerKey.getBitLength(),
+                                                                        rangerKey.getDescription(), rangerKey.getVersion(),
+                                                                        rangerKey.getAttributes());
+
+                logger.debug("toKeyEntries(): loaded key {}", rangerKey.getAlias());
+
+                ret.put(alias, entry);
+            }
+        } else {
+            MessageDigest md = null;
+
+            if (password != null) {
+                md = getKeyedMessageDigest(password);
+            }
+
+            byte computed[] = {};
+
+            if (md != null) {
+                computed = md.digest();
+            }
+
+            for (XXRangerKeyStore rangerKey : rangerKeyDetails) {
+                String encoded = rangerKey.getEncoded();
+                byte[] data    = DatatypeConverter.parseBase64Binary(encoded);
+
+                if (data != null && data.length > 0) {
+                    stream = new ByteArrayInputStream(data);
+                } else {
+                    logger.error("No Key found for alias {}", rangerKey.getAlias());
+                }
+
+                if (computed != null) {
+                    int counter = 0;
+
+                    for (int i = computed.length - 1; i >= 0; i--) {
+                        if (computed[i] != data[data.length - (1 + counter)]) {
+                            Throwable t = new UnrecoverableKeyException("Password verification failed");
+
+                            logger.error("Keystore was tampered with, or password was incorrect.", t);
+
+                            throw new IOException("Keystore was tampered with, or password was incorrect", t);
+                        } else {
+                            counter++;
+                        }
+                    }
+                }
+
+                SealedObject sealedKey;
+
+                // read the (entry creation) date
+                // read the sealed key
+                try (DataInputStream dis = password != null ? new DataInputStream(new DigestInputStream(stream, md)) : new DataInputStream(stream);
+                     ObjectInputStream ois = new ObjectInputStream(dis)) {
+                    sealedKey = (SealedObject) ois.readObject();
+                } catch (ClassNotFoundException cnfe) {
+                    throw new IOException(cnfe.getMessage());
+                }
+
+                SecretKeyEntry entry = new SecretKeyEntry(new Date(rangerKey.getCreatedDate()), sealedKey, rangerKey.getCipher(),
+                                                          rangerKey.getBitLength(), rangerKey.getDescription(), rangerKey.getVersion(),
+                                                          rangerKey.getAttributes());
+
+                logger.debug("toKeyEntries(): loaded key {}", rangerKey.getAlias());
+
+                // Add the entry to the list
+                ret.put(rangerKey.getAlias(), entry);
+            }
+        }
+
+        return ret;
+    }
+
+    private static long getMaxId(List<XXRangerKeyStore> rangerKeys, long maxId) {
+        for (XXRangerKeyStore rangerKey : rangerKeys) {
+            if (rangerKey.getId() != null && rangerKey.getId() > maxId) {
+                maxId = rangerKey.getId();
+            }
+        }
+
+        return maxId;
+    }
+
     private List<XXRangerKeyStore> dbOperationLoad() {
         if (logger.isDebugEnabled()) {
             logger.debug("==> dbOperationLoad()");
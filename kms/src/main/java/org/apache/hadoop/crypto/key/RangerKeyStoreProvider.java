@@ -83,13 +83,15 @@ public class RangerKeyStoreProvider extends KeyProvider {
     private static final String TENCENT_CLIENT_SECRET        = RangerTencentKMSProvider.TENCENT_CLIENT_SECRET;
     private static final String TENCENT_CLIENT_SECRET_ALIAS  = "ranger.kms.tencent.client.secret.alias";
     private static final String IS_GCP_ENABLED               = "ranger.kms.gcp.enabled";
+    private static final String MISSING_ALIAS_CACHE_TTL_MS   = "ranger.kms.keystore.missing.alias.cache.ttl.ms";
 
-    private final RangerKeyStore        dbStore;
-    private final char[]                masterKey;
-    private final Map<String, Metadata> cache = new HashMap<>();
-    private final ReadWriteLock         lock  = new ReentrantReadWriteLock(true);
-    private final boolean               keyVaultEnabled;
-    private       boolean               changed = false;
+    private final RangerKeyStore         dbStore;
+    private final char[]                 masterKey;
+    private final Map<String, Metadata>  cache = new HashMap<>();
+    private final ReadWriteLock          lock  = new ReentrantReadWriteLock(true);
+    private final boolean                keyVaultEnabled;
+    private final RangerKeyMaterialCache keyMaterialCache; // null if disabled
+    private       boolean                changed = false;
 
     public RangerKeyStoreProvider(Configuration conf) throws Throwable {
         super(conf);
@@ -221,6 +223,10 @@ public RangerKeyStoreProvider(Configuration conf) throws Throwable {
             masterKey = this.generateAndGetMasterKey(masterKeyProvider, password);
         }
 
+        keyMaterialCache = RangerKeyMaterialCache.create(conf);
+
+        dbStore.setMissingAliasCacheTtlMs(conf.getLong(MISSING_ALIAS_CACHE_TTL_MS, RangerKeyStore.DEFAULT_MISSING_ALIAS_CACHE_TTL_MS));
+
         reloadKeys();
     }
 
@@ -256,6 +262,8 @@ public KeyVersion createKey(String name, byte[] material, Options options) throw
 
             String versionName = buildVersionName(name, 0);
 
+            invalidateKeyMaterial(name);
+
             ret = innerSetKeyVersion(name, versionName, material, meta);
         }
 
@@ -303,6 +311,8 @@ public void deleteKey(String name) throws IOException {
 
             cache.remove(name);
 
+            invalidateKeyMaterial(name);
+
             changed = true;
         }
 
@@ -351,15 +361,14 @@ public KeyVersion getKeyVersion(String versionName) throws IOException {
         KeyVersion ret = null;
 
         try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
-            if (keyVaultEnabled) {
-                try {
-                    boolean versionNameExists = dbStore.engineContainsAlias(versionName);
-
-                    if (!versionNameExists) {
-                        dbStore.engineLoad(null, masterKey);
+            // under read-lock, so that material of a key being deleted or rolled over isn't added back to the cache
+            byte[] cachedMaterial = keyMaterialCache != null ? keyMaterialCache.get(versionName) : null;
 
-                        versionNameExists = dbStore.engineContainsAlias(versionName);
-                    }
+            if (cachedMaterial != null) {
+                ret = new KeyVersion(getBaseName(versionName), versionName, cachedMaterial);
+            } else if (keyVaultEnabled) {
+                try {
+                    boolean versionNameExists = dbStore.engineContainsAlias(versionName) || dbStore.engineLoadAlias(versionName, masterKey);
 
                     if (versionNameExists) {
                         byte[] decryptKeyByte;
@@ -377,19 +386,11 @@ public KeyVersion getKeyVersion(String versionName) throws IOException {
 
                 } catch (NoSuchAlgorithmException e) {
                     throw new IOException("Can't get algorithm for key " + e.getMessage());
-                } catch (CertificateException e) {
-                    throw new IOException("Certificate exception storing key", e);
                 }
             } else {
                 SecretKeySpec key = null;
                 try {
-                    boolean versionNameExists = dbStore.engineContainsAlias(versionName);
-
-                    if (!versionNameExists) {
-                        dbStore.engineLoad(null, masterKey);
-
-                        versionNameExists = dbStore.engineContainsAlias(versionName);
-                    }
+                    boolean versionNameExists = dbStore.engineContainsAlias(versionName) || dbStore.engineLoadAlias(versionName, masterKey);
 
                     if (versionNameExists) {
                         key = (SecretKeySpec) dbStore.engineGetKey(versionName, masterKey);
@@ -398,14 +399,16 @@ public KeyVersion getKeyVersion(String versionName) throws IOException {
                     throw new IOException("Can't get algorithm for key " + key, e);
                 } catch (UnrecoverableKeyException e) {
                     throw new IOException("Can't recover key " + key, e);
-                } catch (CertificateException e) {
-                    throw new IOException("Certificate exception storing key", e);
                 }
 
                 if (key != null) {
                     ret = new KeyVersion(getBaseName(versionName), versionName, key.getEncoded());
                 }
             }
+
+            if (cachedMaterial == null && ret != null && keyMaterialCache != null) {
+                keyMaterialCache.put(versionName, ret.getMaterial());
+            }
         }
 
         if (logger.isDebugEnabled()) {
@@ -488,11 +491,7 @@ public Metadata getMetadata(String name) throws IOException {
             ret = cache.get(name);
 
             if (ret == null) {
-                if (!dbStore.engineContainsAlias(name)) {
-                    dbStore.engineLoad(null, masterKey);
-                }
-
-                if (dbStore.engineContainsAlias(name)) {
+                if (dbStore.engineContainsAlias(name) || dbStore.engineLoadAlias(name, masterKey)) {
                     if (keyVaultEnabled) {
                         ret = dbStore.engineGetKeyMetadata(name);
 
@@ -557,6 +556,8 @@ public KeyVersion rollNewVersion(String name, byte[] material) throws IOExceptio
             int    nextVersion = meta.addVersion();
             String versionName = buildVersionName(name, nextVersion);
 
+            invalidateKeyMaterial(name);
+
             ret = innerSetKeyVersion(name, versionName, material, meta);
         }
 
@@ -567,6 +568,23 @@ public KeyVersion rollNewVersion(String name, byte[] material) throws IOExceptio
         return ret;
     }
 
+    @Override
+    public void invalidateCache(String name) throws IOException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("==> invalidateCache({})", name);
+        }
+
+        try (AutoClosableWriteLock ignored = new AutoClosableWriteLock(lock)) {
+            cache.remove(name);
+
+            invalidateKeyMaterial(name);
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("<== invalidateCache({})", name);
+        }
+    }
+
     private static Configuration getConfiguration(boolean loadHadoopDefaults, String... resources) {
         if (logger.isDebugEnabled()) {
             logger.debug("==> getConfiguration()");
@@ -703,6 +721,12 @@ private KeyVersion innerSetKeyVersion(String name, String versionName, byte[] ma
         return ret;
     }
 
+    private void invalidateKeyMaterial(String name) {
+        if (keyMaterialCache != null) {
+            keyMaterialCache.invalidate(name);
+        }
+    }
+
     private void saveKey(String name, Metadata metadata) throws IOException {
         try {
             String attributes = JsonUtilsV2.mapToJson(metadata.getAttributes());
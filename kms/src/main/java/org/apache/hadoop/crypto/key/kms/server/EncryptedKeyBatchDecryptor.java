@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.crypto.key.kms.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.crypto.CryptoCodec;
+import org.apache.hadoop.crypto.Decryptor;
+import org.apache.hadoop.crypto.key.KeyProvider;
+import org.apache.hadoop.crypto.key.KeyProvider.KeyVersion;
+import org.apache.hadoop.crypto.key.KeyProviderCryptoExtension;
+import org.apache.hadoop.crypto.key.KeyProviderCryptoExtension.EncryptedKeyVersion;
+import org.apache.hadoop.crypto.key.kms.KMSClientProvider.KMSKeyVersion;
+import org.apache.hadoop.thirdparty.com.google.common.base.Preconditions;
+
+/**
+ * Decrypts a batch of encrypted keys. Unlike calling decryptEncryptedKey() for each key, every encryption key version
+ * is looked up once per batch and one Decryptor (i.e. one Cipher instance) and one pair of buffers are used for all
+ * keys in the batch. Callers must perform the authorization checks.
+ */
+final class EncryptedKeyBatchDecryptor {
+  private EncryptedKeyBatchDecryptor() {
+  }
+
+  static List<KeyVersion> decrypt(KeyProvider keyProvider, List<EncryptedKeyVersion> ekvs) throws IOException, GeneralSecurityException {
+    final List<KeyVersion>        ret            = new ArrayList<>(ekvs.size());
+    final Map<String, KeyVersion> encryptionKeys = new HashMap<>();
+
+    if (ekvs.isEmpty()) {
+      return ret;
+    }
+
+    try (CryptoCodec codec = CryptoCodec.getInstance(keyProvider.getConf())) {
+      if (codec == null) {
+        throw new GeneralSecurityException("No crypto codec available to decrypt encrypted keys");
+      }
+
+      final Decryptor decryptor = codec.createDecryptor();
+      ByteBuffer      in        = null;
+      ByteBuffer      out       = null;
+
+      for (EncryptedKeyVersion ekv : ekvs) {
+        final String kvn           = ekv.getEncryptionKeyVersionName();
+        KeyVersion   encryptionKey = encryptionKeys.get(kvn);
+
+        if (encryptionKey == null) {
+          encryptionKey = keyProvider.getKeyVersion(kvn);
+
+          if (encryptionKey == null) {
+            throw new IllegalArgumentException(String.format("'%s' not found", kvn));
+          }
+
+          if (!encryptionKey.getName().equals(ekv.getEncryptionKeyName())) {
+            throw new IllegalArgumentException(String.format("KeyVersion '%s' does not belong to the key '%s'", kvn, ekv.getEncryptionKeyName()));
+          }
+
+          encryptionKeys.put(kvn, encryptionKey);
+        }
+
+        final KeyVersion encryptedKey = ekv.getEncryptedKeyVersion();
+
+        Preconditions.checkArgument(KeyProviderCryptoExtension.EEK.equals(encryptedKey.getVersionName()),
+                                    "encryptedKey version name must be '%s', but found '%s'", KeyProviderCryptoExtension.EEK, encryptedKey.getVersionName());
+
+        final byte[] encryptedMaterial = encryptedKey.getMaterial();
+        final int    keyLen            = encryptedMaterial.length;
+
+        if (in == null || in.capacity() < keyLen) {
+          in  = ByteBuffer.allocateDirect(keyLen);
+          out = ByteBuffer.allocateDirect(keyLen);
+        }
+
+        in.clear();
+        out.clear();
+
+        in.put(encryptedMaterial);
+        in.flip();
+
+        decryptor.init(encryptionKey.getMaterial(), deriveIV(ekv.getEncryptedKeyIv()));
+        decryptor.decrypt(in, out);
+
+        out.flip();
+
+        final byte[] decryptedKey = new byte[keyLen];
+
+        out.get(decryptedKey);
+
+        ret.add(new KMSKeyVersion(encryptionKey.getName(), KeyProviderCryptoExtension.EK, decryptedKey));
+      }
+    }
+
+    return ret;
+  }
+
+  // same as EncryptedKeyVersion.deriveIV(), which is not accessible here
+  private static byte[] deriveIV(byte[] encryptedKeyIV) {
+    final byte[] ret = new byte[encryptedKeyIV.length];
+
+    for (int i = 0; i < encryptedKeyIV.length; i++) {
+      ret[i] = (byte) (encryptedKeyIV[i] ^ 0xff);
+    }
+
+    return ret;
+  }
+}
@@ -79,11 +79,13 @@ public class KMS {
   private static final String KEY_NAME_VALIDATION = "[a-z,A-Z,0-9](?!.*--)(?!.*__)(?!.*-_)(?!.*_-)[\\w\\-\\_]*";
   private static final int    MAX_NUM_PER_BATCH   = 10000;
 
+  public static final String DECRYPT_BATCH_SUB_RESOURCE = "_decryptbatch";
+
   public enum KMSOp {
     CREATE_KEY, DELETE_KEY, ROLL_NEW_VERSION, INVALIDATE_CACHE,
     GET_KEYS, GET_KEYS_METADATA,
     GET_KEY_VERSIONS, GET_METADATA, GET_KEY_VERSION, GET_CURRENT_KEY,
-    GENERATE_EEK, DECRYPT_EEK, REENCRYPT_EEK, REENCRYPT_EEK_BATCH
+    GENERATE_EEK, DECRYPT_EEK, REENCRYPT_EEK, REENCRYPT_EEK_BATCH, DECRYPT_EEK_BATCH
   }
 
 
@@ -687,6 +689,78 @@ public Response reencryptEncryptedKeys(@PathParam("name") final String name, fin
     }
   }
 
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  @POST
+  @Path(KMSRESTConstants.KEY_RESOURCE + "/{name:.*}/" + DECRYPT_BATCH_SUB_RESOURCE)
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response decryptEncryptedKeys(@PathParam("name") final String name, final List<Map> jsonPayload, @Context HttpServletRequest request) throws Exception {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("==> decryptEncryptedKeys(name={}, count={})", name, (jsonPayload != null ? jsonPayload.size() : 0));
+    }
+
+    final Stopwatch sw = Stopwatch.createStarted();
+
+    try {
+      this.kmsMetricsCollector.incrementCounter(KMSMetrics.KMSMetric.DECRYPT_EEK_BATCH_COUNT);
+      KMSWebApp.getDecryptEEKCallsMeter().mark();
+
+      checkNotEmpty(name, "name");
+      checkNotNull(jsonPayload, "jsonPayload");
+
+      final UserGroupInformation user = HttpUserGroupInformation.get();
+
+      if (jsonPayload.size() > MAX_NUM_PER_BATCH) {
+        LOG.warn("Payload size {} too big for decryptEncryptedKeys from user {}.", jsonPayload.size(), user);
+
+        throw new IllegalArgumentException("Payload size " + jsonPayload.size() + " exceeds the maximum of " + MAX_NUM_PER_BATCH + " keys per batch");
+      }
+
+      assertAccess(Type.DECRYPT_EEK, user, KMSOp.DECRYPT_EEK_BATCH, name, request.getRemoteAddr());
+
+      final List<EncryptedKeyVersion> ekvs = KMSUtil.parseJSONEncKeyVersions(name, jsonPayload);
+
+      Preconditions.checkArgument(ekvs.size() == jsonPayload.size(), "EncryptedKey size mismatch after parsing from json");
+
+      for (EncryptedKeyVersion ekv : ekvs) {
+        Preconditions.checkArgument(name.equals(ekv.getEncryptionKeyName()), "All EncryptedKeys must be under the given key name " + name);
+      }
+
+      List<KeyVersion> keyVersions = user.doAs((PrivilegedExceptionAction<List<KeyVersion>>) () -> {
+        if (provider instanceof KeyAuthorizationKeyProvider) {
+          return ((KeyAuthorizationKeyProvider) provider).decryptEncryptedKeys(ekvs);
+        } else {
+          return EncryptedKeyBatchDecryptor.decrypt(provider, ekvs);
+        }
+      });
+
+      List retJSON = new ArrayList<>(keyVersions.size());
+
+      for (KeyVersion keyVersion : keyVersions) {
+        retJSON.add(KMSUtil.toJSON(keyVersion));
+      }
+
+      this.kmsMetricsCollector.updateMetric(KMSMetrics.KMSMetric.DECRYPT_EEK_BATCH_KEYS_COUNT, ekvs.size());
+
+      kmsAudit.ok(user, KMSOp.DECRYPT_EEK_BATCH, name, "decrypted " + ekvs.size() + " keys");
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("decryptEncryptedKeys {} keys for key {} took {}", jsonPayload.size(), name, sw.stop());
+      }
+
+      return Response.ok().type(MediaType.APPLICATION_JSON).entity(retJSON).build();
+    } catch (Exception e) {
+      LOG.error("Exception in decryptEncryptedKeys.", e);
+
+      throw e;
+    } finally {
+      this.kmsMetricsCollector.updateMetric(KMSMetrics.KMSMetric.DECRYPT_EEK_BATCH_ELAPSED_TIME, sw.elapsed(TimeUnit.MILLISECONDS));
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("<== decryptEncryptedKeys(name={}, count={})", name, (jsonPayload != null ? jsonPayload.size() : 0));
+      }
+    }
+  }
+
   @SuppressWarnings("rawtypes")
   @POST
   @Path(KMSRESTConstants.KEY_VERSION_RESOURCE + "/{versionName:.*}/" + KMSRESTConstants.EEK_SUB_RESOURCE)
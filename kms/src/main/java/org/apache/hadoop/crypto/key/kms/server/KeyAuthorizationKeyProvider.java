@@ -21,8 +21,10 @@
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.commons.lang3.StringUtils;
@@ -233,6 +235,23 @@ public void reencryptEncryptedKeys(List<EncryptedKeyVersion> ekvs) throws IOExce
     }
   }
 
+  /**
+   * Decrypts the given encrypted keys, checking DECRYPT_EEK access once for each key name in the batch
+   */
+  public List<KeyVersion> decryptEncryptedKeys(List<EncryptedKeyVersion> ekvs) throws IOException, GeneralSecurityException {
+    try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
+      Set<String> keyNames = new HashSet<>();
+
+      for (EncryptedKeyVersion ekv : ekvs) {
+        if (keyNames.add(ekv.getEncryptionKeyName())) {
+          doAccessCheck(ekv.getEncryptionKeyName(), KeyOpType.DECRYPT_EEK);
+        }
+      }
+
+      return EncryptedKeyBatchDecryptor.decrypt(provider, ekvs);
+    }
+  }
+
   @Override
   public List<KeyVersion> getKeyVersions(String name) throws IOException {
       try (AutoClosableReadLock ignored = new AutoClosableReadLock(lock)) {
@@ -26,11 +26,14 @@
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
+import javax.persistence.Query;
 
 public class RangerKMSDao extends BaseDao<XXRangerKeyStore> {
     private static final Logger logger = LoggerFactory.getLogger(RangerKMSDao.class);
 
-    private static final String GET_ALL_KEYS_QUERY_NAME = "XXRangerKeyStore.getAllKeys";
+    private static final String GET_ALL_KEYS_QUERY_NAME                  = "XXRangerKeyStore.getAllKeys";
+    private static final String GET_KEY_BY_ALIAS_QUERY_NAME              = "XXRangerKeyStore.getKeyByAlias";
+    private static final String GET_KEYS_WITH_ID_GREATER_THAN_QUERY_NAME = "XXRangerKeyStore.getKeysWithIdGreaterThan";
 
     RangerKMSDao(DaoManagerBase daoManager) {
         super(daoManager);
@@ -45,15 +48,39 @@ public int deleteByAlias(String alias){
     }
 
     public List<XXRangerKeyStore> getAllKeys() {
+        return getKeys(GET_ALL_KEYS_QUERY_NAME, null, null);
+    }
+
+    /**
+     * @return the key with given alias, read from the database, bypassing the entity cache; null if the key is not found
+     */
+    public XXRangerKeyStore getKeyByAlias(String alias) {
+        List<XXRangerKeyStore> keys = getKeys(GET_KEY_BY_ALIAS_QUERY_NAME, "alias", alias);
+
+        return keys != null && !keys.isEmpty() ? keys.get(0) : null;
+    }
+
+    /**
+     * @return keys added after the key with given id - i.e. since the keystore was last loaded, ordered by id
+     */
+    public List<XXRangerKeyStore> getKeysWithIdGreaterThan(Long id) {
+        return getKeys(GET_KEYS_WITH_ID_GREATER_THAN_QUERY_NAME, "id", id);
+    }
+
+    private List<XXRangerKeyStore> getKeys(String queryName, String paramName, Object paramValue) {
         List<XXRangerKeyStore> ret = null;
         EntityManager          em  = null;
 
         try {
             em = getEntityManager();
 
-            List<Object[]> rows = (List<Object[]>) em.createNamedQuery(GET_ALL_KEYS_QUERY_NAME)
-                                                     .setHint("eclipselink.refresh", "true")
-                                                     .getResultList();
+            Query query = em.createNamedQuery(queryName).setHint("eclipselink.refresh", "true");
+
+            if (paramName != null) {
+                query.setParameter(paramName, paramValue);
+            }
+
+            List<Object[]> rows = (List<Object[]>) query.getResultList();
 
             if (rows != null) {
                 ret = new ArrayList<>(rows.size());
@@ -75,7 +102,7 @@ public List<XXRangerKeyStore> getAllKeys() {
                 }
             }
         } catch (NoResultException e) {
-            logger.error("getAllKeys({}) failed", GET_ALL_KEYS_QUERY_NAME, e);
+            logger.error("getKeys({}) failed", queryName, e);
         } finally {
             if (em != null) {
                 em.clear();
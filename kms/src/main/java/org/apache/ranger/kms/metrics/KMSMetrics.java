@@ -40,6 +40,9 @@ enum KMSMetric {
          REENCRYPT_EEK_BATCH_COUNT("REENCRYPT_EEK_BATCH_COUNT", Type.COUNTER), REENCRYPT_EEK_BATCH_ELAPSED_TIME("REENCRYPT_EEK_BATCH_ELAPSED_TIME", Type.GAUGE),
          REENCRYPT_EEK_BATCH_KEYS_COUNT("REENCRYPT_EEK_BATCH_KEYS_COUNT", Type.COUNTER),
 
+         DECRYPT_EEK_BATCH_COUNT("DECRYPT_EEK_BATCH_COUNT", Type.COUNTER), DECRYPT_EEK_BATCH_ELAPSED_TIME("DECRYPT_EEK_BATCH_ELAPSED_TIME", Type.GAUGE),
+         DECRYPT_EEK_BATCH_KEYS_COUNT("DECRYPT_EEK_BATCH_KEYS_COUNT", Type.COUNTER),
+
          DELETE_KEY_COUNT("DELETE_KEY_COUNT", Type.COUNTER), DELETE_KEY_ELAPSED_TIME("DELETE_KEY_ELAPSED_TIME", Type.GAUGE),
          ROLL_NEW_VERSION_COUNT("ROLL_NEW_VERSION_COUNT", Type.COUNTER), ROLL_NEW_VERSION_ELAPSED_TIME("ROLL_NEW_VERSION_ELAPSED_TIME", Type.GAUGE),
 
@@ -57,6 +60,8 @@ enum KMSMetric {
 
          GET_KEY_VERSIONS_COUNT("GET_KEY_VERSIONS_COUNT", Type.COUNTER), GET_KEY_VERSIONS_ELAPSED_TIME("GET_KEY_VERSIONS_ELAPSED_TIME", Type.GAUGE),
 
+         KEY_MATERIAL_CACHE_HIT_COUNT("KEY_MATERIAL_CACHE_HIT_COUNT", Type.COUNTER), KEY_MATERIAL_CACHE_MISS_COUNT("KEY_MATERIAL_CACHE_MISS_COUNT", Type.COUNTER),
+
          UNAUTHENTICATED_CALLS_COUNT("UNAUTHENTICATED_CALLS_COUNT", Type.COUNTER), UNAUTHORIZED_CALLS_COUNT("UNAUTHORIZED_CALLS_COUNT", Type.COUNTER),
 
          TOTAL_CALL_COUNT("TOTAL_CALL_COUNT", Type.COUNTER);
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.crypto.key.kms;
+
+import org.apache.hadoop.crypto.key.RangerKeyMaterialCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestRangerKeyMaterialCache {
+    private static final byte[] MATERIAL = new byte[] { 1, 2, 3, 4 };
+
+    @Test
+    public void testGetReturnsCopy() {
+        for (boolean offHeap : new boolean[] { false, true }) {
+            RangerKeyMaterialCache cache = new RangerKeyMaterialCache(10, 60000, offHeap);
+
+            Assertions.assertNull(cache.get("key1@0"));
+
+            cache.put("key1@0", MATERIAL);
+
+            byte[] material = cache.get("key1@0");
+
+            Assertions.assertArrayEquals(MATERIAL, material);
+
+            material[0] = 0; // changes to the returned material must not affect the cache
+
+            Assertions.assertArrayEquals(MATERIAL, cache.get("key1@0"));
+            Assertions.assertEquals(2, cache.getHitCount());
+            Assertions.assertEquals(1, cache.getMissCount());
+        }
+    }
+
+    @Test
+    public void testInvalidateRemovesAllVersionsOfKey() {
+        RangerKeyMaterialCache cache = new RangerKeyMaterialCache(10, 60000, false);
+
+        cache.put("key1@0", MATERIAL);
+        cache.put("key1@1", MATERIAL);
+        cache.put("key10@0", MATERIAL);
+
+        cache.invalidate("key1");
+
+        Assertions.assertNull(cache.get("key1@0"));
+        Assertions.assertNull(cache.get("key1@1"));
+        Assertions.assertNotNull(cache.get("key10@0"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        RangerKeyMaterialCache cache = new RangerKeyMaterialCache(2, 60000, false);
+
+        cache.put("key1@0", MATERIAL);
+        cache.put("key2@0", MATERIAL);
+        cache.get("key1@0");
+        cache.put("key3@0", MATERIAL);
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNotNull(cache.get("key1@0"));
+        Assertions.assertNull(cache.get("key2@0"));
+        Assertions.assertNotNull(cache.get("key3@0"));
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        RangerKeyMaterialCache cache = new RangerKeyMaterialCache(10, 50, false);
+
+        cache.put("key1@0", MATERIAL);
+
+        Thread.sleep(100);
+
+        Assertions.assertNull(cache.get("key1@0"));
+        Assertions.assertEquals(0, cache.size());
+    }
+}
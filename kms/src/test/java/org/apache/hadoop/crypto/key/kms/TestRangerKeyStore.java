@@ -32,6 +32,7 @@
 
 import org.apache.hadoop.crypto.key.RangerKeyStore;
 import org.apache.ranger.kms.dao.DaoManager;
+import org.apache.ranger.kms.dao.RangerKMSDao;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -142,6 +143,20 @@ public void testValidKey2() throws NoSuchAlgorithmException,
                 inputStream.close();
         }
 
+        @Test
+        public void testLoadAliasRemembersMissingAlias() throws Exception {
+                DaoManager daoManager = Mockito.mock(DaoManager.class);
+                RangerKMSDao kmsDao = Mockito.mock(RangerKMSDao.class);
+                Mockito.when(daoManager.getRangerKMSDao()).thenReturn(kmsDao);
+                RangerKeyStore rangerKeyStore = new RangerKeyStore(daoManager);
+
+                Assertions.assertFalse(rangerKeyStore.engineLoadAlias("missingkey@0", masterKey));
+                Assertions.assertFalse(rangerKeyStore.engineLoadAlias("missingkey@0", masterKey));
+
+                // second lookup is answered from the missing-alias cache, without reading the database
+                Mockito.verify(kmsDao, Mockito.times(1)).getKeyByAlias("missingkey@0");
+        }
+
         private InputStream generateKeyStoreFile(String keyValue) throws KeyStoreException, NoSuchAlgorithmException, CertificateException, IOException {
                 FileOutputStream stream = new FileOutputStream(new File(keyStoreFileName));
                 KeyStore ks;
@@ -24,7 +24,9 @@
 import java.net.URI;
 import java.security.PrivilegedExceptionAction;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.hadoop.conf.Configuration;
@@ -288,4 +290,46 @@ public Void run() throws Exception {
       );
     });
   }
+
+  @Test
+  public void testDecryptEncryptedKeys() throws Exception {
+    final Configuration conf = new Configuration();
+    KeyProvider kp =
+        new UserProvider.Factory().createProvider(new URI("user:///"), conf);
+    KeyACLs mock = mock(KeyACLs.class);
+    when(mock.isACLPresent("foo", KeyOpType.MANAGEMENT)).thenReturn(true);
+    UserGroupInformation u1 = UserGroupInformation.createRemoteUser("u1");
+    UserGroupInformation u2 = UserGroupInformation.createRemoteUser("u2");
+    when(mock.hasAccessToKey("foo", u1, KeyOpType.DECRYPT_EEK)).thenReturn(true);
+    final KeyProviderCryptoExtension kpExt =
+        KeyProviderCryptoExtension.createKeyProviderCryptoExtension(kp);
+    final KeyAuthorizationKeyProvider authKpExt =
+        new KeyAuthorizationKeyProvider(kpExt, mock);
+
+    byte[] seed = new byte[16];
+    SECURE_RANDOM.nextBytes(seed);
+    KeyVersion kv = kpExt.createKey("foo", seed, newOptions(conf));
+
+    final List<EncryptedKeyVersion> ekvs = new ArrayList<>();
+    ekvs.add(kpExt.generateEncryptedKey(kv.getName()));
+    kpExt.rollNewVersion(kv.getName());
+    ekvs.add(kpExt.generateEncryptedKey(kv.getName()));
+    ekvs.add(kpExt.generateEncryptedKey(kv.getName()));
+
+    List<KeyVersion> decrypted = u1.doAs(
+        (PrivilegedExceptionAction<List<KeyVersion>>) () -> authKpExt.decryptEncryptedKeys(ekvs));
+
+    Assertions.assertEquals(ekvs.size(), decrypted.size());
+
+    for (int i = 0; i < ekvs.size(); i++) {
+      KeyVersion expected = kpExt.decryptEncryptedKey(ekvs.get(i));
+
+      Assertions.assertEquals(expected.getName(), decrypted.get(i).getName());
+      Assertions.assertEquals(expected.getVersionName(), decrypted.get(i).getVersionName());
+      Assertions.assertArrayEquals(expected.getMaterial(), decrypted.get(i).getMaterial());
+    }
+
+    Assertions.assertThrows(IOException.class, () -> u2.doAs(
+        (PrivilegedExceptionAction<List<KeyVersion>>) () -> authKpExt.decryptEncryptedKeys(ekvs)));
+  }
 }
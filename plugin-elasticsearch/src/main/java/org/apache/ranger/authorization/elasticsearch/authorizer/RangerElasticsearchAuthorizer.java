@@ -24,7 +24,6 @@
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.thirdparty.com.google.common.collect.Sets;
-import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
@@ -89,7 +88,7 @@ public boolean checkPermission(String user, List<String> groups, String index, S
 
 		if (elasticsearchPlugin != null) {
 			if (null == groups) {
-				groups = new ArrayList <>(MiscUtil.getGroupsForRequestUser(user));
+				groups = new ArrayList <>(elasticsearchPlugin.getUserGroups(user));
 			}
 			String privilege = IndexPrivilegeUtils.getPrivilegeFromAction(action);
 			RangerElasticsearchAccessRequest request = new RangerElasticsearchAccessRequest(user, groups, index,
@@ -55,6 +55,7 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerResourceTypeAccessIndex;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
 import org.slf4j.Logger;
@@ -254,7 +255,7 @@ private List<AuthorizationResult> wrappedAuthorization(AuthorizableRequestContex
       return Collections.emptyList();
     }
     String userName = requestContext.principal() == null ? null : requestContext.principal().getName();
-    Set<String> userGroups = MiscUtil.getGroupsForRequestUser(userName);
+    Set<String> userGroups = rangerPlugin.getUserGroups(userName);
     String hostAddress = requestContext.clientAddress() == null ? null : requestContext.clientAddress().getHostAddress();
     String ip = StringUtils.isNotEmpty(hostAddress) && hostAddress.charAt(0) == '/' ? hostAddress.substring(1) : hostAddress;
     Date eventTime = new Date();
@@ -329,17 +330,34 @@ public List<? extends CompletionStage<AclDeleteResult>> deleteAcls(AuthorizableR
         .collect(Collectors.toList());
   }
 
-  // TODO: provide a real implementation (RANGER-3809)
-  // Currently we return a dummy implementation because KAFKA-13598 makes producers idempotent by default and this causes
-  // a failure in the InitProducerId API call on the broker side because of the missing acls() method implementation.
-  // Overriding this with a dummy impl will make Kafka return an authorization error instead of an exception if the
-  // IDEMPOTENT_WRITE permission wasn't set on the producer.
+  // Returns ALLOWED if the user is allowed the access on at least one resource of the given type, as found from the
+  // resource-type access index of the policy engine. When the index can't determine this without evaluating policies
+  // (ex: due to policy conditions or deny policy-items), DENIED is returned: Kafka then falls back to per-resource
+  // authorization, ex: for IDEMPOTENT_WRITE in InitProducerId API
   @Override
   public AuthorizationResult authorizeByResourceType(AuthorizableRequestContext requestContext, AclOperation op, ResourceType resourceType) {
     SecurityUtils.authorizeByResourceTypeCheckArgs(op, resourceType);
 
-    logger.debug("authorizeByResourceType call is not supported by Ranger for Kafka yet");
-    return AuthorizationResult.DENIED;
+    if (rangerPlugin == null) {
+      MiscUtil.logErrorMessageByInterval(logger, "Authorizer is still not initialized");
+      return AuthorizationResult.DENIED;
+    }
+
+    String accessType = mapToRangerAccessType(op);
+    String resourceTypeKey = mapToResourceType(resourceType);
+    if (accessType == null || resourceTypeKey == null) {
+      logger.debug("authorizeByResourceType: unsupported operation={} or resourceType={}", op, resourceType);
+      return AuthorizationResult.DENIED;
+    }
+
+    String userName = requestContext.principal() == null ? null : requestContext.principal().getName();
+    Set<String> userGroups = rangerPlugin.getUserGroups(userName);
+
+    RangerResourceTypeAccessIndex.AnyResourceAccess access = rangerPlugin.getAccessOnAnyResource(resourceTypeKey, accessType, userName, userGroups);
+    AuthorizationResult ret = access == RangerResourceTypeAccessIndex.AnyResourceAccess.ALLOWED ? AuthorizationResult.ALLOWED : AuthorizationResult.DENIED;
+
+    logger.debug("authorizeByResourceType(user={}, operation={}, resourceType={}): access={}, return={}", userName, op, resourceType, access, ret);
+    return ret;
   }
 
   @Override
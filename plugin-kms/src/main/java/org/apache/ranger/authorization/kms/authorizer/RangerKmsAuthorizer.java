@@ -44,11 +44,16 @@
 import org.apache.hadoop.thirdparty.com.google.common.collect.Sets;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.plugin.audit.RangerDefaultAuditHandler;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
 import org.apache.ranger.plugin.util.RangerPerfTracer;
+import org.apache.ranger.plugin.util.RangerAccessResultCache;
+import org.apache.ranger.plugin.util.RangerAccessResultCache.CacheEntries;
+import org.apache.ranger.plugin.util.ServicePolicies;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -219,7 +224,7 @@ public boolean hasAccess(Type type, UserGroupInformation ugi, String clientIp) {
 		
 			if(plugin != null && ret) {				
 				RangerKMSAccessRequest request = new RangerKMSAccessRequest("", rangerAccessType, ugi, clientIp);
-				RangerAccessResult result = plugin.isAccessAllowed(request);
+				RangerAccessResult result = isAccessAllowed(plugin, request);
 				ret = result != null && result.getIsAllowed();
 			}
 			RangerPerfTracer.log(perf);
@@ -245,7 +250,7 @@ public boolean hasAccess(Type type, UserGroupInformation ugi, String keyName, St
 		
 			if(plugin != null && ret) {				
 				RangerKMSAccessRequest request = new RangerKMSAccessRequest(keyName, rangerAccessType, ugi, clientIp);
-				RangerAccessResult result = plugin.isAccessAllowed(request);
+				RangerAccessResult result = isAccessAllowed(plugin, request);
 				ret = result != null && result.getIsAllowed();
 			}
 			
@@ -325,6 +330,45 @@ private void setKMSACLs(Configuration conf) {
 			    blacklistedAcls = tempBlacklist;
 		}
 
+		// reuses the result of an earlier check by the same user/groups for the same key and access-type, if available
+		static RangerAccessResult isAccessAllowed(RangerKMSPlugin plugin, RangerKMSAccessRequest request) {
+			final RangerAccessResult ret;
+
+			CacheEntries<RangerAccessResult> cachedResults = plugin.getAccessCache().getEntries(plugin);
+			String                           cacheKey      = cachedResults != null ? getCacheKey(request) : null;
+			RangerAccessResult               cachedResult  = cacheKey != null ? cachedResults.get(cacheKey) : null;
+
+			if (cachedResult != null) {
+				ret = RangerAccessResultCache.getResult(cachedResult, request);
+
+				RangerAccessResultProcessor resultProcessor = plugin.getResultProcessor();
+
+				if (resultProcessor != null) {
+					resultProcessor.processResult(ret);
+				}
+			} else {
+				ret = plugin.isAccessAllowed(request);
+
+				if (cacheKey != null) {
+					cachedResults.put(cacheKey, ret);
+				}
+			}
+
+			return ret;
+		}
+
+		// accessType|keyName|user|groups; null if the request can't be cached
+		static String getCacheKey(RangerAccessRequest request) {
+			Object keyName = request.getResource().getValue(RangerKMSResource.KEY_NAME);
+			String userKey = RangerAccessResultCache.getUserKey(request);
+
+			if (request.getAccessType() == null || userKey == null) {
+				return null;
+			}
+
+			return request.getAccessType() + "|" + (keyName != null ? keyName : "") + "|" + userKey;
+		}
+
 		private static String getRangerAccessType(KMSACLsType.Type accessType) {
 			if (ACCESS_TYPE_MAP.containsKey(accessType)) {
 				return ACCESS_TYPE_MAP.get(accessType);
@@ -337,10 +381,28 @@ private static String getRangerAccessType(KMSACLsType.Type accessType) {
 
 	
 	class RangerKMSPlugin extends RangerBasePlugin {
+		private static final int ACCESS_CACHE_MAX_ENTRIES = 10000;
+
+		// results by user/groups, key name and access-type, so that repeated checks - like decrypteek and generateeek of a key by the same user - don't evaluate policies each time
+		private final RangerAccessResultCache<RangerAccessResult> accessCache = new RangerAccessResultCache<>("kms", ACCESS_CACHE_MAX_ENTRIES);
+
 		public RangerKMSPlugin() {
 			super("kms", "kms");
 		}
 
+		public RangerAccessResultCache<RangerAccessResult> getAccessCache() {
+			return accessCache;
+		}
+
+		@Override
+		public void setPolicies(ServicePolicies policies) {
+			boolean hasConditionalPolicies = accessCache.beforeSetPolicies(policies);
+
+			super.setPolicies(policies);
+
+			accessCache.afterSetPolicies(policies, hasConditionalPolicies);
+		}
+
 		@Override
 		public void init() {
 			super.init();
@@ -352,7 +414,7 @@ public void init() {
 	}
 
 	class RangerKMSResource extends RangerAccessResourceImpl {
-		private static final String KEY_NAME = "keyname";
+		static final String KEY_NAME = "keyname";
 
 		public RangerKMSResource(String keyname) {			
 			setValue(KEY_NAME, keyname != null ? keyname : null);
@@ -20,6 +20,7 @@
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.PrivilegedExceptionAction;
+import java.util.Collections;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
@@ -32,6 +33,14 @@
 import org.apache.hadoop.crypto.key.kms.server.KMSWebApp;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.security.authorize.AuthorizationException;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerAccessResultProcessor;
+import org.apache.ranger.plugin.util.RangerAccessResultCache;
+import org.apache.ranger.plugin.util.ServicePolicies;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -427,4 +436,73 @@ public Void run() throws Exception {
 
     }
 
+    @Test
+    public void testAccessCache() {
+        RangerKMSPlugin                             plugin          = Mockito.mock(RangerKMSPlugin.class);
+        RangerAccessResultProcessor                 resultProcessor = Mockito.mock(RangerAccessResultProcessor.class);
+        RangerAccessResultCache<RangerAccessResult> accessCache     = createAccessCache(new RangerPolicy());
+        UserGroupInformation                        alice           = UserGroupInformation.createUserForTesting("alice", new String[] {"IT", "HR"});
+        UserGroupInformation                        bob             = UserGroupInformation.createUserForTesting("bob", new String[] {"IT"});
+
+        Mockito.when(plugin.getAccessCache()).thenReturn(accessCache);
+        Mockito.when(plugin.getResultProcessor()).thenReturn(resultProcessor);
+        Mockito.when(plugin.isAccessAllowed(Mockito.any(RangerAccessRequest.class))).thenAnswer(invocation -> createResult(invocation.getArgument(0)));
+
+        RangerKMSAccessRequest request1 = new RangerKMSAccessRequest("key1", "decrypteek", alice, "127.0.0.1");
+        RangerKMSAccessRequest request2 = new RangerKMSAccessRequest("key1", "decrypteek", alice, "127.0.0.2");
+        RangerAccessResult     result1  = RangerKmsAuthorizer.isAccessAllowed(plugin, request1);
+        RangerAccessResult     result2  = RangerKmsAuthorizer.isAccessAllowed(plugin, request2);
+
+        // second check is served from the cache, with the result for its own request sent for audit
+        Assertions.assertTrue(result1.getIsAllowed());
+        Assertions.assertTrue(result2.getIsAllowed());
+        Assertions.assertSame(request2, result2.getAccessRequest());
+        Mockito.verify(plugin, Mockito.times(1)).isAccessAllowed(Mockito.any(RangerAccessRequest.class));
+        Mockito.verify(resultProcessor).processResult(result2);
+
+        // different key, access-type or user must be evaluated
+        RangerKmsAuthorizer.isAccessAllowed(plugin, new RangerKMSAccessRequest("key2", "decrypteek", alice, "127.0.0.1"));
+        RangerKmsAuthorizer.isAccessAllowed(plugin, new RangerKMSAccessRequest("key1", "generateeek", alice, "127.0.0.1"));
+        RangerKmsAuthorizer.isAccessAllowed(plugin, new RangerKMSAccessRequest("key1", "decrypteek", bob, "127.0.0.1"));
+
+        Mockito.verify(plugin, Mockito.times(4)).isAccessAllowed(Mockito.any(RangerAccessRequest.class));
+        Mockito.verifyNoMoreInteractions(resultProcessor);
+    }
+
+    @Test
+    public void testAccessCacheNotUsedWithConditionalPolicies() {
+        RangerKMSPlugin      plugin = Mockito.mock(RangerKMSPlugin.class);
+        RangerPolicy         policy = new RangerPolicy();
+        UserGroupInformation alice  = UserGroupInformation.createUserForTesting("alice", new String[] {"IT"});
+
+        policy.setPolicyItems(Collections.singletonList(new RangerPolicyItem(null, Collections.singletonList("alice"), null, null, Collections.singletonList(new RangerPolicyItemCondition("ip-range", Collections.singletonList("127.0.0.1"))), null)));
+
+        Mockito.when(plugin.getAccessCache()).thenReturn(createAccessCache(policy));
+        Mockito.when(plugin.isAccessAllowed(Mockito.any(RangerAccessRequest.class))).thenAnswer(invocation -> createResult(invocation.getArgument(0)));
+
+        RangerKmsAuthorizer.isAccessAllowed(plugin, new RangerKMSAccessRequest("key1", "decrypteek", alice, "127.0.0.1"));
+        RangerKmsAuthorizer.isAccessAllowed(plugin, new RangerKMSAccessRequest("key1", "decrypteek", alice, "127.0.0.2"));
+
+        Mockito.verify(plugin, Mockito.times(2)).isAccessAllowed(Mockito.any(RangerAccessRequest.class));
+    }
+
+    private static RangerAccessResultCache<RangerAccessResult> createAccessCache(RangerPolicy policy) {
+        RangerAccessResultCache<RangerAccessResult> ret      = new RangerAccessResultCache<>("kms", 10);
+        ServicePolicies                             policies = new ServicePolicies();
+
+        policies.setPolicies(Collections.singletonList(policy));
+
+        ret.afterSetPolicies(policies, ret.beforeSetPolicies(policies));
+
+        return ret;
+    }
+
+    private static RangerAccessResult createResult(RangerAccessRequest request) {
+        RangerAccessResult ret = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "kms", null, request);
+
+        ret.setIsAccessDetermined(true);
+        ret.setIsAllowed(true);
+
+        return ret;
+    }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.ranger.authorization.presto.authorizer;
 
+import io.prestosql.spi.QueryId;
 import io.prestosql.spi.connector.CatalogSchemaName;
 import io.prestosql.spi.connector.CatalogSchemaRoutineName;
 import io.prestosql.spi.connector.CatalogSchemaTableName;
@@ -36,6 +37,7 @@
 import org.apache.ranger.plugin.audit.RangerDefaultAuditHandler;
 import org.apache.ranger.plugin.model.RangerPolicy;
 import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.policyengine.RangerAccessRequest;
 import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
@@ -48,12 +50,15 @@
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.Locale.ENGLISH;
 
@@ -68,8 +73,11 @@
   final public static String RANGER_PRESTO_DEFAULT_HADOOP_CONF = "presto-ranger-site.xml";
   final public static String RANGER_PRESTO_SERVICETYPE = "presto";
   final public static String RANGER_PRESTO_APPID = "presto";
+  final public static String RANGER_CONFIG_QUERY_CACHE_EXPIRY_MS = "ranger.query_cache_expiry_ms";
+  final public static long   RANGER_DEFAULT_QUERY_CACHE_EXPIRY_MS = 60 * 1000L;
 
   final private RangerBasePlugin rangerPlugin;
+  final private RangerPrestoQueryCache queryCache;
 
   private boolean useUgi = false;
 
@@ -113,6 +121,8 @@ public RangerSystemAccessControl(Map<String, String> config) {
       useUgi = true;
     }
 
+    queryCache = new RangerPrestoQueryCache(Long.parseLong(config.getOrDefault(RANGER_CONFIG_QUERY_CACHE_EXPIRY_MS, Long.toString(RANGER_DEFAULT_QUERY_CACHE_EXPIRY_MS))));
+
     rangerPlugin = new RangerBasePlugin(RANGER_PRESTO_SERVICETYPE, RANGER_PRESTO_APPID);
     rangerPlugin.init();
     rangerPlugin.setResultProcessor(new RangerDefaultAuditHandler());
@@ -159,8 +169,7 @@ private boolean isRowFilterEnabled(RangerAccessResult result) {
 
   @Override
   public Optional<ViewExpression> getRowFilter(SystemSecurityContext context, CatalogSchemaTableName tableName) {
-    RangerPrestoAccessRequest request = createAccessRequest(createResource(tableName), context, PrestoAccessType.SELECT);
-    RangerAccessResult result = getRowFilterResult(request);
+    RangerAccessResult result = getResult(createResource(tableName), context, PrestoAccessType.SELECT, RangerPolicy.POLICY_TYPE_ROWFILTER);
 
     ViewExpression viewExpression = null;
     if (isRowFilterEnabled(result)) {
@@ -177,11 +186,10 @@ public Optional<ViewExpression> getRowFilter(SystemSecurityContext context, Cata
 
   @Override
   public Optional<ViewExpression> getColumnMask(SystemSecurityContext context, CatalogSchemaTableName tableName, String columnName, Type type) {
-    RangerPrestoAccessRequest request = createAccessRequest(
+    RangerAccessResult result = getResult(
       createResource(tableName.getCatalogName(), tableName.getSchemaTableName().getSchemaName(),
         tableName.getSchemaTableName().getTableName(), Optional.of(columnName)),
-      context, PrestoAccessType.SELECT);
-    RangerAccessResult result = getDataMaskResult(request);
+      context, PrestoAccessType.SELECT, RangerPolicy.POLICY_TYPE_DATAMASK);
 
     ViewExpression viewExpression = null;
     if (isDataMaskEnabled(result)) {
@@ -252,10 +260,15 @@ public Set<String> filterSchemas(SystemSecurityContext context, String catalogNa
   public Set<SchemaTableName> filterTables(SystemSecurityContext context, String catalogName, Set<SchemaTableName> tableNames) {
     LOG.debug("==> RangerSystemAccessControl.filterTables(" + catalogName + ")");
     Set<SchemaTableName> filteredTableNames = new HashSet<>(tableNames.size());
-    for (SchemaTableName tableName : tableNames) {
-      RangerPrestoResource res = createResource(catalogName, tableName.getSchemaName(), tableName.getTableName());
-      if (hasPermission(res, context, PrestoAccessType.SELECT)) {
-        filteredTableNames.add(tableName);
+    List<SchemaTableName> tableNameList = new ArrayList<>(tableNames);
+    List<RangerPrestoResource> resources = new ArrayList<>(tableNameList.size());
+    for (SchemaTableName tableName : tableNameList) {
+      resources.add(createResource(catalogName, tableName.getSchemaName(), tableName.getTableName()));
+    }
+    boolean[] isAllowed = hasPermissions(resources, context, PrestoAccessType.SELECT);
+    for (int i = 0; i < isAllowed.length; i++) {
+      if (isAllowed[i]) {
+        filteredTableNames.add(tableNameList.get(i));
       }
     }
     return filteredTableNames;
@@ -563,8 +576,8 @@ public void checkCanShowColumns(SystemSecurityContext context, CatalogSchemaTabl
 
   @Override
   public void checkCanSelectFromColumns(SystemSecurityContext context, CatalogSchemaTableName table, Set<String> columns) {
-    for (RangerPrestoResource res : createResource(table, columns)) {
-      if (!hasPermission(res, context, PrestoAccessType.SELECT)) {
+    for (boolean isAllowed : hasPermissions(createResource(table, columns), context, PrestoAccessType.SELECT)) {
+      if (!isAllowed) {
         LOG.debug("RangerSystemAccessControl.checkCanSelectFromColumns(" + table.getSchemaTableName().getTableName() + ") denied");
         AccessDeniedException.denySelectColumns(table.getSchemaTableName().getTableName(), columns);
       }
@@ -672,9 +685,7 @@ private RangerPrestoAccessRequest createAccessRequest(RangerPrestoResource resou
   private boolean hasPermission(RangerPrestoResource resource, SystemSecurityContext context, PrestoAccessType accessType) {
     boolean ret = false;
 
-    RangerPrestoAccessRequest request = createAccessRequest(resource, context, accessType);
-
-    RangerAccessResult result = rangerPlugin.isAccessAllowed(request);
+    RangerAccessResult result = getResult(resource, context, accessType, RangerPolicy.POLICY_TYPE_ACCESS);
     if (result != null && result.getIsAllowed()) {
       ret = true;
     }
@@ -682,6 +693,84 @@ private boolean hasPermission(RangerPrestoResource resource, SystemSecurityConte
     return ret;
   }
 
+  /**
+   * Evaluates access to the resources in a single call to the plugin; results available in the query cache are reused
+   * @return for each resource, in the same order, true if the access is allowed
+   */
+  private boolean[] hasPermissions(List<RangerPrestoResource> resources, SystemSecurityContext context, PrestoAccessType accessType) {
+    boolean[] ret = new boolean[resources.size()];
+
+    Map<String, RangerAccessResult> queryResults = queryCache.getQueryResults(context);
+    List<RangerAccessRequest> requests = new ArrayList<>();
+    List<Integer> requestIndexes = new ArrayList<>();
+
+    for (int i = 0; i < ret.length; i++) {
+      RangerPrestoResource resource = resources.get(i);
+      RangerAccessResult cachedResult = queryResults != null ? queryResults.get(RangerPrestoQueryCache.getKey(RangerPolicy.POLICY_TYPE_ACCESS, accessType, context, resource)) : null;
+
+      if (cachedResult != null) {
+        ret[i] = cachedResult.getIsAllowed();
+      } else {
+        requests.add(createAccessRequest(resource, context, accessType));
+        requestIndexes.add(i);
+      }
+    }
+
+    if (!requests.isEmpty()) {
+      Collection<RangerAccessResult> results = rangerPlugin.isAccessAllowed(requests);
+
+      if (results != null) {
+        Iterator<RangerAccessResult> iter = results.iterator();
+
+        for (int i = 0; i < requestIndexes.size() && iter.hasNext(); i++) {
+          RangerAccessResult result = iter.next();
+          int index = requestIndexes.get(i);
+
+          ret[index] = result != null && result.getIsAllowed();
+
+          if (queryResults != null && result != null) {
+            queryResults.put(RangerPrestoQueryCache.getKey(RangerPolicy.POLICY_TYPE_ACCESS, accessType, context, resources.get(index)), result);
+          }
+        }
+      }
+    }
+
+    return ret;
+  }
+
+  // returns the result of given policy-type for the resource, from the query cache if available
+  private RangerAccessResult getResult(RangerPrestoResource resource, SystemSecurityContext context, PrestoAccessType accessType, int policyType) {
+    Map<String, RangerAccessResult> queryResults = queryCache.getQueryResults(context);
+    String key = queryResults != null ? RangerPrestoQueryCache.getKey(policyType, accessType, context, resource) : null;
+    RangerAccessResult ret = key != null ? queryResults.get(key) : null;
+
+    if (ret == null) {
+      RangerPrestoAccessRequest request = createAccessRequest(resource, context, accessType);
+
+      switch (policyType) {
+        case RangerPolicy.POLICY_TYPE_DATAMASK:
+          ret = getDataMaskResult(request);
+          break;
+
+        case RangerPolicy.POLICY_TYPE_ROWFILTER:
+          ret = getRowFilterResult(request);
+          break;
+
+        default:
+          ret = rangerPlugin.isAccessAllowed(request);
+          break;
+      }
+
+      if (key != null && ret != null) {
+        queryResults.put(key, ret);
+      }
+    } else if (LOG.isDebugEnabled()) {
+      LOG.debug("getResult(key=" + key + "): found in query cache");
+    }
+
+    return ret;
+  }
+
   private static RangerPrestoResource createUserResource(String userName) {
     RangerPrestoResource res = new RangerPrestoResource();
     res.setValue(RangerPrestoResource.KEY_USER, userName);
@@ -765,6 +854,69 @@ private static List<RangerPrestoResource> createResource(CatalogSchemaTableName
   }
 }
 
+/**
+ * Results of policy evaluations made while a query is planned, like for checkCanSelectFromColumns(), getRowFilter() and
+ * getColumnMask() on the same tables. Results of a query are discarded once the query is not seen for expiryMs.
+ */
+class RangerPrestoQueryCache {
+  private static final int MAX_QUERIES = 1000;
+  private static final int MAX_RESULTS_PER_QUERY = 10000;
+
+  private final long expiryMs;
+  private final Map<String, QueryResults> queries = new ConcurrentHashMap<>();
+  private volatile long lastPurgeTime = System.currentTimeMillis();
+
+  RangerPrestoQueryCache(long expiryMs) {
+    this.expiryMs = expiryMs;
+  }
+
+  /**
+   * @return results cached for the query of the context; null if the cache is disabled or the context has no query-id
+   */
+  Map<String, RangerAccessResult> getQueryResults(SystemSecurityContext context) {
+    Optional<QueryId> queryId = context != null ? context.getQueryId() : Optional.empty();
+
+    if (expiryMs <= 0 || !queryId.isPresent()) {
+      return null;
+    }
+
+    long now = System.currentTimeMillis();
+
+    if (now - lastPurgeTime > expiryMs || queries.size() >= MAX_QUERIES) {
+      purge(now);
+    }
+
+    QueryResults ret = queries.computeIfAbsent(queryId.get().getId(), k -> new QueryResults());
+
+    ret.lastAccessTime = now;
+
+    return ret;
+  }
+
+  static String getKey(int policyType, PrestoAccessType accessType, SystemSecurityContext context, RangerPrestoResource resource) {
+    return policyType + ":" + accessType + ":" + context.getIdentity().getUser() + ":" + resource.getAsMap();
+  }
+
+  private synchronized void purge(long now) {
+    queries.values().removeIf(queryResults -> now - queryResults.lastAccessTime > expiryMs);
+
+    if (queries.size() >= MAX_QUERIES) {
+      queries.clear();
+    }
+
+    lastPurgeTime = now;
+  }
+
+  private static class QueryResults extends ConcurrentHashMap<String, RangerAccessResult> {
+    volatile long lastAccessTime;
+
+    @Override
+    public RangerAccessResult put(String key, RangerAccessResult value) {
+      return size() < MAX_RESULTS_PER_QUERY ? super.put(key, value) : null;
+    }
+  }
+}
+
 class RangerPrestoResource
   extends RangerAccessResourceImpl {
 
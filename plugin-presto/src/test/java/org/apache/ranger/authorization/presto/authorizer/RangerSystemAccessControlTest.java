@@ -17,6 +17,7 @@
 
 package org.apache.ranger.authorization.presto.authorizer;
 
+import io.prestosql.spi.QueryId;
 import io.prestosql.spi.connector.CatalogSchemaName;
 import io.prestosql.spi.connector.CatalogSchemaRoutineName;
 import io.prestosql.spi.connector.CatalogSchemaTableName;
@@ -33,6 +34,8 @@
 import io.prestosql.spi.security.ViewExpression;
 import io.prestosql.spi.type.VarcharType;
 import org.apache.hadoop.thirdparty.com.google.common.collect.ImmutableSet;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -189,7 +192,78 @@ public void testMisc()
     accessControlManager.checkCanExecuteProcedure(context(alice), aliceProcedure);
   }
 
+  @Test
+  public void testQueryCacheHitWithinQuery()
+  {
+    RangerPrestoQueryCache queryCache = new RangerPrestoQueryCache(60000);
+    RangerAccessResult result = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "presto", null, null);
+    String key = RangerPrestoQueryCache.getKey(RangerPolicy.POLICY_TYPE_ACCESS, PrestoAccessType.SELECT, context(alice, "query_1"), aliceTableResource());
+
+    Map<String, RangerAccessResult> queryResults = queryCache.getQueryResults(context(alice, "query_1"));
+
+    assertNotNull(queryResults);
+    queryResults.put(key, result);
+
+    // later callbacks of the same query find the result
+    assertSame(queryResults, queryCache.getQueryResults(context(alice, "query_1")));
+    assertSame(result, queryCache.getQueryResults(context(alice, "query_1")).get(key));
+
+    // nothing is cached without a query-id, or when the cache is disabled
+    assertNull(queryCache.getQueryResults(context(alice)));
+    assertNull(new RangerPrestoQueryCache(0).getQueryResults(context(alice, "query_1")));
+  }
+
+  @Test
+  public void testQueryCacheIsolation()
+  {
+    RangerPrestoQueryCache queryCache = new RangerPrestoQueryCache(60000);
+    String aliceKey = RangerPrestoQueryCache.getKey(RangerPolicy.POLICY_TYPE_ACCESS, PrestoAccessType.SELECT, context(alice, "query_1"), aliceTableResource());
+    String bobKey = RangerPrestoQueryCache.getKey(RangerPolicy.POLICY_TYPE_ACCESS, PrestoAccessType.SELECT, context(bob, "query_1"), aliceTableResource());
+
+    queryCache.getQueryResults(context(alice, "query_1")).put(aliceKey, new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "presto", null, null));
+
+    // results of a query are not seen by other queries, nor by other users in the same query
+    assertNull(queryCache.getQueryResults(context(alice, "query_2")).get(aliceKey));
+    assertNotEquals(aliceKey, bobKey);
+    assertNull(queryCache.getQueryResults(context(bob, "query_1")).get(bobKey));
+
+    // policy-type and access-type are part of the key
+    assertNotEquals(aliceKey, RangerPrestoQueryCache.getKey(RangerPolicy.POLICY_TYPE_DATAMASK, PrestoAccessType.SELECT, context(alice, "query_1"), aliceTableResource()));
+    assertNotEquals(aliceKey, RangerPrestoQueryCache.getKey(RangerPolicy.POLICY_TYPE_ACCESS, PrestoAccessType.INSERT, context(alice, "query_1"), aliceTableResource()));
+
+    // through the access control: alice's result cached in a query must not be used for bob in the same query
+    Set<SchemaTableName> aliceTables = ImmutableSet.of(new SchemaTableName("schema", "table"));
+
+    assertEquals(accessControlManager.filterTables(context(alice, "query_3"), aliceCatalog, aliceTables), aliceTables);
+    assertEquals(accessControlManager.filterTables(context(bob, "query_3"), aliceCatalog, aliceTables), ImmutableSet.of());
+    assertEquals(accessControlManager.filterTables(context(alice, "query_3"), aliceCatalog, aliceTables), aliceTables);
+  }
+
+  @Test
+  public void testQueryCacheExpiry() throws Exception
+  {
+    RangerPrestoQueryCache queryCache = new RangerPrestoQueryCache(200);
+    String key = RangerPrestoQueryCache.getKey(RangerPolicy.POLICY_TYPE_ACCESS, PrestoAccessType.SELECT, context(alice, "query_1"), aliceTableResource());
+
+    queryCache.getQueryResults(context(alice, "query_1")).put(key, new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "presto", null, null));
+
+    assertNotNull(queryCache.getQueryResults(context(alice, "query_1")).get(key));
+
+    Thread.sleep(500);
+
+    // results of a query not seen for longer than the expiry are dropped
+    assertNull(queryCache.getQueryResults(context(alice, "query_1")).get(key));
+  }
+
   private SystemSecurityContext context(Identity id) {
     return new SystemSecurityContext(id, Optional.empty());
   }
+
+  private SystemSecurityContext context(Identity id, String queryId) {
+    return new SystemSecurityContext(id, Optional.of(new QueryId(queryId)));
+  }
+
+  private static RangerPrestoResource aliceTableResource() {
+    return new RangerPrestoResource(aliceTable.getCatalogName(), Optional.of(aliceTable.getSchemaTableName().getSchemaName()), Optional.of(aliceTable.getSchemaTableName().getTableName()));
+  }
 }
\ No newline at end of file
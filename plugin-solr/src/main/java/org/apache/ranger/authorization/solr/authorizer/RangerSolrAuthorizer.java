@@ -31,6 +31,10 @@
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.HashSet;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
@@ -90,6 +94,10 @@ public class RangerSolrAuthorizer extends SearchComponent implements Authorizati
 	private String qParserName;
 	private boolean attrsEnabled;
 
+	// filter queries built for users, reused until roles/userstore or groups of the user change
+	private static final int MAX_CACHED_USER_FILTER_QUERIES = 10000;
+	private final Map<String, UserFilterQueries> userFilterQueries = new ConcurrentHashMap<>();
+
 	public RangerSolrAuthorizer() {
 		logger.info("RangerSolrAuthorizer()");
 	}
@@ -436,9 +444,7 @@ public void prepare(ResponseBuilder rb) throws IOException {
 			Map<String, Map<String, String>> userAttrMapping = getUserStoreEnricher().getRangerUserStore().getUserAttrMapping();
 			if (MapUtils.isNotEmpty(userAttrMapping)) {
 				ModifiableSolrParams newParams = new ModifiableSolrParams(rb.req.getParams());
-				Map<String, String> userAttributes = userAttrMapping.get(userName);
-				for (FieldToAttributeMapping mapping : fieldAttributeMappings) {
-					String filterQuery = buildFilterQueryString(userName, userAttributes, mapping);
+				for (String filterQuery : getAttributeFilterQueries(userName, userAttrMapping)) {
 					if (logger.isDebugEnabled()) {
 						logger.debug("Adding filter clause : {}" + filterQuery);
 					}
@@ -452,19 +458,13 @@ public void prepare(ResponseBuilder rb) throws IOException {
 				logger.debug("Checking User roles to be added to the query filter");
 			}
 
-			Set<String> roles = getRolesForUser(userName);
-			if (roles != null && !roles.isEmpty()) {
-				String filterQuery;
-				if (matchMode == RangerSolrConstants.MatchType.DISJUNCTIVE) {
-					filterQuery = getDisjunctiveFilterQueryStr(roles);
-				} else {
-					filterQuery = getConjunctiveFilterQueryStr(roles);
-				}
+			String filterQuery = getRoleFilterQuery(userName);
+			if (filterQuery != null) {
 				ModifiableSolrParams newParams = new ModifiableSolrParams(rb.req.getParams());
 				newParams.add("fq", filterQuery);
 				rb.req.setParams(newParams);
 				if (logger.isDebugEnabled()) {
-					logger.debug("Adding filter query {" + filterQuery + "} for user {" + userName + "} with roles {" + roles + "}");
+					logger.debug("Adding filter query {" + filterQuery + "} for user {" + userName + "}");
 				}
 
 			} else {
@@ -692,10 +692,89 @@ private String getUserName(AuthorizationContext context) {
 	 * @return
 	 */
 	private Set<String> getGroupsForUser(String name) {
-		return MiscUtil.getGroupsForRequestUser(name);
+		RangerBasePlugin plugin = solrPlugin;
+
+		return plugin != null ? plugin.getUserGroups(name) : MiscUtil.getGroupsForRequestUser(name);
+	}
+
+
+
+	/**
+	 * Returns filter query for the roles of the user; null if the user has no roles. Roles are sorted, so that the
+	 * filter query - and hence the entry in Solr filterCache - remains the same for a given set of roles
+	 */
+	String getRoleFilterQuery(String userName) {
+		// checked before the cache lookup, so that a cached filter query is not used once these no longer hold
+		if (userName == null) {
+			logger.info("User name is null!!");
+			return null;
+		}
+
+		if (solrPlugin.getCurrentRangerAuthContext() == null) {
+			logger.info("Current Ranger Auth Context is null!!");
+			return null;
+		}
+
+		Set<String>       userGroups = getGroupsForUser(userName);
+		long              version    = solrPlugin.getRolesVersion();
+		UserFilterQueries cached     = userFilterQueries.get(userName);
+
+		if (cached != null && cached.isValidFor(version, userGroups)) {
+			return cached.filterQueries.isEmpty() ? null : cached.filterQueries.get(0);
+		}
+
+		Set<String> roles = solrPlugin.getRolesFromUserAndGroups(userName, userGroups);
+		String      ret   = null;
+
+		if (roles != null && !roles.isEmpty()) {
+			Set<String> sortedRoles = new TreeSet<>(roles);
+
+			if (matchMode == RangerSolrConstants.MatchType.DISJUNCTIVE) {
+				ret = getDisjunctiveFilterQueryStr(sortedRoles);
+			} else {
+				ret = getConjunctiveFilterQueryStr(sortedRoles);
+			}
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("Built filter query {" + ret + "} for user {" + userName + "} with roles {" + roles + "}");
+		}
+
+		cacheUserFilterQueries(userName, new UserFilterQueries(version, userGroups, ret != null ? Collections.singletonList(ret) : Collections.emptyList()));
+
+		return ret;
+	}
+
+	List<String> getAttributeFilterQueries(String userName, Map<String, Map<String, String>> userAttrMapping) {
+		Set<String>       userGroups = getGroupsForUser(userName);
+		long              version    = solrPlugin.getUserStoreVersion();
+		UserFilterQueries cached     = userName != null ? userFilterQueries.get(userName) : null;
+
+		if (cached != null && cached.isValidFor(version, userGroups)) {
+			return cached.filterQueries;
+		}
+
+		Map<String, String> userAttributes = userAttrMapping.get(userName);
+		List<String>        ret            = new ArrayList<>(fieldAttributeMappings.size());
+
+		for (FieldToAttributeMapping mapping : fieldAttributeMappings) {
+			ret.add(buildFilterQueryString(userName, userAttributes, mapping));
+		}
+
+		if (userName != null) {
+			cacheUserFilterQueries(userName, new UserFilterQueries(version, userGroups, ret));
+		}
+
+		return ret;
 	}
 
+	private void cacheUserFilterQueries(String userName, UserFilterQueries filterQueries) {
+		if (userFilterQueries.size() >= MAX_CACHED_USER_FILTER_QUERIES) {
+			userFilterQueries.clear();
+		}
 
+		userFilterQueries.put(userName, filterQueries);
+	}
 
 	private void addDisjunctiveRawClause(StringBuilder builder, String value) {
 		// requires a space before the first term, so the
@@ -733,16 +812,6 @@ private String getConjunctiveFilterQueryStr(Set<String> roles) {
 		return filterQuery.toString();
 	}
 
-	private Set<String> getRolesForUser(String name) {
-		if (solrPlugin.getCurrentRangerAuthContext() != null) {
-			return solrPlugin.getRolesFromUserAndGroups(name, getGroupsForUser(name));
-		}
-		else {
-			logger.info("Current Ranger Auth Context is null!!");
-			return null;
-		}
-	}
-
 	/**
 	 * This method return the user name from the provided {@linkplain SolrQueryRequest}
 	 */
@@ -917,4 +986,19 @@ private String buildLessThanFilterQuery(String fieldName, Collection<String> att
 		return fieldName + ":[* TO " + value + "]" + extraClause.toString();
 	}
 
+	private static class UserFilterQueries {
+		final long         version; // version of roles or userstore used to build the filter queries
+		final Set<String>  userGroups;
+		final List<String> filterQueries;
+
+		UserFilterQueries(long version, Set<String> userGroups, List<String> filterQueries) {
+			this.version       = version;
+			this.userGroups    = userGroups;
+			this.filterQueries = filterQueries;
+		}
+
+		boolean isValidFor(long version, Set<String> userGroups) {
+			return this.version == version && Objects.equals(this.userGroups, userGroups);
+		}
+	}
 }
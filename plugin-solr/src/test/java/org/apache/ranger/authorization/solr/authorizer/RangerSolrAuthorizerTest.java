@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.solr.authorizer;
+
+import org.apache.ranger.plugin.service.RangerAuthContext;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.solr.common.util.NamedList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RangerSolrAuthorizerTest {
+	private static final String FQ_ROLE1       = " {!raw f=ranger_auth v=role1}";
+	private static final String FQ_ROLE1_ROLE2 = " {!raw f=ranger_auth v=role1} {!raw f=ranger_auth v=role2}";
+
+	private RangerSolrAuthorizer authorizer;
+	private RangerBasePlugin     plugin;
+
+	@Before
+	public void setUp() throws Exception {
+		plugin = Mockito.mock(RangerBasePlugin.class);
+
+		when(plugin.getCurrentRangerAuthContext()).thenReturn(Mockito.mock(RangerAuthContext.class));
+		when(plugin.getRolesVersion()).thenReturn(1L);
+		when(plugin.getUserGroups("alice")).thenReturn(groups("IT"));
+		when(plugin.getRolesFromUserAndGroups(eq("alice"), anySet())).thenReturn(roles("role1"));
+
+		setSolrPlugin(plugin);
+
+		authorizer = new RangerSolrAuthorizer();
+
+		authorizer.init(new NamedList<>());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		setSolrPlugin(null);
+	}
+
+	@Test
+	public void testFilterQueryBuiltOnMiss() {
+		assertEquals(FQ_ROLE1, authorizer.getRoleFilterQuery("alice"));
+
+		verify(plugin, times(1)).getRolesFromUserAndGroups(eq("alice"), anySet());
+	}
+
+	@Test
+	public void testFilterQueryReusedOnHit() {
+		assertEquals(FQ_ROLE1, authorizer.getRoleFilterQuery("alice"));
+		assertEquals(FQ_ROLE1, authorizer.getRoleFilterQuery("alice"));
+		assertEquals(FQ_ROLE1, authorizer.getRoleFilterQuery("alice"));
+
+		verify(plugin, times(1)).getRolesFromUserAndGroups(eq("alice"), anySet());
+	}
+
+	@Test
+	public void testUserWithoutRolesCached() {
+		when(plugin.getUserGroups("bob")).thenReturn(groups("HR"));
+		when(plugin.getRolesFromUserAndGroups(eq("bob"), anySet())).thenReturn(Collections.emptySet());
+
+		assertNull(authorizer.getRoleFilterQuery("bob"));
+		assertNull(authorizer.getRoleFilterQuery("bob"));
+
+		verify(plugin, times(1)).getRolesFromUserAndGroups(eq("bob"), anySet());
+	}
+
+	@Test
+	public void testRolesVersionChangeRebuildsFilterQuery() {
+		assertEquals(FQ_ROLE1, authorizer.getRoleFilterQuery("alice"));
+
+		when(plugin.getRolesVersion()).thenReturn(2L);
+		when(plugin.getRolesFromUserAndGroups(eq("alice"), anySet())).thenReturn(roles("role2", "role1"));
+
+		assertEquals(FQ_ROLE1_ROLE2, authorizer.getRoleFilterQuery("alice"));
+		assertEquals(FQ_ROLE1_ROLE2, authorizer.getRoleFilterQuery("alice"));
+
+		verify(plugin, times(2)).getRolesFromUserAndGroups(eq("alice"), anySet());
+	}
+
+	@Test
+	public void testGroupChangeRebuildsFilterQuery() {
+		assertEquals(FQ_ROLE1, authorizer.getRoleFilterQuery("alice"));
+
+		when(plugin.getUserGroups("alice")).thenReturn(groups("IT", "HR"));
+		when(plugin.getRolesFromUserAndGroups("alice", groups("IT", "HR"))).thenReturn(roles("role1", "role2"));
+
+		assertEquals(FQ_ROLE1_ROLE2, authorizer.getRoleFilterQuery("alice"));
+
+		verify(plugin, times(1)).getRolesFromUserAndGroups("alice", groups("IT"));
+		verify(plugin, times(1)).getRolesFromUserAndGroups("alice", groups("IT", "HR"));
+	}
+
+	@Test
+	public void testCachedFilterQueryNotUsedWithoutAuthContext() {
+		assertEquals(FQ_ROLE1, authorizer.getRoleFilterQuery("alice"));
+
+		when(plugin.getCurrentRangerAuthContext()).thenReturn(null);
+
+		assertNull(authorizer.getRoleFilterQuery("alice"));
+	}
+
+	@Test
+	public void testNullUserDenied() {
+		assertNull(authorizer.getRoleFilterQuery(null));
+	}
+
+	private static Set<String> groups(String... groups) {
+		return new HashSet<>(Arrays.asList(groups));
+	}
+
+	private static Set<String> roles(String... roles) {
+		return new HashSet<>(Arrays.asList(roles));
+	}
+
+	private static void setSolrPlugin(RangerBasePlugin plugin) throws Exception {
+		Field field = RangerSolrAuthorizer.class.getDeclaredField("solrPlugin");
+
+		field.setAccessible(true);
+		field.set(null, plugin);
+	}
+}
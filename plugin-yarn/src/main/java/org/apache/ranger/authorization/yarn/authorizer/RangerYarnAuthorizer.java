@@ -21,10 +21,14 @@
 package org.apache.ranger.authorization.yarn.authorizer;
 
 import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -43,6 +47,8 @@
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.util.RangerAccessResultCache;
+import org.apache.ranger.plugin.util.ServicePolicies;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -65,6 +71,7 @@ public class RangerYarnAuthorizer extends YarnAuthorizationProvider {
 
 	private AccessControlList admins = null;
 	private Map<PrivilegedEntity, Map<AccessType, AccessControlList>> yarnAcl = new HashMap<PrivilegedEntity, Map<AccessType, AccessControlList>>();
+	private Map<String, Set<PrivilegedEntity>> yarnAclEntitiesByName = new HashMap<String, Set<PrivilegedEntity>>(); // to find ACLs of a queue and its parents without scanning yarnAcl
 
 	@Override
 	public void init(Configuration conf) {
@@ -126,7 +133,20 @@ public boolean checkPermission(AccessRequest accessRequest) {
 
 			auditHandler = new RangerYarnAuditHandler(yarnModuleName);
 
-			result = plugin.isAccessAllowed(request, auditHandler);
+			RangerYarnQueueAccessCache.QueueAccessResults queueResults = plugin.getQueueAccessCache().getQueueAccessResults(plugin, request);
+			RangerAccessResult                            cachedResult = queueResults != null ? queueResults.get(request.getAccessType()) : null;
+
+			if (cachedResult != null) {
+				result = RangerAccessResultCache.getResult(cachedResult, request);
+
+				auditHandler.processResult(result);
+			} else {
+				result = plugin.isAccessAllowed(request, auditHandler);
+
+				if (queueResults != null && result != null) {
+					queueResults.put(request.getAccessType(), result);
+				}
+			}
 		}
 
 		if(yarnAuthEnabled && (result == null || !result.getIsAccessDetermined())) {
@@ -204,6 +224,10 @@ private void setPermission(PrivilegedEntity entity, Map<AccessType, AccessContro
 
 		yarnAcl.put(entity, permission);
 
+		if (entity != null && entity.getName() != null) {
+			yarnAclEntitiesByName.computeIfAbsent(entity.getName(), k -> new HashSet<>()).add(entity);
+		}
+
 		if(LOG.isDebugEnabled()) {
 			LOG.debug("<== RangerYarnAuthorizer.setPermission(" + toString(entity) + ", " + permission + ", " + ugi + ")");
 		}
@@ -216,9 +240,8 @@ public boolean isAllowedByYarnAcl(AccessType accessType, PrivilegedEntity entity
 
 		boolean ret = false;
 
-		for(Map.Entry<PrivilegedEntity, Map<AccessType, AccessControlList>> e : yarnAcl.entrySet()) {
-			PrivilegedEntity                   aclEntity         = e.getKey();
-			Map<AccessType, AccessControlList> entityPermissions = e.getValue();
+		for(PrivilegedEntity aclEntity : getAclEntitiesForSelfAndParents(entity)) {
+			Map<AccessType, AccessControlList> entityPermissions = yarnAcl.get(aclEntity);
 
 			AccessControlList acl = entityPermissions == null ? null : entityPermissions.get(accessType);
 
@@ -255,6 +278,33 @@ private static String getRangerAccessType(AccessType accessType) {
 		return ret;
 	}
 
+	// ACL entities named as the given queue or as one of its parents, with or without the trailing '.'
+	private List<PrivilegedEntity> getAclEntitiesForSelfAndParents(PrivilegedEntity queue) {
+		List<PrivilegedEntity> ret       = new ArrayList<>();
+		String                 queueName = queue != null ? queue.getName() : null;
+
+		if (queueName != null) {
+			addAclEntities(queueName, ret);
+
+			if (queue.getType() == EntityType.QUEUE) {
+				for (int idx = queueName.indexOf('.'); idx != -1; idx = queueName.indexOf('.', idx + 1)) {
+					addAclEntities(queueName.substring(0, idx), ret);
+					addAclEntities(queueName.substring(0, idx + 1), ret);
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	private void addAclEntities(String name, List<PrivilegedEntity> aclEntities) {
+		Set<PrivilegedEntity> entities = yarnAclEntitiesByName.get(name);
+
+		if (entities != null) {
+			aclEntities.addAll(entities);
+		}
+	}
+
 	private boolean isSelfOrChildOf(PrivilegedEntity queue, PrivilegedEntity parentQueue) {
 		boolean ret = queue.equals(parentQueue);
 
@@ -284,10 +334,25 @@ private String toString(PrivilegedEntity entity) {
 }
 
 class RangerYarnPlugin extends RangerBasePlugin {
+	private final RangerYarnQueueAccessCache queueAccessCache = new RangerYarnQueueAccessCache();
+
 	public RangerYarnPlugin() {
 		super("yarn", "yarn");
 	}
 
+	public RangerYarnQueueAccessCache getQueueAccessCache() {
+		return queueAccessCache;
+	}
+
+	@Override
+	public void setPolicies(ServicePolicies policies) {
+		boolean hasConditionalPolicies = queueAccessCache.beforeSetPolicies(policies);
+
+		super.setPolicies(policies);
+
+		queueAccessCache.afterSetPolicies(policies, hasConditionalPolicies);
+	}
+
 	@Override
 	public void init() {
 		super.init();
@@ -298,6 +363,68 @@ public void init() {
 	}
 }
 
+/**
+ * Results of queue access checks, organized as a queue hierarchy for each user/groups; a result is found with lookups
+ * along the path of the queue.
+ */
+class RangerYarnQueueAccessCache extends RangerAccessResultCache<RangerYarnQueueAccessCache.QueueNode> {
+	private static final int MAX_USERS = 10000;
+
+	public RangerYarnQueueAccessCache() {
+		super("yarn", MAX_USERS);
+	}
+
+	/**
+	 * @return results cached for the user/groups and queue of the request; null if results can't be cached
+	 */
+	public QueueAccessResults getQueueAccessResults(RangerBasePlugin plugin, RangerYarnAccessRequest request) {
+		Object                  queueName    = request.getResource().getValue(RangerYarnAuthorizer.KEY_RESOURCE_QUEUE);
+		String                  userKey      = getUserKey(request);
+		CacheEntries<QueueNode> queuesByUser = (queueName instanceof String) && userKey != null ? getEntries(plugin) : null;
+
+		if (queuesByUser == null) {
+			return null;
+		}
+
+		QueueNode ret  = queuesByUser.computeIfAbsent(userKey, k -> new QueueNode());
+		String    path = (String) queueName;
+
+		for (int start = 0, end; start <= path.length(); start = end + 1) {
+			end = path.indexOf('.', start);
+
+			if (end == -1) {
+				end = path.length();
+			}
+
+			ret = ret.getChild(path.substring(start, end));
+		}
+
+		return ret;
+	}
+
+	static class QueueNode extends QueueAccessResults {
+		private final Map<String, QueueNode> children = new ConcurrentHashMap<>();
+
+		QueueNode getChild(String name) {
+			return children.computeIfAbsent(name, k -> new QueueNode());
+		}
+	}
+
+	public static class QueueAccessResults {
+		private final Map<String, RangerAccessResult> resultsByAccessType = new ConcurrentHashMap<>();
+
+		public RangerAccessResult get(String accessType) {
+			return accessType != null ? resultsByAccessType.get(accessType) : null;
+		}
+
+		public void put(String accessType, RangerAccessResult result) {
+			if (accessType != null) {
+				resultsByAccessType.put(accessType, result);
+			}
+		}
+	}
+}
+
 class RangerYarnResource extends RangerAccessResourceImpl {
 	public RangerYarnResource(PrivilegedEntity entity) {
 		setValue(RangerYarnAuthorizer.KEY_RESOURCE_QUEUE, entity != null ? entity.getName() : null);
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.authorization.yarn.authorizer;
+
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hadoop.yarn.security.PrivilegedEntity;
+import org.apache.hadoop.yarn.security.PrivilegedEntity.EntityType;
+import org.apache.ranger.authorization.hadoop.config.RangerPluginConfig;
+import org.apache.ranger.plugin.contextenricher.RangerTagEnricher;
+import org.apache.ranger.plugin.model.RangerPolicy;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItem;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemCondition;
+import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyResource;
+import org.apache.ranger.plugin.model.RangerServiceDef;
+import org.apache.ranger.plugin.model.RangerServiceDef.RangerResourceDef;
+import org.apache.ranger.plugin.model.RangerServiceResource;
+import org.apache.ranger.plugin.model.RangerTag;
+import org.apache.ranger.plugin.model.RangerValiditySchedule;
+import org.apache.ranger.plugin.policyengine.RangerAccessResult;
+import org.apache.ranger.plugin.policyengine.RangerPluginContext;
+import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.util.ServicePolicies;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RangerYarnQueueAccessCacheTest {
+	private static final UserGroupInformation ALICE = UserGroupInformation.createUserForTesting("alice", new String[] {"IT", "HR"});
+	private static final UserGroupInformation BOB   = UserGroupInformation.createUserForTesting("bob", new String[] {"IT"});
+
+	private RangerYarnQueueAccessCache cache;
+	private RangerBasePlugin           plugin;
+
+	@Before
+	public void setUp() {
+		cache  = new RangerYarnQueueAccessCache();
+		plugin = Mockito.mock(RangerBasePlugin.class);
+
+		setPolicies(new RangerPolicy());
+	}
+
+	@Test
+	public void testResultsByQueueAndUser() {
+		RangerYarnQueueAccessCache.QueueAccessResults results = getResults("root.a.b", ALICE);
+		RangerAccessResult                            result  = new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "yarn", null, null);
+
+		results.put(RangerYarnAuthorizer.ACCESS_TYPE_SUBMIT_APP, result);
+
+		assertSame(results, getResults("root.a.b", ALICE));
+		assertSame(result, getResults("root.a.b", ALICE).get(RangerYarnAuthorizer.ACCESS_TYPE_SUBMIT_APP));
+		assertNull(getResults("root.a.b", ALICE).get(RangerYarnAuthorizer.ACCESS_TYPE_ADMIN_QUEUE));
+
+		// parent, child and sibling queues, and other users, have their own results
+		assertNotSame(results, getResults("root.a", ALICE));
+		assertNotSame(results, getResults("root.a.b.c", ALICE));
+		assertNotSame(results, getResults("root.ab", ALICE));
+		assertNotSame(results, getResults("root.a.c", ALICE));
+		assertNotSame(results, getResults("root.a.b", BOB));
+		assertNull(getResults("root.a", ALICE).get(RangerYarnAuthorizer.ACCESS_TYPE_SUBMIT_APP));
+		assertNull(getResults("root.a.b", BOB).get(RangerYarnAuthorizer.ACCESS_TYPE_SUBMIT_APP));
+	}
+
+	@Test
+	public void testResultsDroppedOnPoliciesChange() {
+		getResults("root.a", ALICE).put(RangerYarnAuthorizer.ACCESS_TYPE_SUBMIT_APP, new RangerAccessResult(RangerPolicy.POLICY_TYPE_ACCESS, "yarn", null, null));
+
+		Mockito.when(plugin.getPoliciesVersion()).thenReturn(2L);
+
+		assertNull(getResults("root.a", ALICE).get(RangerYarnAuthorizer.ACCESS_TYPE_SUBMIT_APP));
+	}
+
+	@Test
+	public void testNotCachedWithConditionalPolicies() {
+		RangerPolicy policy = new RangerPolicy();
+
+		policy.setPolicyItems(Collections.singletonList(new RangerPolicyItem(null, Collections.singletonList("alice"), null, null, Collections.singletonList(new RangerPolicyItemCondition("ip-range", Collections.singletonList("10.0.0.*"))), null)));
+
+		setPolicies(policy);
+
+		assertNull(getResults("root.a", ALICE));
+
+		setPolicies(new RangerPolicy());
+
+		assertNotNull(getResults("root.a", ALICE));
+	}
+
+	@Test
+	public void testNotCachedWithTimeBoundTags() {
+		RangerTagEnricher tagEnricher  = createTagEnricher();
+		RangerTag         timeBoundTag = new RangerTag("PII", Collections.emptyMap());
+
+		timeBoundTag.setValidityPeriods(Collections.singletonList(new RangerValiditySchedule("2020/01/01 00:00:00", "2020/12/31 00:00:00", null, null)));
+
+		Mockito.when(plugin.getTagEnricher()).thenReturn(tagEnricher);
+
+		setServiceTags(tagEnricher, 1L, timeBoundTag);
+
+		// the tag on root.a applies only during its validity period, hence results for root.a.b depend on access time
+		assertNull(getResults("root.a.b", ALICE));
+
+		setServiceTags(tagEnricher, 2L, new RangerTag("PII", Collections.emptyMap()));
+
+		assertNotNull(getResults("root.a.b", ALICE));
+	}
+
+	@Test
+	public void testNotCachedWithoutQueue() {
+		RangerYarnAccessRequest request = new RangerYarnAccessRequest(null, RangerYarnAuthorizer.ACCESS_TYPE_SUBMIT_APP, "SUBMIT_APP", ALICE, null, "127.0.0.1");
+
+		assertNull(cache.getQueueAccessResults(plugin, request));
+	}
+
+	private RangerYarnQueueAccessCache.QueueAccessResults getResults(String queueName, UserGroupInformation ugi) {
+		PrivilegedEntity        entity  = new PrivilegedEntity(EntityType.QUEUE, queueName);
+		RangerYarnAccessRequest request = new RangerYarnAccessRequest(entity, RangerYarnAuthorizer.ACCESS_TYPE_SUBMIT_APP, "SUBMIT_APP", ugi, null, "127.0.0.1");
+
+		return cache.getQueueAccessResults(plugin, request);
+	}
+
+	private void setServiceTags(RangerTagEnricher tagEnricher, long tagVersion, RangerTag tag) {
+		ServiceTags           serviceTags = new ServiceTags();
+		RangerServiceResource resource    = new RangerServiceResource("yarn", Collections.singletonMap(RangerYarnAuthorizer.KEY_RESOURCE_QUEUE, new RangerPolicyResource("root.a")));
+
+		tag.setId(1L);
+		resource.setId(1L);
+
+		serviceTags.setServiceName("yarn");
+		serviceTags.setTagVersion(tagVersion);
+		serviceTags.setTagDefinitions(new HashMap<>());
+		serviceTags.setTags(new HashMap<>(Collections.singletonMap(1L, tag)));
+		serviceTags.setServiceResources(new ArrayList<>(Collections.singletonList(resource)));
+		serviceTags.setResourceToTagIds(new HashMap<>(Collections.singletonMap(1L, Collections.singletonList(1L))));
+
+		tagEnricher.setServiceTags(serviceTags);
+
+		Mockito.when(plugin.getTagsVersion()).thenReturn(tagVersion);
+	}
+
+	private static RangerTagEnricher createTagEnricher() {
+		RangerServiceDef  serviceDef  = new RangerServiceDef();
+		RangerResourceDef resourceDef = new RangerResourceDef();
+		RangerTagEnricher ret         = new RangerTagEnricher();
+
+		resourceDef.setName(RangerYarnAuthorizer.KEY_RESOURCE_QUEUE);
+		resourceDef.setLevel(10);
+		serviceDef.setName("yarn");
+		serviceDef.setResources(Collections.singletonList(resourceDef));
+
+		ret.setServiceName("yarn");
+		ret.setServiceDef(serviceDef);
+		ret.setPluginContext(new RangerPluginContext(new RangerPluginConfig("yarn", "yarn", null, null, null, null)));
+		ret.init();
+
+		return ret;
+	}
+
+	private void setPolicies(RangerPolicy policy) {
+		ServicePolicies policies = new ServicePolicies();
+
+		policies.setServiceName("yarn");
+		policies.setPolicies(Collections.singletonList(policy));
+
+		cache.afterSetPolicies(policies, cache.beforeSetPolicies(policies));
+	}
+}
@@ -19,8 +19,11 @@
 package org.apache.ranger.biz;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -53,6 +56,7 @@
 import org.apache.ranger.plugin.model.RangerPolicy.RangerPolicyItemDataMaskInfo;
 import org.apache.ranger.plugin.model.RangerRole;
 import org.apache.ranger.plugin.util.ServiceDefUtil;
+import org.apache.ranger.security.context.RangerContextHolder;
 import org.apache.ranger.service.RangerAuditFields;
 import org.apache.ranger.service.XGroupService;
 import org.apache.ranger.view.VXGroup;
@@ -176,60 +180,11 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
 			createPrincipalsIfAbsent = false;
 		}
 
-		List<XXPolicyRefRole> xPolRoles = new ArrayList<>();
-		for (String role : roleNames) {
-			if (StringUtils.isBlank(role)) {
-				continue;
-			}
-			PolicyPrincipalAssociator associator = new PolicyPrincipalAssociator(PRINCIPAL_TYPE.ROLE, role, xPolicy);
-			if (!associator.doAssociate(false)) {
-				if (createPrincipalsIfAbsent) {
-					rangerTransactionSynchronizationAdapter.executeOnTransactionCommit(associator);
-				} else {
-					VXResponse gjResponse = new VXResponse();
-					gjResponse.setStatusCode(HttpServletResponse.SC_BAD_REQUEST);
-					gjResponse.setMsgDesc("Operation denied. Role name: " + role + " specified in policy does not exist in ranger admin.");
-					throw restErrorUtil.generateRESTException(gjResponse);
-				}
-			}
-		}
+		associatePrincipals(PRINCIPAL_TYPE.ROLE, roleNames, xPolicy, createPrincipalsIfAbsent);
 		RangerBizUtil.setBulkMode(oldBulkMode);
-		daoMgr.getXXPolicyRefRole().batchCreate(xPolRoles);
-
-		for (String group : groupNames) {
-			if (StringUtils.isBlank(group)) {
-				continue;
-			}
 
-			PolicyPrincipalAssociator associator = new PolicyPrincipalAssociator(PRINCIPAL_TYPE.GROUP, group, xPolicy);
-			if (!associator.doAssociate(false)) {
-				if (createPrincipalsIfAbsent) {
-					rangerTransactionSynchronizationAdapter.executeOnTransactionCommit(associator);
-				} else {
-					VXResponse gjResponse = new VXResponse();
-					gjResponse.setStatusCode(HttpServletResponse.SC_BAD_REQUEST);
-					gjResponse.setMsgDesc("Operation denied. Group name: " + group + " specified in policy does not exist in ranger admin.");
-					throw restErrorUtil.generateRESTException(gjResponse);
-				}
-			}
-		}
-
-		for (String user : userNames) {
-			if (StringUtils.isBlank(user)) {
-				continue;
-			}
-			PolicyPrincipalAssociator associator = new PolicyPrincipalAssociator(PRINCIPAL_TYPE.USER, user, xPolicy);
-			if (!associator.doAssociate(false)) {
-				if (createPrincipalsIfAbsent) {
-					rangerTransactionSynchronizationAdapter.executeOnTransactionCommit(associator);
-				} else {
-					VXResponse gjResponse = new VXResponse();
-					gjResponse.setStatusCode(HttpServletResponse.SC_BAD_REQUEST);
-					gjResponse.setMsgDesc("Operation denied. User name: " + user + " specified in policy does not exist in ranger admin.");
-					throw restErrorUtil.generateRESTException(gjResponse);
-				}
-			}
-		}
+		associatePrincipals(PRINCIPAL_TYPE.GROUP, groupNames, xPolicy, createPrincipalsIfAbsent);
+		associatePrincipals(PRINCIPAL_TYPE.USER, userNames, xPolicy, createPrincipalsIfAbsent);
 
 		List<XXPolicyRefAccessType> xPolAccesses = new ArrayList<>();
 
@@ -294,6 +249,147 @@ public void createNewPolMappingForRefTable(RangerPolicy policy, XXPolicy xPolicy
 		daoMgr.getXXPolicyRefDataMaskType().batchCreate(xxDataMaskInfos);
 	}
 
+	/*
+	 * Resolves ids of all given principals with a single set-based lookup and batch-creates the
+	 * policy reference rows. Principals not found in the lookup fall back to PolicyPrincipalAssociator,
+	 * which creates them on transaction commit when createPrincipalsIfAbsent is set. In bulk mode
+	 * (for example, policy import) resolved ids are reused across policies of the same request.
+	 */
+	private void associatePrincipals(PRINCIPAL_TYPE type, Set<String> names, XXPolicy xPolicy, boolean createPrincipalsIfAbsent) {
+		final Map<String, Long> principalIds = getPrincipalIds(type, names);
+		final List<XXPolicyRefUser>  xPolUsers  = new ArrayList<>();
+		final List<XXPolicyRefGroup> xPolGroups = new ArrayList<>();
+		final List<XXPolicyRefRole>  xPolRoles  = new ArrayList<>();
+
+		for (String name : names) {
+			if (StringUtils.isBlank(name)) {
+				continue;
+			}
+
+			Long id = principalIds.get(name);
+
+			if (id != null) {
+				switch (type) {
+					case USER: {
+						XXPolicyRefUser xPolUser = rangerAuditFields.populateAuditFields(new XXPolicyRefUser(), xPolicy);
+
+						xPolUser.setPolicyId(xPolicy.getId());
+						xPolUser.setUserId(id);
+						xPolUser.setUserName(name);
+						xPolUsers.add(xPolUser);
+					}
+					break;
+					case GROUP: {
+						XXPolicyRefGroup xPolGroup = rangerAuditFields.populateAuditFields(new XXPolicyRefGroup(), xPolicy);
+
+						xPolGroup.setPolicyId(xPolicy.getId());
+						xPolGroup.setGroupId(id);
+						xPolGroup.setGroupName(name);
+						xPolGroups.add(xPolGroup);
+					}
+					break;
+					case ROLE: {
+						XXPolicyRefRole xPolRole = rangerAuditFields.populateAuditFields(new XXPolicyRefRole(), xPolicy);
+
+						xPolRole.setPolicyId(xPolicy.getId());
+						xPolRole.setRoleId(id);
+						xPolRole.setRoleName(name);
+						xPolRoles.add(xPolRole);
+					}
+					break;
+					default:
+						break;
+				}
+
+				continue;
+			}
+
+			PolicyPrincipalAssociator associator = new PolicyPrincipalAssociator(type, name, xPolicy);
+			if (!associator.doAssociate(false)) {
+				if (createPrincipalsIfAbsent) {
+					rangerTransactionSynchronizationAdapter.executeOnTransactionCommit(associator);
+				} else {
+					VXResponse gjResponse = new VXResponse();
+					gjResponse.setStatusCode(HttpServletResponse.SC_BAD_REQUEST);
+					gjResponse.setMsgDesc("Operation denied. " + StringUtils.capitalize(type.name().toLowerCase()) + " name: " + name + " specified in policy does not exist in ranger admin.");
+					throw restErrorUtil.generateRESTException(gjResponse);
+				}
+			}
+		}
+
+		if (!xPolUsers.isEmpty()) {
+			daoMgr.getXXPolicyRefUser().batchCreate(xPolUsers);
+		}
+
+		if (!xPolGroups.isEmpty()) {
+			daoMgr.getXXPolicyRefGroup().batchCreate(xPolGroups);
+		}
+
+		if (!xPolRoles.isEmpty()) {
+			daoMgr.getXXPolicyRefRole().batchCreate(xPolRoles);
+		}
+	}
+
+	private Map<String, Long> getPrincipalIds(PRINCIPAL_TYPE type, Set<String> names) {
+		final Map<String, Long> ret;
+
+		if (CollectionUtils.isEmpty(names)) {
+			ret = Collections.emptyMap();
+		} else {
+			final Map<String, Long> cache = RangerBizUtil.isBulkMode() ? RangerContextHolder.getOrCreateOpContext().getPrincipalIdCache(type.name()) : null;
+			final Set<String>       toLookup;
+
+			if (cache != null) {
+				ret      = new HashMap<>();
+				toLookup = new HashSet<>();
+
+				for (String name : names) {
+					Long id = cache.get(name);
+
+					if (id != null) {
+						ret.put(name, id);
+					} else {
+						toLookup.add(name);
+					}
+				}
+			} else {
+				ret      = new HashMap<>();
+				toLookup = names;
+			}
+
+			if (!toLookup.isEmpty()) {
+				final Map<String, Long> ids;
+
+				switch (type) {
+					case USER:
+						ids = daoMgr.getXXUser().getIdsByUserNames(toLookup);
+					break;
+					case GROUP:
+						ids = daoMgr.getXXGroup().getIdsByGroupNames(toLookup);
+					break;
+					case ROLE:
+						ids = daoMgr.getXXRole().getIdsByRoleNames(toLookup);
+					break;
+					default:
+						ids = Collections.emptyMap();
+					break;
+				}
+
+				ret.putAll(ids);
+
+				if (cache != null) {
+					cache.putAll(ids);
+				}
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("PolicyRefUpdater.getPrincipalIds(type=" + type + ", names=" + names + "): found " + ret.size() + " ids");
+		}
+
+		return ret;
+	}
+
 	private class PolicyPrincipalAssociator implements Runnable {
 		final PRINCIPAL_TYPE type;
 		final String    name;
@@ -19,11 +19,14 @@
 
 package org.apache.ranger.biz;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -44,7 +47,6 @@
 import java.util.TreeSet;
 
 import javax.annotation.PostConstruct;
-import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -59,6 +61,7 @@
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.ranger.audit.provider.MiscUtil;
 import org.apache.ranger.authorization.hadoop.config.RangerAdminConfig;
 import org.apache.ranger.authorization.utils.JsonUtils;
@@ -100,6 +103,7 @@
 import org.apache.ranger.common.SearchCriteria;
 import org.apache.ranger.common.StringUtil;
 import org.apache.ranger.common.UserSessionBase;
+import org.apache.ranger.common.view.VList;
 import org.apache.ranger.db.RangerDaoManager;
 import org.apache.ranger.db.XXAccessTypeDefDao;
 import org.apache.ranger.db.XXAccessTypeDefGrantsDao;
@@ -215,6 +219,11 @@
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import static org.apache.ranger.db.XXGlobalStateDao.RANGER_GLOBAL_STATE_NAME_GDS;
 import static org.apache.ranger.service.RangerBaseModelService.OPERATION_CREATE_CONTEXT;
@@ -252,6 +261,9 @@ public class ServiceDBStore extends AbstractServiceStore {
 	public static final String  ENCRYPT_KEY     = PropertiesUtil.getProperty("ranger.password.encryption.key", PasswordUtils.DEFAULT_ENCRYPT_KEY);
 	public static final String  SALT            = PropertiesUtil.getProperty("ranger.password.salt", PasswordUtils.DEFAULT_SALT);
 	public static final Integer ITERATION_COUNT = PropertiesUtil.getIntProperty("ranger.password.iteration.count", PasswordUtils.DEFAULT_ITERATION_COUNT);
+	public static final int     EXPORT_EXCEL_ROW_WINDOW_SIZE = PropertiesUtil.getIntProperty("ranger.admin.export.excel.row.window.size", 100);
+	public static final int     EXPORT_FLUSH_INTERVAL        = PropertiesUtil.getIntProperty("ranger.admin.export.flush.interval", 1000);
+	public static final boolean EXPORT_EXCEL_XLSX            = PropertiesUtil.getBooleanProperty("ranger.admin.export.excel.xlsx.enabled", false);
 	public static boolean SUPPORTS_POLICY_DELTAS = false;
 	public static boolean SUPPORTS_IN_PLACE_POLICY_UPDATES = false;
 	public static Integer RETENTION_PERIOD_IN_DAYS = 7;
@@ -2510,44 +2522,34 @@ public Long getPolicyId(final Long serviceId, final String policyName, final Lon
 	}
 
 
-	public void getPoliciesInExcel(List<RangerPolicy> policies, HttpServletResponse response) throws Exception {
+	public void getPoliciesInExcel(Iterable<RangerPolicy> policies, HttpServletResponse response) throws Exception {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> ServiceDBStore.getPoliciesInExcel()");
 		}
 		String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-		String excelFileName = "Ranger_Policies_"+timeStamp+".xls";
+		String excelFileName = "Ranger_Policies_"+timeStamp+(EXPORT_EXCEL_XLSX ? ".xlsx" : ".xls");
 		writeExcel(policies, excelFileName, response);
 	}
 
-	public void getPoliciesInCSV(List<RangerPolicy> policies,
+	public void getPoliciesInCSV(Iterable<RangerPolicy> policies,
 			HttpServletResponse response) throws Exception {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> ServiceDBStore.getPoliciesInCSV()");
 		}
-		ServletOutputStream out = null;
 		String CSVFileName = null;
 		try {
 			String timeStamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
 			CSVFileName = "Ranger_Policies_" + timeStamp + ".csv";
-			out = response.getOutputStream();
-			StringBuilder sb = writeCSV(policies, CSVFileName, response);
-			IOUtils.write(sb.toString(), out, "UTF-8");
+			writeCSV(policies, CSVFileName, response);
 		} catch (Exception e) {
 			LOG.error("Error while generating report file " + CSVFileName, e);
-			e.printStackTrace();
-		} finally {
-			try {
-				if (out != null) {
-					out.flush();
-					out.close();
-				}
-			} catch (Exception ex) {
-			}
+
+			throw e;
 		}
 	}
 
 	public enum JSON_FILE_NAME_TYPE { POLICY, ROLE }
-	public <T> void getObjectInJson(List<T> objList,
+	public <T> void getObjectInJson(Iterable<T> objList,
 			HttpServletResponse response, JSON_FILE_NAME_TYPE type) throws Exception {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> ServiceDBStore.getObjectInJson()");
@@ -3880,7 +3882,27 @@ private static void persistChangeLog(XXService service, VERSION_TYPE versionType
 
 		if (versionType == VERSION_TYPE.TAG_VERSION) {
 			ServiceTags.TagsChangeType tagChangeType = serviceVersionUpdater.tagChangeType;
-			if (tagChangeType == ServiceTags.TagsChangeType.RANGER_ADMIN_START || TagDBStore.isSupportsTagDeltas()) {
+			if (serviceVersionUpdater.tagChangeLogs != null) {
+				if (TagDBStore.isSupportsTagDeltas()) {
+					// new objects are created, as the updater is run again if the earlier attempt failed to commit
+					List<XXTagChangeLog> tagChangeLogs = new ArrayList<>(serviceVersionUpdater.tagChangeLogs.size());
+
+					for (XXTagChangeLog change : serviceVersionUpdater.tagChangeLogs) {
+						XXTagChangeLog tagChangeLog = new XXTagChangeLog();
+
+						tagChangeLog.setCreateTime(now);
+						tagChangeLog.setServiceId(service.getId());
+						tagChangeLog.setChangeType(change.getChangeType());
+						tagChangeLog.setServiceTagsVersion(version);
+						tagChangeLog.setServiceResourceId(change.getServiceResourceId());
+						tagChangeLog.setTagId(change.getTagId());
+
+						tagChangeLogs.add(tagChangeLog);
+					}
+
+					serviceVersionUpdater.daoManager.getXXTagChangeLog().batchCreate(tagChangeLogs);
+				}
+			} else if (tagChangeType == ServiceTags.TagsChangeType.RANGER_ADMIN_START || TagDBStore.isSupportsTagDeltas()) {
 				// Build and save TagChangeLog
 				XXTagChangeLog tagChangeLog = new XXTagChangeLog();
 
@@ -4106,13 +4128,15 @@ private boolean isResourceInList(String resource, List<XXResourceDef> xResourceD
 		return false;
 	}
 
-	private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpServletResponse response) throws IOException {
+	private void writeExcel(Iterable<RangerPolicy> policies, String excelFileName, HttpServletResponse response) throws IOException {
 		OutputStream outStream = null;
-		try (Workbook workbook = new HSSFWorkbook()) {
+		Workbook     workbook  = EXPORT_EXCEL_XLSX ? createStreamingWorkbook() : new HSSFWorkbook();
+
+		try {
 			Sheet sheet = workbook.createSheet();
 			createHeaderRow(sheet);
 			int rowCount = 0;
-			if (!CollectionUtils.isEmpty(policies)) {
+			if (policies != null) {
 				Map<String, String> svcNameToSvcType = new HashMap<>();
 				for (RangerPolicy policy : policies) {
 
@@ -4180,99 +4204,127 @@ private void writeExcel(List<RangerPolicy> policies, String excelFileName, HttpS
 					}
 				}
 			}
-			ByteArrayOutputStream outByteStream = new ByteArrayOutputStream();
-			workbook.write(outByteStream);
-			byte[] outArray = outByteStream.toByteArray();
-			response.setContentType("application/ms-excel");
-			response.setContentLength(outArray.length);
+			response.setContentType(EXPORT_EXCEL_XLSX ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet" : "application/ms-excel");
 			response.setHeader("Expires:", "0");
 			response.setHeader("Content-Disposition", "attachment; filename=" + excelFileName);
 			response.setStatus(HttpServletResponse.SC_OK);
 			outStream = response.getOutputStream();
-			outStream.write(outArray);
+			workbook.write(outStream);
 			outStream.flush();
 		} catch (IOException ex) {
 			LOG.error("Failed to create report file " + excelFileName, ex);
-		} catch (Exception ex) {
+
+			throw ex;
+		} catch (RuntimeException ex) {
 			LOG.error("Error while generating report file " + excelFileName, ex);
+
+			throw ex;
 		} finally {
+			if (workbook instanceof SXSSFWorkbook) {
+				((SXSSFWorkbook) workbook).dispose();
+			}
+
+			workbook.close();
+
 			if (outStream != null) {
 				outStream.close();
 			}
 		}
 	}
 
-	private StringBuilder writeCSV(List<RangerPolicy> policies, String cSVFileName, HttpServletResponse response) {
+	// .xlsx workbook that keeps only a window of rows in heap, flushing older rows to a temp file. The legacy .xls format
+	// (HSSF) can't be streamed, but stays the default since existing clients of the export rely on it
+	private SXSSFWorkbook createStreamingWorkbook() {
+		SXSSFWorkbook ret = new SXSSFWorkbook(EXPORT_EXCEL_ROW_WINDOW_SIZE);
+
+		ret.setCompressTempFiles(true);
+
+		return ret;
+	}
+
+	private void writeCSV(Iterable<RangerPolicy> policies, String cSVFileName, HttpServletResponse response) throws IOException {
 		response.setContentType("text/csv");
+		response.setHeader("Content-Disposition", "attachment; filename=" + cSVFileName);
+		response.setStatus(HttpServletResponse.SC_OK);
 
 		final String LINE_SEPARATOR = "\n";
 		final String FILE_HEADER = "ID|Name|Resources|Roles|Groups|Users|Accesses|Service Type|Status|Policy Type|Delegate Admin|isRecursive|"
 				+ "isExcludes|Service Name|Description|isAuditEnabled|Policy Conditions|Policy Condition Type|Masking Options|Row Filter Expr|Policy Label Name";
-		StringBuilder csvBuffer = new StringBuilder();
-		csvBuffer.append(FILE_HEADER);
-		csvBuffer.append(LINE_SEPARATOR);
-		if (!CollectionUtils.isEmpty(policies)) {
-			Map<String, String> svcNameToSvcType = new HashMap<>();
-			for (RangerPolicy policy : policies) {
-				List<RangerPolicyItem> policyItems = policy.getPolicyItems();
-				List<RangerRowFilterPolicyItem> rowFilterPolicyItems = policy.getRowFilterPolicyItems();
-				List<RangerDataMaskPolicyItem> dataMaskPolicyItems = policy.getDataMaskPolicyItems();
-				List<RangerPolicyItem> allowExceptions = policy.getAllowExceptions();
-				List<RangerPolicyItem> denyExceptions = policy.getDenyExceptions();
-				List<RangerPolicyItem> denyPolicyItems = policy.getDenyPolicyItems();
-
-				String serviceType = policy.getServiceType();
-				if (StringUtils.isBlank(serviceType)) {
-					serviceType = svcNameToSvcType.get(policy.getService());
+		// rows of each policy are written to the response as soon as they are built, instead of buffering the whole report
+		try (Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8))) {
+			StringBuilder csvBuffer = new StringBuilder();
+			csvBuffer.append(FILE_HEADER);
+			csvBuffer.append(LINE_SEPARATOR);
+			if (policies != null) {
+				int policyCount = 0;
+				Map<String, String> svcNameToSvcType = new HashMap<>();
+				for (RangerPolicy policy : policies) {
+					List<RangerPolicyItem> policyItems = policy.getPolicyItems();
+					List<RangerRowFilterPolicyItem> rowFilterPolicyItems = policy.getRowFilterPolicyItems();
+					List<RangerDataMaskPolicyItem> dataMaskPolicyItems = policy.getDataMaskPolicyItems();
+					List<RangerPolicyItem> allowExceptions = policy.getAllowExceptions();
+					List<RangerPolicyItem> denyExceptions = policy.getDenyExceptions();
+					List<RangerPolicyItem> denyPolicyItems = policy.getDenyPolicyItems();
+
+					String serviceType = policy.getServiceType();
 					if (StringUtils.isBlank(serviceType)) {
-						serviceType = daoMgr.getXXServiceDef().findServiceDefTypeByServiceName(policy.getService());
-						if (StringUtils.isNotBlank(serviceType)) {
-							svcNameToSvcType.put(policy.getService(), serviceType);
+						serviceType = svcNameToSvcType.get(policy.getService());
+						if (StringUtils.isBlank(serviceType)) {
+							serviceType = daoMgr.getXXServiceDef().findServiceDefTypeByServiceName(policy.getService());
+							if (StringUtils.isNotBlank(serviceType)) {
+								svcNameToSvcType.put(policy.getService(), serviceType);
+							}
 						}
 					}
-				}
 
-				if (CollectionUtils.isNotEmpty(policyItems)) {
-					for (RangerPolicyItem policyItem : policyItems) {
-						writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_ALLOW_INCLUDE);
-					}
-				} else if (CollectionUtils.isNotEmpty(dataMaskPolicyItems)) {
-					for (RangerDataMaskPolicyItem dataMaskPolicyItem : dataMaskPolicyItems) {
-						writeCSVForPolicyItems(svcNameToSvcType, policy, null, dataMaskPolicyItem, null, csvBuffer, null);
-					}
-				} else if (CollectionUtils.isNotEmpty(rowFilterPolicyItems)) {
-					for (RangerRowFilterPolicyItem rowFilterPolicyItem : rowFilterPolicyItems) {
-						writeCSVForPolicyItems(svcNameToSvcType, policy, null, null, rowFilterPolicyItem, csvBuffer, null);
-					}
-				} else if (serviceType.equalsIgnoreCase(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_TAG_NAME)) {
-					if (CollectionUtils.isEmpty(policyItems)) {
+					if (CollectionUtils.isNotEmpty(policyItems)) {
+						for (RangerPolicyItem policyItem : policyItems) {
+							writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_ALLOW_INCLUDE);
+						}
+					} else if (CollectionUtils.isNotEmpty(dataMaskPolicyItems)) {
+						for (RangerDataMaskPolicyItem dataMaskPolicyItem : dataMaskPolicyItems) {
+							writeCSVForPolicyItems(svcNameToSvcType, policy, null, dataMaskPolicyItem, null, csvBuffer, null);
+						}
+					} else if (CollectionUtils.isNotEmpty(rowFilterPolicyItems)) {
+						for (RangerRowFilterPolicyItem rowFilterPolicyItem : rowFilterPolicyItems) {
+							writeCSVForPolicyItems(svcNameToSvcType, policy, null, null, rowFilterPolicyItem, csvBuffer, null);
+						}
+					} else if (serviceType.equalsIgnoreCase(EmbeddedServiceDefsUtil.EMBEDDED_SERVICEDEF_TAG_NAME)) {
+						if (CollectionUtils.isEmpty(policyItems)) {
+							RangerPolicyItem policyItem = new RangerPolicyItem();
+							writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_ALLOW_INCLUDE);
+						}
+					} else if (CollectionUtils.isEmpty(policyItems)) {
 						RangerPolicyItem policyItem = new RangerPolicyItem();
 						writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_ALLOW_INCLUDE);
 					}
-				} else if (CollectionUtils.isEmpty(policyItems)) {
-					RangerPolicyItem policyItem = new RangerPolicyItem();
-					writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_ALLOW_INCLUDE);
-				}
-				if (CollectionUtils.isNotEmpty(allowExceptions)) {
-					for (RangerPolicyItem policyItem : allowExceptions) {
-						writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_ALLOW_EXCLUDE);
+					if (CollectionUtils.isNotEmpty(allowExceptions)) {
+						for (RangerPolicyItem policyItem : allowExceptions) {
+							writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_ALLOW_EXCLUDE);
+						}
 					}
-				}
-				if (CollectionUtils.isNotEmpty(denyExceptions)) {
-					for (RangerPolicyItem policyItem : denyExceptions) {
-						writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_DENY_EXCLUDE);
+					if (CollectionUtils.isNotEmpty(denyExceptions)) {
+						for (RangerPolicyItem policyItem : denyExceptions) {
+							writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_DENY_EXCLUDE);
+						}
 					}
-				}
-				if (CollectionUtils.isNotEmpty(denyPolicyItems)) {
-					for (RangerPolicyItem policyItem : denyPolicyItems) {
-						writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_DENY_INCLUDE);
+					if (CollectionUtils.isNotEmpty(denyPolicyItems)) {
+						for (RangerPolicyItem policyItem : denyPolicyItems) {
+							writeCSVForPolicyItems(svcNameToSvcType, policy, policyItem, null, null, csvBuffer, POLICY_DENY_INCLUDE);
+						}
+					}
+
+					out.append(csvBuffer);
+					csvBuffer.setLength(0);
+
+					if (++policyCount % EXPORT_FLUSH_INTERVAL == 0) {
+						out.flush();
 					}
 				}
 			}
+			out.append(csvBuffer);
+			out.flush();
 		}
-		response.setHeader("Content-Disposition", "attachment; filename=" + cSVFileName);
-		response.setStatus(HttpServletResponse.SC_OK);
-		return csvBuffer;
 	}
 
 	private void writeCSVForPolicyItems(Map<String, String> svcNameToSvcType, RangerPolicy policy, RangerPolicyItem policyItem, RangerDataMaskPolicyItem dataMaskPolicyItem, RangerRowFilterPolicyItem rowFilterPolicyItem, StringBuilder csvBuffer, String policyConditionType) {
@@ -4532,46 +4584,77 @@ public Map<String, Object> getMetaDataInfo() {
 		return metaDataInfo;
 	}
 
-	private <T> void writeJson(List<T> objList, String jsonFileName,
+	private <T> void writeJson(Iterable<T> objList, String jsonFileName,
 			HttpServletResponse response, JSON_FILE_NAME_TYPE type) throws IOException {
 		response.setContentType("text/json");
 		response.setHeader("Content-Disposition", "attachment; filename="+ jsonFileName);
-		ServletOutputStream out = null;
 
-		String json = null;
+		final VList  exportList;
+		final String listFieldName;
 
+		// the export wrapper is built without the list, hence holds only the metadata fields; list entries are streamed one at a time
 		switch(type) {
 		case POLICY :
 			RangerExportPolicyList rangerExportPolicyList = new RangerExportPolicyList();
-			rangerExportPolicyList.setGenericPolicies(objList);
+			rangerExportPolicyList.setGenericPolicies(null);
 			rangerExportPolicyList.setMetaDataInfo(getMetaDataInfo());
-			json = JsonUtils.objectToJson(rangerExportPolicyList);
+			exportList    = rangerExportPolicyList;
+			listFieldName = "policies";
 			break;
 		case ROLE :
 			RangerExportRoleList rangerExportRoleList = new RangerExportRoleList();
-			rangerExportRoleList.setGenericRoleList(objList);
+			rangerExportRoleList.setGenericRoleList(null);
 			Map<String, Object> metaDataInfo = getMetaDataInfo();
-			metaDataInfo.put(EXPORT_COUNT,rangerExportRoleList.getListSize());
+			if (objList instanceof Collection) { // count of a streamed export isn't known before it is written
+				metaDataInfo.put(EXPORT_COUNT, ((Collection<?>) objList).size());
+			}
 			rangerExportRoleList.setMetaDataInfo(metaDataInfo);
-			json = JsonUtils.objectToJson(rangerExportRoleList);
+			exportList    = rangerExportRoleList;
+			listFieldName = "roles";
 			break;
 		default :
 			throw restErrorUtil.createRESTException("Invalid type "+type);
 		}
-		try {
-			out = response.getOutputStream();
+
+		ObjectMapper mapper = JsonUtils.getMapper();
+		ObjectNode   header = mapper.valueToTree(exportList);
+
+		// on failure the output must not be closed as valid JSON: a truncated export would be imported without errors
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8).disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
 			response.setStatus(HttpServletResponse.SC_OK);
-			IOUtils.write(json, out, "UTF-8");
-		} catch (Exception e) {
-			LOG.error("Error while exporting json file " + jsonFileName, e);
-		} finally {
-			try {
-				if (out != null) {
-					out.flush();
-					out.close();
+
+			generator.writeStartObject();
+
+			Iterator<Map.Entry<String, JsonNode>> fields = header.fields();
+
+			while (fields.hasNext()) {
+				Map.Entry<String, JsonNode> field = fields.next();
+
+				generator.writeFieldName(field.getKey());
+				generator.writeTree(field.getValue());
+			}
+
+			generator.writeArrayFieldStart(listFieldName);
+
+			if (objList != null) {
+				int count = 0;
+
+				for (T obj : objList) {
+					generator.writeObject(obj);
+
+					if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+						generator.flush();
+					}
 				}
-			} catch (Exception ex) {
 			}
+
+			generator.writeEndArray();
+			generator.writeEndObject();
+			generator.flush();
+		} catch (IOException | RuntimeException e) {
+			LOG.error("Error while exporting json file " + jsonFileName, e);
+
+			throw e;
 		}
 	}
 
@@ -5964,6 +6047,7 @@ public static class ServiceVersionUpdater implements Runnable {
 		final ServiceTags.TagsChangeType tagChangeType;
 		final Long             resourceId;
 		final Long             tagId;
+		final List<XXTagChangeLog> tagChangeLogs;
 
 		public ServiceVersionUpdater(RangerDaoManager daoManager, Long serviceId, VERSION_TYPE versionType, Integer policyDeltaType) {
 			this(daoManager, serviceId, versionType, null, policyDeltaType, null);
@@ -5979,6 +6063,7 @@ public ServiceVersionUpdater(RangerDaoManager daoManager, Long serviceId, VERSIO
 			this.tagChangeType = ServiceTags.TagsChangeType.NONE;
 			this.resourceId    = null;
 			this.tagId         = null;
+			this.tagChangeLogs = null;
 		}
 
 		public ServiceVersionUpdater(RangerDaoManager daoManager, Long serviceId, VERSION_TYPE versionType, ServiceTags.TagsChangeType tagChangeType, Long resourceId, Long tagId ) {
@@ -5991,6 +6076,21 @@ public ServiceVersionUpdater(RangerDaoManager daoManager, Long serviceId, VERSIO
 			this.tagChangeType = tagChangeType;
 			this.resourceId    = resourceId;
 			this.tagId         = tagId;
+			this.tagChangeLogs = null;
+		}
+
+		// bumps the tag version once for a batch of tag changes; each change is recorded in tag change log with the new version
+		public ServiceVersionUpdater(RangerDaoManager daoManager, Long serviceId, List<XXTagChangeLog> tagChangeLogs) {
+			this.serviceId   = serviceId;
+			this.daoManager  = daoManager;
+			this.versionType = VERSION_TYPE.TAG_VERSION;
+			this.zoneName    = null;
+			this.policyDeltaChange = null;
+			this.policy            = null;
+			this.tagChangeType = ServiceTags.TagsChangeType.NONE;
+			this.resourceId    = null;
+			this.tagId         = null;
+			this.tagChangeLogs = tagChangeLogs;
 		}
 
 		@Override
@@ -6010,6 +6110,7 @@ public String toString() {
 					", tagChangeType="       + tagChangeType +
 					", resourceId="          + resourceId +
 					", tagId="               + tagId +
+					", tagChangeLogs="       + (tagChangeLogs == null ? null : tagChangeLogs.size()) +
 					" ]";
 		}
 	}
@@ -21,6 +21,7 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -249,6 +250,36 @@ public RangerTagDef getTagDefByName(String name) throws Exception {
 		return ret;
 	}
 
+	@Override
+	public List<RangerTagDef> getTagDefsByGuids(Collection<String> guids) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> TagDBStore.getTagDefsByGuids(count=" + (guids == null ? 0 : guids.size()) + ")");
+		}
+
+		List<RangerTagDef> ret = rangerTagDefService.getTagDefsByGuids(guids);
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== TagDBStore.getTagDefsByGuids(count=" + (guids == null ? 0 : guids.size()) + "): count=" + ret.size());
+		}
+
+		return ret;
+	}
+
+	@Override
+	public List<RangerTagDef> getTagDefsByNames(Collection<String> names) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> TagDBStore.getTagDefsByNames(count=" + (names == null ? 0 : names.size()) + ")");
+		}
+
+		List<RangerTagDef> ret = rangerTagDefService.getTagDefsByNames(names);
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== TagDBStore.getTagDefsByNames(count=" + (names == null ? 0 : names.size()) + "): count=" + ret.size());
+		}
+
+		return ret;
+	}
+
 	@Override
 	public List<RangerTagDef> getTagDefs(SearchFilter filter) throws Exception {
 		if (LOG.isDebugEnabled()) {
@@ -389,6 +420,21 @@ public RangerTag getTagByGuid(String guid) throws Exception {
 		return ret;
 	}
 
+	@Override
+	public List<RangerTag> getTagsByGuids(Collection<String> guids) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> TagDBStore.getTagsByGuids(count=" + (guids == null ? 0 : guids.size()) + ")");
+		}
+
+		List<RangerTag> ret = rangerTagService.getTagsByGuids(guids);
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== TagDBStore.getTagsByGuids(count=" + (guids == null ? 0 : guids.size()) + "): count=" + ret.size());
+		}
+
+		return ret;
+	}
+
 	@Override
 	public List<RangerTag> getTagsByType(String type) throws Exception {
 		if (LOG.isDebugEnabled()) {
@@ -629,6 +675,21 @@ public RangerServiceResource getServiceResourceByGuid(String guid) throws Except
 		return ret;
 	}
 
+	@Override
+	public List<RangerServiceResource> getServiceResourcesByGuids(Collection<String> guids) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> TagDBStore.getServiceResourcesByGuids(count=" + (guids == null ? 0 : guids.size()) + ")");
+		}
+
+		List<RangerServiceResource> ret = rangerServiceResourceService.getServiceResourcesByGuids(guids);
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== TagDBStore.getServiceResourcesByGuids(count=" + (guids == null ? 0 : guids.size()) + "): count=" + ret.size());
+		}
+
+		return ret;
+	}
+
 	@Override
 	public List<RangerServiceResource> getServiceResourcesByService(String serviceName) throws Exception {
 		if (LOG.isDebugEnabled()) {
@@ -692,6 +753,29 @@ public RangerServiceResource getServiceResourceByServiceAndResourceSignature(Str
 		return ret;
 	}
 
+	@Override
+	public List<RangerServiceResource> getServiceResourcesByServiceAndResourceSignatures(String serviceName, Collection<String> resourceSignatures) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> TagDBStore.getServiceResourcesByServiceAndResourceSignatures(" + serviceName + ", count=" + (resourceSignatures == null ? 0 : resourceSignatures.size()) + ")");
+		}
+
+		List<RangerServiceResource> ret = null;
+
+		Long serviceId = daoManager.getXXService().findIdByName(serviceName);
+
+		if (serviceId != null) {
+			ret = rangerServiceResourceService.getByServiceAndResourceSignatures(serviceId, resourceSignatures);
+		} else {
+			ret = new ArrayList<>();
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== TagDBStore.getServiceResourcesByServiceAndResourceSignatures(" + serviceName + ", count=" + (resourceSignatures == null ? 0 : resourceSignatures.size()) + "): count=" + ret.size());
+		}
+
+		return ret;
+	}
+
 	@Override
 	public List<RangerServiceResource> getServiceResources(SearchFilter filter) throws Exception {
 		if (LOG.isDebugEnabled()) {
@@ -745,6 +829,33 @@ public RangerTagResourceMap createTagResourceMap(RangerTagResourceMap tagResourc
 		return ret;
 	}
 
+	@Override
+	public List<RangerTagResourceMap> createTagResourceMaps(List<RangerTagResourceMap> tagResourceMaps) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> TagDBStore.createTagResourceMaps(count=" + tagResourceMaps.size() + ")");
+		}
+
+		List<RangerTagResourceMap> ret         = new ArrayList<>(tagResourceMaps.size());
+		Set<Long>                  resourceIds = new HashSet<>();
+
+		for (RangerTagResourceMap tagResourceMap : tagResourceMaps) {
+			ret.add(rangerTagResourceMapService.create(tagResourceMap));
+
+			resourceIds.add(tagResourceMap.getResourceId());
+		}
+
+		// update tags stored with each resource once, instead of once per tag-resource-map
+		for (Long resourceId : resourceIds) {
+			refreshServiceResource(resourceId);
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== TagDBStore.createTagResourceMaps(count=" + tagResourceMaps.size() + ")");
+		}
+
+		return ret;
+	}
+
 	@Override
 	public void deleteTagResourceMap(Long id) throws Exception {
 		if (LOG.isDebugEnabled()) {
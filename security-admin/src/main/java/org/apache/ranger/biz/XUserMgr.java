@@ -2955,7 +2955,17 @@ public int createOrDeleteXGroupUserList(List<GroupUserInfo> groupUserInfoList) {
 			if (logger.isDebugEnabled()) {
 				logger.debug("No. of groups to be updated = " + groupUserInfoList.size());
 			}
-			Map<String, Long> usersFromDB = daoManager.getXXUser().getAllUserIds();
+			// resolve only the users referenced in this request, instead of loading every user in x_user
+			Set<String> userNames = new HashSet<>();
+			for (GroupUserInfo groupUserInfo : groupUserInfoList) {
+				if (groupUserInfo.getAddUsers() != null) {
+					userNames.addAll(groupUserInfo.getAddUsers());
+				}
+				if (groupUserInfo.getDelUsers() != null) {
+					userNames.addAll(groupUserInfo.getDelUsers());
+				}
+			}
+			Map<String, Long> usersFromDB = daoManager.getXXUser().getIdsByUserNames(userNames);
 			if (MapUtils.isNotEmpty(usersFromDB)) {
 				if (logger.isDebugEnabled()) {
 					logger.debug("No. of users in DB = " + usersFromDB.size());
@@ -2976,6 +2986,58 @@ public int createOrDeleteXGroupUserList(List<GroupUserInfo> groupUserInfoList) {
 		return updatedGroups;
 	}
 
+	/**
+	 * Applies a snapshot of group memberships, as seen by the sync source, for the given groups.
+	 * Existing memberships of these groups are read with a set-based query and compared with the
+	 * snapshot; only the differences are applied and returned, so that the caller doesn't need to
+	 * keep a copy of all memberships in ranger.
+	 */
+	public List<GroupUserInfo> syncXGroupUsersSnapshot(Map<String, Set<String>> groupUsersSnapshot) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("==> XUserMgr.syncXGroupUsersSnapshot(groupCount=" + (groupUsersSnapshot == null ? 0 : groupUsersSnapshot.size()) + ")");
+		}
+
+		List<GroupUserInfo> ret = new ArrayList<>();
+
+		checkAdminAccess();
+		xaBizUtil.blockAuditorRoleUser();
+
+		if (MapUtils.isNotEmpty(groupUsersSnapshot)) {
+			Map<String, Set<String>> groupUsersFromDB = daoManager.getXXGroupUser().findUsersByGroupNames(groupUsersSnapshot.keySet());
+
+			for (Map.Entry<String, Set<String>> entry : groupUsersSnapshot.entrySet()) {
+				String      groupName = entry.getKey();
+				Set<String> newUsers  = entry.getValue() != null ? entry.getValue() : Collections.emptySet();
+				Set<String> oldUsers  = groupUsersFromDB.getOrDefault(groupName, Collections.emptySet());
+				Set<String> addUsers  = new HashSet<>(newUsers);
+				Set<String> delUsers  = new HashSet<>(oldUsers);
+
+				addUsers.removeAll(oldUsers);
+				delUsers.removeAll(newUsers);
+
+				if (!addUsers.isEmpty() || !delUsers.isEmpty()) {
+					GroupUserInfo groupUserInfo = new GroupUserInfo();
+
+					groupUserInfo.setGroupName(groupName);
+					groupUserInfo.setAddUsers(addUsers.isEmpty() ? null : addUsers);
+					groupUserInfo.setDelUsers(delUsers.isEmpty() ? null : delUsers);
+
+					ret.add(groupUserInfo);
+				}
+			}
+
+			if (!ret.isEmpty()) {
+				createOrDeleteXGroupUserList(ret);
+			}
+		}
+
+		if (logger.isDebugEnabled()) {
+			logger.debug("<== XUserMgr.syncXGroupUsersSnapshot(groupCount=" + (groupUsersSnapshot == null ? 0 : groupUsersSnapshot.size()) + "): changedGroups=" + ret.size());
+		}
+
+		return ret;
+	}
+
 	@Transactional(readOnly = false, propagation = Propagation.REQUIRED)
 	public List<String> updateUserRoleAssignments(UsersGroupRoleAssignments ugRoleAssignments) {
 		List<String> updatedUsers = new ArrayList<>();
@@ -27,7 +27,10 @@
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
@@ -134,6 +137,69 @@ public List<T> batchCreate(List<T> obj) {
 		return ret;
 	}
 
+	/**
+	 * Resolves names to ids using the given named query, which must select (name, id) rows
+	 * for names in the list bound to paramName. Names are looked up in chunks of
+	 * ranger.admin.dao.batch.delete.batch.size, to keep IN-lists within database limits.
+	 */
+	public Map<String, Long> getIdsByNames(String namedQuery, Collection<String> names, String paramName) {
+		Map<String, Long> ret = new HashMap<>();
+
+		if (names == null || names.isEmpty()) {
+			return ret;
+		}
+
+		List<String> nameList  = new ArrayList<>(names);
+		int          batchSize = getInListBatchSize(nameList.size());
+
+		for (int fromIndex = 0; fromIndex < nameList.size(); fromIndex += batchSize) {
+			int toIndex = Math.min(fromIndex + batchSize, nameList.size());
+
+			List<Object[]> rows = getEntityManager()
+					.createNamedQuery(namedQuery, Object[].class)
+					.setParameter(paramName, nameList.subList(fromIndex, toIndex)).getResultList();
+
+			if (rows != null) {
+				for (Object[] row : rows) {
+					ret.put((String) row[0], (Long) row[1]);
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	/**
+	 * Runs the given query for values in the list bound to paramName, in chunks of
+	 * ranger.admin.dao.batch.delete.batch.size; other parameters of the query must be set by the caller.
+	 */
+	protected List<T> findByValuesInBatches(TypedQuery<T> query, Collection<?> values, String paramName) {
+		List<T> ret = new ArrayList<>();
+
+		if (values == null || values.isEmpty()) {
+			return ret;
+		}
+
+		List<?> valueList = new ArrayList<>(values);
+		int     batchSize = getInListBatchSize(valueList.size());
+
+		for (int fromIndex = 0; fromIndex < valueList.size(); fromIndex += batchSize) {
+			int toIndex = Math.min(fromIndex + batchSize, valueList.size());
+
+			List<T> rows = query.setParameter(paramName, valueList.subList(fromIndex, toIndex)).getResultList();
+
+			if (rows != null) {
+				ret.addAll(rows);
+			}
+		}
+
+		return ret;
+	}
+
+	protected static int getInListBatchSize(int listSize) {
+		return BATCH_DELETE_BATCH_SIZE <= 0 ? Math.max(listSize, 1) : BATCH_DELETE_BATCH_SIZE;
+	}
+
 	public void batchDeleteByIds(String namedQuery, List<Long> ids, String paramName) {
 		if (BATCH_DELETE_BATCH_SIZE <= 0) {
 			getEntityManager()
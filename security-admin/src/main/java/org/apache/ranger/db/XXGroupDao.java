@@ -21,6 +21,7 @@
 
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,6 +97,10 @@ public Map<Long, String> getAllGroupIdNames() {
 	}
 
 
+	public Map<String, Long> getIdsByGroupNames(Collection<String> groupNames) {
+		return getIdsByNames("XXGroup.getIdsByNames", groupNames, "names");
+	}
+
 	public List<GroupInfo> getAllGroupsInfo() {
 		List<GroupInfo> ret = new ArrayList<>();
 
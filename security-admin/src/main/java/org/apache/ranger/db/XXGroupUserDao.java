@@ -24,6 +24,7 @@
 
 import javax.persistence.NoResultException;
 
+import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.ranger.common.db.BaseDao;
 import org.apache.ranger.entity.XXGroupUser;
@@ -180,4 +181,30 @@ public Map<String, XXGroupUser> findUsersByGroupName(String groupName) {
 
 		return users;
 	}
+
+	public Map<String, Set<String>> findUsersByGroupNames(Collection<String> groupNames) {
+		Map<String, Set<String>> groupUsers = new HashMap<>();
+
+		if (CollectionUtils.isNotEmpty(groupNames)) {
+			List<String> names     = new ArrayList<>(groupNames);
+			int          batchSize = getInListBatchSize(names.size());
+
+			for (int fromIndex = 0; fromIndex < names.size(); fromIndex += batchSize) {
+				int toIndex = Math.min(fromIndex + batchSize, names.size());
+
+				List<Object[]> rows = (List<Object[]>) getEntityManager()
+						.createNamedQuery("XXGroupUser.findUsersByGroupNames")
+						.setParameter("groupNames", names.subList(fromIndex, toIndex))
+						.getResultList();
+
+				if (rows != null) {
+					for (Object[] row : rows) {
+						groupUsers.computeIfAbsent((String) row[0], k -> new HashSet<>()).add((String) row[1]);
+					}
+				}
+			}
+		}
+
+		return groupUsers;
+	}
 }
@@ -25,7 +25,9 @@
 
 import javax.persistence.NoResultException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class XXRoleDao extends BaseDao<XXRole> {
@@ -63,6 +65,10 @@ public XXRole findByRoleName(String roleName) {
             return null;
         }
     }
+    public Map<String, Long> getIdsByRoleNames(Collection<String> roleNames) {
+        return getIdsByNames("XXRole.getIdsByNames", roleNames, "names");
+    }
+
     public List<XXRole> findByServiceId(Long serviceId) {
         List<XXRole> ret;
         try {
@@ -20,6 +20,7 @@
 package org.apache.ranger.db;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.NoResultException;
@@ -50,6 +51,10 @@ public XXServiceResource findByGuid(String guid) {
 		}
 	}
 
+	public List<XXServiceResource> findByGuids(Collection<String> guids) {
+		return findByValuesInBatches(getEntityManager().createNamedQuery("XXServiceResource.findByGuids", tClass), guids, "guids");
+	}
+
 	public List<XXServiceResource> findByServiceId(Long serviceId) {
 		if (serviceId == null) {
 			return new ArrayList<XXServiceResource>();
@@ -75,6 +80,10 @@ public XXServiceResource findByServiceAndResourceSignature(Long serviceId, Strin
 		}
 	}
 
+	public List<XXServiceResource> findByServiceAndResourceSignatures(Long serviceId, Collection<String> resourceSignatures) {
+		return findByValuesInBatches(getEntityManager().createNamedQuery("XXServiceResource.findByServiceAndResourceSignatures", tClass).setParameter("serviceId", serviceId), resourceSignatures, "resourceSignatures");
+	}
+
 	public List<XXServiceResource> findTaggedResourcesInServiceId(Long serviceId) {
 	    List<XXServiceResource> ret = new ArrayList<>();
 		if (serviceId != null) {
@@ -17,15 +17,22 @@
 
 package org.apache.ranger.db;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.NoResultException;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.ranger.biz.ServiceDBStore;
 import org.apache.ranger.common.db.BaseDao;
+import org.apache.ranger.entity.XXServiceResource;
 import org.apache.ranger.entity.XXServiceVersionInfo;
+import org.apache.ranger.entity.XXTagChangeLog;
 import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.security.context.RangerAdminOpContext;
+import org.apache.ranger.security.context.RangerContextHolder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -76,12 +83,39 @@ public List<Object[]> getAllWithServiceNames(){
 				.getResultList();
 	}
 
+	/**
+	 * Starts batching of tag changes made in the current operation: instead of bumping the tag version of the
+	 * service once per change, the version is bumped once per service in endTagChangeBatch().
+	 */
+	public void beginTagChangeBatch() {
+		RangerContextHolder.getOrCreateOpContext().setBatchedTagChanges(new HashMap<>());
+	}
+
+	public void endTagChangeBatch() {
+		RangerAdminOpContext            opContext         = RangerContextHolder.getOpContext();
+		Map<Long, List<XXTagChangeLog>> batchedTagChanges = opContext != null ? opContext.getBatchedTagChanges() : null;
+
+		if (batchedTagChanges != null) {
+			opContext.setBatchedTagChanges(null);
+
+			for (Map.Entry<Long, List<XXTagChangeLog>> entry : batchedTagChanges.entrySet()) {
+				final Runnable serviceVersionUpdater = new ServiceDBStore.ServiceVersionUpdater(daoManager, entry.getKey(), entry.getValue());
+
+				daoManager.getRangerTransactionSynchronizationAdapter().executeOnTransactionCommit(serviceVersionUpdater);
+			}
+		}
+	}
+
 	public void updateServiceVersionInfoForTagResourceMapCreate(Long resourceId, Long tagId) {
 		if (resourceId == null || tagId == null) {
 			LOG.warn("Unexpected null value for resourceId and/or tagId");
 			return;
 		}
 
+		if (addToTagChangeBatch(resourceId, tagId)) {
+			return;
+		}
+
 		try {
 			List<XXServiceVersionInfo> serviceVersionInfos = getEntityManager().createNamedQuery("XXServiceVersionInfo.findByServiceResourceId", tClass).setParameter("resourceId", resourceId).getResultList();
 
@@ -96,6 +130,10 @@ public void updateServiceVersionInfoForTagResourceMapDelete(Long resourceId, Lon
 			return;
 		}
 
+		if (addToTagChangeBatch(resourceId, tagId)) {
+			return;
+		}
+
 		try {
 			List<XXServiceVersionInfo> serviceVersionInfos = getEntityManager().createNamedQuery("XXServiceVersionInfo.findByServiceResourceId", tClass).setParameter("resourceId", resourceId).getResultList();
 
@@ -111,6 +149,10 @@ public void updateServiceVersionInfoForServiceResourceUpdate(Long resourceId) {
 
 		Long tagId = null;
 
+		if (addToTagChangeBatch(resourceId, tagId)) {
+			return;
+		}
+
 		try {
 			List<XXServiceVersionInfo> serviceVersionInfos = getEntityManager().createNamedQuery("XXServiceVersionInfo.findByServiceResourceId", tClass).setParameter("resourceId", resourceId).getResultList();
 
@@ -150,9 +192,18 @@ private void updateTagVersionAndTagUpdateTime(List<XXServiceVersionInfo> service
 					tagChangeType = ServiceTags.TagsChangeType.TAG_RESOURCE_MAP_UPDATE;
 				}
 
+				final Map<Long, List<XXTagChangeLog>> batchedTagChanges = getBatchedTagChanges();
+
 				for (XXServiceVersionInfo serviceVersionInfo : serviceVersionInfos) {
 
 					final Long serviceId = serviceVersionInfo.getServiceId();
+
+					if (batchedTagChanges != null) {
+						batchedTagChanges.computeIfAbsent(serviceId, k -> new ArrayList<>()).add(createTagChangeLog(tagChangeType, resourceId, tagId));
+
+						continue;
+					}
+
 					final Runnable serviceVersionUpdater = new ServiceDBStore.ServiceVersionUpdater(daoManager, serviceId, versionType, tagChangeType, resourceId, tagId);
 
 					daoManager.getRangerTransactionSynchronizationAdapter().executeOnTransactionCommit(serviceVersionUpdater);
@@ -163,4 +214,40 @@ private void updateTagVersionAndTagUpdateTime(List<XXServiceVersionInfo> service
 		}
 
 	}
+
+	private Map<Long, List<XXTagChangeLog>> getBatchedTagChanges() {
+		RangerAdminOpContext opContext = RangerContextHolder.getOpContext();
+
+		return opContext != null ? opContext.getBatchedTagChanges() : null;
+	}
+
+	// the resource is usually in the persistence context already; unlike the named query, looking it up doesn't flush pending inserts
+	private boolean addToTagChangeBatch(Long resourceId, Long tagId) {
+		boolean                         ret               = false;
+		Map<Long, List<XXTagChangeLog>> batchedTagChanges = getBatchedTagChanges();
+
+		if (batchedTagChanges != null && resourceId != null) {
+			XXServiceResource resource = daoManager.getXXServiceResource().getById(resourceId);
+
+			if (resource != null) {
+				ServiceTags.TagsChangeType tagChangeType = tagId == null ? ServiceTags.TagsChangeType.SERVICE_RESOURCE_UPDATE : ServiceTags.TagsChangeType.TAG_RESOURCE_MAP_UPDATE;
+
+				batchedTagChanges.computeIfAbsent(resource.getServiceId(), k -> new ArrayList<>()).add(createTagChangeLog(tagChangeType, resourceId, tagId));
+
+				ret = true;
+			}
+		}
+
+		return ret;
+	}
+
+	private static XXTagChangeLog createTagChangeLog(ServiceTags.TagsChangeType tagChangeType, Long resourceId, Long tagId) {
+		XXTagChangeLog ret = new XXTagChangeLog();
+
+		ret.setChangeType(tagChangeType.ordinal());
+		ret.setServiceResourceId(resourceId);
+		ret.setTagId(tagId);
+
+		return ret;
+	}
 }
@@ -20,6 +20,7 @@
 package org.apache.ranger.db;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.NoResultException;
@@ -74,6 +75,10 @@ public XXTag findByGuid(String guid) {
 		}
 	}
 
+	public List<XXTag> findByGuids(Collection<String> guids) {
+		return findByValuesInBatches(getEntityManager().createNamedQuery("XXTag.findByGuids", tClass), guids, "guids");
+	}
+
 	public List<XXTag> findByName(String name) {
 		if (StringUtils.isEmpty(name)) {
 			return new ArrayList<XXTag>();
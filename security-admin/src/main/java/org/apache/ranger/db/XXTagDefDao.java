@@ -20,6 +20,7 @@
 package org.apache.ranger.db;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.NoResultException;
@@ -63,6 +64,14 @@ public XXTagDef findByName(String name) {
 		}
 	}
 
+	public List<XXTagDef> findByGuids(Collection<String> guids) {
+		return findByValuesInBatches(getEntityManager().createNamedQuery("XXTagDef.findByGuids", tClass), guids, "guids");
+	}
+
+	public List<XXTagDef> findByNames(Collection<String> names) {
+		return findByValuesInBatches(getEntityManager().createNamedQuery("XXTagDef.findByNames", tClass), names, "names");
+	}
+
     public List<XXTagDef> findByServiceId(Long serviceId) {
         List<XXTagDef> ret = new ArrayList<>();
         if (serviceId != null) {
@@ -33,6 +33,7 @@
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
@@ -120,6 +121,10 @@ public Map<String, Long> getAllUserIds() {
 		return users;
 	}
 
+	public Map<String, Long> getIdsByUserNames(Collection<String> userNames) {
+		return getIdsByNames("XXUser.getIdsByNames", userNames, "names");
+	}
+
 	public List<Object[]> getAllUserIdNames() {
 		List<Object[]> users = new ArrayList<Object[]>();
 		try {
@@ -2105,7 +2105,7 @@ public boolean resetPolicyCacheAll() {
 
 	@GET
 	@Path("/policies/downloadExcel")
-	@Produces("application/ms-excel")
+	@Produces({"application/ms-excel", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"})
 	public void getPoliciesInExcel(@Context HttpServletRequest request,
 			@Context HttpServletResponse response) {
 
@@ -2119,17 +2119,10 @@ public void getPoliciesInExcel(@Context HttpServletRequest request,
 			if (RangerPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
 				perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "ServiceREST.getPoliciesInExcel()");
 			}
-			List<RangerPolicy> policyLists = new ArrayList<RangerPolicy>();
-			
-			policyLists = getAllFilteredPolicyList(filter, request, policyLists);
-			if (CollectionUtils.isNotEmpty(policyLists)){
-				Map<String, String> mapServiceTypeAndImplClass = new HashMap<String, String>();
-				for (RangerPolicy rangerPolicy : policyLists) {
-					if (rangerPolicy != null) {
-						ensureAdminAndAuditAccess(rangerPolicy, mapServiceTypeAndImplClass);
-					}
-				}
-				svcStore.getPoliciesInExcel(policyLists, response);
+			ExportPolicies policies = getPoliciesForExport(filter, request);
+
+			if (policies.hasNext()) {
+				svcStore.getPoliciesInExcel(policies, response);
 			}else{
 				response.setStatus(HttpServletResponse.SC_NO_CONTENT);
 				LOG.error("No policies found to download!");
@@ -2166,17 +2159,10 @@ public void getPoliciesInCsv(@Context HttpServletRequest request, @Context HttpS
 			if (RangerPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
 				perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "ServiceREST.getPoliciesInCsv()");
 			}
-			List<RangerPolicy> policyLists = new ArrayList<RangerPolicy>();
-			
-			policyLists = getAllFilteredPolicyList(filter, request, policyLists);
-			if (CollectionUtils.isNotEmpty(policyLists)){
-				Map<String, String> mapServiceTypeAndImplClass = new HashMap<String, String> ();
-				for (RangerPolicy rangerPolicy : policyLists) {
-					if (rangerPolicy != null) {
-						ensureAdminAndAuditAccess(rangerPolicy, mapServiceTypeAndImplClass);
-					}
-				}
-				svcStore.getPoliciesInCSV(policyLists, response);
+			ExportPolicies policies = getPoliciesForExport(filter, request);
+
+			if (policies.hasNext()) {
+				svcStore.getPoliciesInCSV(policies, response);
 			}else{
 				response.setStatus(HttpServletResponse.SC_NO_CONTENT);
 				LOG.error("No policies found to download!");
@@ -2218,19 +2204,11 @@ public void getPoliciesInJson(@Context HttpServletRequest request,
 				checkPoliciesExists = false;
 			}
 
-			List<RangerPolicy> policyLists = new ArrayList<RangerPolicy>();
-			
-			policyLists = getAllFilteredPolicyList(filter, request, policyLists);
+			ExportPolicies policies = getPoliciesForExport(filter, request);
 
-			if (CollectionUtils.isNotEmpty(policyLists)) {
-				Map<String, String> mapServiceTypeAndImplClass = new HashMap<String, String> ();
-				for (RangerPolicy rangerPolicy : policyLists) {
-					if (rangerPolicy != null) {
-						ensureAdminAndAuditAccess(rangerPolicy, mapServiceTypeAndImplClass);
-					}
-				}
+			if (policies.hasNext()) {
 				bizUtil.blockAuditorRoleUser();
-				svcStore.getObjectInJson(policyLists, response, JSON_FILE_NAME_TYPE.POLICY);
+				svcStore.getObjectInJson(policies, response, JSON_FILE_NAME_TYPE.POLICY);
 			} else {
 				checkPoliciesExists = true;
 				response.setStatus(HttpServletResponse.SC_NO_CONTENT);
@@ -2700,103 +2678,167 @@ private void processZoneMapping(Map<String, String> zoneMappingMap, List<String>
 		}
 	}
 
-	private List<RangerPolicy> getAllFilteredPolicyList(SearchFilter filter,
-			HttpServletRequest request, List<RangerPolicy> policyLists) {
-		String serviceNames = null;
-		String serviceType = null;
-		List<String> serviceNameList = null;
-		List<String> serviceTypeList = null;
-		List<String> serviceNameInServiceTypeList = new ArrayList<String>();
-		boolean isServiceExists = false;
-		
-		if (request.getParameter(PARAM_SERVICE_NAME) != null){
-			serviceNames = request.getParameter(PARAM_SERVICE_NAME);
-		}
+	private ExportPolicies getPoliciesForExport(SearchFilter filter, HttpServletRequest request) throws Exception {
+		String       serviceNames    = request.getParameter(PARAM_SERVICE_NAME);
+		String       serviceTypes    = request.getParameter(PARAM_SERVICE_TYPE);
+		List<String> serviceNameList = new ArrayList<>();
+		List<String> serviceTypeList = new ArrayList<>();
+
 		if (StringUtils.isNotEmpty(serviceNames)) {
-			serviceNameList = new ArrayList<String>(Arrays.asList(serviceNames.split(",")));
+			for (String serviceName : serviceNames.split(",")) {
+				serviceNameList.add(serviceName.trim());
+			}
 		}
-		
-		if (request.getParameter(PARAM_SERVICE_TYPE) != null){
-			serviceType = request.getParameter(PARAM_SERVICE_TYPE);
+
+		if (StringUtils.isNotEmpty(serviceTypes)) {
+			for (String serviceType : serviceTypes.split(",")) {
+				serviceTypeList.add(serviceType.trim());
+			}
 		}
-		if(StringUtils.isNotEmpty(serviceType)){
-			serviceTypeList = new ArrayList<String>(Arrays.asList(serviceType.split(",")));
+
+		Collection<String> exportServiceNames;
+
+		if (!serviceTypeList.isEmpty()) {
+			Set<String> servicesOfTypes = new LinkedHashSet<>();
+
+			for (String serviceType : serviceTypeList) {
+				SearchFilter serviceFilter = new SearchFilter();
+
+				serviceFilter.setParam(SearchFilter.SERVICE_TYPE, serviceType);
+
+				for (RangerService service : svcStore.getServices(serviceFilter)) {
+					servicesOfTypes.add(service.getName());
+				}
+			}
+
+			if (serviceNameList.isEmpty()) {
+				exportServiceNames = servicesOfTypes;
+			} else if (servicesOfTypes.containsAll(serviceNameList)) {
+				exportServiceNames = serviceNameList;
+			} else {
+				exportServiceNames = Collections.emptyList();
+			}
+		} else if (!serviceNameList.isEmpty()) {
+			exportServiceNames = serviceNameList;
+		} else {
+			exportServiceNames = new ArrayList<>();
+
+			for (RangerService service : svcStore.getServices(new SearchFilter())) {
+				exportServiceNames.add(service.getName());
+			}
 		}
-		
-		List<RangerPolicy> policyList = new ArrayList<RangerPolicy>();
-		List<RangerPolicy> policyListByServiceName = new ArrayList<RangerPolicy>();
-		
+
 		if (filter != null) {
+			filter.removeParam(PARAM_SERVICE_TYPE);
 			filter.setStartIndex(0);
 			filter.setMaxRows(Integer.MAX_VALUE);
-			
-			if (!CollectionUtils.isEmpty(serviceTypeList)) {
-				for (String s : serviceTypeList) {
-					filter.removeParam(PARAM_SERVICE_TYPE);
-					if (request.getParameter(PARAM_SERVICE_NAME) != null){
-						filter.removeParam(PARAM_SERVICE_NAME);
-					}
-					filter.setParam(PARAM_SERVICE_TYPE, s.trim());
-					policyList = getPolicies(filter);
-					policyLists.addAll(policyList);
-				}
-				if(!CollectionUtils.sizeIsEmpty(policyLists)){
-					for (RangerPolicy rangerPolicy:policyLists){
-						if (StringUtils.isNotEmpty(rangerPolicy.getService())){
-							serviceNameInServiceTypeList.add(rangerPolicy.getService());
-						}
-					}
-				}
+		}
+
+		ExportPolicies ret = new ExportPolicies(exportServiceNames, filter, request);
+
+		ret.ensureAccess();
+
+		return ret;
+	}
+
+	/*
+	 * Policies to export, retrieved one service at a time: policies of a service are retrieved, access checked and
+	 * handed to the writer before policies of the next service are retrieved. Access to policies of all services is
+	 * checked by ensureAccess() before the export is started, so that a policy the user can't access fails the request
+	 * instead of truncating the export. Policies within a service are ordered by id. Policies returned for more than one
+	 * service - for ex: tag-service policies, with fetchTagPolicies - are exported only once.
+	 */
+	private class ExportPolicies implements Iterable<RangerPolicy>, Iterator<RangerPolicy> {
+		private final Collection<String>     serviceNames;
+		private final Iterator<String>       serviceNamesIter;
+		private final SearchFilter           filter;
+		private final HttpServletRequest     request;
+		private final Set<Long>              exportedPolicyIds          = new HashSet<>();
+		private final Map<String, String>    mapServiceTypeAndImplClass = new HashMap<>();
+		private       Iterator<RangerPolicy> servicePolicies            = Collections.emptyIterator();
+
+		ExportPolicies(Collection<String> serviceNames, SearchFilter filter, HttpServletRequest request) {
+			this.serviceNames     = serviceNames;
+			this.serviceNamesIter = serviceNames.iterator();
+			this.filter           = filter;
+			this.request          = request;
+		}
+
+		@Override
+		public Iterator<RangerPolicy> iterator() {
+			return this;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!servicePolicies.hasNext() && serviceNamesIter.hasNext() && filter != null) {
+				servicePolicies = getServicePolicies(serviceNamesIter.next());
+			}
+
+			return servicePolicies.hasNext();
+		}
+
+		@Override
+		public RangerPolicy next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			return servicePolicies.next();
+		}
+
+		// policies of each service are retrieved again for the export; only ids of checked policies are retained
+		void ensureAccess() {
+			if (filter == null) {
+				return;
 			}
-			if (!CollectionUtils.isEmpty(serviceNameList) && !CollectionUtils.isEmpty(serviceTypeList)){
-				isServiceExists = serviceNameInServiceTypeList.containsAll(serviceNameList);
-				if(isServiceExists){
-					for (String s : serviceNameList) {
-						filter.removeParam(PARAM_SERVICE_NAME);
-						filter.removeParam(PARAM_SERVICE_TYPE);
-						filter.setParam(PARAM_SERVICE_NAME, s.trim());
-						policyList = getPolicies(filter);
-						policyListByServiceName.addAll(policyList);
+
+			Set<Long> checkedPolicyIds = new HashSet<>();
+
+			for (String serviceName : serviceNames) {
+				for (RangerPolicy policy : loadServicePolicies(serviceName)) {
+					if (policy != null && checkedPolicyIds.add(policy.getId())) {
+						ensureAdminAndAuditAccess(policy, mapServiceTypeAndImplClass);
 					}
-					policyLists = policyListByServiceName;
-				}else{
-					policyLists = new ArrayList<RangerPolicy>();
-				}
-			}else if (CollectionUtils.isEmpty(serviceNameList) && CollectionUtils.isEmpty(serviceTypeList)){
-				policyLists = getPolicies(filter);
-			}
-			if (!CollectionUtils.isEmpty(serviceNameList) && CollectionUtils.isEmpty(serviceTypeList)) {
-				for (String s : serviceNameList) {
-					filter.removeParam(PARAM_SERVICE_NAME);
-					filter.setParam(PARAM_SERVICE_NAME, s.trim());
-					policyList = getPolicies(filter);
-					policyLists.addAll(policyList);
 				}
 			}
 		}
-		if (StringUtils.isNotEmpty(request.getParameter("resourceMatch"))
-				&& "full".equalsIgnoreCase(request.getParameter("resourceMatch"))) {
-			policyLists = serviceUtil.getMatchingPoliciesForResource(request, policyLists);
-		}
-		Map<Long, RangerPolicy> orderedPolicies = new TreeMap<Long, RangerPolicy>();
-		
-		if (!CollectionUtils.isEmpty(policyLists)) {
-			for (RangerPolicy policy : policyLists) {
-				if (policy != null) {
-					//set createTime & updateTime Time as null since exported policies dont need this
-					policy.setCreateTime(null);
-					policy.setUpdateTime(null);
-					orderedPolicies.put(policy.getId(), policy);
-				}
+
+		private Iterator<RangerPolicy> getServicePolicies(String serviceName) {
+			List<RangerPolicy> policies = loadServicePolicies(serviceName);
+
+			policies.removeIf(policy -> policy == null || !exportedPolicyIds.add(policy.getId()));
+			policies.sort(Comparator.comparing(RangerPolicy::getId));
+
+			for (RangerPolicy policy : policies) {
+				// checked again, for policies created after ensureAccess()
+				ensureAdminAndAuditAccess(policy, mapServiceTypeAndImplClass);
+
+				//set createTime & updateTime Time as null since exported policies dont need this
+				policy.setCreateTime(null);
+				policy.setUpdateTime(null);
 			}
-			if (!orderedPolicies.isEmpty()) {
-				policyLists.clear();
-				policyLists.addAll(orderedPolicies.values());
+
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("ExportPolicies.getServicePolicies(" + serviceName + "): count=" + policies.size());
 			}
+
+			return policies.iterator();
+		}
+
+		private List<RangerPolicy> loadServicePolicies(String serviceName) {
+			filter.setParam(PARAM_SERVICE_NAME, serviceName);
+
+			List<RangerPolicy> ret = getPolicies(filter);
+
+			if (CollectionUtils.isNotEmpty(ret) && "full".equalsIgnoreCase(request.getParameter("resourceMatch"))) {
+				ret = serviceUtil.getMatchingPoliciesForResource(request, ret);
+			}
+
+			return ret != null ? ret : new ArrayList<>();
 		}
-		return policyLists;
 	}
-	
+
 	private void deletePoliciesProvidedInServiceMap(List<String> sourceServices, List<String> destinationServices, String zoneName) throws Exception {
 		int totalDeletedPolicies = 0;
 		if (CollectionUtils.isNotEmpty(sourceServices)
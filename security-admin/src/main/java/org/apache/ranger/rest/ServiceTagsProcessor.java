@@ -34,10 +34,14 @@
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 public class ServiceTagsProcessor {
 	private static final Logger LOG = LoggerFactory.getLogger(ServiceTagsProcessor.class);
@@ -85,6 +89,7 @@ public void process(ServiceTags serviceTags) throws Exception {
 	}
 
 	// Map tagdef, tag, serviceResource ids to created ids and use them in tag-resource-mapping
+	// Existing tag-defs, service-resources and tags are looked up in batches, instead of one query per object
 	private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> ServiceTagsProcessor.createOrUpdate()");
@@ -104,23 +109,33 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 			RangerTagDef tagDef = null;
 
 			try {
+				Map<String, RangerTagDef> tagDefsByGuid = new HashMap<>();
+				Map<String, RangerTagDef> tagDefsByName = new HashMap<>();
+
+				loadTagDefs(serviceTags.getTagDefinitions().values(), tagDefsByGuid, tagDefsByName);
+
 				for (Map.Entry<Long, RangerTagDef> entry : serviceTags.getTagDefinitions().entrySet()) {
 					tagDef = entry.getValue();
 
 					RangerTagDef existing = null;
 
 					if(StringUtils.isNotEmpty(tagDef.getGuid())) {
-						existing = tagStore.getTagDefByGuid(tagDef.getGuid());
+						existing = tagDefsByGuid.get(tagDef.getGuid());
 					}
 
 					if(existing == null && StringUtils.isNotEmpty(tagDef.getName())) {
-						existing = tagStore.getTagDefByName(tagDef.getName());
+						existing = tagDefsByName.get(tagDef.getName());
 					}
 
 					RangerTagDef tagDefInStore = null;
 
 					if(existing == null) {
 						tagDefInStore = tagStore.createTagDef(tagDef);
+
+						if (tagDefInStore != null) { // to find the tagDef if it is listed again in serviceTags
+							addToIndex(tagDefsByGuid, tagDefInStore.getGuid(), tagDefInStore);
+							addToIndex(tagDefsByName, tagDefInStore.getName(), tagDefInStore);
+						}
 					} else {
 						if (LOG.isDebugEnabled()) {
 							LOG.debug("tagDef for name:" + tagDef.getName() + " exists, will not update it");
@@ -141,38 +156,24 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 			RangerServiceResource resource = null;
 
 			try {
+				Map<String, RangerServiceResource>              resourcesByGuid      = new HashMap<>();
+				Map<String, Map<String, RangerServiceResource>> resourcesBySignature = new HashMap<>(); // serviceName => (resourceSignature => resource)
+
+				loadServiceResources(serviceTags, resourcesByGuid, resourcesBySignature);
+
 				for (int i = 0; i < resources.size(); i++) {
 					resource = resources.get(i);
 
-					if (StringUtils.isBlank(resource.getServiceName())) {
-						resource.setServiceName(serviceTags.getServiceName());
-					}
-
 					RangerServiceResource existing          = null;
-					String                resourceSignature = null;
 					Long                  resourceId        = resource.getId();
 
 					if(StringUtils.isNotEmpty(resource.getGuid())) {
-						if(RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
-							perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.search_service_resource_by_guid(" + resourceId + ")");
-						}
-						existing = tagStore.getServiceResourceByGuid(resource.getGuid());
-						RangerPerfTracer.logAlways(perf);
+						existing = resourcesByGuid.get(resource.getGuid());
 					}
 
 					if (existing == null) {
 						if(MapUtils.isNotEmpty(resource.getResourceElements())) {
-							if(RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
-								perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.search_service_resource_by_signature(" + resourceId + ")");
-							}
-							RangerServiceResourceSignature serializer = new RangerServiceResourceSignature(resource);
-
-							resourceSignature = serializer.getSignature();
-							resource.setResourceSignature(resourceSignature);
-
-							existing = tagStore.getServiceResourceByServiceAndResourceSignature(resource.getServiceName(), resourceSignature);
-
-							RangerPerfTracer.logAlways(perf);
+							existing = getFromIndex(resourcesBySignature, resource.getServiceName(), resource.getResourceSignature());
 						}
 					}
 
@@ -193,6 +194,11 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 						resourceInStore = tagStore.updateServiceResource(resource);
 					}
 
+					if (resourceInStore != existing) { // to find the resource if it is listed again in serviceTags
+						addToIndex(resourcesByGuid, resourceInStore.getGuid(), resourceInStore);
+						addToIndex(resourcesBySignature, resource.getServiceName(), resourceInStore.getResourceSignature(), resourceInStore);
+					}
+
 					resourcesInStore.put(resourceId, resourceInStore);
 					RangerPerfTracer.logAlways(perf);
 				}
@@ -203,6 +209,8 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 		}
 
 		if (MapUtils.isNotEmpty(serviceTags.getResourceToTagIds())) {
+			Map<String, RangerTag> tagsByGuid = loadTags(serviceTags);
+
 			for (Map.Entry<Long, List<Long>> entry : serviceTags.getResourceToTagIds().entrySet()) {
 				Long resourceId = entry.getKey();
 
@@ -229,8 +237,15 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 					RangerPerfTracer.logAlways(perf);
 				}
 
-				List<RangerTag> tagsToRetain = new ArrayList<RangerTag>();
-				boolean         isAnyTagUpdated = false;
+				if (associatedTags == null) {
+					associatedTags = new ArrayList<RangerTag>();
+				}
+
+				Set<Long>                  associatedTagIds        = getTagIds(associatedTags);
+				Set<Long>                  tagIdsToRetain          = new HashSet<Long>();
+				List<RangerTagResourceMap> tagResourceMapsToCreate = new ArrayList<RangerTagResourceMap>();
+				boolean                    isAnyTagUpdated         = false;
+				boolean                    isResourceRefreshed     = false;
 
 				List<Long> tagIds = entry.getValue();
 				try {
@@ -242,7 +257,7 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 							continue;
 						}
 
-						RangerTag matchingTag = findMatchingTag(incomingTag, associatedTags);
+						RangerTag matchingTag = findMatchingTag(incomingTag, associatedTags, tagsByGuid);
 						if (matchingTag == null) {
 							if (LOG.isDebugEnabled()) {
 								LOG.debug("Did not find matching tag for tagId=" + tagId);
@@ -251,21 +266,14 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 							if (RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
 								perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.create_tag(" + tagId + ")");
 							}
-							RangerTag newTag = tagStore.createTag(incomingTag);
+							RangerTag newTag = createTag(incomingTag, tagsByGuid);
 							RangerPerfTracer.logAlways(perf);
 
-							RangerTagResourceMap tagResourceMap = new RangerTagResourceMap();
-
-							tagResourceMap.setTagId(newTag.getId());
-							tagResourceMap.setResourceId(resourceInStore.getId());
-							if (RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
-								perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.create_tagResourceMap(" + tagId + ")");
-							}
-							tagResourceMap = tagStore.createTagResourceMap(tagResourceMap);
-							RangerPerfTracer.logAlways(perf);
+							tagResourceMapsToCreate.add(createTagResourceMap(newTag.getId(), resourceInStore.getId()));
 
 							associatedTags.add(newTag);
-							tagsToRetain.add(newTag);
+							associatedTagIds.add(newTag.getId());
+							tagIdsToRetain.add(newTag.getId());
 
 						} else {
 
@@ -276,20 +284,16 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 							if (isResourcePrivateTag(incomingTag)) {
 								if (!isResourcePrivateTag(matchingTag)) {
 									// create new tag from incoming tag and associate it with service-resource
-									RangerTag newTag = tagStore.createTag(incomingTag);
-
-									RangerTagResourceMap tagResourceMap = new RangerTagResourceMap();
+									RangerTag newTag = createTag(incomingTag, tagsByGuid);
 
-									tagResourceMap.setTagId(newTag.getId());
-									tagResourceMap.setResourceId(resourceInStore.getId());
-
-									tagResourceMap = tagStore.createTagResourceMap(tagResourceMap);
+									tagResourceMapsToCreate.add(createTagResourceMap(newTag.getId(), resourceInStore.getId()));
 
 									associatedTags.add(newTag);
-									tagsToRetain.add(newTag);
+									associatedTagIds.add(newTag.getId());
+									tagIdsToRetain.add(newTag.getId());
 
 								} else {
-									tagsToRetain.add(matchingTag);
+									tagIdsToRetain.add(matchingTag.getId());
 
 									boolean isTagUpdateNeeded = false;
 
@@ -319,41 +323,32 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 												LOG.debug("Updating existing private tag with id=" + matchingTag.getId());
 											}
 											incomingTag.setId(matchingTag.getId());
-											tagStore.updateTag(incomingTag);
+											updateTag(incomingTag, tagsByGuid);
 											isAnyTagUpdated = true;
 									}
 								}
 							} else { // shared model
 								if (isResourcePrivateTag(matchingTag)) {
 									// create new tag from incoming tag and associate it with service-resource
-									RangerTag newTag = tagStore.createTag(incomingTag);
-
-									RangerTagResourceMap tagResourceMap = new RangerTagResourceMap();
+									RangerTag newTag = createTag(incomingTag, tagsByGuid);
 
-									tagResourceMap.setTagId(newTag.getId());
-									tagResourceMap.setResourceId(resourceInStore.getId());
-
-									tagResourceMap = tagStore.createTagResourceMap(tagResourceMap);
+									tagResourceMapsToCreate.add(createTagResourceMap(newTag.getId(), resourceInStore.getId()));
 
 									associatedTags.add(newTag);
-									tagsToRetain.add(newTag);
+									associatedTagIds.add(newTag.getId());
+									tagIdsToRetain.add(newTag.getId());
 
 								} else {
 									// Keep this tag, but update it with attribute-values from incoming tag
-									tagsToRetain.add(matchingTag);
+									tagIdsToRetain.add(matchingTag.getId());
 
 									// Update shared tag with new values
 									incomingTag.setId(matchingTag.getId());
-									tagStore.updateTag(incomingTag);
+									updateTag(incomingTag, tagsByGuid);
 
 									// associate with service-resource if not already associated
-									if (findTagInList(matchingTag, associatedTags) == null) {
-										RangerTagResourceMap tagResourceMap = new RangerTagResourceMap();
-
-										tagResourceMap.setTagId(matchingTag.getId());
-										tagResourceMap.setResourceId(resourceInStore.getId());
-
-										tagResourceMap = tagStore.createTagResourceMap(tagResourceMap);
+									if (associatedTagIds.add(matchingTag.getId())) {
+										tagResourceMapsToCreate.add(createTagResourceMap(matchingTag.getId(), resourceInStore.getId()));
 									} else {
 										isAnyTagUpdated = true;
 									}
@@ -364,24 +359,40 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 						}
 					}
 
+					if (!tagResourceMapsToCreate.isEmpty()) {
+						if (RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
+							perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.create_tagResourceMaps(" + resourceInStore.getId() + ", count=" + tagResourceMapsToCreate.size() + ")");
+						}
+						tagStore.createTagResourceMaps(tagResourceMapsToCreate);
+						RangerPerfTracer.logAlways(perf);
+
+						isResourceRefreshed = true;
+					}
 				} catch (Exception exception) {
 					LOG.error("createRangerTagResourceMap failed", exception);
 					throw exception;
 				}
 
 				if (CollectionUtils.isNotEmpty(associatedTags)) {
-					Long tagId = null;
+					Long                            tagId                  = null;
+					Map<Long, RangerTagResourceMap> tagResourceMapsByTagId = null;
 
 					try {
 						for (RangerTag associatedTag : associatedTags) {
-							if (findTagInList(associatedTag, tagsToRetain) == null) {
+							if (!tagIdsToRetain.contains(associatedTag.getId())) {
 
 								tagId = associatedTag.getId();
 
-								RangerTagResourceMap tagResourceMap = tagStore.getTagResourceMapForTagAndResourceId(tagId, resourceInStore.getId());
+								if (tagResourceMapsByTagId == null) {
+									tagResourceMapsByTagId = getTagResourceMapsByTagId(resourceInStore.getId());
+								}
+
+								RangerTagResourceMap tagResourceMap = tagResourceMapsByTagId.get(tagId);
 
 								if (tagResourceMap != null) {
 									tagStore.deleteTagResourceMap(tagResourceMap.getId());
+
+									isResourceRefreshed = true;
 								}
 
 								if (LOG.isDebugEnabled()) {
@@ -395,11 +406,13 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 					}
 				}
 				if (isAnyTagUpdated) {
-					if(RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
-						perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.refreshServiceResource(" + resourceInStore.getId() + ")");
+					if (!isResourceRefreshed) {
+						if(RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
+							perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.refreshServiceResource(" + resourceInStore.getId() + ")");
+						}
+						tagStore.refreshServiceResource(resourceInStore.getId());
+						RangerPerfTracer.logAlways(perf);
 					}
-					tagStore.refreshServiceResource(resourceInStore.getId());
-					RangerPerfTracer.logAlways(perf);
 				} else {
 					if (CollectionUtils.isEmpty(tagIds)) {
 						// No tags associated with the resource - delete the resource too
@@ -416,40 +429,197 @@ private void addOrUpdate(ServiceTags serviceTags) throws Exception {
 		}
 	}
 
-	private RangerTag findTagInList(RangerTag object, List<RangerTag> list) {
-		if (LOG.isDebugEnabled()) {
-			LOG.debug("==> ServiceTagsProcessor.findTagInList(): object=" + (object == null ? null : object.getId()));
+	private void loadTagDefs(Collection<RangerTagDef> tagDefs, Map<String, RangerTagDef> tagDefsByGuid, Map<String, RangerTagDef> tagDefsByName) throws Exception {
+		Set<String> guids = new HashSet<>();
+		Set<String> names = new HashSet<>();
+
+		for (RangerTagDef tagDef : tagDefs) {
+			if (StringUtils.isNotEmpty(tagDef.getGuid())) {
+				guids.add(tagDef.getGuid());
+			}
+
+			if (StringUtils.isNotEmpty(tagDef.getName())) {
+				names.add(tagDef.getName());
+			}
 		}
-		RangerTag ret = null;
-		if (object != null) {
-			for (RangerTag tag : list) {
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("==> ServiceTagsProcessor.findTagInList(): tag=" + tag.getId());
-				}
-				if (tag.getId().equals(object.getId())) {
-					ret = tag;
-					if (LOG.isDebugEnabled()) {
-						LOG.debug("==> ServiceTagsProcessor.findTagInList(): found tag=" + tag.getId());
-					}
-					break;
+
+		if (!guids.isEmpty()) {
+			for (RangerTagDef tagDef : tagStore.getTagDefsByGuids(guids)) {
+				addToIndex(tagDefsByGuid, tagDef.getGuid(), tagDef);
+			}
+		}
+
+		if (!names.isEmpty()) {
+			for (RangerTagDef tagDef : tagStore.getTagDefsByNames(names)) {
+				addToIndex(tagDefsByName, tagDef.getName(), tagDef);
+			}
+		}
+	}
+
+	// looks up by guid first; resources not found by guid are then looked up by resource-signature
+	private void loadServiceResources(ServiceTags serviceTags, Map<String, RangerServiceResource> resourcesByGuid, Map<String, Map<String, RangerServiceResource>> resourcesBySignature) throws Exception {
+		RangerPerfTracer perf = null;
+
+		if(RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
+			perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.search_service_resources(count=" + serviceTags.getServiceResources().size() + ")");
+		}
+
+		Set<String> guids = new HashSet<>();
+
+		for (RangerServiceResource resource : serviceTags.getServiceResources()) {
+			if (StringUtils.isBlank(resource.getServiceName())) {
+				resource.setServiceName(serviceTags.getServiceName());
+			}
+
+			if (StringUtils.isNotEmpty(resource.getGuid())) {
+				guids.add(resource.getGuid());
+			}
+		}
+
+		if (!guids.isEmpty()) {
+			for (RangerServiceResource resource : tagStore.getServiceResourcesByGuids(guids)) {
+				addToIndex(resourcesByGuid, resource.getGuid(), resource);
+			}
+		}
+
+		Map<String, Set<String>> signaturesByService = new HashMap<>();
+
+		for (RangerServiceResource resource : serviceTags.getServiceResources()) {
+			if ((StringUtils.isEmpty(resource.getGuid()) || !resourcesByGuid.containsKey(resource.getGuid())) && MapUtils.isNotEmpty(resource.getResourceElements())) {
+				RangerServiceResourceSignature serializer = new RangerServiceResourceSignature(resource);
+
+				resource.setResourceSignature(serializer.getSignature());
+
+				signaturesByService.computeIfAbsent(resource.getServiceName(), k -> new HashSet<>()).add(resource.getResourceSignature());
+			}
+		}
+
+		for (Map.Entry<String, Set<String>> entry : signaturesByService.entrySet()) {
+			for (RangerServiceResource resource : tagStore.getServiceResourcesByServiceAndResourceSignatures(entry.getKey(), entry.getValue())) {
+				addToIndex(resourcesBySignature, entry.getKey(), resource.getResourceSignature(), resource);
+			}
+		}
+
+		RangerPerfTracer.logAlways(perf);
+	}
+
+	private Map<String, RangerTag> loadTags(ServiceTags serviceTags) throws Exception {
+		Map<String, RangerTag> ret   = new HashMap<>();
+		Set<String>            guids = new HashSet<>();
+
+		if (MapUtils.isNotEmpty(serviceTags.getTags())) {
+			for (RangerTag tag : serviceTags.getTags().values()) {
+				if (tag != null && StringUtils.isNotEmpty(tag.getGuid())) {
+					guids.add(tag.getGuid());
 				}
 			}
 		}
-		if (LOG.isDebugEnabled()) {
-			LOG.debug("<== ServiceTagsProcessor.findTagInList(): ret=" + (ret == null ? null : ret.getId()));
+
+		if (!guids.isEmpty()) {
+			RangerPerfTracer perf = null;
+
+			if(RangerPerfTracer.isPerfTraceEnabled(PERF_LOG_ADD_OR_UPDATE)) {
+				perf = RangerPerfTracer.getPerfTracer(PERF_LOG_ADD_OR_UPDATE, "tags.search_tags(count=" + guids.size() + ")");
+			}
+
+			for (RangerTag tag : tagStore.getTagsByGuids(guids)) {
+				// guid is unique in x_tag, as getTagByGuid() assumes; should duplicates exist, the first one returned is used
+				ret.putIfAbsent(tag.getGuid(), tag);
+			}
+
+			RangerPerfTracer.logAlways(perf);
 		}
+
 		return ret;
 	}
+
+	private Map<Long, RangerTagResourceMap> getTagResourceMapsByTagId(Long resourceId) throws Exception {
+		Map<Long, RangerTagResourceMap> ret             = new HashMap<>();
+		List<RangerTagResourceMap>      tagResourceMaps = tagStore.getTagResourceMapsForResourceId(resourceId);
+
+		if (tagResourceMaps != null) {
+			for (RangerTagResourceMap tagResourceMap : tagResourceMaps) {
+				ret.putIfAbsent(tagResourceMap.getTagId(), tagResourceMap);
+			}
+		}
+
+		return ret;
+	}
+
+	private RangerTag createTag(RangerTag incomingTag, Map<String, RangerTag> tagsByGuid) throws Exception {
+		RangerTag ret = tagStore.createTag(incomingTag);
+
+		addTagToIndex(tagsByGuid, ret);
+
+		return ret;
+	}
+
+	private void updateTag(RangerTag incomingTag, Map<String, RangerTag> tagsByGuid) throws Exception {
+		RangerTag updatedTag = tagStore.updateTag(incomingTag);
+
+		if (updatedTag != null) {
+			addTagToIndex(tagsByGuid, updatedTag);
+		}
+	}
+
+	private static RangerTagResourceMap createTagResourceMap(Long tagId, Long resourceId) {
+		RangerTagResourceMap ret = new RangerTagResourceMap();
+
+		ret.setTagId(tagId);
+		ret.setResourceId(resourceId);
+
+		return ret;
+	}
+
+	private static Set<Long> getTagIds(List<RangerTag> tags) {
+		Set<Long> ret = new HashSet<>();
+
+		for (RangerTag tag : tags) {
+			ret.add(tag.getId());
+		}
+
+		return ret;
+	}
+
+	private static <T> void addToIndex(Map<String, T> index, String key, T value) {
+		if (StringUtils.isNotEmpty(key)) {
+			index.put(key, value);
+		}
+	}
+
+	// a guid keeps resolving to the tag it was first indexed with; only the same tag, after update, replaces the entry
+	private static void addTagToIndex(Map<String, RangerTag> tagsByGuid, RangerTag tag) {
+		if (StringUtils.isNotEmpty(tag.getGuid())) {
+			RangerTag existing = tagsByGuid.putIfAbsent(tag.getGuid(), tag);
+
+			if (existing != null && Objects.equals(existing.getId(), tag.getId())) {
+				tagsByGuid.put(tag.getGuid(), tag);
+			}
+		}
+	}
+
+	private static void addToIndex(Map<String, Map<String, RangerServiceResource>> index, String serviceName, String resourceSignature, RangerServiceResource resource) {
+		if (StringUtils.isNotEmpty(resourceSignature)) {
+			index.computeIfAbsent(serviceName, k -> new HashMap<>()).put(resourceSignature, resource);
+		}
+	}
+
+	private static RangerServiceResource getFromIndex(Map<String, Map<String, RangerServiceResource>> index, String serviceName, String resourceSignature) {
+		Map<String, RangerServiceResource> resources = index.get(serviceName);
+
+		return resources != null && resourceSignature != null ? resources.get(resourceSignature) : null;
+	}
+
 	private boolean isResourcePrivateTag(RangerTag tag) {
 		return tag.getOwner() == null || tag.getOwner() == RangerTag.OWNER_SERVICERESOURCE;
 	}
 
-	private RangerTag findMatchingTag(RangerTag incomingTag, List<RangerTag> existingTags) throws Exception {
+	private RangerTag findMatchingTag(RangerTag incomingTag, List<RangerTag> existingTags, Map<String, RangerTag> tagsByGuid) {
 
 		RangerTag ret = null;
 
 		if(StringUtils.isNotEmpty(incomingTag.getGuid())) {
-			ret = tagStore.getTagByGuid(incomingTag.getGuid());
+			ret = tagsByGuid.get(incomingTag.getGuid());
 		}
 
 		if (ret == null) {
@@ -1351,6 +1351,13 @@ public void importServiceTags(ServiceTags serviceTags) {
             perf = RangerPerfTracer.getPerfTracer(PERF_LOG, "TagREST.importServiceTags(service=" + (serviceTags != null ? serviceTags.getServiceName() : null) + ")");
         }
 
+        // skip flush after each insert, so that they are sent to the database in JDBC batches; and bump tag version once per service for the import
+        boolean oldBulkMode = RangerBizUtil.isBulkMode();
+
+        RangerBizUtil.setBulkMode(true);
+
+        daoManager.getXXServiceVersionInfo().beginTagChangeBatch();
+
         try {
             ServiceTagsProcessor serviceTagsProcessor = new ServiceTagsProcessor(tagStore);
             serviceTagsProcessor.process(serviceTags);
@@ -1359,6 +1366,9 @@ public void importServiceTags(ServiceTags serviceTags) {
 
             throw restErrorUtil.createRESTException(HttpServletResponse.SC_BAD_REQUEST, excp.getMessage(), true);
         } finally {
+            daoManager.getXXServiceVersionInfo().endTagChangeBatch();
+
+            RangerBizUtil.setBulkMode(oldBulkMode);
             RangerPerfTracer.log(perf);
         }
 
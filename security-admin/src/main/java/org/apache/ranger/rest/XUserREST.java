@@ -1629,6 +1629,15 @@ public int addOrUpdateGroupUsersList(List<GroupUserInfo> groupUserInfoList) {
 		return xUserMgr.createOrDeleteXGroupUserList(groupUserInfoList);
 	}
 
+	@POST
+	@Path("/ugsync/groupusers/snapshot")
+	@Consumes({ "application/json" })
+	@Produces({ "application/json" })
+	@PreAuthorize("hasRole('ROLE_SYS_ADMIN')")
+	public List<GroupUserInfo> syncGroupUsersSnapshot(Map<String, Set<String>> groupUsersSnapshot) {
+		return xUserMgr.syncXGroupUsersSnapshot(groupUsersSnapshot);
+	}
+
 	@POST
 	@Path("/users/roleassignments")
 	@Produces({ "application/json" })
@@ -20,11 +20,18 @@
 package org.apache.ranger.security.context;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ranger.entity.XXTagChangeLog;
 
 public class RangerAdminOpContext implements Serializable {
 	private static final long serialVersionUID = 1L;
 	private boolean bulkModeContext = false;
 	private Boolean createPrincipalsIfAbsent = null;
+	private final Map<String, Map<String, Long>> principalIdCache = new HashMap<>();
+	private Map<Long, List<XXTagChangeLog>> batchedTagChanges = null;
 
 	public boolean isBulkModeContext() {
 		return bulkModeContext;
@@ -41,4 +48,16 @@ public Boolean getCreatePrincipalsIfAbsent() {
 	public void setCreatePrincipalsIfAbsent(Boolean createPrincipalsIfAbsent) {
 		this.createPrincipalsIfAbsent = createPrincipalsIfAbsent;
 	}
+
+	public Map<String, Long> getPrincipalIdCache(String principalType) {
+		return principalIdCache.computeIfAbsent(principalType, k -> new HashMap<>());
+	}
+
+	public Map<Long, List<XXTagChangeLog>> getBatchedTagChanges() {
+		return batchedTagChanges;
+	}
+
+	public void setBatchedTagChanges(Map<Long, List<XXTagChangeLog>> batchedTagChanges) {
+		this.batchedTagChanges = batchedTagChanges;
+	}
 }
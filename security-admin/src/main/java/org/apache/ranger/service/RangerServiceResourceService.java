@@ -20,6 +20,7 @@
 package org.apache.ranger.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -110,6 +111,16 @@ public RangerServiceResource getServiceResourceByGuid(String guid) {
         return ret;
     }
 
+    public List<RangerServiceResource> getServiceResourcesByGuids(Collection<String> guids) {
+        List<RangerServiceResource> ret = new ArrayList<RangerServiceResource>();
+
+        for (XXServiceResource xxServiceResource : daoMgr.getXXServiceResource().findByGuids(guids)) {
+            ret.add(populateViewBean(xxServiceResource));
+        }
+
+        return ret;
+    }
+
     public List<RangerServiceResource> getByServiceId(Long serviceId) {
         List<RangerServiceResource> ret = new ArrayList<RangerServiceResource>();
 
@@ -138,6 +149,16 @@ public RangerServiceResource getByServiceAndResourceSignature(Long serviceId, St
         return ret;
     }
 
+    public List<RangerServiceResource> getByServiceAndResourceSignatures(Long serviceId, Collection<String> resourceSignatures) {
+        List<RangerServiceResource> ret = new ArrayList<RangerServiceResource>();
+
+        for (XXServiceResource xxServiceResource : daoMgr.getXXServiceResource().findByServiceAndResourceSignatures(serviceId, resourceSignatures)) {
+            ret.add(populateViewBean(xxServiceResource));
+        }
+
+        return ret;
+    }
+
     public List<RangerServiceResource> getTaggedResourcesInServiceId(Long serviceId) {
         List<RangerServiceResource> ret = new ArrayList<RangerServiceResource>();
 
@@ -20,6 +20,7 @@
 package org.apache.ranger.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -95,6 +96,26 @@ public RangerTagDef getTagDefByName(String name) {
 		return ret;
 	}
 
+	public List<RangerTagDef> getTagDefsByGuids(Collection<String> guids) {
+		List<RangerTagDef> ret = new ArrayList<RangerTagDef>();
+
+		for (XXTagDef xxTagDef : daoMgr.getXXTagDef().findByGuids(guids)) {
+			ret.add(populateViewBean(xxTagDef));
+		}
+
+		return ret;
+	}
+
+	public List<RangerTagDef> getTagDefsByNames(Collection<String> names) {
+		List<RangerTagDef> ret = new ArrayList<RangerTagDef>();
+
+		for (XXTagDef xxTagDef : daoMgr.getXXTagDef().findByNames(names)) {
+			ret.add(populateViewBean(xxTagDef));
+		}
+
+		return ret;
+	}
+
 	public List<RangerTagDef> getTagDefsByServiceId(Long serviceId) {
 		List<RangerTagDef> ret = new ArrayList<RangerTagDef>();
 
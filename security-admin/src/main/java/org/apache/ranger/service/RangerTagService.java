@@ -20,6 +20,7 @@
 package org.apache.ranger.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -115,6 +116,16 @@ public RangerTag getTagByGuid(String guid) {
 		return ret;
 	}
 
+	public List<RangerTag> getTagsByGuids(Collection<String> guids) {
+		List<RangerTag> ret = new ArrayList<RangerTag>();
+
+		for (XXTag xxTag : daoMgr.getXXTag().findByGuids(guids)) {
+			ret.add(populateViewBean(xxTag));
+		}
+
+		return ret;
+	}
+
 	public List<RangerTag> getTagsByType(String name) {
 		List<RangerTag> ret = new ArrayList<RangerTag>();
 
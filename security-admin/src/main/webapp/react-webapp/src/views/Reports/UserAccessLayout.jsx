@@ -447,7 +447,11 @@ function UserAccessLayout() {
     let fileExtension;
 
     if (exportType === "downloadExcel") {
-      fileExtension = ".xls";
+      fileExtension =
+        apiResponse.type ===
+        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+          ? ".xlsx"
+          : ".xls";
     } else if (exportType === "csv") {
       fileExtension = ".csv";
     } else {
@@ -17,7 +17,9 @@
 package org.apache.ranger.biz;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -3780,10 +3782,36 @@ public void test110CreateOrDeleteXGroupUserList() {
 		usersFromDB.put("testuser2", 2L);
 		XXUserDao xxUserDao = Mockito.mock(XXUserDao.class);
 		Mockito.when(daoManager.getXXUser()).thenReturn(xxUserDao);
-		Mockito.when(xxUserDao.getAllUserIds()).thenReturn(usersFromDB);
+		Mockito.when(xxUserDao.getIdsByUserNames(Mockito.anyCollection())).thenReturn(usersFromDB);
 		xUserMgr.createOrDeleteXGroupUserList(groupUserInfoList);
 	}
 
+	@Test
+	public void test133SyncXGroupUsersSnapshot() {
+		destroySession();
+		setup();
+		Map<String, Set<String>> snapshot = new HashMap<String, Set<String>>();
+		snapshot.put("public", new HashSet<String>(Arrays.asList("testuser1", "testuser2")));
+		snapshot.put("unchanged", new HashSet<String>(Arrays.asList("testuser1")));
+		Map<String, Set<String>> groupUsersFromDB = new HashMap<String, Set<String>>();
+		groupUsersFromDB.put("public", new HashSet<String>(Arrays.asList("testuser2", "testuser3")));
+		groupUsersFromDB.put("unchanged", new HashSet<String>(Arrays.asList("testuser1")));
+		Map<String, Long> usersFromDB = new HashMap<String, Long>();
+		usersFromDB.put("testuser1", 1L);
+		usersFromDB.put("testuser3", 3L);
+		XXUserDao xxUserDao = Mockito.mock(XXUserDao.class);
+		XXGroupUserDao xxGroupUserDao = Mockito.mock(XXGroupUserDao.class);
+		Mockito.when(daoManager.getXXUser()).thenReturn(xxUserDao);
+		Mockito.when(daoManager.getXXGroupUser()).thenReturn(xxGroupUserDao);
+		Mockito.when(xxGroupUserDao.findUsersByGroupNames(snapshot.keySet())).thenReturn(groupUsersFromDB);
+		Mockito.when(xxUserDao.getIdsByUserNames(Mockito.anyCollection())).thenReturn(usersFromDB);
+		List<GroupUserInfo> changes = xUserMgr.syncXGroupUsersSnapshot(snapshot);
+		Assert.assertEquals(1, changes.size());
+		Assert.assertEquals("public", changes.get(0).getGroupName());
+		Assert.assertEquals(Collections.singleton("testuser1"), changes.get(0).getAddUsers());
+		Assert.assertEquals(Collections.singleton("testuser3"), changes.get(0).getDelUsers());
+	}
+
 	@Test
 	public void test111CreateOrUpdateXUsers() {
 		destroySession();
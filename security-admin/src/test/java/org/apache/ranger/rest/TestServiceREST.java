@@ -102,6 +102,7 @@
 import org.junit.runner.RunWith;
 import org.junit.runners.MethodSorters;
 import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -443,6 +444,14 @@ private GrantRevokeRequest createValidGrantRevokeRequest() {
 		return grantRevokeRequest;
 	}
 
+	private List<RangerPolicy> toList(Iterable<RangerPolicy> policies) {
+		List<RangerPolicy> ret = new ArrayList<>();
+
+		policies.forEach(ret::add);
+
+		return ret;
+	}
+
 	private XXPolicy getXXPolicy() {
 		XXPolicy xxPolicy = new XXPolicy();
 		xxPolicy.setId(Id);
@@ -1670,6 +1679,7 @@ public void test44getPolicyLabels() throws Exception {
 		Mockito.verify(searchUtil).getSearchFilter(request, policyLabelsService.sortFields);
 	}
 
+	@SuppressWarnings("unchecked")
 	@Test
 	public void test45exportPoliciesInJSON() throws Exception {
 		HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
@@ -1689,6 +1699,7 @@ public void test45exportPoliciesInJSON() throws Exception {
 		SearchFilter filter = new SearchFilter();
 		filter.setParam("zoneName", "zone1");
 		Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+		Mockito.when(svcStore.getServices(Mockito.any(SearchFilter.class))).thenReturn(Collections.singletonList(rangerService()));
 		Mockito.when(svcStore.getPolicies(filter)).thenReturn(rangerPolicyList);
 		Mockito.when(bizUtil.isAdmin()).thenReturn(true);
 		Mockito.when(bizUtil.isKeyAdmin()).thenReturn(false);
@@ -1702,9 +1713,14 @@ public void test45exportPoliciesInJSON() throws Exception {
 		Mockito.when(daoManager.getXXServiceDef().getById(xService.getType())).thenReturn(xServiceDef);
 		serviceREST.getPoliciesInJson(request, response, false);
 
-		Mockito.verify(svcStore).getObjectInJson(rangerPolicyList, response, JSON_FILE_NAME_TYPE.POLICY);
+		ArgumentCaptor<Iterable<RangerPolicy>> exportedPolicies = ArgumentCaptor.forClass(Iterable.class);
+
+		Mockito.verify(svcStore).getObjectInJson(exportedPolicies.capture(), eq(response), eq(JSON_FILE_NAME_TYPE.POLICY));
+		Assert.assertEquals(rangerPolicyList, toList(exportedPolicies.getValue()));
+		Assert.assertEquals("HDFS_1", filter.getParam(ServiceREST.PARAM_SERVICE_NAME));
 	}
 
+	@SuppressWarnings("unchecked")
 	@Test
 	public void test46exportPoliciesInCSV() throws Exception {
 		HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
@@ -1724,6 +1740,7 @@ public void test46exportPoliciesInCSV() throws Exception {
 		SearchFilter filter = new SearchFilter();
 
 		Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+		Mockito.when(svcStore.getServices(Mockito.any(SearchFilter.class))).thenReturn(Collections.singletonList(rangerService()));
 		Mockito.when(svcStore.getPolicies(filter)).thenReturn(rangerPolicyList);
 		Mockito.when(bizUtil.isAdmin()).thenReturn(true);
 		Mockito.when(bizUtil.isKeyAdmin()).thenReturn(false);
@@ -1738,7 +1755,10 @@ public void test46exportPoliciesInCSV() throws Exception {
 		Mockito.when(daoManager.getXXServiceDef().getById(xService.getType())).thenReturn(xServiceDef);
 		serviceREST.getPoliciesInCsv(request, response);
 
-		Mockito.verify(svcStore).getPoliciesInCSV(rangerPolicyList, response);
+		ArgumentCaptor<Iterable<RangerPolicy>> exportedPolicies = ArgumentCaptor.forClass(Iterable.class);
+
+		Mockito.verify(svcStore).getPoliciesInCSV(exportedPolicies.capture(), eq(response));
+		Assert.assertEquals(rangerPolicyList, toList(exportedPolicies.getValue()));
 	}
 
       /*  @Test
@@ -1759,6 +1779,7 @@ public void test47WhenPolicyListIsEmpty() throws Exception {
                 Assert.assertEquals(HttpServletResponse.SC_NO_CONTENT, response.getStatus());
                 }
 */
+	@SuppressWarnings("unchecked")
 	@Test
 	public void test48exportPoliciesInExcel() throws Exception {
 		HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
@@ -1778,6 +1799,7 @@ public void test48exportPoliciesInExcel() throws Exception {
 		SearchFilter filter = new SearchFilter();
 
 		Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+		Mockito.when(svcStore.getServices(Mockito.any(SearchFilter.class))).thenReturn(Collections.singletonList(rangerService()));
 		Mockito.when(svcStore.getPolicies(filter)).thenReturn(rangerPolicyList);
 		Mockito.when(bizUtil.isAdmin()).thenReturn(true);
 		Mockito.when(bizUtil.isKeyAdmin()).thenReturn(false);
@@ -1791,10 +1813,64 @@ public void test48exportPoliciesInExcel() throws Exception {
 		Mockito.when(daoManager.getXXService().findByName("HDFS_1-1-20150316062453")).thenReturn(xService);
 		Mockito.when(daoManager.getXXServiceDef().getById(xService.getType())).thenReturn(xServiceDef);
 		serviceREST.getPoliciesInExcel(request, response);
-		Mockito.verify(svcStore).getPoliciesInExcel(rangerPolicyList, response);
+
+		ArgumentCaptor<Iterable<RangerPolicy>> exportedPolicies = ArgumentCaptor.forClass(Iterable.class);
+
+		Mockito.verify(svcStore).getPoliciesInExcel(exportedPolicies.capture(), eq(response));
+		Assert.assertEquals(rangerPolicyList, toList(exportedPolicies.getValue()));
 	}
 
 
+	@Test
+	public void test48exportPoliciesFailsBeforeWritingWithoutAccess() throws Exception {
+		HttpServletRequest  request        = Mockito.mock(HttpServletRequest.class);
+		HttpServletResponse response       = Mockito.mock(HttpServletResponse.class);
+		SearchFilter        filter         = new SearchFilter();
+		RangerService       kmsService     = rangerService();
+		RangerPolicy        hdfsPolicy     = rangerPolicy();
+		RangerPolicy        kmsPolicy      = rangerPolicy();
+		XXService           xService       = xService();
+		XXService           kmsXService    = xService();
+		XXServiceDef        kmsServiceDef  = serviceDef();
+		XXServiceDao        xServiceDao    = Mockito.mock(XXServiceDao.class);
+		XXServiceDefDao     xServiceDefDao = Mockito.mock(XXServiceDefDao.class);
+
+		kmsService.setName("KMS_1");
+		kmsPolicy.setId(Id + 1);
+		kmsPolicy.setService("KMS_1");
+		kmsXService.setType(2L);
+		kmsServiceDef.setName("kms");
+		kmsServiceDef.setImplclassname(EmbeddedServiceDefsUtil.KMS_IMPL_CLASS_NAME);
+
+		Mockito.when(searchUtil.getSearchFilter(request, policyService.sortFields)).thenReturn(filter);
+		Mockito.when(svcStore.getServices(Mockito.any(SearchFilter.class))).thenReturn(Arrays.asList(rangerService(), kmsService));
+		Mockito.when(svcStore.getPolicies(filter)).thenAnswer(invocation -> new ArrayList<>(Collections.singletonList("KMS_1".equals(filter.getParam(ServiceREST.PARAM_SERVICE_NAME)) ? kmsPolicy : hdfsPolicy)));
+		Mockito.when(bizUtil.isAdmin()).thenReturn(true);
+		Mockito.when(bizUtil.isKeyAdmin()).thenReturn(false);
+		Mockito.when(bizUtil.getCurrentUserLoginId()).thenReturn("admin");
+		Mockito.when(bizUtil.isAuditAdmin()).thenReturn(false);
+		Mockito.when(bizUtil.isAuditKeyAdmin()).thenReturn(false);
+		Mockito.when(daoManager.getXXService()).thenReturn(xServiceDao);
+		Mockito.when(daoManager.getXXServiceDef()).thenReturn(xServiceDefDao);
+		Mockito.when(xServiceDao.findByName("HDFS_1-1-20150316062453")).thenReturn(xService);
+		Mockito.when(xServiceDao.findByName("KMS_1")).thenReturn(kmsXService);
+		Mockito.when(xServiceDefDao.getById(xService.getType())).thenReturn(serviceDef());
+		Mockito.when(xServiceDefDao.getById(kmsXService.getType())).thenReturn(kmsServiceDef);
+		Mockito.when(restErrorUtil.createRESTException(Mockito.anyString(), (MessageEnums) Mockito.any())).thenThrow(new WebApplicationException());
+
+		// policies of the first service are accessible, but export must fail before any of them is written
+		try {
+			serviceREST.getPoliciesInJson(request, response, false);
+
+			Assert.fail("export must fail when a policy to export is not accessible");
+		} catch (WebApplicationException excp) {
+			// expected
+		}
+
+		Mockito.verify(svcStore, Mockito.never()).getObjectInJson(Mockito.any(), Mockito.any(), Mockito.any());
+		Mockito.verify(response, Mockito.never()).setStatus(Mockito.anyInt());
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void test49importPoliciesFromFileAllowingOverride() throws Exception {
@@ -21,6 +21,7 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -106,13 +107,13 @@ public void test2processAddOrUpdate() throws Exception {
 		TagStore tagStore = Mockito.mock(TagStore.class);
 		sTagProcessor = new ServiceTagsProcessor(tagStore);
 		Mockito.when(tagStore.createTagDef(rTagDef)).thenReturn(rTagDef);
-		Mockito.when(tagStore.getServiceResourceByGuid(rserRes.getGuid())).thenReturn(rserRes);
+		Mockito.when(tagStore.getServiceResourcesByGuids(Collections.singleton(rserRes.getGuid()))).thenReturn(Collections.singletonList(rserRes));
 		Mockito.when(tagStore.createTag(rTag2)).thenReturn(rTag);
 
 		Mockito.when(tagStore.getTagsForResourceId(rserRes.getId())).thenReturn(associatedTags);
 		sTagProcessor.process(serviceTags);
 		Mockito.verify(tagStore).createTagDef(rTagDef);
-		Mockito.verify(tagStore).getServiceResourceByGuid(rserRes.getGuid());
+		Mockito.verify(tagStore).getServiceResourcesByGuids(Collections.singleton(rserRes.getGuid()));
 		Mockito.verify(tagStore).createTag(rTag2);
 	}
 
@@ -153,13 +154,13 @@ public void test3process() throws Exception {
 		TagStore tagStore = Mockito.mock(TagStore.class);
 		sTagProcessor = new ServiceTagsProcessor(tagStore);
 		Mockito.when(tagStore.createTagDef(rTagDef)).thenReturn(rTagDef);
-		Mockito.when(tagStore.getServiceResourceByGuid(rserRes.getGuid())).thenReturn(rserRes);
+		Mockito.when(tagStore.getServiceResourcesByGuids(Collections.singleton(rserRes.getGuid()))).thenReturn(Collections.singletonList(rserRes));
 		Mockito.when(tagStore.getTagsForResourceId(rserRes.getId())).thenReturn(associatedTags);
 
 		sTagProcessor.process(serviceTags);
 
 		Mockito.verify(tagStore).createTagDef(rTagDef);
-		Mockito.verify(tagStore).getServiceResourceByGuid(rserRes.getGuid());
+		Mockito.verify(tagStore).getServiceResourcesByGuids(Collections.singleton(rserRes.getGuid()));
 		Mockito.verify(tagStore).getTagsForResourceId(rserRes.getId());
 	}
 
@@ -282,4 +283,54 @@ public void test5processReplace() throws Exception {
 		Mockito.verify(tagStore).deleteTagResourceMap(rangerTagRmp.getId());
 		Mockito.verify(tagStore).deleteServiceResourceByGuid(Mockito.anyString());
 	}
+
+	@Test
+	public void test6processAddOrUpdateSharedTag() throws Exception {
+		serviceTags = new ServiceTags();
+		serviceTags.setServiceName("tagServiceName");
+
+		List<RangerServiceResource> serviceResources = new ArrayList<RangerServiceResource>();
+		Map<Long, List<Long>>       resourceToTagIds = new HashMap<>();
+
+		for (long i = 1; i <= 2; i++) {
+			RangerServiceResource rserRes = new RangerServiceResource();
+			rserRes.setGuid("resGuid" + i);
+			rserRes.setId(i);
+			serviceResources.add(rserRes);
+			resourceToTagIds.put(i, new ArrayList<Long>(Arrays.asList(1L)));
+		}
+		serviceTags.setServiceResources(serviceResources);
+		serviceTags.setResourceToTagIds(resourceToTagIds);
+
+		RangerTag rTag = new RangerTag();
+		rTag.setGuid("tagGuid");
+		rTag.setType("type1");
+		rTag.setOwner(RangerTag.OWNER_GLOBAL);
+		Map<Long, RangerTag> tags = new HashMap<>();
+		tags.put(1L, rTag);
+		serviceTags.setTags(tags);
+
+		RangerTag rTagInStore = new RangerTag();
+		rTagInStore.setId(22L);
+		rTagInStore.setGuid("tagGuid");
+		rTagInStore.setType("type1");
+		rTagInStore.setOwner(RangerTag.OWNER_GLOBAL);
+
+		TagStore tagStore = Mockito.mock(TagStore.class);
+		sTagProcessor = new ServiceTagsProcessor(tagStore);
+
+		Mockito.when(tagStore.getServiceResourcesByGuids(Mockito.anyCollection())).thenReturn(serviceResources);
+		Mockito.when(tagStore.getTagsByGuids(Collections.singleton("tagGuid"))).thenReturn(Collections.emptyList());
+		Mockito.when(tagStore.getTagsForResourceId(Mockito.anyLong())).thenAnswer(invocation -> new ArrayList<RangerTag>());
+		Mockito.when(tagStore.createTag(rTag)).thenReturn(rTagInStore);
+
+		sTagProcessor.process(serviceTags);
+
+		// shared tag is created once, and associated with both resources; existing tags are looked up in one call
+		Mockito.verify(tagStore).getTagsByGuids(Collections.singleton("tagGuid"));
+		Mockito.verify(tagStore).createTag(rTag);
+		Mockito.verify(tagStore, Mockito.times(2)).createTagResourceMaps(Mockito.anyList());
+		Mockito.verify(tagStore, Mockito.never()).getTagByGuid(Mockito.anyString());
+		Mockito.verify(tagStore, Mockito.never()).getServiceResourceByGuid(Mockito.anyString());
+	}
 }
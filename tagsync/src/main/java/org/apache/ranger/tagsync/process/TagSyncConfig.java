@@ -123,7 +123,19 @@ public class TagSyncConfig extends Configuration {
 	private static final int     DEFAULT_TAGSYNC_SINK_MAX_BATCH_SIZE = 1;
 	private static final String  TAGSYNC_SINK_MAX_BATCH_SIZE_PROP    = "ranger.tagsync.dest.ranger.max.batch.size";
 
+	private static final int     DEFAULT_TAGSYNC_ATLAS_SOURCE_PIPELINE_QUEUE_SIZE = 4;
+	private static final String  TAGSYNC_ATLAS_SOURCE_PIPELINE_QUEUE_SIZE_PROP    = "ranger.tagsync.source.atlas.pipeline.queue.size";
+
+	private static final long    DEFAULT_TAGSYNC_ATLAS_SOURCE_UPLOAD_RETRY_MAX_INTERVAL = 60000L;
+	private static final String  TAGSYNC_ATLAS_SOURCE_UPLOAD_RETRY_MAX_INTERVAL_PROP    = "ranger.tagsync.source.atlas.upload.retry.max.interval.millis";
+
 	private static final String TAGSYNC_ATLASREST_SOURCE_ENTITIES_BATCH_SIZE = "ranger.tagsync.source.atlasrest.entities.batch.size";
+	private static final String TAGSYNC_ATLASREST_SOURCE_INCREMENTAL_ENABLED = "ranger.tagsync.source.atlasrest.incremental.enabled";
+	private static final String TAGSYNC_ATLASREST_SOURCE_FULL_SYNC_INTERVAL  = "ranger.tagsync.source.atlasrest.full.sync.interval.millis";
+	private static final String TAGSYNC_ATLASREST_SOURCE_DOWNLOAD_THREADS    = "ranger.tagsync.source.atlasrest.download.threads";
+
+	private static final long DEFAULT_TAGSYNC_ATLASREST_SOURCE_FULL_SYNC_INTERVAL = 24 * 60 * 60 * 1000L;
+	private static final int  DEFAULT_TAGSYNC_ATLASREST_SOURCE_DOWNLOAD_THREADS   = 4;
 	public static final String TAGSYNC_SERVER_HA_ENABLED_PARAM = "ranger-tagsync.server.ha.enabled";
 
 	private Properties props;
@@ -469,6 +481,34 @@ public static int getSinkMaxBatchSize(Properties prop) {
 		return ret;
 	}
 
+	public static int getAtlasSourcePipelineQueueSize(Properties prop) {
+		int ret = DEFAULT_TAGSYNC_ATLAS_SOURCE_PIPELINE_QUEUE_SIZE;
+
+		String queueSizeStr = prop.getProperty(TAGSYNC_ATLAS_SOURCE_PIPELINE_QUEUE_SIZE_PROP);
+
+		if (StringUtils.isNotEmpty(queueSizeStr)) {
+			try {
+				ret = Integer.valueOf(queueSizeStr);
+			} catch (Exception e) {
+			}
+		}
+		return ret > 0 ? ret : DEFAULT_TAGSYNC_ATLAS_SOURCE_PIPELINE_QUEUE_SIZE;
+	}
+
+	public static long getAtlasSourceUploadRetryMaxInterval(Properties prop) {
+		long ret = DEFAULT_TAGSYNC_ATLAS_SOURCE_UPLOAD_RETRY_MAX_INTERVAL;
+
+		String maxIntervalStr = prop.getProperty(TAGSYNC_ATLAS_SOURCE_UPLOAD_RETRY_MAX_INTERVAL_PROP);
+
+		if (StringUtils.isNotEmpty(maxIntervalStr)) {
+			try {
+				ret = Long.valueOf(maxIntervalStr);
+			} catch (Exception e) {
+			}
+		}
+		return ret > 0 ? ret : DEFAULT_TAGSYNC_ATLAS_SOURCE_UPLOAD_RETRY_MAX_INTERVAL;
+	}
+
 	private TagSyncConfig() {
 		super(false);
 		init();
@@ -568,4 +608,39 @@ static public int getAtlasRestSourceEntitiesBatchSize(Properties prop) {
 
 		return ret;
 	}
+
+	static public boolean isAtlasRestSourceIncrementalEnabled(Properties prop) {
+		String val = prop.getProperty(TAGSYNC_ATLASREST_SOURCE_INCREMENTAL_ENABLED);
+		return "true".equalsIgnoreCase(StringUtils.trimToEmpty(val));
+	}
+
+	static public long getAtlasRestSourceFullSyncIntervalInMillis(Properties prop) {
+		String val = prop.getProperty(TAGSYNC_ATLASREST_SOURCE_FULL_SYNC_INTERVAL);
+		long   ret = DEFAULT_TAGSYNC_ATLASREST_SOURCE_FULL_SYNC_INTERVAL;
+
+		if (StringUtils.isNotBlank(val)) {
+			try {
+				ret = Long.valueOf(val);
+			} catch (NumberFormatException exception) {
+				// Ignore
+			}
+		}
+
+		return ret;
+	}
+
+	static public int getAtlasRestSourceDownloadThreads(Properties prop) {
+		String val = prop.getProperty(TAGSYNC_ATLASREST_SOURCE_DOWNLOAD_THREADS);
+		int    ret = DEFAULT_TAGSYNC_ATLASREST_SOURCE_DOWNLOAD_THREADS;
+
+		if (StringUtils.isNotBlank(val)) {
+			try {
+				ret = Integer.valueOf(val);
+			} catch (NumberFormatException exception) {
+				// Ignore
+			}
+		}
+
+		return ret > 0 ? ret : DEFAULT_TAGSYNC_ATLASREST_SOURCE_DOWNLOAD_THREADS;
+	}
 }
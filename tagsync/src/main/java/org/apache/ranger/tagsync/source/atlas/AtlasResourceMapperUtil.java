@@ -50,6 +50,10 @@ public static boolean isEntityTypeHandled(String entityTypeName) {
 		return ret;
 	}
 
+	public static Set<String> getHandledEntityTypes() {
+		return Collections.unmodifiableSet(atlasResourceMappers.keySet());
+	}
+
 	public static RangerServiceResource getRangerServiceResource(RangerAtlasEntity atlasEntity) {
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("==> getRangerServiceResource(" + atlasEntity.getGuid() +")");
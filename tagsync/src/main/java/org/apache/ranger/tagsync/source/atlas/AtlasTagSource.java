@@ -32,6 +32,7 @@
 import org.apache.atlas.kafka.AtlasKafkaMessage;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.ranger.tagsync.process.TagSyncConfig;
+import org.apache.ranger.tagsync.source.atlasrest.RangerAtlasEntity;
 import org.apache.ranger.tagsync.source.atlasrest.RangerAtlasEntityWithTags;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,10 +41,28 @@
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Receives entity notifications from Atlas over Kafka and uploads the tags to Ranger admin.
+ *
+ * Notifications are processed in 3 stages, each in its own thread, connected by bounded queues:
+ *  - consumer: receives notifications from Kafka and collects them in a window of up to maxBatchSize entities. As a
+ *    notification carries all classifications of the entity, a later notification for an entity supersedes the earlier
+ *    ones in the window
+ *  - mapper:   builds ServiceTags for the entities in a window
+ *  - uploader: uploads ServiceTags to Ranger admin
+ * Kafka offsets are committed, by the consumer thread, only after the notifications are uploaded successfully.
+ */
 public class AtlasTagSource extends AbstractTagSource {
 	private static final Logger LOG = LoggerFactory.getLogger(AtlasTagSource.class);
 
@@ -55,10 +74,19 @@ public class AtlasTagSource extends AbstractTagSource {
 
 	public static final int    MAX_WAIT_TIME_IN_MILLIS = 1000;
 
+	private static final long  UPLOAD_RETRY_INITIAL_INTERVAL_IN_MILLIS = 100L;
+
 	private             int    maxBatchSize;
+	private             long   uploadRetryMaxIntervalInMillis;
 
 	private ConsumerRunnable consumerTask;
 	private Thread myThread = null;
+	private Thread mapperThread = null;
+	private Thread uploaderThread = null;
+
+	private BlockingQueue<NotificationWindow>                 windowsToMap;
+	private BlockingQueue<UploadBatch>                        batchesToUpload;
+	private final AtomicReference<AtlasKafkaMessage<EntityNotification>> lastUploadedMessage = new AtomicReference<>();
 
 	@Override
 	public boolean initialize(Properties properties) {
@@ -115,10 +143,16 @@ public boolean initialize(Properties properties) {
 			consumerTask = new ConsumerRunnable(iterators.get(0));
 		}
 
-		maxBatchSize = TagSyncConfig.getSinkMaxBatchSize(properties);
+		maxBatchSize                   = TagSyncConfig.getSinkMaxBatchSize(properties);
+		uploadRetryMaxIntervalInMillis = TagSyncConfig.getAtlasSourceUploadRetryMaxInterval(properties);
+
+		int pipelineQueueSize = TagSyncConfig.getAtlasSourcePipelineQueueSize(properties);
+
+		windowsToMap    = new ArrayBlockingQueue<>(pipelineQueueSize);
+		batchesToUpload = new ArrayBlockingQueue<>(pipelineQueueSize);
 
 		if (LOG.isDebugEnabled()) {
-			LOG.debug("<== AtlasTagSource.initialize(), result=" + ret);
+			LOG.debug("<== AtlasTagSource.initialize(), maxBatchSize=" + maxBatchSize + ", pipelineQueueSize=" + pipelineQueueSize + ", result=" + ret);
 		}
 		return ret;
 	}
@@ -131,6 +165,14 @@ public boolean start() {
 		if (consumerTask == null) {
 			LOG.error("No consumerTask!!!");
 		} else {
+			uploaderThread = new Thread(new UploaderRunnable(), "AtlasTagSource-uploader");
+			uploaderThread.setDaemon(true);
+			uploaderThread.start();
+
+			mapperThread = new Thread(new MapperRunnable(), "AtlasTagSource-mapper");
+			mapperThread.setDaemon(true);
+			mapperThread.start();
+
 			myThread = new Thread(consumerTask);
 			myThread.setDaemon(true);
 			myThread.start();
@@ -143,8 +185,10 @@ public boolean start() {
 
 	@Override
 	public void stop() {
-		if (myThread != null && myThread.isAlive()) {
-			myThread.interrupt();
+		for (Thread thread : new Thread[] { myThread, mapperThread, uploaderThread }) {
+			if (thread != null && thread.isAlive()) {
+				thread.interrupt();
+			}
 		}
 	}
 
@@ -163,12 +207,9 @@ private class ConsumerRunnable implements Runnable {
 
 		private final NotificationConsumer<EntityNotification> consumer;
 
-		private final List<RangerAtlasEntityWithTags>             atlasEntitiesWithTags = new ArrayList<>();
-		private final List<AtlasKafkaMessage<EntityNotification>> messages              = new ArrayList<>();
-		private       AtlasKafkaMessage<EntityNotification>       lastUnhandledMessage  = null;
+		private NotificationWindow window = new NotificationWindow();
 
 		private long    offsetOfLastMessageCommittedToKafka  = -1L;
-		private boolean isHandlingDeleteOps                  = false;
 
 		private ConsumerRunnable(NotificationConsumer<EntityNotification> consumer) {
 			this.consumer = consumer;
@@ -186,14 +227,21 @@ public void run() {
 						LOG.debug("==> ConsumerRunnable.run() is running as server is active");
 					}
 					try {
+						// Kafka consumer is not thread-safe; hence offsets of uploaded messages are committed from this thread
+						AtlasKafkaMessage<EntityNotification> uploadedMessage = pollUploadedMessage();
+
+						if (uploadedMessage != null) {
+							commitToKafka(uploadedMessage);
+						}
+
 						List<AtlasKafkaMessage<EntityNotification>> newMessages = consumer.receive(MAX_WAIT_TIME_IN_MILLIS);
 
 					if (newMessages.size() == 0) {
 						if (LOG.isDebugEnabled()) {
 							LOG.debug("AtlasTagSource.ConsumerRunnable.run: no message from NotificationConsumer within " + MAX_WAIT_TIME_IN_MILLIS + " milliseconds");
 						}
-						if (CollectionUtils.isNotEmpty(atlasEntitiesWithTags)) {
-							buildAndUploadServiceTags();
+						if (window.size() > 0) {
+							closeWindow();
 						}
 					} else {
 						for (AtlasKafkaMessage<EntityNotification> message : newMessages) {
@@ -212,34 +260,33 @@ public void run() {
 									}
 
 									if (AtlasNotificationMapper.isNotificationHandled(notificationWrapper)) {
-
-										if ((notificationWrapper.getIsEntityDeleteOp() && !isHandlingDeleteOps) || (!notificationWrapper.getIsEntityDeleteOp() && isHandlingDeleteOps)) {
-											if (CollectionUtils.isNotEmpty(atlasEntitiesWithTags)) {
-												buildAndUploadServiceTags();
-											}
-											isHandlingDeleteOps = !isHandlingDeleteOps;
+										if (!window.canAdd(notificationWrapper)) {
+											closeWindow();
 										}
 
-										atlasEntitiesWithTags.add(new RangerAtlasEntityWithTags(notificationWrapper));
-										messages.add(message);
+										window.add(notificationWrapper, message);
+
+										if (window.size() >= maxBatchSize) {
+											closeWindow();
+										}
 									} else {
 										AtlasNotificationMapper.logUnhandledEntityNotification(notificationWrapper);
-										lastUnhandledMessage = message;
+										window.setLastMessage(message);
 									}
 								}
 							} else {
 								LOG.error("Null entityNotification received from Kafka!! Ignoring..");
 							}
 						}
-						if (CollectionUtils.isNotEmpty(atlasEntitiesWithTags) && atlasEntitiesWithTags.size() >= maxBatchSize) {
-							buildAndUploadServiceTags();
-						}
 					}
-					if (lastUnhandledMessage != null) {
-						commitToKafka(lastUnhandledMessage);
-						lastUnhandledMessage = null;
+					if (window.size() == 0 && window.getLastMessage() != null) { // only unhandled messages; commit after preceding windows are uploaded
+						closeWindow();
 					}
 
+				} catch (InterruptedException interrupted) {
+					LOG.error("Interrupted: ", interrupted);
+					LOG.error("Returning from thread. May cause process to be up but not processing events!!");
+					return;
 				} catch (Exception exception) {
 					LOG.error("Caught exception..: ", exception);
 					// If transient error, retry after short interval
@@ -255,50 +302,18 @@ public void run() {
 			}
 		}
 
-		private void buildAndUploadServiceTags() throws Exception {
+		// blocks when the mapper/uploader are behind
+		private void closeWindow() throws InterruptedException {
 			if (LOG.isDebugEnabled()) {
-				LOG.debug("==> buildAndUploadServiceTags()");
+				LOG.debug("==> closeWindow(): " + window);
 			}
 
-			if (CollectionUtils.isNotEmpty(atlasEntitiesWithTags) && CollectionUtils.isNotEmpty(messages)) {
+			windowsToMap.put(window);
 
-				Map<String, ServiceTags> serviceTagsMap = AtlasNotificationMapper.processAtlasEntities(atlasEntitiesWithTags);
-
-				if (MapUtils.isNotEmpty(serviceTagsMap)) {
-					if (serviceTagsMap.size() != 1) {
-						LOG.warn("Unexpected!! Notifications for more than one service received by AtlasTagSource.. Service-Names:[" + serviceTagsMap.keySet() + "]");
-					}
-					for (Map.Entry<String, ServiceTags> entry : serviceTagsMap.entrySet()) {
-						if (isHandlingDeleteOps) {
-							entry.getValue().setOp(ServiceTags.OP_DELETE);
-							entry.getValue().setTagDefinitions(Collections.EMPTY_MAP);
-							entry.getValue().setTags(Collections.EMPTY_MAP);
-						} else {
-							entry.getValue().setOp(ServiceTags.OP_ADD_OR_UPDATE);
-						}
-
-						if (LOG.isDebugEnabled()) {
-							String serviceTagsString = JsonUtils.objectToJson(entry.getValue());
-							LOG.debug("serviceTags=" + serviceTagsString);
-						}
-						updateSink(entry.getValue());
-					}
-				}
-
-				AtlasKafkaMessage<EntityNotification> latestMessageDeliveredToRanger       = messages.get(messages.size() - 1);
-				commitToKafka(latestMessageDeliveredToRanger);
-
-				atlasEntitiesWithTags.clear();
-				messages.clear();
-
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Completed processing batch of messages of size:[" + messages.size() + "] received from NotificationConsumer");
-				}
-
-			}
+			window = new NotificationWindow();
 
 			if (LOG.isDebugEnabled()) {
-				LOG.debug("<== buildAndUploadServiceTags()");
+				LOG.debug("<== closeWindow()");
 			}
 		}
 
@@ -328,5 +343,285 @@ private void commitToKafka(AtlasKafkaMessage<EntityNotification> messageToCommit
 			}
 		}
 	}
-}
 
+	private class MapperRunnable implements Runnable {
+		@Override
+		public void run() {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("==> MapperRunnable.run()");
+			}
+
+			while (true) {
+				try {
+					NotificationWindow window = windowsToMap.take();
+
+					batchesToUpload.put(mapWindow(window));
+				} catch (InterruptedException interrupted) {
+					LOG.error("Interrupted: ", interrupted);
+					LOG.error("Returning from thread. May cause process to be up but not processing events!!");
+					return;
+				}
+			}
+		}
+	}
+
+	private class UploaderRunnable implements Runnable {
+		@Override
+		public void run() {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("==> UploaderRunnable.run()");
+			}
+
+			while (true) {
+				try {
+					uploadBatch(batchesToUpload.take());
+				} catch (InterruptedException interrupted) {
+					LOG.error("Interrupted: ", interrupted);
+					LOG.error("Returning from thread. May cause process to be up but not processing events!!");
+					return;
+				}
+			}
+		}
+	}
+
+	/*
+	 * A window that fails to be mapped - for ex: due to an unexpected notification content - is skipped: an upload batch
+	 * without ServiceTags is returned, so that the offset of the window is still committed after preceding windows are
+	 * uploaded; otherwise the same window would be received and fail again after restart.
+	 */
+	UploadBatch mapWindow(NotificationWindow window) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> mapWindow(" + window + ")");
+		}
+
+		List<ServiceTags> serviceTagsList = new ArrayList<>();
+
+		try {
+			// deletes are uploaded first: a delete that must follow an add/update of the same resource is placed in the next window
+			addServiceTags(window.getEntitiesToDelete(), true, serviceTagsList);
+			addServiceTags(window.getEntitiesToAddOrUpdate(), false, serviceTagsList);
+		} catch (Exception exception) {
+			LOG.error("Failed to map notifications in " + window + ". Skipping these notifications", exception);
+
+			serviceTagsList.clear();
+		}
+
+		UploadBatch ret = new UploadBatch(serviceTagsList, window.getLastMessage(), window.size());
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== mapWindow(" + window + "): serviceTagsCount=" + serviceTagsList.size());
+		}
+
+		return ret;
+	}
+
+	/*
+	 * Retries, with an exponential backoff, until all ServiceTags in the batch are uploaded; offset of the batch is made
+	 * available to the consumer thread for commit only after that.
+	 */
+	void uploadBatch(UploadBatch batch) throws InterruptedException {
+		List<ServiceTags> serviceTagsList = batch.getServiceTags();
+		long              retryInterval   = UPLOAD_RETRY_INITIAL_INTERVAL_IN_MILLIS;
+		int               failureCount    = 0;
+
+		for (int i = 0; i < serviceTagsList.size(); ) {
+			try {
+				updateSink(serviceTagsList.get(i));
+
+				i++;
+
+				retryInterval = UPLOAD_RETRY_INITIAL_INTERVAL_IN_MILLIS;
+				failureCount  = 0;
+			} catch (InterruptedException interrupted) {
+				throw interrupted;
+			} catch (Exception exception) {
+				failureCount++;
+
+				LOG.error("Failed to upload ServiceTags (attempt #" + failureCount + "). Will retry after " + retryInterval + " milliseconds", exception);
+
+				Thread.sleep(retryInterval);
+
+				retryInterval = Math.min(retryInterval * 2, Math.max(uploadRetryMaxIntervalInMillis, UPLOAD_RETRY_INITIAL_INTERVAL_IN_MILLIS));
+			}
+		}
+
+		if (batch.getLastMessage() != null) {
+			lastUploadedMessage.set(batch.getLastMessage());
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Completed processing batch of messages of size:[" + batch.getEntityCount() + "] received from NotificationConsumer");
+		}
+	}
+
+	// returns the last message whose notifications are uploaded, if any since the previous call
+	AtlasKafkaMessage<EntityNotification> pollUploadedMessage() {
+		return lastUploadedMessage.getAndSet(null);
+	}
+
+	Map<String, ServiceTags> processAtlasEntities(List<RangerAtlasEntityWithTags> atlasEntitiesWithTags) throws Exception {
+		return AtlasNotificationMapper.processAtlasEntities(atlasEntitiesWithTags);
+	}
+
+	private void addServiceTags(List<RangerAtlasEntityWithTags> atlasEntitiesWithTags, boolean isDeleteOp, List<ServiceTags> serviceTagsList) throws Exception {
+		if (CollectionUtils.isNotEmpty(atlasEntitiesWithTags)) {
+			Map<String, ServiceTags> serviceTagsMap = processAtlasEntities(atlasEntitiesWithTags);
+
+			if (MapUtils.isNotEmpty(serviceTagsMap)) {
+				if (serviceTagsMap.size() != 1) {
+					LOG.warn("Unexpected!! Notifications for more than one service received by AtlasTagSource.. Service-Names:[" + serviceTagsMap.keySet() + "]");
+				}
+				for (Map.Entry<String, ServiceTags> entry : serviceTagsMap.entrySet()) {
+					if (isDeleteOp) {
+						entry.getValue().setOp(ServiceTags.OP_DELETE);
+						entry.getValue().setTagDefinitions(Collections.EMPTY_MAP);
+						entry.getValue().setTags(Collections.EMPTY_MAP);
+					} else {
+						entry.getValue().setOp(ServiceTags.OP_ADD_OR_UPDATE);
+					}
+
+					if (LOG.isDebugEnabled()) {
+						String serviceTagsString = JsonUtils.objectToJson(entry.getValue());
+						LOG.debug("serviceTags=" + serviceTagsString);
+					}
+
+					serviceTagsList.add(entry.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Notifications collected by the consumer thread, compacted per entity: only the latest notification for an entity is
+	 * retained, as it carries all classifications of the entity.
+	 */
+	static class NotificationWindow {
+		private final Map<String, RangerAtlasEntityWithTags> entitiesToAddOrUpdate = new LinkedHashMap<>();
+		private final Map<String, RangerAtlasEntityWithTags> entitiesToDelete      = new LinkedHashMap<>();
+		private final Map<String, Set<String>>               addOrUpdateGuidsByKey = new HashMap<>();
+		private       AtlasKafkaMessage<EntityNotification>  lastMessage           = null;
+		private       int                                    compactedCount        = 0;
+
+		/**
+		 * Deletes in a window are uploaded before adds/updates. Hence a delete can't be added to this window if an earlier
+		 * add/update in this window, of another entity, is for the same resource - like a table dropped soon after re-creation
+		 */
+		boolean canAdd(EntityNotificationWrapper notification) {
+			boolean ret = true;
+
+			if (notification.getIsEntityDeleteOp()) {
+				RangerAtlasEntity entity = notification.getRangerAtlasEntity();
+				Set<String>       guids  = addOrUpdateGuidsByKey.get(getResourceKey(entity));
+
+				if (guids != null) {
+					for (String guid : guids) {
+						if (!StringUtils.equals(guid, entity.getGuid())) {
+							ret = false;
+
+							break;
+						}
+					}
+				}
+			}
+
+			return ret;
+		}
+
+		void add(EntityNotificationWrapper notification, AtlasKafkaMessage<EntityNotification> message) {
+			RangerAtlasEntity entity = notification.getRangerAtlasEntity();
+			String            guid   = entity.getGuid();
+			String            key    = getResourceKey(entity);
+
+			// remove the superseded notification, so that the order of entities reflects their latest notification
+			RangerAtlasEntityWithTags superseded = entitiesToAddOrUpdate.remove(guid);
+
+			if (superseded != null) {
+				removeAddOrUpdateGuid(getResourceKey(superseded.getEntity()), guid);
+			} else {
+				superseded = entitiesToDelete.remove(guid);
+			}
+
+			if (superseded != null) {
+				compactedCount++;
+			}
+
+			if (notification.getIsEntityDeleteOp()) {
+				entitiesToDelete.put(guid, new RangerAtlasEntityWithTags(notification));
+			} else {
+				entitiesToAddOrUpdate.put(guid, new RangerAtlasEntityWithTags(notification));
+
+				addOrUpdateGuidsByKey.computeIfAbsent(key, k -> new HashSet<>()).add(guid);
+			}
+
+			lastMessage = message;
+		}
+
+		int size() {
+			return entitiesToAddOrUpdate.size() + entitiesToDelete.size();
+		}
+
+		List<RangerAtlasEntityWithTags> getEntitiesToAddOrUpdate() {
+			return new ArrayList<>(entitiesToAddOrUpdate.values());
+		}
+
+		List<RangerAtlasEntityWithTags> getEntitiesToDelete() {
+			return new ArrayList<>(entitiesToDelete.values());
+		}
+
+		AtlasKafkaMessage<EntityNotification> getLastMessage() {
+			return lastMessage;
+		}
+
+		void setLastMessage(AtlasKafkaMessage<EntityNotification> lastMessage) {
+			this.lastMessage = lastMessage;
+		}
+
+		@Override
+		public String toString() {
+			return "NotificationWindow={addOrUpdateCount=" + entitiesToAddOrUpdate.size() + ", deleteCount=" + entitiesToDelete.size() +
+			       ", compactedCount=" + compactedCount + ", lastMessageOffset=" + (lastMessage != null ? lastMessage.getOffset() : null) + "}";
+		}
+
+		private void removeAddOrUpdateGuid(String key, String guid) {
+			Set<String> guids = addOrUpdateGuidsByKey.get(key);
+
+			if (guids != null) {
+				guids.remove(guid);
+
+				if (guids.isEmpty()) {
+					addOrUpdateGuidsByKey.remove(key);
+				}
+			}
+		}
+
+		private static String getResourceKey(RangerAtlasEntity entity) {
+			Object qualifiedName = entity.getAttributes() != null ? entity.getAttributes().get(AtlasResourceMapper.ENTITY_ATTRIBUTE_QUALIFIED_NAME) : null;
+
+			return entity.getTypeName() + ":" + (qualifiedName != null ? qualifiedName.toString() : entity.getGuid());
+		}
+	}
+
+	static class UploadBatch {
+		private final List<ServiceTags>                     serviceTags;
+		private final AtlasKafkaMessage<EntityNotification> lastMessage;
+		private final int                                   entityCount;
+
+		UploadBatch(List<ServiceTags> serviceTags, AtlasKafkaMessage<EntityNotification> lastMessage, int entityCount) {
+			this.serviceTags = serviceTags;
+			this.lastMessage = lastMessage;
+			this.entityCount = entityCount;
+		}
+
+		List<ServiceTags> getServiceTags() {
+			return serviceTags;
+		}
+
+		AtlasKafkaMessage<EntityNotification> getLastMessage() {
+			return lastMessage;
+		}
+
+		int getEntityCount() {
+			return entityCount;
+		}
+	}
+}
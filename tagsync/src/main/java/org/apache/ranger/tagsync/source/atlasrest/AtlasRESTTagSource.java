@@ -21,6 +21,7 @@
 
 import org.apache.atlas.AtlasClientV2;
 import org.apache.atlas.AtlasServiceException;
+import org.apache.atlas.SortOrder;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.SearchFilter;
 import org.apache.atlas.model.TimeBoundary;
@@ -58,13 +59,19 @@
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class AtlasRESTTagSource extends AbstractTagSource implements Runnable {
 	private static final Logger LOG = LoggerFactory.getLogger(AtlasRESTTagSource.class);
@@ -87,7 +94,18 @@ protected DateFormat initialValue() {
 	private String[] userNamePassword = null;
 	private int      entitiesBatchSize = TagSyncConfig.DEFAULT_TAGSYNC_ATLASREST_SOURCE_ENTITIES_BATCH_SIZE;
 
-	private Thread myThread = null;
+	private static final String ATTRIBUTE_MODIFICATION_TIMESTAMP        = "__modificationTimestamp";
+	private static final long   MODIFICATION_TIME_CURSOR_OVERLAP_MILLIS = 60 * 1000L; // allows for clock skew between tagsync and Atlas hosts
+
+	private boolean isIncrementalEnabled     = false;
+	private long    fullSyncIntervalInMillis;
+	private int     downloadThreads;
+	private long    lastFullSyncTime         = -1L;
+
+	private final Map<String, Long> modificationTimeCursors = new HashMap<>(); // entity-type -> start time of its last successful download
+
+	private Thread          myThread         = null;
+	private ExecutorService downloadExecutor = null;
 
 	public static void main(String[] args) {
 
@@ -142,6 +160,9 @@ public boolean initialize(Properties properties) {
 		sleepTimeBetweenCycleInMillis = TagSyncConfig.getTagSourceAtlasDownloadIntervalInMillis(properties);
 		isKerberized = TagSyncConfig.getTagsyncKerberosIdentity(properties) != null;
 		entitiesBatchSize = TagSyncConfig.getAtlasRestSourceEntitiesBatchSize(properties);
+		isIncrementalEnabled = TagSyncConfig.isAtlasRestSourceIncrementalEnabled(properties);
+		fullSyncIntervalInMillis = TagSyncConfig.getAtlasRestSourceFullSyncIntervalInMillis(properties);
+		downloadThreads = TagSyncConfig.getAtlasRestSourceDownloadThreads(properties);
 
 		String restEndpoint       = TagSyncConfig.getAtlasRESTEndpoint(properties);
 		String sslConfigFile = TagSyncConfig.getAtlasRESTSslConfigFile(properties);
@@ -152,6 +173,9 @@ public boolean initialize(Properties properties) {
 			LOG.debug("sslConfigFile=" + sslConfigFile);
 			LOG.debug("userName=" + userNamePassword[0]);
 			LOG.debug("kerberized=" + isKerberized);
+			LOG.debug("incrementalEnabled=" + isIncrementalEnabled);
+			LOG.debug("fullSyncIntervalInMillis=" + fullSyncIntervalInMillis);
+			LOG.debug("downloadThreads=" + downloadThreads);
 		}
         if (StringUtils.isNotEmpty(restEndpoint)) {
             this.restUrls = restEndpoint.split(",");
@@ -176,6 +200,16 @@ public boolean initialize(Properties properties) {
 	@Override
 	public boolean start() {
 
+		if (isIncrementalEnabled) {
+			downloadExecutor = Executors.newFixedThreadPool(downloadThreads, runnable -> {
+				Thread thread = new Thread(runnable, "AtlasRESTTagSource-download");
+
+				thread.setDaemon(true);
+
+				return thread;
+			});
+		}
+
 		myThread = new Thread(this);
 		myThread.setDaemon(true);
 		myThread.start();
@@ -188,6 +222,10 @@ public void stop() {
 		if (myThread != null && myThread.isAlive()) {
 			myThread.interrupt();
 		}
+
+		if (downloadExecutor != null) {
+			downloadExecutor.shutdownNow();
+		}
 	}
 
 	@Override
@@ -201,7 +239,19 @@ public void run() {
                         if (LOG.isDebugEnabled()) {
                             LOG.debug("==> AtlasRESTTagSource.run() is running as server is Active");
                         }
-                        synchUp();
+                        if (isIncrementalEnabled && lastFullSyncTime != -1L && (System.currentTimeMillis() - lastFullSyncTime) < fullSyncIntervalInMillis) {
+                            synchUpIncremental();
+                        } else {
+                            long syncStartTime = System.currentTimeMillis();
+
+                            if (synchUp()) {
+                                lastFullSyncTime = syncStartTime;
+
+                                for (String typeName : AtlasResourceMapperUtil.getHandledEntityTypes()) {
+                                    modificationTimeCursors.put(typeName, syncStartTime);
+                                }
+                            }
+                        }
                     }else{
                         if (LOG.isDebugEnabled()) {
                             LOG.debug("==> This server is running passive mode");
@@ -221,7 +271,12 @@ public void run() {
         }
     }
 
-	public void synchUp() throws Exception {
+	/**
+	 * Downloads all tagged entities from Atlas and replaces the tags of each service in Ranger
+	 *
+	 * @return false if the download from Atlas failed
+	 */
+	public boolean synchUp() throws Exception {
 		List<RangerAtlasEntityWithTags> rangerAtlasEntities = getAtlasActiveEntities();
 
 		if (CollectionUtils.isNotEmpty(rangerAtlasEntities)) {
@@ -247,6 +302,256 @@ public void synchUp() throws Exception {
 			}
 		}
 
+		return rangerAtlasEntities != null;
+	}
+
+	/**
+	 * Downloads, in parallel for each entity type, the entities modified in Atlas since the last successful download of
+	 * the type and uploads only their tags. The cursor of an entity type is advanced only after its changes are uploaded.
+	 * Entities hard-deleted in Atlas are not seen here; these are handled by the periodic full sync.
+	 */
+	private void synchUpIncremental() throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> synchUpIncremental()");
+		}
+
+		AtlasTypeRegistry typeRegistry = getAtlasTypeRegistry();
+
+		if (typeRegistry != null) {
+			Map<String, Future<EntityTypeChanges>> downloads = new LinkedHashMap<>();
+
+			for (String typeName : AtlasResourceMapperUtil.getHandledEntityTypes()) {
+				final long modifiedAfter = getModifiedAfter(modificationTimeCursors.get(typeName), lastFullSyncTime);
+
+				downloads.put(typeName, downloadExecutor.submit(() -> getModifiedEntities(typeRegistry, typeName, modifiedAfter)));
+			}
+
+			for (Map.Entry<String, Future<EntityTypeChanges>> entry : downloads.entrySet()) {
+				String            typeName = entry.getKey();
+				EntityTypeChanges changes;
+
+				try {
+					changes = entry.getValue().get();
+				} catch (ExecutionException excp) {
+					LOG.error("Failed to download modified entities of type:[" + typeName + "] from Atlas. Will retry in next cycle", excp.getCause());
+
+					continue;
+				}
+
+				uploadChanges(typeName, changes);
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== synchUpIncremental()");
+		}
+	}
+
+	// start of the modification-time window to download for an entity type; overlaps with the previous window to allow for clock skew
+	static long getModifiedAfter(Long cursor, long lastFullSyncTime) {
+		return (cursor != null ? cursor : lastFullSyncTime) - MODIFICATION_TIME_CURSOR_OVERLAP_MILLIS;
+	}
+
+	/*
+	 * Uploads deletes first, then adds/updates. The cursor of the entity type is advanced only when both are mapped and
+	 * uploaded; otherwise the same window is downloaded again in the next cycle.
+	 */
+	boolean uploadChanges(String typeName, EntityTypeChanges changes) {
+		boolean ret;
+
+		try {
+			ret = uploadServiceTags(changes.entitiesToDelete, ServiceTags.OP_DELETE) &&
+			      uploadServiceTags(changes.entitiesToAddOrUpdate, ServiceTags.OP_ADD_OR_UPDATE);
+		} catch (Exception excp) {
+			LOG.error("Failed to upload changes to entities of type:[" + typeName + "]. Will retry in next cycle", excp);
+
+			ret = false;
+		}
+
+		if (ret) {
+			modificationTimeCursors.put(typeName, changes.downloadStartTime);
+		} else {
+			LOG.error("Changes to entities of type:[" + typeName + "] are not uploaded. Will retry in next cycle");
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("typeName=" + typeName + ": addOrUpdateCount=" + changes.entitiesToAddOrUpdate.size() + ", deleteCount=" + changes.entitiesToDelete.size() + ", uploaded=" + ret);
+		}
+
+		return ret;
+	}
+
+	Long getModificationTimeCursor(String typeName) {
+		return modificationTimeCursors.get(typeName);
+	}
+
+	/*
+	 * Pages through the entities sorted by modification time, with a keyset on the modification time instead of an offset
+	 * over the whole result: the result grows while it is paged, as entities continue to be modified in Atlas. Each page
+	 * is searched for entities modified at or after the last seen modification time, skipping those already received
+	 * with that modification time. An entity received more than once is recorded with its latest state.
+	 */
+	EntityTypeChanges getModifiedEntities(AtlasTypeRegistry typeRegistry, String typeName, long modifiedAfter) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> getModifiedEntities(typeName=" + typeName + ", modifiedAfter=" + modifiedAfter + ")");
+		}
+
+		EntityTypeChanges                      ret                = new EntityTypeChanges(System.currentTimeMillis());
+		AtlasClientV2                          atlasClient        = getAtlasClient();
+		SearchParameters                       searchParams       = new SearchParameters();
+		SearchParameters.FilterCriteria        filter             = new SearchParameters.FilterCriteria();
+		Map<String, RangerAtlasEntityWithTags> entitiesByGuid     = new LinkedHashMap<>();
+		Map<String, Boolean>                   isDeleteByGuid     = new HashMap<>();
+		long                                   lastSeenTimestamp  = modifiedAfter;
+		int                                    countAtLastSeen    = 0;
+
+		filter.setAttributeName(ATTRIBUTE_MODIFICATION_TIMESTAMP);
+		filter.setOperator(SearchParameters.Operator.GTE);
+
+		// entities without classifications and deleted entities are included, to remove their tags from Ranger
+		searchParams.setTypeName(typeName);
+		searchParams.setEntityFilters(filter);
+		searchParams.setExcludeDeletedEntities(false);
+		searchParams.setIncludeClassificationAttributes(true);
+		searchParams.setAttributes(Collections.singleton(ATTRIBUTE_MODIFICATION_TIMESTAMP));
+		searchParams.setSortBy(ATTRIBUTE_MODIFICATION_TIMESTAMP);
+		searchParams.setSortOrder(SortOrder.ASCENDING);
+		searchParams.setLimit(entitiesBatchSize);
+
+		while (true) {
+			filter.setAttributeValue(Long.toString(lastSeenTimestamp));
+			searchParams.setOffset(countAtLastSeen);
+
+			AtlasSearchResult       searchResult  = atlasClient.facetedSearch(searchParams);
+			List<AtlasEntityHeader> entityHeaders = searchResult != null ? searchResult.getEntities() : null;
+
+			if (CollectionUtils.isEmpty(entityHeaders)) {
+				break;
+			}
+
+			for (AtlasEntityHeader header : entityHeaders) {
+				Long modificationTime = getModificationTimestamp(header);
+
+				// without the modification time, paging continues by offset from the last seen modification time
+				if (modificationTime != null && modificationTime > lastSeenTimestamp) {
+					lastSeenTimestamp = modificationTime;
+					countAtLastSeen   = 0;
+				}
+
+				countAtLastSeen++;
+
+				RangerAtlasEntity                                         entity   = new RangerAtlasEntity(header.getTypeName(), header.getGuid(), header.getAttributes());
+				List<EntityNotificationWrapper.RangerAtlasClassification> tags     = AtlasEntity.Status.ACTIVE.equals(header.getStatus()) ? getTags(typeRegistry, header) : null;
+				boolean                                                   isDelete = CollectionUtils.isEmpty(tags);
+
+				entitiesByGuid.remove(header.getGuid()); // to order by the latest modification
+				entitiesByGuid.put(header.getGuid(), new RangerAtlasEntityWithTags(entity, isDelete ? Collections.emptyList() : tags, typeRegistry));
+				isDeleteByGuid.put(header.getGuid(), isDelete);
+			}
+
+			if (entityHeaders.size() < entitiesBatchSize) {
+				break;
+			}
+		}
+
+		for (Map.Entry<String, RangerAtlasEntityWithTags> entry : entitiesByGuid.entrySet()) {
+			if (isDeleteByGuid.get(entry.getKey())) {
+				ret.entitiesToDelete.add(entry.getValue());
+			} else {
+				ret.entitiesToAddOrUpdate.add(entry.getValue());
+			}
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== getModifiedEntities(typeName=" + typeName + ", modifiedAfter=" + modifiedAfter + "): addOrUpdateCount=" + ret.entitiesToAddOrUpdate.size() + ", deleteCount=" + ret.entitiesToDelete.size());
+		}
+
+		return ret;
+	}
+
+	// returns false when the entities could not be mapped to ServiceTags
+	private boolean uploadServiceTags(List<RangerAtlasEntityWithTags> entities, String op) throws Exception {
+		boolean ret = true;
+
+		if (CollectionUtils.isNotEmpty(entities)) {
+			Map<String, ServiceTags> serviceTagsMap = processAtlasEntities(entities);
+
+			if (serviceTagsMap == null) {
+				ret = false;
+			} else {
+				for (ServiceTags serviceTags : serviceTagsMap.values()) {
+					serviceTags.setOp(op);
+
+					if (StringUtils.equals(op, ServiceTags.OP_DELETE)) {
+						serviceTags.setTagDefinitions(Collections.emptyMap());
+						serviceTags.setTags(Collections.emptyMap());
+					}
+
+					updateSink(serviceTags);
+				}
+			}
+		}
+
+		return ret;
+	}
+
+	Map<String, ServiceTags> processAtlasEntities(List<RangerAtlasEntityWithTags> atlasEntitiesWithTags) {
+		return AtlasNotificationMapper.processAtlasEntities(atlasEntitiesWithTags);
+	}
+
+	private static Long getModificationTimestamp(AtlasEntityHeader header) {
+		Object value = header.getAttributes() != null ? header.getAttributes().get(ATTRIBUTE_MODIFICATION_TIMESTAMP) : null;
+		Long   ret   = null;
+
+		if (value instanceof Number) {
+			ret = ((Number) value).longValue();
+		} else if (value instanceof String) {
+			try {
+				ret = Long.parseLong((String) value);
+			} catch (NumberFormatException excp) {
+				LOG.warn("Invalid " + ATTRIBUTE_MODIFICATION_TIMESTAMP + " value:[" + value + "] for entity:[" + header.getGuid() + "]");
+			}
+		}
+
+		return ret;
+	}
+
+	private AtlasTypeRegistry getAtlasTypeRegistry() {
+		AtlasTypeRegistry                            ret           = new AtlasTypeRegistry();
+		AtlasTypeRegistry.AtlasTransientTypeRegistry tty           = null;
+		boolean                                      commitUpdates = false;
+
+		try {
+			AtlasTypesDef typesDef = getAtlasClient().getAllTypeDefs(new SearchFilter());
+
+			tty = ret.lockTypeRegistryForUpdate();
+			tty.addTypes(typesDef);
+			commitUpdates = true;
+		} catch (Exception excp) {
+			LOG.error("failed to download type definitions from Atlas", excp);
+		} finally {
+			if (tty != null) {
+				ret.releaseTypeRegistryForUpdate(tty, commitUpdates);
+			}
+		}
+
+		return commitUpdates ? ret : null;
+	}
+
+	private List<EntityNotificationWrapper.RangerAtlasClassification> getTags(AtlasTypeRegistry typeRegistry, AtlasEntityHeader header) {
+		List<EntityNotificationWrapper.RangerAtlasClassification> ret = new ArrayList<>();
+
+		if (header.getClassifications() != null) {
+			for (AtlasClassification classification : header.getClassifications()) {
+				List<EntityNotificationWrapper.RangerAtlasClassification> tags = resolveTag(typeRegistry, classification);
+
+				if (tags != null) {
+					ret.addAll(tags);
+				}
+			}
+		}
+
+		return ret;
 	}
 
     private List<RangerAtlasEntityWithTags> getAtlasActiveEntities() {
@@ -331,14 +636,7 @@ private List<RangerAtlasEntityWithTags> getAtlasActiveEntities() {
                                 continue;
                             }
 
-                            List<EntityNotificationWrapper.RangerAtlasClassification> allTagsForEntity = new ArrayList<>();
-
-                            for (AtlasClassification classification : header.getClassifications()) {
-                                List<EntityNotificationWrapper.RangerAtlasClassification> tags = resolveTag(typeRegistry, classification);
-                                if (tags != null) {
-                                    allTagsForEntity.addAll(tags);
-                                }
-                            }
+                            List<EntityNotificationWrapper.RangerAtlasClassification> allTagsForEntity = getTags(typeRegistry, header);
 
                             if (CollectionUtils.isNotEmpty(allTagsForEntity)) {
                                 RangerAtlasEntity entity = new RangerAtlasEntity(typeName, header.getGuid(), header.getAttributes());
@@ -443,7 +741,7 @@ private List<EntityNotificationWrapper.RangerAtlasClassification> resolveTag(Atl
         return ret;
     }
 
-	private AtlasClientV2 getAtlasClient() throws IOException {
+	AtlasClientV2 getAtlasClient() throws IOException {
 		final AtlasClientV2 ret;
 
 		if (isKerberized) {
@@ -458,5 +756,15 @@ private AtlasClientV2 getAtlasClient() throws IOException {
 
 		return ret;
 	}
+
+	static class EntityTypeChanges {
+		final long                            downloadStartTime;
+		final List<RangerAtlasEntityWithTags> entitiesToAddOrUpdate = new ArrayList<>();
+		final List<RangerAtlasEntityWithTags> entitiesToDelete      = new ArrayList<>();
+
+		EntityTypeChanges(long downloadStartTime) {
+			this.downloadStartTime = downloadStartTime;
+		}
+	}
 }
 
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.tagsync.source.atlas;
+
+import org.apache.atlas.kafka.AtlasKafkaMessage;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.notification.EntityNotification;
+import org.apache.atlas.model.notification.EntityNotification.EntityNotificationV2;
+import org.apache.atlas.model.notification.EntityNotification.EntityNotificationV2.OperationType;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.apache.ranger.tagsync.source.atlasrest.RangerAtlasEntityWithTags;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestAtlasTagSource {
+	private static final String TYPE_HIVE_TABLE = "hive_table";
+	private static final String QNAME_TABLE_1   = "db1.tbl1@cl1";
+	private static final String QNAME_TABLE_2   = "db1.tbl2@cl1";
+
+	private long nextOffset = 0;
+
+	@Test
+	public void testDeletesBeforeAddOrUpdates() {
+		AtlasTagSource.NotificationWindow window = new AtlasTagSource.NotificationWindow();
+
+		addToWindow(window, notification("guid-1", QNAME_TABLE_1, OperationType.ENTITY_CREATE));
+		addToWindow(window, notification("guid-2", QNAME_TABLE_2, OperationType.ENTITY_DELETE));
+
+		assertEquals(2, window.size());
+		assertEquals(Collections.singletonList("guid-2"), getGuids(window.getEntitiesToDelete()));
+		assertEquals(Collections.singletonList("guid-1"), getGuids(window.getEntitiesToAddOrUpdate()));
+
+		final List<Boolean> deleteOps = new ArrayList<>();
+
+		AtlasTagSource tagSource = new AtlasTagSource() {
+			@Override
+			Map<String, ServiceTags> processAtlasEntities(List<RangerAtlasEntityWithTags> atlasEntitiesWithTags) {
+				deleteOps.add("guid-2".equals(atlasEntitiesWithTags.get(0).getEntity().getGuid()));
+
+				return Collections.singletonMap("cl1_hive", new ServiceTags());
+			}
+		};
+
+		AtlasTagSource.UploadBatch batch = tagSource.mapWindow(window);
+
+		assertEquals(2, batch.getServiceTags().size());
+		assertEquals(ServiceTags.OP_DELETE, batch.getServiceTags().get(0).getOp());
+		assertEquals(ServiceTags.OP_ADD_OR_UPDATE, batch.getServiceTags().get(1).getOp());
+		assertEquals(Boolean.TRUE, deleteOps.get(0));
+		assertEquals(Boolean.FALSE, deleteOps.get(1));
+		assertSame(window.getLastMessage(), batch.getLastMessage());
+	}
+
+	@Test
+	public void testWindowClosesOnDeleteAfterAddOfSameQualifiedName() {
+		AtlasTagSource.NotificationWindow window = new AtlasTagSource.NotificationWindow();
+
+		addToWindow(window, notification("guid-1", QNAME_TABLE_1, OperationType.ENTITY_CREATE));
+
+		// table dropped and re-created: delete of the old entity and create of the new entity can share a window
+		assertTrue(window.canAdd(notification("guid-0", QNAME_TABLE_2, OperationType.ENTITY_DELETE)));
+		assertTrue(window.canAdd(notification("guid-1", QNAME_TABLE_1, OperationType.ENTITY_DELETE)));
+		assertTrue(window.canAdd(notification("guid-3", QNAME_TABLE_1, OperationType.ENTITY_CREATE)));
+
+		// re-created table dropped: delete would be uploaded before the create of the same resource, hence must go to the next window
+		assertFalse(window.canAdd(notification("guid-2", QNAME_TABLE_1, OperationType.ENTITY_DELETE)));
+	}
+
+	@Test
+	public void testLaterNotificationSupersedesEarlierForSameGuid() {
+		AtlasTagSource.NotificationWindow window = new AtlasTagSource.NotificationWindow();
+
+		addToWindow(window, notification("guid-1", QNAME_TABLE_1, OperationType.ENTITY_CREATE));
+		addToWindow(window, notification("guid-1", QNAME_TABLE_1, OperationType.ENTITY_UPDATE));
+
+		assertEquals(1, window.size());
+
+		addToWindow(window, notification("guid-1", QNAME_TABLE_1, OperationType.ENTITY_DELETE));
+
+		assertEquals(1, window.size());
+		assertTrue(window.getEntitiesToAddOrUpdate().isEmpty());
+		assertEquals(Collections.singletonList("guid-1"), getGuids(window.getEntitiesToDelete()));
+
+		// after the add/update of guid-1 is superseded by its delete, delete of another entity with same qualifiedName can be added
+		assertTrue(window.canAdd(notification("guid-2", QNAME_TABLE_1, OperationType.ENTITY_DELETE)));
+	}
+
+	@Test
+	public void testFailedWindowIsSkippedWithItsOffset() {
+		AtlasTagSource.NotificationWindow window = new AtlasTagSource.NotificationWindow();
+
+		addToWindow(window, notification("guid-1", QNAME_TABLE_1, OperationType.ENTITY_CREATE));
+
+		AtlasTagSource tagSource = new AtlasTagSource() {
+			@Override
+			Map<String, ServiceTags> processAtlasEntities(List<RangerAtlasEntityWithTags> atlasEntitiesWithTags) {
+				throw new IllegalStateException("mapping failed");
+			}
+		};
+
+		AtlasTagSource.UploadBatch batch = tagSource.mapWindow(window);
+
+		assertNotNull(batch);
+		assertTrue(batch.getServiceTags().isEmpty());
+		assertEquals(1, batch.getEntityCount());
+		assertSame(window.getLastMessage(), batch.getLastMessage());
+	}
+
+	@Test
+	public void testOffsetAvailableForCommitOnlyAfterUpload() throws Exception {
+		final CountDownLatch                       uploadStarted = new CountDownLatch(1);
+		final CountDownLatch                       allowUpload   = new CountDownLatch(1);
+		final AtomicInteger                        attemptCount  = new AtomicInteger();
+		final AtomicReference<InterruptedException> interrupted  = new AtomicReference<>();
+
+		final AtlasTagSource tagSource = new AtlasTagSource() {
+			@Override
+			protected void updateSink(ServiceTags toUpload) throws Exception {
+				if (attemptCount.incrementAndGet() == 1) {
+					throw new Exception("upload failed");
+				}
+
+				uploadStarted.countDown();
+				allowUpload.await();
+			}
+		};
+
+		AtlasKafkaMessage<EntityNotification>  message = message(notification("guid-1", QNAME_TABLE_1, OperationType.ENTITY_CREATE));
+		final AtlasTagSource.UploadBatch       batch   = new AtlasTagSource.UploadBatch(Collections.singletonList(new ServiceTags()), message, 1);
+
+		Thread uploader = new Thread(() -> {
+			try {
+				tagSource.uploadBatch(batch);
+			} catch (InterruptedException excp) {
+				interrupted.set(excp);
+			}
+		});
+
+		uploader.start();
+
+		assertTrue(uploadStarted.await(10, TimeUnit.SECONDS));
+		assertNull("offset must not be committed before upload completes", tagSource.pollUploadedMessage());
+
+		allowUpload.countDown();
+		uploader.join(10000);
+
+		assertNull(interrupted.get());
+		assertEquals(2, attemptCount.get());
+		assertSame(message, tagSource.pollUploadedMessage());
+		assertNull(tagSource.pollUploadedMessage());
+	}
+
+	private void addToWindow(AtlasTagSource.NotificationWindow window, EntityNotificationWrapper notification) {
+		assertTrue(window.canAdd(notification));
+
+		window.add(notification, message(notification));
+	}
+
+	private AtlasKafkaMessage<EntityNotification> message(EntityNotificationWrapper notification) {
+		return new AtlasKafkaMessage<>(null, nextOffset++, "ATLAS_ENTITIES", 0);
+	}
+
+	private static EntityNotificationWrapper notification(String guid, String qualifiedName, OperationType operationType) {
+		Map<String, Object> attributes = new HashMap<>();
+
+		attributes.put(AtlasResourceMapper.ENTITY_ATTRIBUTE_QUALIFIED_NAME, qualifiedName);
+
+		AtlasEntityHeader entity = new AtlasEntityHeader(TYPE_HIVE_TABLE, attributes);
+
+		entity.setGuid(guid);
+		entity.setStatus(operationType == OperationType.ENTITY_DELETE ? AtlasEntity.Status.DELETED : AtlasEntity.Status.ACTIVE);
+
+		return new EntityNotificationWrapper(new EntityNotificationV2(entity, operationType));
+	}
+
+	private static List<String> getGuids(List<RangerAtlasEntityWithTags> entities) {
+		List<String> ret = new ArrayList<>();
+
+		for (RangerAtlasEntityWithTags entity : entities) {
+			ret.add(entity.getEntity().getGuid());
+		}
+
+		return ret;
+	}
+}
@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.ranger.tagsync.source.atlasrest;
+
+import org.apache.atlas.AtlasClientV2;
+import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.ranger.plugin.util.ServiceTags;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestAtlasRESTTagSource {
+	private static final String TYPE_HIVE_TABLE = "hive_table";
+	private static final String TAG_PII         = "PII";
+
+	private final List<AtlasEntityHeader> atlasEntities = new ArrayList<>();
+	private final List<String>            uploadedOps   = new ArrayList<>();
+	private       Runnable                afterSearch   = null;
+	private       int                     searchCount   = 0;
+	private       boolean                 failMapping   = false;
+	private       boolean                 failUpload    = false;
+
+	private AtlasRESTTagSource tagSource;
+	private AtlasTypeRegistry  typeRegistry;
+
+	@Before
+	public void setUp() throws Exception {
+		AtlasClientV2 atlasClient = Mockito.mock(AtlasClientV2.class);
+
+		Mockito.when(atlasClient.facetedSearch(Mockito.any(SearchParameters.class))).thenAnswer(invocation -> search(invocation.getArgument(0)));
+
+		tagSource = new AtlasRESTTagSource() {
+			@Override
+			AtlasClientV2 getAtlasClient() {
+				return atlasClient;
+			}
+
+			@Override
+			Map<String, ServiceTags> processAtlasEntities(List<RangerAtlasEntityWithTags> atlasEntitiesWithTags) {
+				return failMapping ? null : Collections.singletonMap("cl1_hive", new ServiceTags());
+			}
+
+			@Override
+			protected void updateSink(ServiceTags toUpload) throws Exception {
+				if (failUpload) {
+					throw new Exception("upload failed");
+				}
+
+				uploadedOps.add(toUpload.getOp());
+			}
+		};
+
+		Properties properties = new Properties();
+
+		properties.setProperty("ranger.tagsync.source.atlasrest.endpoint", "http://localhost:21000");
+		properties.setProperty("ranger.tagsync.source.atlasrest.entities.batch.size", "2");
+
+		tagSource.initialize(properties);
+
+		typeRegistry = new AtlasTypeRegistry();
+
+		AtlasTypeRegistry.AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+		ttr.addType(new AtlasClassificationDef(TAG_PII));
+
+		typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+	}
+
+	@Test
+	public void testModifiedAfterOverlapsCursor() {
+		long overlap = AtlasRESTTagSource.getModifiedAfter(null, 0L) * -1;
+
+		assertTrue(overlap > 0);
+		assertEquals(1000000L - overlap, AtlasRESTTagSource.getModifiedAfter(null, 1000000L)); // no cursor yet: from the last full sync
+		assertEquals(2000000L - overlap, AtlasRESTTagSource.getModifiedAfter(2000000L, 1000000L));
+	}
+
+	@Test
+	public void testPagingWhileEntitiesAreModified() throws Exception {
+		for (int i = 1; i <= 5; i++) {
+			addEntity("guid-" + i, i * 100L, AtlasEntity.Status.ACTIVE, TAG_PII);
+		}
+
+		// after the first page: guid-1 is modified again, moving to the end of the result, and guid-6 is created
+		afterSearch = () -> {
+			if (searchCount == 1) {
+				atlasEntities.get(0).setAttribute("__modificationTimestamp", 600L);
+
+				addEntity("guid-6", 700L, AtlasEntity.Status.ACTIVE, TAG_PII);
+			}
+		};
+
+		AtlasRESTTagSource.EntityTypeChanges changes = tagSource.getModifiedEntities(typeRegistry, TYPE_HIVE_TABLE, 0L);
+
+		// with offset paging, guid-3 would shift to the first page after guid-1 is modified, hence be missed
+		assertEquals(Collections.emptyList(), getGuids(changes.entitiesToDelete));
+		assertEquals(listOf("guid-2", "guid-3", "guid-4", "guid-5", "guid-1", "guid-6"), getGuids(changes.entitiesToAddOrUpdate));
+	}
+
+	@Test
+	public void testPagingEntitiesWithSameModificationTime() throws Exception {
+		for (int i = 1; i <= 5; i++) {
+			addEntity("guid-" + i, 100L, AtlasEntity.Status.ACTIVE, TAG_PII);
+		}
+
+		addEntity("guid-6", 200L, AtlasEntity.Status.ACTIVE, TAG_PII);
+
+		AtlasRESTTagSource.EntityTypeChanges changes = tagSource.getModifiedEntities(typeRegistry, TYPE_HIVE_TABLE, 0L);
+
+		assertEquals(listOf("guid-1", "guid-2", "guid-3", "guid-4", "guid-5", "guid-6"), getGuids(changes.entitiesToAddOrUpdate));
+	}
+
+	@Test
+	public void testDeleteAndAddOrUpdateSplit() throws Exception {
+		addEntity("guid-tagged", 100L, AtlasEntity.Status.ACTIVE, TAG_PII);
+		addEntity("guid-untagged", 200L, AtlasEntity.Status.ACTIVE, null);
+		addEntity("guid-deleted", 300L, AtlasEntity.Status.DELETED, TAG_PII);
+
+		AtlasRESTTagSource.EntityTypeChanges changes = tagSource.getModifiedEntities(typeRegistry, TYPE_HIVE_TABLE, 0L);
+
+		assertEquals(listOf("guid-tagged"), getGuids(changes.entitiesToAddOrUpdate));
+		assertEquals(listOf("guid-untagged", "guid-deleted"), getGuids(changes.entitiesToDelete));
+		assertEquals(TAG_PII, changes.entitiesToAddOrUpdate.get(0).getTags().get(0).getName());
+	}
+
+	@Test
+	public void testCursorAdvancedOnlyAfterUpload() throws Exception {
+		addEntity("guid-tagged", 100L, AtlasEntity.Status.ACTIVE, TAG_PII);
+		addEntity("guid-deleted", 200L, AtlasEntity.Status.DELETED, TAG_PII);
+
+		AtlasRESTTagSource.EntityTypeChanges changes = tagSource.getModifiedEntities(typeRegistry, TYPE_HIVE_TABLE, 0L);
+
+		failMapping = true;
+
+		assertFalse(tagSource.uploadChanges(TYPE_HIVE_TABLE, changes));
+		assertNull(tagSource.getModificationTimeCursor(TYPE_HIVE_TABLE));
+
+		failMapping = false;
+		failUpload  = true;
+
+		assertFalse(tagSource.uploadChanges(TYPE_HIVE_TABLE, changes));
+		assertNull(tagSource.getModificationTimeCursor(TYPE_HIVE_TABLE));
+
+		failUpload = false;
+
+		assertTrue(tagSource.uploadChanges(TYPE_HIVE_TABLE, changes));
+		assertEquals(Long.valueOf(changes.downloadStartTime), tagSource.getModificationTimeCursor(TYPE_HIVE_TABLE));
+		assertEquals(listOf(ServiceTags.OP_DELETE, ServiceTags.OP_ADD_OR_UPDATE), uploadedOps);
+	}
+
+	private AtlasSearchResult search(SearchParameters searchParams) {
+		long                    modifiedFrom = Long.parseLong(searchParams.getEntityFilters().getAttributeValue());
+		List<AtlasEntityHeader> matched      = new ArrayList<>();
+
+		for (AtlasEntityHeader entity : atlasEntities) {
+			if (getModificationTime(entity) >= modifiedFrom) {
+				matched.add(entity);
+			}
+		}
+
+		matched.sort(Comparator.comparingLong(TestAtlasRESTTagSource::getModificationTime));
+
+		int               fromIndex = Math.min(searchParams.getOffset(), matched.size());
+		int               toIndex   = Math.min(fromIndex + searchParams.getLimit(), matched.size());
+		AtlasSearchResult ret       = new AtlasSearchResult();
+
+		ret.setEntities(new ArrayList<>(matched.subList(fromIndex, toIndex)));
+
+		searchCount++;
+
+		if (afterSearch != null) {
+			afterSearch.run();
+		}
+
+		return ret;
+	}
+
+	private void addEntity(String guid, long modificationTime, AtlasEntity.Status status, String tagType) {
+		Map<String, Object> attributes = new HashMap<>();
+
+		attributes.put("qualifiedName", "db1." + guid + "@cl1");
+		attributes.put("__modificationTimestamp", modificationTime);
+
+		AtlasEntityHeader entity = new AtlasEntityHeader(TYPE_HIVE_TABLE, attributes);
+
+		entity.setGuid(guid);
+		entity.setStatus(status);
+
+		if (tagType != null) {
+			entity.setClassifications(Collections.singletonList(new AtlasClassification(tagType)));
+		}
+
+		atlasEntities.add(entity);
+	}
+
+	private static long getModificationTime(AtlasEntityHeader entity) {
+		return ((Number) entity.getAttribute("__modificationTimestamp")).longValue();
+	}
+
+	private static List<String> getGuids(List<RangerAtlasEntityWithTags> entities) {
+		List<String> ret = new ArrayList<>();
+
+		for (RangerAtlasEntityWithTags entity : entities) {
+			ret.add(entity.getEntity().getGuid());
+		}
+
+		return ret;
+	}
+
+	private static List<String> listOf(String... values) {
+		List<String> ret = new ArrayList<>();
+
+		Collections.addAll(ret, values);
+
+		return ret;
+	}
+}
@@ -20,9 +20,12 @@
 package org.apache.ranger.ldapusersync.process;
 
 
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -33,6 +36,13 @@
 import java.util.Set;
 import java.util.HashMap;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.naming.Context;
 import javax.naming.InvalidNameException;
@@ -77,6 +87,7 @@ public class LdapUserGroupBuilder implements UserGroupSource {
 	private static final int PAGE_SIZE = 500;
 	private static final String MEMBER_OF_ATTR = "memberof=";
 	private static final String GROUP_NAME_ATTRIBUTE = "cn=";
+	private static final int FULL_USER_SYNC_FREQUENCY = 10; // with delta sync, users are searched in full after every 10 sync cycles to rebuild syncedUserDNs
 	private static long deltaSyncUserTime = 0; // Used for AD uSNChanged
 	private static long deltaSyncGroupTime = 0; // Used for AD uSNChanged
 	private String deltaSyncUserTimeStamp; // Used for OpenLdap modifyTimestamp
@@ -103,6 +114,7 @@ public class LdapUserGroupBuilder implements UserGroupSource {
 
   private boolean pagedResultsEnabled = true;
   private int pagedResultsSize = PAGE_SIZE;
+  private int searchBaseConcurrency = 1;
 
   private boolean groupSearchFirstEnabled = true;
   private boolean userSearchEnabled = true;
@@ -132,6 +144,9 @@ public class LdapUserGroupBuilder implements UserGroupSource {
 	private Map<String, Map<String, String>> sourceUsers; // key is user DN and value is map of user attributes containing original name, DN, etc...
 	private Map<String, Map<String, String>> sourceGroups; // key is group DN and value is map of group attributes containing original name, DN, etc...
 	private Map<String, Set<String>> sourceGroupUsers; // key is group DN and value is set of user DNs (members)
+	private Map<String, String> syncedUserDNs; // key is lower-cased user DN and value is user DN synced to ranger admin in earlier cycles; used only for delta sync
+	private boolean isFullUserSync;
+	private int deltaUserSyncCycles; // number of delta user syncs since syncedUserDNs was last rebuilt
 
 	public static void main(String[] args) throws Throwable {
 		LdapUserGroupBuilder ugBuilder = new LdapUserGroupBuilder();
@@ -142,6 +157,8 @@ public static void main(String[] args) throws Throwable {
 	public void init() throws Throwable{
 		deltaSyncUserTime = 0;
 		deltaSyncGroupTime = 0;
+		syncedUserDNs = new HashMap<>();
+		deltaUserSyncCycles = 0;
         deleteCycles = 1;
 		DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
 		deltaSyncUserTimeStamp = dateFormat.format(new Date(0));
@@ -160,6 +177,12 @@ public void init() throws Throwable{
 	}
 
 	private void createLdapContext() throws Throwable {
+		LdapConnection connection = openLdapConnection();
+		ldapContext = connection.context;
+		tls = connection.tls;
+	}
+
+	private LdapConnection openLdapConnection() throws NamingException, IOException {
 		Properties env = new Properties();
 		env.put(Context.INITIAL_CONTEXT_FACTORY,
 				"com.sun.jndi.ldap.LdapCtxFactory");
@@ -193,7 +216,8 @@ private void createLdapContext() throws Throwable {
 				env.put("java.naming.ldap.attributes.binary", otherGroupAttribute);
 			}
 		}
-		ldapContext = new InitialLdapContext(env, null);
+		LdapContext ldapContext = new InitialLdapContext(env, null);
+		StartTlsResponse tls = null;
 		if (!ldapUrl.startsWith("ldaps")) {
 			if (config.isStartTlsEnabled()) {
 				tls = (StartTlsResponse) ldapContext.extendedOperation(new StartTlsRequest());
@@ -210,6 +234,8 @@ private void createLdapContext() throws Throwable {
 		ldapContext.addToEnvironment(Context.SECURITY_CREDENTIALS, ldapBindPassword);
 		ldapContext.addToEnvironment(Context.SECURITY_AUTHENTICATION, ldapAuthenticationMechanism);
 		ldapContext.addToEnvironment(Context.REFERRAL, ldapReferral);
+
+		return new LdapConnection(ldapContext, tls);
 	}
 
 	private void setConfig() throws Throwable {
@@ -254,6 +280,7 @@ private void setConfig() throws Throwable {
 
 		pagedResultsEnabled = config.isPagedResultsEnabled();
 		pagedResultsSize = config.getPagedResultsSize();
+		searchBaseConcurrency = config.getSearchBaseConcurrency();
 
 		groupSearchBase = config.getGroupSearchBase().split(";");
 		groupSearchScope = config.getGroupSearchScope();
@@ -324,6 +351,7 @@ private void setConfig() throws Throwable {
 				+ ",  otherUserAttributes: " + otherUserAttributes
 				+ ",  pagedResultsEnabled: " + pagedResultsEnabled
 				+ ",  pagedResultsSize: " + pagedResultsSize
+				+ ",  searchBaseConcurrency: " + searchBaseConcurrency
 				+ ",  groupSearchEnabled: " + groupSearchEnabled
 				+ ",  groupSearchBase: " + Arrays.toString(groupSearchBase)
 				+ ",  groupSearchScope: " + groupSearchScope
@@ -343,9 +371,11 @@ private void setConfig() throws Throwable {
 	private void closeLdapContext() throws Throwable {
 		if (tls != null) {
 			tls.close();
+			tls = null;
 		}
 		if (ldapContext != null) {
 			ldapContext.close();
+			ldapContext = null;
 		}
 	}
 
@@ -402,6 +432,12 @@ public void updateSink(UserGroupSink sink) throws Throwable {
 			for(Map.Entry<String, String> entry : groupUsersMap.entrySet()){
 				if (sourceUsers.containsKey(entry.getValue())) {
 					userSet.add(entry.getValue());
+				} else {
+					// member not changed in this cycle, but synced earlier
+					String syncedUserDN = syncedUserDNs.get(StringUtils.lowerCase(entry.getValue()));
+					if (syncedUserDN != null) {
+						userSet.add(syncedUserDN);
+					}
 				}
 		    }
 			sourceGroupUsers.put(groupName, userSet);
@@ -415,6 +451,17 @@ public void updateSink(UserGroupSink sink) throws Throwable {
 
 		try {
 			sink.addOrUpdateUsersGroups(sourceGroups, sourceUsers, sourceGroupUsers, computeDeletes);
+			if (config.isDeltaSyncEnabled()) {
+				if (isFullUserSync) {
+					syncedUserDNs.clear();
+					deltaUserSyncCycles = 0;
+				} else {
+					deltaUserSyncCycles++;
+				}
+				for (String userDN : sourceUsers.keySet()) {
+					syncedUserDNs.put(StringUtils.lowerCase(userDN), userDN);
+				}
+			}
 			DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
 			LOG.info("deltaSyncUserTime = " + deltaSyncUserTime + " and highestdeltaSyncUserTime = " + highestdeltaSyncUserTime);
 			if (deltaSyncUserTime < highestdeltaSyncUserTime) {
@@ -447,23 +494,18 @@ public void updateSink(UserGroupSink sink) throws Throwable {
 	}
 
 	private long getUsers(boolean computeDeletes) throws Throwable {
-		NamingEnumeration<SearchResult> userSearchResultEnum = null;
-		NamingEnumeration<SearchResult> groupSearchResultEnum = null;
-		long highestdeltaSyncUserTime;
+		final DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+		final AtomicLong highestdeltaSyncUserTime;
 		try {
-			createLdapContext();
-			int total;
-			// Activate paged results
-			if (pagedResultsEnabled)   {
-				ldapContext.setRequestControls(new Control[]{
-						new PagedResultsControl(pagedResultsSize, Control.NONCRITICAL) });
-			}
-			DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
-			if (groupUserTable.rowKeySet().size() != 0 || !config.isDeltaSyncEnabled() || (computeDeletes)) {
-				// Fix RANGER-1957: Perform full sync when there are updates to the groups or when incremental sync is not enabled
+			if ((groupUserTable.rowKeySet().size() != 0 && syncedUserDNs.isEmpty()) || !config.isDeltaSyncEnabled() || (computeDeletes)
+					|| deltaUserSyncCycles >= FULL_USER_SYNC_FREQUENCY) {
+				// Fix RANGER-1957: Perform full sync when there are updates to the groups or when incremental sync is not enabled.
+				// Once users have been synced, members of updated groups are resolved from syncedUserDNs instead of searching all users again.
+				// syncedUserDNs is rebuilt periodically, so that DNs of users removed or renamed in LDAP don't accumulate when deletes are not computed.
 				deltaSyncUserTime = 0;
 				deltaSyncUserTimeStamp = dateFormat.format(new Date(0));
 			}
+			isFullUserSync = deltaSyncUserTime == 0;
 
 			extendedUserSearchFilter = "(objectclass=" + userObjectClass + ")(|(uSNChanged>=" + deltaSyncUserTime + ")(modifyTimestamp>=" + deltaSyncUserTimeStamp + "Z))";
 
@@ -479,219 +521,143 @@ private long getUsers(boolean computeDeletes) throws Throwable {
 			}
 			LOG.info("extendedUserSearchFilter = " + extendedUserSearchFilter);
 
-			highestdeltaSyncUserTime = deltaSyncUserTime;
+			highestdeltaSyncUserTime = new AtomicLong(deltaSyncUserTime);
 
 			// When multiple OUs are configured, go through each OU as the user search base to search for users.
-			for (int ou=0; ou<userSearchBase.length; ou++) {
-				byte[] cookie = null;
-				int counter = 0;
-				try {
-				int paged = 0;
-				do {
-					userSearchResultEnum = ldapContext
-							.search(userSearchBase[ou], extendedUserSearchFilter,
-									userSearchControls);
-
-					while (userSearchResultEnum.hasMore()) {
-						// searchResults contains all the user entries
-						final SearchResult userEntry = userSearchResultEnum.next();
-
-						if (userEntry == null)  {
-							LOG.info("userEntry null, skipping sync for the entry");
-							continue;
-						}
-
-						Attributes attributes =   userEntry.getAttributes();
-						if (attributes == null)  {
-							LOG.info("attributes  missing for entry " + userEntry.getNameInNamespace() +
-									", skipping sync");
-							continue;
-						}
+			searchBases(userSearchBase, extendedUserSearchFilter, userSearchControls, "getUsers", "user", (userEntry, counter) -> {
+				Attributes attributes =   userEntry.getAttributes();
+				if (attributes == null)  {
+					LOG.info("attributes  missing for entry " + userEntry.getNameInNamespace() +
+							", skipping sync");
+					return false;
+				}
 
-						Attribute userNameAttr  = attributes.get(userNameAttribute);
-						if (userNameAttr == null)  {
-							LOG.info(userNameAttribute + " missing for entry " + userEntry.getNameInNamespace() +
-									", skipping sync");
-							continue;
-						}
+				Attribute userNameAttr  = attributes.get(userNameAttribute);
+				if (userNameAttr == null)  {
+					LOG.info(userNameAttribute + " missing for entry " + userEntry.getNameInNamespace() +
+							", skipping sync");
+					return false;
+				}
 
-						String userFullName = (userEntry.getNameInNamespace());
-						String userName = (String) userNameAttr.get();
+				String userFullName = (userEntry.getNameInNamespace());
+				String userName = (String) userNameAttr.get();
 
-						if (userName == null || userName.trim().isEmpty())  {
-							LOG.info(userNameAttribute + " empty for entry " + userEntry.getNameInNamespace() +
-									", skipping sync");
-							continue;
-						}
+				if (userName == null || userName.trim().isEmpty())  {
+					LOG.info(userNameAttribute + " empty for entry " + userEntry.getNameInNamespace() +
+							", skipping sync");
+					return false;
+				}
 
-						Attribute timeStampAttr  = attributes.get("uSNChanged");
-						if (timeStampAttr != null) {
-							String uSNChangedVal = (String) timeStampAttr.get();
-							long currentDeltaSyncTime = Long.parseLong(uSNChangedVal);
-							LOG.info("uSNChangedVal = " + uSNChangedVal + "and currentDeltaSyncTime = " + currentDeltaSyncTime);
-							if (currentDeltaSyncTime > highestdeltaSyncUserTime) {
-								highestdeltaSyncUserTime = currentDeltaSyncTime;
-							}
-						} else {
-							timeStampAttr = attributes.get("modifytimestamp");
-							if (timeStampAttr != null) {
-								String timeStampVal = (String) timeStampAttr.get();
-								Date parseDate = dateFormat.parse(timeStampVal);
-								long currentDeltaSyncTime = parseDate.getTime();
-								LOG.info("timeStampVal = " + timeStampVal + "and currentDeltaSyncTime = " + currentDeltaSyncTime);
-								if (currentDeltaSyncTime > highestdeltaSyncUserTime) {
-									highestdeltaSyncUserTime = currentDeltaSyncTime;
-									deltaSyncUserTimeStamp = timeStampVal;
-								}
-							}
+				Attribute timeStampAttr  = attributes.get("uSNChanged");
+				if (timeStampAttr != null) {
+					String uSNChangedVal = (String) timeStampAttr.get();
+					long currentDeltaSyncTime = Long.parseLong(uSNChangedVal);
+					LOG.info("uSNChangedVal = " + uSNChangedVal + "and currentDeltaSyncTime = " + currentDeltaSyncTime);
+					if (currentDeltaSyncTime > highestdeltaSyncUserTime.get()) {
+						highestdeltaSyncUserTime.set(currentDeltaSyncTime);
+					}
+				} else {
+					timeStampAttr = attributes.get("modifytimestamp");
+					if (timeStampAttr != null) {
+						String timeStampVal = (String) timeStampAttr.get();
+						Date parseDate = dateFormat.parse(timeStampVal);
+						long currentDeltaSyncTime = parseDate.getTime();
+						LOG.info("timeStampVal = " + timeStampVal + "and currentDeltaSyncTime = " + currentDeltaSyncTime);
+						if (currentDeltaSyncTime > highestdeltaSyncUserTime.get()) {
+							highestdeltaSyncUserTime.set(currentDeltaSyncTime);
+							deltaSyncUserTimeStamp = timeStampVal;
 						}
+					}
+				}
 
-						// Get all the groups from the group name attribute of the user only when group search is not enabled.
-						if (!groupSearchEnabled) {
-							for (String useGroupNameAttribute : userGroupNameAttributeSet) {
-								Attribute userGroupfAttribute = userEntry.getAttributes().get(useGroupNameAttribute);
-								if (userGroupfAttribute != null) {
-									NamingEnumeration<?> groupEnum = userGroupfAttribute.getAll();
-									while (groupEnum.hasMore()) {
-										String groupDN = (String) groupEnum.next();
-										if (LOG.isDebugEnabled()) {
-											LOG.debug("Adding " + groupDN + " to " + userName);
-										}
-										Map<String, String> groupAttrMap = new HashMap<>();
-										String groupName = getShortName(groupDN);
-										groupAttrMap.put(UgsyncCommonConstants.ORIGINAL_NAME, groupName);
-										groupAttrMap.put(UgsyncCommonConstants.FULL_NAME, groupDN);
-										groupAttrMap.put(UgsyncCommonConstants.SYNC_SOURCE, currentSyncSource);
-										groupAttrMap.put(UgsyncCommonConstants.LDAP_URL, config.getLdapUrl());
-										sourceGroups.put(groupDN, groupAttrMap);
-										if (LOG.isDebugEnabled()) {
-											LOG.debug("As groupsearch is disabled, adding group " + groupName + " from user memberof attribute for user " + userName);
-										}
-										groupUserTable.put(groupDN, userFullName, userFullName);
-									}
+				// Get all the groups from the group name attribute of the user only when group search is not enabled.
+				if (!groupSearchEnabled) {
+					for (String useGroupNameAttribute : userGroupNameAttributeSet) {
+						Attribute userGroupfAttribute = userEntry.getAttributes().get(useGroupNameAttribute);
+						if (userGroupfAttribute != null) {
+							NamingEnumeration<?> groupEnum = userGroupfAttribute.getAll();
+							while (groupEnum.hasMore()) {
+								String groupDN = (String) groupEnum.next();
+								if (LOG.isDebugEnabled()) {
+									LOG.debug("Adding " + groupDN + " to " + userName);
 								}
-							}
-						}
-
-						Map<String, String> userAttrMap = new HashMap<>();
-						userAttrMap.put(UgsyncCommonConstants.ORIGINAL_NAME, userName);
-						userAttrMap.put(UgsyncCommonConstants.FULL_NAME, userFullName);
-						userAttrMap.put(UgsyncCommonConstants.SYNC_SOURCE, currentSyncSource);
-						userAttrMap.put(UgsyncCommonConstants.LDAP_URL, config.getLdapUrl());
-						Attribute userCloudIdAttr = attributes.get(userCloudIdAttribute);
-						if (userCloudIdAttr != null) {
-							addToAttrMap(userAttrMap, "cloud_id", userCloudIdAttr, config.getUserCloudIdAttributeDataType());
-						}
-						for (String otherUserAttribute : otherUserAttributes) {
-							if (attributes.get(otherUserAttribute) != null) {
-								String attrType = config.getOtherUserAttributeDataType(otherUserAttribute);
-								addToAttrMap(userAttrMap, otherUserAttribute, attributes.get(otherUserAttribute), attrType);
-							}
-						}
-
-						sourceUsers.put(userFullName, userAttrMap);
-						if ((groupUserTable.containsColumn(userFullName) || groupUserTable.containsColumn(userName))) {
-							//Update the username in the groupUserTable with the one from username attribute.
-							Map<String, String> userMap = groupUserTable.column(userFullName);
-							if (MapUtils.isEmpty(userMap)) {
-								userMap = groupUserTable.column(userName);
-							}
-							for (Map.Entry<String, String> entry : userMap.entrySet()) {
+								Map<String, String> groupAttrMap = new HashMap<>();
+								String groupName = getShortName(groupDN);
+								groupAttrMap.put(UgsyncCommonConstants.ORIGINAL_NAME, groupName);
+								groupAttrMap.put(UgsyncCommonConstants.FULL_NAME, groupDN);
+								groupAttrMap.put(UgsyncCommonConstants.SYNC_SOURCE, currentSyncSource);
+								groupAttrMap.put(UgsyncCommonConstants.LDAP_URL, config.getLdapUrl());
+								sourceGroups.put(groupDN, groupAttrMap);
 								if (LOG.isDebugEnabled()) {
-									LOG.debug("Updating groupUserTable " + entry.getValue() + " with: " + userName + " for " + entry.getKey());
+									LOG.debug("As groupsearch is disabled, adding group " + groupName + " from user memberof attribute for user " + userName);
 								}
-								groupUserTable.put(entry.getKey(), userFullName, userFullName);
+								groupUserTable.put(groupDN, userFullName, userFullName);
 							}
 						}
-						counter++;
-
-                        if (counter <= 2000) {
-                            LOG.info("Updating user count: " + counter + ", userName: " + userName);
-                            if ( counter == 2000 ) {
-                                LOG.info("===> 2000 user records have been synchronized so far. From now on, only a summary progress log will be written for every 100 users. To continue to see detailed log for every user, please enable Trace level logging. <===");
-                            }
-                        } else {
-                            if (LOG.isTraceEnabled()) {
-                                LOG.trace("Updating user count: " + counter
-                                        + ", userName: " + userName);
-                            } else  {
-                                if ( counter % 100 == 0) {
-                                    LOG.info("Synced " + counter + " users till now");
-                                }
-                            }
-                        }
+					}
+				}
 
+				Map<String, String> userAttrMap = new HashMap<>();
+				userAttrMap.put(UgsyncCommonConstants.ORIGINAL_NAME, userName);
+				userAttrMap.put(UgsyncCommonConstants.FULL_NAME, userFullName);
+				userAttrMap.put(UgsyncCommonConstants.SYNC_SOURCE, currentSyncSource);
+				userAttrMap.put(UgsyncCommonConstants.LDAP_URL, config.getLdapUrl());
+				Attribute userCloudIdAttr = attributes.get(userCloudIdAttribute);
+				if (userCloudIdAttr != null) {
+					addToAttrMap(userAttrMap, "cloud_id", userCloudIdAttr, config.getUserCloudIdAttributeDataType());
+				}
+				for (String otherUserAttribute : otherUserAttributes) {
+					if (attributes.get(otherUserAttribute) != null) {
+						String attrType = config.getOtherUserAttributeDataType(otherUserAttribute);
+						addToAttrMap(userAttrMap, otherUserAttribute, attributes.get(otherUserAttribute), attrType);
 					}
+				}
 
-					// Examine the paged results control response
-					Control[] controls = ldapContext.getResponseControls();
-					if (controls != null) {
-						for (int i = 0; i < controls.length; i++) {
-							if (controls[i] instanceof PagedResultsResponseControl) {
-								PagedResultsResponseControl prrc =
-										(PagedResultsResponseControl)controls[i];
-								total = prrc.getResultSize();
-								if (total != 0) {
-									if (LOG.isDebugEnabled()) {
-										LOG.debug("END-OF-PAGE total : " + total);
-									}
-								} else {
-									if (LOG.isDebugEnabled()) {
-										LOG.debug("END-OF-PAGE total : unknown");
-									}
-								}
-								cookie = prrc.getCookie();
-							}
-						}
-					} else {
-						if (LOG.isDebugEnabled()) {
-							LOG.debug("No controls were sent from the server");
-						}
+				sourceUsers.put(userFullName, userAttrMap);
+				if ((groupUserTable.containsColumn(userFullName) || groupUserTable.containsColumn(userName))) {
+					//Update the username in the groupUserTable with the one from username attribute.
+					Map<String, String> userMap = groupUserTable.column(userFullName);
+					if (MapUtils.isEmpty(userMap)) {
+						userMap = groupUserTable.column(userName);
 					}
-					// Re-activate paged results
-					if (pagedResultsEnabled)   {
+					for (Map.Entry<String, String> entry : userMap.entrySet()) {
 						if (LOG.isDebugEnabled()) {
-							LOG.debug(String.format("Fetched paged results round: %s", ++paged));
+							LOG.debug("Updating groupUserTable " + entry.getValue() + " with: " + userName + " for " + entry.getKey());
 						}
-						ldapContext.setRequestControls(new Control[]{
-								new PagedResultsControl(pagedResultsSize, cookie, Control.CRITICAL) });
+						groupUserTable.put(entry.getKey(), userFullName, userFullName);
 					}
-				} while (cookie != null);
-				LOG.info("LdapUserGroupBuilder.getUsers() completed with user count: "
-						+ counter);
-				} catch (Exception t) {
-					LOG.error("LdapUserGroupBuilder.getUsers() failed with exception: ", t);
-					LOG.info("LdapUserGroupBuilder.getUsers() user count: "
-							+ counter);
 				}
-			}
+
+                if (counter <= 2000) {
+                    LOG.info("Updating user count: " + counter + ", userName: " + userName);
+                    if ( counter == 2000 ) {
+                        LOG.info("===> 2000 user records have been synchronized so far. From now on, only a summary progress log will be written for every 100 users. To continue to see detailed log for every user, please enable Trace level logging. <===");
+                    }
+                } else {
+                    if (LOG.isTraceEnabled()) {
+                        LOG.trace("Updating user count: " + counter
+                                + ", userName: " + userName);
+                    } else  {
+                        if ( counter % 100 == 0) {
+                            LOG.info("Synced " + counter + " users till now");
+                        }
+                    }
+                }
+				return true;
+			});
 		} finally {
-			if (userSearchResultEnum != null) {
-				userSearchResultEnum.close();
-			}
-			if (groupSearchResultEnum != null) {
-				groupSearchResultEnum.close();
-			}
 			closeLdapContext();
 		}
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("highestdeltaSyncUserTime = " + highestdeltaSyncUserTime);
 		}
-		return highestdeltaSyncUserTime;
+		return highestdeltaSyncUserTime.get();
 	}
 
 	private long getGroups(boolean computeDeletes) throws Throwable {
-		NamingEnumeration<SearchResult> groupSearchResultEnum = null;
-        DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
-        long highestdeltaSyncGroupTime = deltaSyncGroupTime;
+        final DateFormat dateFormat = new SimpleDateFormat(DATE_FORMAT);
+        final AtomicLong highestdeltaSyncGroupTime = new AtomicLong(deltaSyncGroupTime);
 		try {
-			createLdapContext();
-			int total;
-			// Activate paged results
-			if (pagedResultsEnabled)   {
-				ldapContext.setRequestControls(new Control[]{
-						new PagedResultsControl(pagedResultsSize, Control.NONCRITICAL) });
-			}
 			extendedGroupSearchFilter = "(objectclass=" + groupObjectClass + ")";
 			if (groupSearchFilter != null && !groupSearchFilter.trim().isEmpty()) {
 				String customFilter = groupSearchFilter.trim();
@@ -710,150 +676,90 @@ private long getGroups(boolean computeDeletes) throws Throwable {
 			extendedAllGroupsSearchFilter = "(&"  + extendedGroupSearchFilter + "(|(uSNChanged>=" + deltaSyncGroupTime + ")(modifyTimestamp>=" + deltaSyncGroupTimeStamp + "Z)))";
 
 			LOG.info("extendedAllGroupsSearchFilter = " + extendedAllGroupsSearchFilter);
-			for (int ou=0; ou<groupSearchBase.length; ou++) {
-				byte[] cookie = null;
-				int counter = 0;
-				try {
-					int paged = 0;
-					do {
-						groupSearchResultEnum = ldapContext
-								.search(groupSearchBase[ou], extendedAllGroupsSearchFilter,
-										groupSearchControls);
-						while (groupSearchResultEnum.hasMore()) {
-							final SearchResult groupEntry = groupSearchResultEnum.next();
-							if (groupEntry == null) {
-								LOG.info("groupEntry null, skipping sync for the entry");
-								continue;
-							}
-							counter++;
-							Attributes attributes =   groupEntry.getAttributes();
-							Attribute groupNameAttr = attributes.get(groupNameAttribute);
-							if (groupNameAttr == null) {
-								LOG.info(groupNameAttribute + " empty for entry " + groupEntry.getNameInNamespace() +
-										", skipping sync");
-								continue;
-							}
-							String groupFullName = (groupEntry.getNameInNamespace());
-							String gName = (String) groupNameAttr.get();
-							Map<String, String> groupAttrMap = new HashMap<>();
-                            groupAttrMap.put(UgsyncCommonConstants.ORIGINAL_NAME, gName);
-                            groupAttrMap.put(UgsyncCommonConstants.FULL_NAME, groupFullName);
-                            groupAttrMap.put(UgsyncCommonConstants.SYNC_SOURCE, currentSyncSource);
-                            groupAttrMap.put(UgsyncCommonConstants.LDAP_URL, config.getLdapUrl());
-							Attribute groupCloudIdAttr = attributes.get(groupCloudIdAttribute);
-							if (groupCloudIdAttr != null) {
-								addToAttrMap(groupAttrMap, "cloud_id", groupCloudIdAttr, config.getGroupCloudIdAttributeDataType());
-							}
-							for (String otherGroupAttribute : otherGroupAttributes) {
-								if (attributes.get(otherGroupAttribute) != null) {
-									String attrType = config.getOtherGroupAttributeDataType(otherGroupAttribute);
-									addToAttrMap(groupAttrMap, otherGroupAttribute, attributes.get(otherGroupAttribute), attrType);
-								}
-							}
-							sourceGroups.put(groupFullName, groupAttrMap);
-
-							Attribute timeStampAttr  = attributes.get("uSNChanged");
-							if (timeStampAttr != null) {
-								String uSNChangedVal = (String) timeStampAttr.get();
-								long currentDeltaSyncTime = Long.parseLong(uSNChangedVal);
-								if (currentDeltaSyncTime > highestdeltaSyncGroupTime) {
-									highestdeltaSyncGroupTime = currentDeltaSyncTime;
-								}
-							} else {
-								timeStampAttr = attributes.get("modifytimestamp");
-								if (timeStampAttr != null) {
-									String timeStampVal = (String) timeStampAttr.get();
-									Date parseDate = dateFormat.parse(timeStampVal);
-									long currentDeltaSyncTime = parseDate.getTime();
-									LOG.info("timeStampVal = " + timeStampVal + "and currentDeltaSyncTime = " + currentDeltaSyncTime);
-									if (currentDeltaSyncTime > highestdeltaSyncGroupTime) {
-										highestdeltaSyncGroupTime = currentDeltaSyncTime;
-										deltaSyncGroupTimeStamp = timeStampVal;
-									}
-								}
-							}
-							Attribute groupMemberAttr = attributes.get(groupMemberAttributeName);
-							int userCount = 0;
-							if (groupMemberAttr == null || groupMemberAttr.size() <= 0) {
-								LOG.info("No members available for " + gName);
-								sourceGroupUsers.put(groupFullName, new HashSet<>());
-								continue;
-							}
-
-							NamingEnumeration<?> userEnum = groupMemberAttr.getAll();
-							while (userEnum.hasMore()) {
-								String originalUserFullName = (String) userEnum.next();
-								if (originalUserFullName == null || originalUserFullName.trim().isEmpty()) {
-									sourceGroupUsers.put(groupFullName, new HashSet<>());
-									continue;
-								}
-								userCount++;
-
-								if (!userSearchEnabled) {
-									Map<String, String> userAttrMap = new HashMap<>();
-									String userName = getShortName(originalUserFullName);
-                                    userAttrMap.put(UgsyncCommonConstants.ORIGINAL_NAME, userName);
-                                    userAttrMap.put(UgsyncCommonConstants.FULL_NAME, originalUserFullName);
-                                    userAttrMap.put(UgsyncCommonConstants.SYNC_SOURCE, currentSyncSource);
-                                    userAttrMap.put(UgsyncCommonConstants.LDAP_URL, config.getLdapUrl());
-									sourceUsers.put(originalUserFullName, userAttrMap);
-									if (LOG.isDebugEnabled()) {
-										LOG.debug("As usersearch is disabled, adding user " + userName + " from group member attribute for group " + gName);
-									}
-								}
+			searchBases(groupSearchBase, extendedAllGroupsSearchFilter, groupSearchControls, "getGroups", "group", (groupEntry, counter) -> {
+				Attributes attributes =   groupEntry.getAttributes();
+				Attribute groupNameAttr = attributes.get(groupNameAttribute);
+				if (groupNameAttr == null) {
+					LOG.info(groupNameAttribute + " empty for entry " + groupEntry.getNameInNamespace() +
+							", skipping sync");
+					return true;
+				}
+				String groupFullName = (groupEntry.getNameInNamespace());
+				String gName = (String) groupNameAttr.get();
+				Map<String, String> groupAttrMap = new HashMap<>();
+                groupAttrMap.put(UgsyncCommonConstants.ORIGINAL_NAME, gName);
+                groupAttrMap.put(UgsyncCommonConstants.FULL_NAME, groupFullName);
+                groupAttrMap.put(UgsyncCommonConstants.SYNC_SOURCE, currentSyncSource);
+                groupAttrMap.put(UgsyncCommonConstants.LDAP_URL, config.getLdapUrl());
+				Attribute groupCloudIdAttr = attributes.get(groupCloudIdAttribute);
+				if (groupCloudIdAttr != null) {
+					addToAttrMap(groupAttrMap, "cloud_id", groupCloudIdAttr, config.getGroupCloudIdAttributeDataType());
+				}
+				for (String otherGroupAttribute : otherGroupAttributes) {
+					if (attributes.get(otherGroupAttribute) != null) {
+						String attrType = config.getOtherGroupAttributeDataType(otherGroupAttribute);
+						addToAttrMap(groupAttrMap, otherGroupAttribute, attributes.get(otherGroupAttribute), attrType);
+					}
+				}
+				sourceGroups.put(groupFullName, groupAttrMap);
+
+				Attribute timeStampAttr  = attributes.get("uSNChanged");
+				if (timeStampAttr != null) {
+					String uSNChangedVal = (String) timeStampAttr.get();
+					long currentDeltaSyncTime = Long.parseLong(uSNChangedVal);
+					if (currentDeltaSyncTime > highestdeltaSyncGroupTime.get()) {
+						highestdeltaSyncGroupTime.set(currentDeltaSyncTime);
+					}
+				} else {
+					timeStampAttr = attributes.get("modifytimestamp");
+					if (timeStampAttr != null) {
+						String timeStampVal = (String) timeStampAttr.get();
+						Date parseDate = dateFormat.parse(timeStampVal);
+						long currentDeltaSyncTime = parseDate.getTime();
+						LOG.info("timeStampVal = " + timeStampVal + "and currentDeltaSyncTime = " + currentDeltaSyncTime);
+						if (currentDeltaSyncTime > highestdeltaSyncGroupTime.get()) {
+							highestdeltaSyncGroupTime.set(currentDeltaSyncTime);
+							deltaSyncGroupTimeStamp = timeStampVal;
+						}
+					}
+				}
+				Attribute groupMemberAttr = attributes.get(groupMemberAttributeName);
+				int userCount = 0;
+				if (groupMemberAttr == null || groupMemberAttr.size() <= 0) {
+					LOG.info("No members available for " + gName);
+					sourceGroupUsers.put(groupFullName, new HashSet<>());
+					return true;
+				}
 
-								groupUserTable.put(groupFullName, originalUserFullName, originalUserFullName);
-							}
+				NamingEnumeration<?> userEnum = groupMemberAttr.getAll();
+				while (userEnum.hasMore()) {
+					String originalUserFullName = (String) userEnum.next();
+					if (originalUserFullName == null || originalUserFullName.trim().isEmpty()) {
+						sourceGroupUsers.put(groupFullName, new HashSet<>());
+						continue;
+					}
+					userCount++;
 
-							LOG.info("No. of members in the group " + gName + " = " + userCount);
-						}
-						// Examine the paged results control response
-						Control[] controls = ldapContext.getResponseControls();
-						if (controls != null) {
-							for (int i = 0; i < controls.length; i++) {
-								if (controls[i] instanceof PagedResultsResponseControl) {
-									PagedResultsResponseControl prrc =
-											(PagedResultsResponseControl)controls[i];
-									total = prrc.getResultSize();
-									if (total != 0) {
-										if (LOG.isDebugEnabled()) {
-											LOG.debug("END-OF-PAGE total : " + total);
-										}
-									} else {
-										if (LOG.isDebugEnabled()) {
-											LOG.debug("END-OF-PAGE total : unknown");
-										}
-									}
-									cookie = prrc.getCookie();
-								}
-							}
-						} else {
-							if (LOG.isDebugEnabled()) {
-								LOG.debug("No controls were sent from the server");
-							}
-						}
-						// Re-activate paged results
-						if (pagedResultsEnabled)   {
-							if (LOG.isDebugEnabled()) {
-								LOG.debug(String.format("Fetched paged results round: %s", ++paged));
-							}
-							ldapContext.setRequestControls(new Control[]{
-									new PagedResultsControl(pagedResultsSize, cookie, Control.CRITICAL) });
+					if (!userSearchEnabled) {
+						Map<String, String> userAttrMap = new HashMap<>();
+						String userName = getShortName(originalUserFullName);
+                        userAttrMap.put(UgsyncCommonConstants.ORIGINAL_NAME, userName);
+                        userAttrMap.put(UgsyncCommonConstants.FULL_NAME, originalUserFullName);
+                        userAttrMap.put(UgsyncCommonConstants.SYNC_SOURCE, currentSyncSource);
+                        userAttrMap.put(UgsyncCommonConstants.LDAP_URL, config.getLdapUrl());
+						sourceUsers.put(originalUserFullName, userAttrMap);
+						if (LOG.isDebugEnabled()) {
+							LOG.debug("As usersearch is disabled, adding user " + userName + " from group member attribute for group " + gName);
 						}
-					} while (cookie != null);
-					LOG.info("LdapUserGroupBuilder.getGroups() completed with group count: "
-							+ counter);
-				} catch (Exception t) {
-					LOG.error("LdapUserGroupBuilder.getGroups() failed with exception: " + t);
-					LOG.info("LdapUserGroupBuilder.getGroups() group count: "
-							+ counter);
+					}
+
+					groupUserTable.put(groupFullName, originalUserFullName, originalUserFullName);
 				}
-			}
 
+				LOG.info("No. of members in the group " + gName + " = " + userCount);
+				return true;
+			});
 		} finally {
-			if (groupSearchResultEnum != null) {
-				groupSearchResultEnum.close();
-			}
 			closeLdapContext();
 		}
 
@@ -871,7 +777,160 @@ private long getGroups(boolean computeDeletes) throws Throwable {
         	LOG.debug("highestdeltaSyncGroupTime = " + highestdeltaSyncGroupTime);
 		}
 
-        return highestdeltaSyncGroupTime;
+        return highestdeltaSyncGroupTime.get();
+	}
+
+	/*
+	 * Searches each of the given search bases and passes the entries found to the handler. When more than one
+	 * search base is configured and ranger.usersync.ldap.searchbase.concurrency is greater than 1, the search
+	 * bases are searched in parallel, each on a connection taken from a pool of at most that many connections.
+	 * The handler is always called while holding the lock on this builder, so it can update sourceUsers,
+	 * sourceGroups and groupUserTable without further synchronization.
+	 */
+	private void searchBases(String[] searchBases, String searchFilter, SearchControls searchControls, String caller, String entryType, SearchResultHandler handler) throws Throwable {
+		int concurrency = Math.min(searchBaseConcurrency, searchBases.length);
+
+		if (concurrency <= 1) {
+			createLdapContext(); // closed by the caller
+
+			for (String searchBase : searchBases) {
+				searchInBase(ldapContext, searchBase, searchFilter, searchControls, caller, entryType, handler);
+			}
+			return;
+		}
+
+		LOG.info("LdapUserGroupBuilder." + caller + "(): searching " + searchBases.length + " search bases using " + concurrency + " connections");
+
+		ExecutorService                executor        = Executors.newFixedThreadPool(concurrency);
+		BlockingQueue<LdapConnection>  idleConnections = new LinkedBlockingQueue<>();
+		List<LdapConnection>           connections     = Collections.synchronizedList(new ArrayList<>());
+		List<Future<?>>                futures         = new ArrayList<>();
+
+		try {
+			for (String searchBase : searchBases) {
+				futures.add(executor.submit(() -> {
+					LdapConnection connection = idleConnections.poll();
+
+					if (connection == null) {
+						// fails the sync cycle, as would a failure to connect in sequential search: entries under a skipped
+						// search base would otherwise be treated as deleted
+						try {
+							connection = openLdapConnection();
+						} catch (Exception e) {
+							LOG.error("LdapUserGroupBuilder." + caller + "() failed to connect for search base " + searchBase, e);
+							throw e;
+						}
+
+						connections.add(connection);
+					}
+
+					try {
+						searchInBase(connection.context, searchBase, searchFilter, searchControls, caller, entryType, handler);
+					} finally {
+						idleConnections.offer(connection);
+					}
+
+					return null;
+				}));
+			}
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					throw e.getCause();
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+
+			for (LdapConnection connection : connections) {
+				connection.close();
+			}
+		}
+	}
+
+	private void searchInBase(LdapContext ldapContext, String searchBase, String searchFilter, SearchControls searchControls, String caller, String entryType, SearchResultHandler handler) {
+		NamingEnumeration<SearchResult> searchResultEnum = null;
+		byte[] cookie = null;
+		int counter = 0;
+		try {
+			int total;
+			int paged = 0;
+			// Activate paged results
+			if (pagedResultsEnabled)   {
+				ldapContext.setRequestControls(new Control[]{
+						new PagedResultsControl(pagedResultsSize, Control.NONCRITICAL) });
+			}
+			do {
+				searchResultEnum = ldapContext
+						.search(searchBase, searchFilter,
+								searchControls);
+
+				while (searchResultEnum.hasMore()) {
+					final SearchResult entry = searchResultEnum.next();
+
+					if (entry == null)  {
+						LOG.info(entryType + "Entry null, skipping sync for the entry");
+						continue;
+					}
+
+					synchronized (this) {
+						if (handler.handle(entry, counter + 1)) {
+							counter++;
+						}
+					}
+				}
+
+				// Examine the paged results control response
+				Control[] controls = ldapContext.getResponseControls();
+				if (controls != null) {
+					for (int i = 0; i < controls.length; i++) {
+						if (controls[i] instanceof PagedResultsResponseControl) {
+							PagedResultsResponseControl prrc =
+									(PagedResultsResponseControl)controls[i];
+							total = prrc.getResultSize();
+							if (total != 0) {
+								if (LOG.isDebugEnabled()) {
+									LOG.debug("END-OF-PAGE total : " + total);
+								}
+							} else {
+								if (LOG.isDebugEnabled()) {
+									LOG.debug("END-OF-PAGE total : unknown");
+								}
+							}
+							cookie = prrc.getCookie();
+						}
+					}
+				} else {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("No controls were sent from the server");
+					}
+				}
+				// Re-activate paged results
+				if (pagedResultsEnabled)   {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug(String.format("Fetched paged results round: %s", ++paged));
+					}
+					ldapContext.setRequestControls(new Control[]{
+							new PagedResultsControl(pagedResultsSize, cookie, Control.CRITICAL) });
+				}
+			} while (cookie != null);
+			LOG.info("LdapUserGroupBuilder." + caller + "() completed with " + entryType + " count: "
+					+ counter);
+		} catch (Exception t) {
+			LOG.error("LdapUserGroupBuilder." + caller + "() failed with exception: ", t);
+			LOG.info("LdapUserGroupBuilder." + caller + "() " + entryType + " count: "
+					+ counter);
+		} finally {
+			if (searchResultEnum != null) {
+				try {
+					searchResultEnum.close();
+				} catch (NamingException e) {
+					LOG.warn("LdapUserGroupBuilder." + caller + "(): failed to close search results", e);
+				}
+			}
+		}
 	}
 
 	private void goUpGroupHierarchy(Set<String> groups, int groupHierarchyLevels, String groupSName) throws InvalidNameException {
@@ -1056,7 +1115,7 @@ private void goUpGroupHierarchyLdap(Set<String> groupDNs, int groupHierarchyLeve
 		goUpGroupHierarchyLdap(nextLevelGroups, groupHierarchyLevels-1);
 	}
 
-	private void addToAttrMap(Map<String, String> userAttrMap, String attrName, Attribute attr, String attrType) throws Throwable{
+	private void addToAttrMap(Map<String, String> userAttrMap, String attrName, Attribute attr, String attrType) throws NamingException {
 		if (attrType.equals(DATA_TYPE_BYTEARRAY)) {
 			try {
 				byte[] otherUserAttrBytes = (byte[]) attr.get();
@@ -1288,4 +1347,32 @@ private String getDNForMemberOf(String searchFilter) throws Throwable {
 		}
 		return computedSearchFilter;
 	}
+
+	private interface SearchResultHandler {
+		/*
+		 * Returns true when the entry is counted as synced; counter is the count including this entry.
+		 */
+		boolean handle(SearchResult entry, int counter) throws Exception;
+	}
+
+	private static class LdapConnection {
+		final LdapContext      context;
+		final StartTlsResponse tls;
+
+		LdapConnection(LdapContext context, StartTlsResponse tls) {
+			this.context = context;
+			this.tls     = tls;
+		}
+
+		void close() {
+			try {
+				if (tls != null) {
+					tls.close();
+				}
+				context.close();
+			} catch (Exception e) {
+				LOG.warn("Failed to close ldap connection", e);
+			}
+		}
+	}
 }
@@ -293,6 +293,10 @@ public class UserGroupSyncConfig  {
 	public static final String UGSYNC_SERVER_HA_ENABLED_PARAM = "ranger-ugsync.server.ha.enabled";
 	public static final String UGSYNC_SYNC_SOURCE_VALIDATION_ENABLED = "ranger.usersync.syncsource.validation.enabled";
 	private static final boolean DEFAULT_UGSYNC_SYNC_SOURCE_VALIDATION_ENABLED = true;
+	private static final String UGSYNC_GROUPUSERS_SERVER_DIFF_ENABLED = "ranger.usersync.groupusers.server.diff.enabled";
+	private static final boolean DEFAULT_UGSYNC_GROUPUSERS_SERVER_DIFF_ENABLED = false;
+	private static final String LGSYNC_SEARCH_BASE_CONCURRENCY = "ranger.usersync.ldap.searchbase.concurrency";
+	private static final int DEFAULT_LGSYNC_SEARCH_BASE_CONCURRENCY = 1;
 
     private Properties prop = new Properties();
 	private Configuration userGroupConfig = null;
@@ -1405,4 +1409,34 @@ public boolean isSyncSourceValidationEnabled() {
 		}
 		return isSyncSourceValidationEnabled;
 	}
+
+	/*
+	 * When enabled, group memberships are uploaded to ranger admin as snapshots and the difference
+	 * with existing memberships is computed by ranger admin; usersync then doesn't keep a copy of
+	 * all group memberships in memory.
+	 */
+	public boolean isGroupUsersServerDiffEnabled() {
+		boolean isGroupUsersServerDiffEnabled = DEFAULT_UGSYNC_GROUPUSERS_SERVER_DIFF_ENABLED;
+		String val = prop.getProperty(UGSYNC_GROUPUSERS_SERVER_DIFF_ENABLED);
+		if(StringUtils.isNotEmpty(val)) {
+			isGroupUsersServerDiffEnabled = Boolean.parseBoolean(val);
+		}
+		return isGroupUsersServerDiffEnabled;
+	}
+
+	/*
+	 * Number of user/group search bases (OUs) searched in parallel, each on its own ldap connection.
+	 * Default is 1, i.e. search bases are searched one after the other on a single connection.
+	 */
+	public int getSearchBaseConcurrency() {
+		int searchBaseConcurrency = DEFAULT_LGSYNC_SEARCH_BASE_CONCURRENCY;
+		String val = prop.getProperty(LGSYNC_SEARCH_BASE_CONCURRENCY);
+		if(StringUtils.isNotEmpty(val)) {
+			searchBaseConcurrency = Integer.parseInt(val.trim());
+		}
+		if (searchBaseConcurrency < 1) {
+			searchBaseConcurrency = DEFAULT_LGSYNC_SEARCH_BASE_CONCURRENCY;
+		}
+		return searchBaseConcurrency;
+	}
 }
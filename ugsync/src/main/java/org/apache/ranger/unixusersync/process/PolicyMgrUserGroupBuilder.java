@@ -75,6 +75,7 @@ public class PolicyMgrUserGroupBuilder extends AbstractUserGroupSource implement
 	public static final String PM_GROUP_LIST_URI = "/service/xusers/groups/";				// GET
 	private static final String PM_ADD_GROUPS_URI = "/service/xusers/ugsync/groups/";				// POST
 	public static final String PM_GET_ALL_GROUP_USER_MAP_LIST_URI = "/service/xusers/ugsync/groupusers";		// GET
+	private static final String PM_SYNC_GROUP_USERS_SNAPSHOT_URI = "/service/xusers/ugsync/groupusers/snapshot";	// POST
 	private static final String PM_AUDIT_INFO_URI = "/service/xusers/ugsync/auditinfo/";				// POST
 	public static final String PM_UPDATE_USERS_ROLES_URI  = "/service/xusers/users/roleassignments";	// PUT
 	private static final String PM_UPDATE_DELETED_USERS_URI = "/service/xusers/ugsync/users/visibility";	// POST
@@ -127,6 +128,7 @@ public class PolicyMgrUserGroupBuilder extends AbstractUserGroupSource implement
 	private String ldapUrl;
 	private boolean isUserSyncNameValidationEnabled = false;
 	private boolean isSyncSourceValidationEnabled = false;
+	private boolean isGroupUsersServerDiffEnabled = false;
 
 	private String authenticationType = null;
 	String principal;
@@ -182,6 +184,7 @@ public PolicyMgrUserGroupBuilder() {
 	synchronized public void init() throws Throwable {
 		isUserSyncNameValidationEnabled = config.isUserSyncNameValidationEnabled();
 		isSyncSourceValidationEnabled = config.isSyncSourceValidationEnabled();
+		isGroupUsersServerDiffEnabled = config.isGroupUsersServerDiffEnabled();
 		recordsToPullPerCall = config.getMaxRecordsPerAPICall();
 		policyMgrBaseUrl = config.getPolicyManagerBaseURL();
 		isMockRun = config.isMockRunEnabled();
@@ -541,6 +544,15 @@ private void buildGroupUserLinkList() throws Throwable {
 			LOG.debug("==> PolicyMgrUserGroupBuilder.buildGroupUserLinkList()");
 		}
 
+		if (isGroupUsersServerDiffEnabled) {
+			// group memberships are compared with ranger admin's copy on the server; no need to download them
+			LOG.info("PolicyMgrUserGroupBuilder.buildGroupUserLinkList(): group memberships diff is computed by ranger admin, skipping download");
+
+			groupUsersCache = new HashMap<>();
+
+			return;
+		}
+
 		String response = null;
 		ClientResponse clientResp = null;
 
@@ -597,6 +609,11 @@ private void addOrUpdateGroups(Map<String, Map<String, String>> sourceGroups) th
 	}
 
 	private void addOrUpdateGroupUsers(Map<String, Set<String>> sourceGroupUsers) throws Throwable {
+		if (isGroupUsersServerDiffEnabled) {
+			addOrUpdateGroupUsersSnapshot(sourceGroupUsers);
+			return;
+		}
+
 		List<GroupUserInfo> groupUserInfoList = computeGroupUsersDelta(sourceGroupUsers);
 		if (CollectionUtils.isNotEmpty(groupUserInfoList)) {
 			noOfModifiedGroups += groupUserInfoList.size();
@@ -608,6 +625,111 @@ private void addOrUpdateGroupUsers(Map<String, Set<String>> sourceGroupUsers) th
 		}
 	}
 
+	/*
+	 * Uploads memberships of source groups to ranger admin, one page of groups at a time; ranger admin
+	 * computes and applies the difference with its existing memberships and returns the changes.
+	 */
+	private void addOrUpdateGroupUsersSnapshot(Map<String, Set<String>> sourceGroupUsers) throws Throwable {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("==> PolicyMgrUserGroupBuilder.addOrUpdateGroupUsersSnapshot(groupCount=" + sourceGroupUsers.size() + ")");
+		}
+		deltaGroupUsers = new HashMap<>();
+
+		int pageSize = Integer.parseInt(recordsToPullPerCall);
+		int uploadedCount = 0;
+		Map<String, Set<String>> pagedGroupUsers = new HashMap<>();
+
+		for (Map.Entry<String, Set<String>> entry : sourceGroupUsers.entrySet()) {
+			String groupName = groupNameMap.get(entry.getKey());
+			if (StringUtils.isEmpty(groupName)) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Ignoring group membership update for " + entry.getKey());
+				}
+				continue;
+			}
+
+			Set<String> users = new HashSet<>();
+			for (String userDN : entry.getValue()) {
+				String userName = userNameMap.get(userDN);
+				if (!StringUtils.isEmpty(userName)) {
+					users.add(userName);
+				}
+			}
+
+			pagedGroupUsers.put(groupName, users);
+
+			if (groupMap.containsKey(groupName) || whiteListGroupMap.containsKey(groupName)) {
+				// retain memberships only of groups having role assignment rules, for computing roles
+				deltaGroupUsers.put(groupName, users);
+			}
+
+			if (pagedGroupUsers.size() >= pageSize) {
+				uploadedCount += uploadGroupUsersSnapshot(pagedGroupUsers);
+				pagedGroupUsers.clear();
+			}
+		}
+
+		if (!pagedGroupUsers.isEmpty()) {
+			uploadedCount += uploadGroupUsersSnapshot(pagedGroupUsers);
+		}
+
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("<== PolicyMgrUserGroupBuilder.addOrUpdateGroupUsersSnapshot(groupCount=" + sourceGroupUsers.size() + "): uploadedGroups=" + uploadedCount + ", modifiedGroups=" + noOfModifiedGroups);
+		}
+	}
+
+	private int uploadGroupUsersSnapshot(final Map<String, Set<String>> pagedGroupUsers) throws Throwable {
+		checkStatus();
+
+		String response;
+
+		if (authenticationType != null && AUTH_KERBEROS.equalsIgnoreCase(authenticationType) && SecureClientLogin.isKerberosCredentialExists(principal, keytab)) {
+			Subject sub = SecureClientLogin.loginUserFromKeytab(principal, keytab, nameRules);
+			response = Subject.doAs(sub, new PrivilegedAction<String>() {
+				@Override
+				public String run() {
+					try {
+						return getDataFromLdap(PM_SYNC_GROUP_USERS_SNAPSHOT_URI, pagedGroupUsers);
+					} catch (Throwable e) {
+						LOG.error("Failed to upload group memberships snapshot : ", e);
+					}
+					return null;
+				}
+			});
+		} else {
+			response = getDataFromLdap(PM_SYNC_GROUP_USERS_SNAPSHOT_URI, pagedGroupUsers);
+		}
+
+		if (StringUtils.isEmpty(response)) {
+			String msg = "Failed to upload group memberships snapshot to ranger admin";
+			LOG.error(msg);
+			throw new Exception(msg);
+		}
+
+		List<GroupUserInfo> changes = JsonUtils.jsonToObject(response, new TypeReference<List<GroupUserInfo>>() {});
+
+		if (CollectionUtils.isNotEmpty(changes)) {
+			noOfModifiedGroups += changes.size();
+
+			for (GroupUserInfo change : changes) {
+				String groupName = change.getGroupName();
+				if (groupMap.containsKey(groupName) || whiteListGroupMap.containsKey(groupName)) {
+					// Add users to the computeRole list only if there is a rule defined for the group.
+					if (CollectionUtils.isNotEmpty(change.getAddUsers())) {
+						computeRolesForUsers.addAll(change.getAddUsers());
+					}
+					if (CollectionUtils.isNotEmpty(change.getDelUsers())) {
+						computeRolesForUsers.addAll(change.getDelUsers());
+					}
+				}
+			}
+		}
+
+		LOG.info(String.format("No. of groups in memberships snapshot uploaded to ranger admin = %s, No. of groups with changed memberships = %s", pagedGroupUsers.size(), (changes == null ? 0 : changes.size())));
+
+		return pagedGroupUsers.size();
+	}
+
 	private void updateUserRoles() throws Throwable {
 		UsersGroupRoleAssignments ugRoleAssignments = new UsersGroupRoleAssignments();
 		List<String> allUsers = new ArrayList<>(computeRolesForUsers);
@@ -71,6 +71,15 @@ public Set<String> getAllUsers() {
                 return allUsers;
         }
 
+        public Set<String> getGroupUsers(String groupDN) {
+                for (Map.Entry<String, Set<String>> entry : groupUsers.entrySet()) {
+                        if (entry.getKey().equalsIgnoreCase(groupDN)) {
+                                return entry.getValue();
+                        }
+                }
+                return null;
+        }
+
         public int getTotalInvalidGroups() {
                 return invalidGroups.size();
         }
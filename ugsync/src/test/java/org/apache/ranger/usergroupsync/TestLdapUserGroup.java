@@ -22,6 +22,12 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.apache.directory.api.ldap.model.entry.DefaultModification;
+import org.apache.directory.api.ldap.model.entry.ModificationOperation;
+import org.apache.directory.api.ldap.model.name.Dn;
 import org.apache.directory.server.annotations.CreateLdapConnectionPool;
 import org.apache.directory.server.core.annotations.ApplyLdifFiles;
 import org.apache.directory.server.core.annotations.ContextEntry;
@@ -352,6 +358,30 @@ public void testUpdateSinkMultipleOUGroups() throws Throwable {
 		assertEquals(2, sink.getTotalGroups());
 	}
 
+	@Test
+	public void testUpdateSinkMultipleOUGroupsWithSearchBaseConcurrency() throws Throwable {
+		config.setUserNameAttribute("sAMAccountName");
+		config.setUserSearchBase("cn=users,DC=ranger,DC=qe,DC=hortonworks,DC=com;ou=HadoopUsers,DC=ranger,DC=qe,DC=hortonworks,DC=com;ou=BusinessUsers,DC=ranger,DC=qe,DC=hortonworks,DC=com");
+		config.setUserSearchFilter("cn=*");
+		config.setGroupSearchBase("OU=HdpGroups,OU=HadoopUsers,DC=ranger,DC=qe,DC=hortonworks,DC=com;OU=Groups,DC=ranger,DC=qe,DC=hortonworks,DC=com");
+		config.setGroupSearchFilter("cn=*Group10");
+		config.setUserGroupMemberAttributeName("member");
+		config.setUserObjectClass("organizationalPerson");
+		config.setGroupObjectClass("groupOfNames");
+		config.setGroupSearchEnabled(true);
+		config.setGroupSearchFirstEnabled(false);
+		config.setProperty("ranger.usersync.ldap.searchbase.concurrency", "2");
+		try {
+			ldapBuilder.init();
+			sink.init();
+			ldapBuilder.updateSink(sink);
+		} finally {
+			config.setProperty("ranger.usersync.ldap.searchbase.concurrency", "1");
+		}
+		assertEquals(111, sink.getTotalUsers());
+		assertEquals(2, sink.getTotalGroups());
+	}
+
 	@Test
 	public void testUpdateSinkWithEmptyUserSearchBase() throws Throwable {
 		config.setUserNameAttribute("sAMAccountName");
@@ -466,6 +496,43 @@ public void testGroupsWithNoUsers() throws Throwable {
 		assertEquals(2, sink.getGroupsWithNoUsers());
 	}
 
+	@Test
+	public void testDeltaSyncResolvesMembersOfUpdatedGroup() throws Throwable {
+		String group11 = "CN=Group11,OU=Groups,DC=ranger,DC=qe,DC=hortonworks,DC=com";
+		String user1001 = "CN=User1001,CN=Users,DC=ranger,DC=qe,DC=hortonworks,DC=com";
+		String user1002 = "CN=User1002,CN=Users,DC=ranger,DC=qe,DC=hortonworks,DC=com";
+		config.setUserNameAttribute("sAMAccountName");
+		config.setUserSearchBase("cn=users,DC=ranger,DC=qe,DC=hortonworks,DC=com");
+		config.setUserSearchFilter("");
+		config.setGroupSearchBase("OU=Groups,DC=ranger,DC=qe,DC=hortonworks,DC=com");
+		config.setGroupSearchFilter("cn=Group11");
+		config.setUserGroupMemberAttributeName("member");
+		config.setUserObjectClass("organizationalPerson");
+		config.setGroupObjectClass("groupOfNames");
+		config.setGroupSearchEnabled(true);
+		config.setGroupSearchFirstEnabled(false);
+		config.setUserSearchEnabled(true);
+		config.setPagedResultsEnabled(true);
+		config.setGroupnames("");
+		config.setDeltaSync(true);
+		ldapBuilder.init();
+		sink.init();
+		ldapBuilder.updateSink(sink);
+		assertEquals(12, sink.getGroupUsers(group11).size());
+
+		// update members of Group11, with DNs in a different case than the user entries; the user entries themselves don't change
+		getService().getAdminSession().modify(new Dn(group11),
+				new DefaultModification(ModificationOperation.REPLACE_ATTRIBUTE, "member", user1001.toLowerCase(), user1002.toLowerCase()),
+				new DefaultModification(ModificationOperation.REPLACE_ATTRIBUTE, "uSNChanged", "999999"));
+
+		// next delta sync cycle resolves the members from users synced in the earlier cycle
+		sink = new PolicyMgrUserGroupBuilderTest();
+		sink.init();
+		ldapBuilder.updateSink(sink);
+		assertEquals(1, sink.getTotalGroups());
+		assertEquals(new HashSet<>(Arrays.asList(user1001, user1002)), sink.getGroupUsers(group11));
+	}
+
 	@After
 	public void shutdown() throws Exception {
 		if (getService().isStarted()) {